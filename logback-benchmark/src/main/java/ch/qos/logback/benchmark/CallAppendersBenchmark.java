@@ -0,0 +1,81 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+
+/**
+ * Measures the dispatch of an event to the appenders of a logger and its
+ * ancestors, and the cost of an enabled log statement from the call site to
+ * a no-op appender, in normal and garbage-free mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallAppendersBenchmark {
+
+    @Param({ "false", "true" })
+    boolean garbageFree;
+
+    Logger logger;
+    LoggingEvent event;
+    Object arg1 = "GET /orders/42";
+    Object arg2 = Integer.valueOf(17);
+
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = new LoggerContext();
+        loggerContext.setGarbageFree(garbageFree);
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        NOPAppender<ILoggingEvent> nopAppender = new NOPAppender<ILoggingEvent>();
+        nopAppender.setContext(loggerContext);
+        nopAppender.start();
+        root.addAppender(nopAppender);
+        logger = loggerContext.getLogger(Events.LOGGER_NAME);
+        event = Events.typicalEvent(logger);
+    }
+
+    @Benchmark
+    public void callAppenders() {
+        logger.callAppenders(event);
+    }
+
+    @Benchmark
+    public void enabledStatement() {
+        logger.info("Processed request {} in {} ms", arg1, arg2);
+    }
+}
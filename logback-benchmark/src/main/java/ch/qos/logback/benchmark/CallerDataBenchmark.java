@@ -0,0 +1,115 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * Measures the layout of an event with a caller data pattern, the caller data
+ * being extracted from a filled in Throwable as before, or by walking the
+ * stack, below call stacks of various depths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallerDataBenchmark {
+
+    @Param({ "%line", "%method %file:%line", "%caller{3}" })
+    String pattern;
+
+    @Param({ "10", "100" })
+    int stackDepth;
+
+    LoggerContext loggerContext;
+    Logger logger;
+    PatternLayout layout;
+    Boundary boundary;
+
+    @Setup
+    public void setUp() {
+        loggerContext = new LoggerContext();
+        logger = loggerContext.getLogger(Events.LOGGER_NAME);
+        layout = new PatternLayout();
+        layout.setContext(loggerContext);
+        layout.setPattern(pattern);
+        layout.start();
+        boundary = new Boundary(loggerContext, logger, layout);
+    }
+
+    @Benchmark
+    public String throwable() {
+        return descend(stackDepth, true);
+    }
+
+    @Benchmark
+    public String stackWalker() {
+        return descend(stackDepth, false);
+    }
+
+    private String descend(int depth, boolean throwable) {
+        if (depth > 0) {
+            return descend(depth - 1, throwable);
+        }
+        return boundary.log(throwable);
+    }
+
+    /**
+     * The logging boundary, as Logger would be.
+     */
+    static class Boundary {
+
+        static final String FQCN = Boundary.class.getName();
+
+        final LoggerContext loggerContext;
+        final Logger logger;
+        final PatternLayout layout;
+
+        Boundary(LoggerContext loggerContext, Logger logger, PatternLayout layout) {
+            this.loggerContext = loggerContext;
+            this.logger = logger;
+            this.layout = layout;
+        }
+
+        String log(boolean throwable) {
+            LoggingEvent event = new LoggingEvent(FQCN, logger, Level.INFO, "message", null, null);
+            if (throwable) {
+                event.setCallerData(CallerData.extract(new Throwable(), FQCN, loggerContext.getMaxCallerDataDepth(),
+                                loggerContext.getFrameworkPackages()));
+            }
+            return layout.doLayout(event);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * Measures what an asynchronous appender including caller data costs the
+ * logging thread: resolving the caller data right away, or only capturing
+ * the caller location and leaving its resolution to the worker thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallerLocationBenchmark {
+
+    static final String FQCN = Boundary.class.getName();
+
+    @Param({ "10", "100" })
+    int stackDepth;
+
+    Logger logger;
+
+    @Setup
+    public void setUp() {
+        logger = new LoggerContext().getLogger(Events.LOGGER_NAME);
+    }
+
+    @Benchmark
+    public LoggingEvent getCallerData() {
+        return descend(stackDepth, false);
+    }
+
+    @Benchmark
+    public LoggingEvent captureCallerLocation() {
+        return descend(stackDepth, true);
+    }
+
+    @Benchmark
+    public StackTraceElement[] captureThenResolve() {
+        return descend(stackDepth, true).getCallerData();
+    }
+
+    private LoggingEvent descend(int depth, boolean capture) {
+        if (depth > 0) {
+            return descend(depth - 1, capture);
+        }
+        return Boundary.log(logger, capture);
+    }
+
+    /**
+     * The logging boundary, as Logger would be.
+     */
+    static class Boundary {
+        static LoggingEvent log(Logger logger, boolean capture) {
+            LoggingEvent event = new LoggingEvent(FQCN, logger, Level.INFO, "message", null, null);
+            if (capture) {
+                event.captureCallerLocation();
+            } else {
+                event.getCallerData();
+            }
+            return event;
+        }
+    }
+}
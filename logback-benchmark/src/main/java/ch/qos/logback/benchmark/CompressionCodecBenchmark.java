@@ -0,0 +1,143 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.rolling.helper.CompressionCodec;
+import ch.qos.logback.core.rolling.helper.GzipCodec;
+import ch.qos.logback.core.rolling.helper.Lz4FrameCodec;
+
+/**
+ * Measures the CPU time taken to compress a corpus of logs with the archive
+ * compression codecs, gz at deflate levels 1, 6 and 9, and lz4. The corpus is
+ * either the files of <code>logback-test/src/test/input</code>, or log lines
+ * generated by a pattern layout. The compression ratio of each codec is
+ * printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionCodecBenchmark {
+
+    static final int GENERATED_EVENTS = 100000;
+
+    @Param({ "gz-1", "gz-6", "gz-9", "lz4" })
+    String codecName;
+
+    @Param({ "input", "generated" })
+    String corpusName;
+
+    @Param({ "../logback-test/src/test/input" })
+    String inputDirectory;
+
+    CompressionCodec codec;
+    int level;
+    byte[] corpus;
+    ByteArrayOutputStream compressed;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (codecName.startsWith("gz-")) {
+            codec = new GzipCodec();
+            level = Integer.parseInt(codecName.substring(3));
+        } else {
+            codec = new Lz4FrameCodec();
+            level = -1;
+        }
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        if ("input".equals(corpusName)) {
+            readFiles(new File(inputDirectory), content);
+            if (content.size() == 0) {
+                throw new IllegalStateException("No corpus found in [" + inputDirectory + "]");
+            }
+        } else {
+            generateLogs(content);
+        }
+        corpus = content.toByteArray();
+        compressed = new ByteArrayOutputStream(corpus.length);
+
+        long compressedLength = compress();
+        System.out.println(codecName + " compresses the " + corpusName + " corpus from " + corpus.length + " to " + compressedLength + " bytes, ratio "
+                        + String.format("%.2f", (double) corpus.length / compressedLength));
+    }
+
+    private void readFiles(File file, ByteArrayOutputStream content) throws IOException {
+        File[] files = file.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File child : files) {
+            if (child.isDirectory()) {
+                readFiles(child, content);
+            } else {
+                content.write(Files.readAllBytes(child.toPath()));
+            }
+        }
+    }
+
+    private void generateLogs(ByteArrayOutputStream content) throws IOException {
+        LoggerContext loggerContext = new LoggerContext();
+        Logger[] loggers = { loggerContext.getLogger(Events.LOGGER_NAME), loggerContext.getLogger("ch.qos.logback.benchmark.OrderRepository"),
+                loggerContext.getLogger("org.example.http.RequestHandler") };
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(Events.PATTERN);
+        encoder.start();
+        for (int i = 0; i < GENERATED_EVENTS; i++) {
+            Logger logger = loggers[i % loggers.length];
+            Level eventLevel = i % 10 == 0 ? Level.WARN : Level.INFO;
+            LoggingEvent event = new LoggingEvent(Events.FQCN, logger, eventLevel, "Processed request {} for user {} in {} ms", null,
+                            new Object[] { "GET /orders/" + (i * 7919 % 100000), "user" + (i % 250), i * 31 % 500 });
+            event.setThreadName("http-nio-8080-exec-" + (i % 8));
+            event.setTimeStamp(1425290000000L + i * 3L);
+            content.write(encoder.encode(event));
+        }
+    }
+
+    @Benchmark
+    public long compress() throws IOException {
+        compressed.reset();
+        OutputStream out = codec.compress(compressed, level);
+        out.write(corpus);
+        out.close();
+        return compressed.size();
+    }
+}
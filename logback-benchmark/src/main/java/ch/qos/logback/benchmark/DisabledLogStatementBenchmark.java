@@ -0,0 +1,106 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.DynamicThresholdFilter;
+import ch.qos.logback.classic.turbo.MDCFilter;
+import ch.qos.logback.classic.turbo.TurboFilter;
+
+/**
+ * Measures the cost of log statements below the effective level of their
+ * logger, with no turbo filter, an {@link MDCFilter} denying on match or a
+ * {@link DynamicThresholdFilter} installed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisabledLogStatementBenchmark {
+
+    @Param({ "none", "mdc", "dynamicThreshold" })
+    String turboFilter;
+
+    Logger logger;
+    Object arg1 = "GET /orders/42";
+    Object arg2 = Integer.valueOf(17);
+
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = new LoggerContext();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        logger = loggerContext.getLogger(Events.LOGGER_NAME);
+        TurboFilter filter = null;
+        if ("mdc".equals(turboFilter)) {
+            MDCFilter mdcFilter = new MDCFilter();
+            mdcFilter.setMDCKey("user");
+            mdcFilter.setValue("robot");
+            mdcFilter.setOnMatch("DENY");
+            filter = mdcFilter;
+        } else if ("dynamicThreshold".equals(turboFilter)) {
+            DynamicThresholdFilter dynamicThresholdFilter = new DynamicThresholdFilter();
+            dynamicThresholdFilter.setKey("user");
+            dynamicThresholdFilter.setDefaultThreshold(Level.INFO);
+            filter = dynamicThresholdFilter;
+        }
+        if (filter != null) {
+            filter.setContext(loggerContext);
+            filter.start();
+            loggerContext.addTurboFilter(filter);
+        }
+    }
+
+    @Benchmark
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    @Benchmark
+    public void noArgument() {
+        logger.debug("Processed request");
+    }
+
+    @Benchmark
+    public void oneArgument() {
+        logger.debug("Processed request {}", arg1);
+    }
+
+    @Benchmark
+    public void twoArguments() {
+        logger.debug("Processed request {} in {} ms", arg1, arg2);
+    }
+
+    @Benchmark
+    public void varArgs() {
+        logger.debug("Processed request {} in {} ms by {}", arg1, arg2, arg1);
+    }
+}
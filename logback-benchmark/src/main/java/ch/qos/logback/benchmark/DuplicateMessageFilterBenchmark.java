@@ -0,0 +1,100 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.DuplicateMessageFilter;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Measures the throughput of enabled log statements from 8 threads, each
+ * logging its own rotation of 500 messages, through a filter always replying
+ * NEUTRAL and through a
+ * {@link DuplicateMessageFilter}. Comparing both shows how much the filter
+ * costs under contention. The statements go to a logger without appender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class DuplicateMessageFilterBenchmark {
+
+    static final int MESSAGE_COUNT = 500;
+
+    @Param({ "neutral", "duplicateMessage" })
+    String turboFilter;
+
+    Logger logger;
+    String[] messages = new String[MESSAGE_COUNT];
+
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = new LoggerContext();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        logger = loggerContext.getLogger(Events.LOGGER_NAME);
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            messages[i] = "Processed request " + i + " {}";
+        }
+        TurboFilter filter;
+        if ("duplicateMessage".equals(turboFilter)) {
+            DuplicateMessageFilter duplicateMessageFilter = new DuplicateMessageFilter();
+            duplicateMessageFilter.setCacheSize(1000);
+            duplicateMessageFilter.setAllowedRepetitions(Integer.MAX_VALUE);
+            filter = duplicateMessageFilter;
+        } else {
+            // a filter doing nothing, so that both variants consult the chain
+            filter = new TurboFilter() {
+                @Override
+                public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+                    return FilterReply.NEUTRAL;
+                }
+            };
+        }
+        filter.setContext(loggerContext);
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void log(Cursor cursor) {
+        logger.info(messages[cursor.next++ % MESSAGE_COUNT], cursor);
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * Builds the events shared by the benchmarks.
+ */
+class Events {
+
+    static final String FQCN = Events.class.getName();
+    static final String LOGGER_NAME = "ch.qos.logback.benchmark.SomeService";
+    static final String PATTERN = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n";
+
+    /**
+     * A typical event, with a parameterized message, a marker and an MDC
+     * entry, ready for deferred processing.
+     */
+    static LoggingEvent typicalEvent(Logger logger) {
+        LoggingEvent event = new LoggingEvent(FQCN, logger, Level.INFO, "Processed request {} in {} ms", null,
+                        new Object[] { "GET /orders/42", 17 });
+        event.setMarker(MarkerFactory.getMarker("AUDIT"));
+        Map<String, String> mdc = new HashMap<String, String>();
+        mdc.put("user", "alice");
+        event.setMDCPropertyMap(mdc);
+        event.setThreadName("main");
+        event.getFormattedMessage();
+        return event;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.rolling.FixedWindowRollingPolicy;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeBasedTriggeringPolicy;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * Measures the throughput of {@link FileAppender} and
+ * {@link RollingFileAppender} in their different output modes, with and
+ * without immediate flush. The rolling appender rolls over every 64MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileAppenderBenchmark {
+
+    @Param({ "FileAppender", "RollingFileAppender" })
+    String appenderType;
+
+    @Param({ "stream", "nio", "mapped" })
+    String outputMode;
+
+    @Param({ "true", "false" })
+    boolean immediateFlush;
+
+    File directory;
+    FileAppender<ILoggingEvent> appender;
+    LoggingEvent event;
+
+    @Setup
+    public void setUp() throws IOException {
+        LoggerContext loggerContext = new LoggerContext();
+        directory = Files.createTempDirectory("logback-benchmark").toFile();
+        String activeFile = new File(directory, "benchmark.log").getPath();
+
+        if ("RollingFileAppender".equals(appenderType)) {
+            RollingFileAppender<ILoggingEvent> rollingFileAppender = new RollingFileAppender<ILoggingEvent>();
+            rollingFileAppender.setContext(loggerContext);
+            rollingFileAppender.setFile(activeFile);
+            FixedWindowRollingPolicy rollingPolicy = new FixedWindowRollingPolicy();
+            rollingPolicy.setContext(loggerContext);
+            rollingPolicy.setFileNamePattern(new File(directory, "benchmark-%i.log").getPath());
+            rollingPolicy.setParent(rollingFileAppender);
+            rollingPolicy.start();
+            SizeBasedTriggeringPolicy<ILoggingEvent> triggeringPolicy = new SizeBasedTriggeringPolicy<ILoggingEvent>();
+            triggeringPolicy.setContext(loggerContext);
+            triggeringPolicy.setMaxFileSize(new FileSize(64 * FileSize.MB_COEFFICIENT));
+            triggeringPolicy.start();
+            rollingFileAppender.setRollingPolicy(rollingPolicy);
+            rollingFileAppender.setTriggeringPolicy(triggeringPolicy);
+            appender = rollingFileAppender;
+        } else {
+            appender = new FileAppender<ILoggingEvent>();
+            appender.setContext(loggerContext);
+            appender.setFile(activeFile);
+        }
+        appender.setNio("nio".equals(outputMode));
+        appender.setMapped("mapped".equals(outputMode));
+        appender.setImmediateFlush(immediateFlush);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(Events.PATTERN);
+        encoder.start();
+        appender.setEncoder(encoder);
+        appender.start();
+
+        event = Events.typicalEvent(loggerContext.getLogger(Events.LOGGER_NAME));
+    }
+
+    @TearDown
+    public void tearDown() {
+        appender.stop();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void doAppend() {
+        appender.doAppend(event);
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+
+/**
+ * Measures the creation of 100k loggers, spread over 100 tenants and 1000
+ * services, by a varying number of threads into a fresh
+ * {@link LoggerContext}, and the lookup of an existing logger.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class LoggerCreationBenchmark {
+
+    static final int LOGGER_COUNT = 100000;
+
+    @Param({ "1", "4", "16" })
+    int threadCount;
+
+    String[] names;
+    LoggerContext loggerContext;
+
+    @Setup(Level.Trial)
+    public void buildNames() {
+        names = new String[LOGGER_COUNT];
+        for (int i = 0; i < LOGGER_COUNT; i++) {
+            names[i] = "tenant" + (i % 100) + ".service" + (i % 1000) + ".Component" + i;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newContext() {
+        loggerContext = new LoggerContext();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public LoggerContext create100kLoggers() throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    // every thread requests every name, starting at a different place
+                    for (int i = 0; i < LOGGER_COUNT; i++) {
+                        loggerContext.getLogger(names[(i + offset * (LOGGER_COUNT / threadCount)) % LOGGER_COUNT]);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return loggerContext;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Logger getExisting(ExistingLogger state) {
+        return state.loggerContext.getLogger(Events.LOGGER_NAME);
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExistingLogger {
+        LoggerContext loggerContext = new LoggerContext();
+
+        @Setup
+        public void setUp() {
+            loggerContext.getLogger(Events.LOGGER_NAME);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.classic.util.PersistentMDCAdapter;
+
+/**
+ * Measures an MDC <code>put</code> followed by the snapshot a logging event
+ * takes, the pattern of request-scoped code which logs between updates, for
+ * the copy-on-write and the persistent adapter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MDCBenchmark {
+
+    @Param({ "logback", "persistent" })
+    String adapter;
+
+    @Param({ "1", "10", "20" })
+    int keyCount;
+
+    LogbackMDCAdapter logbackMDCAdapter = new LogbackMDCAdapter();
+    PersistentMDCAdapter persistentMDCAdapter = new PersistentMDCAdapter();
+    String[] keys;
+    int next;
+
+    @Setup
+    public void setUp() {
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "key" + i;
+            logbackMDCAdapter.put(keys[i], "value" + i);
+            persistentMDCAdapter.put(keys[i], "value" + i);
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> putThenSnapshot() {
+        String key = keys[next++ % keyCount];
+        if ("persistent".equals(adapter)) {
+            persistentMDCAdapter.put(key, key);
+            return persistentMDCAdapter.getPropertyMap();
+        } else {
+            logbackMDCAdapter.put(key, key);
+            return logbackMDCAdapter.getPropertyMap();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * Measures {@link PatternLayout} conversion, one converter at a time and for
+ * a typical pattern, interpreted and compiled, both into a new string and
+ * into a reused builder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternLayoutBenchmark {
+
+    @Param({ "%d", "%d{HH:mm:ss.SSS}", "%relative", "%level", "%-5level", "%thread", "%logger", "%logger{20}", "%msg", "%X{user}",
+            "%mdc", "%marker", "%caller{1}", "%n", Events.PATTERN })
+    String pattern;
+
+    @Param({ "false", "true" })
+    boolean compiled;
+
+    PatternLayout layout;
+    LoggingEvent event;
+    StringBuilder builder = new StringBuilder(256);
+
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = new LoggerContext();
+        layout = new PatternLayout();
+        layout.setContext(loggerContext);
+        layout.setPattern(pattern);
+        layout.setCompiled(compiled);
+        layout.start();
+        event = Events.typicalEvent(loggerContext.getLogger(Events.LOGGER_NAME));
+    }
+
+    @Benchmark
+    public String doLayout() {
+        return layout.doLayout(event);
+    }
+
+    @Benchmark
+    public int doLayoutIntoBuilder() {
+        builder.setLength(0);
+        layout.doLayout(event, builder);
+        return builder.length();
+    }
+}
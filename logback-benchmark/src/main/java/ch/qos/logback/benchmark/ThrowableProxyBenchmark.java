@@ -0,0 +1,77 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+
+/**
+ * Measures an error storm: the same exception, with a cause, logged over and
+ * over again. The event is created without looking at its throwable, or its
+ * proxy is requested as a converter would, or the proxy is built eagerly as
+ * before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThrowableProxyBenchmark {
+
+    LoggerContext loggerContext;
+    Logger logger;
+    Exception exception;
+
+    @Setup
+    public void setUp() {
+        loggerContext = new LoggerContext();
+        logger = loggerContext.getLogger(Events.LOGGER_NAME);
+        exception = new IllegalStateException("failed", new RuntimeException("cause"));
+    }
+
+    @Benchmark
+    public LoggingEvent unused() {
+        return new LoggingEvent(Events.FQCN, logger, Level.ERROR, "request failed", exception, null);
+    }
+
+    @Benchmark
+    public IThrowableProxy lazy() {
+        return new LoggingEvent(Events.FQCN, logger, Level.ERROR, "request failed", exception, null).getThrowableProxy();
+    }
+
+    @Benchmark
+    public IThrowableProxy eager() {
+        LoggingEvent event = new LoggingEvent(Events.FQCN, logger, Level.ERROR, "request failed", null, null);
+        event.setThrowableProxy(new ThrowableProxy(exception));
+        return event.getThrowableProxy();
+    }
+}
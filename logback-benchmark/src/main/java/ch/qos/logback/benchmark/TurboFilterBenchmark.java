@@ -0,0 +1,92 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.TurboFilterList;
+import ch.qos.logback.classic.turbo.MarkerFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Measures turbo filter chain decisions, directly on a
+ * {@link TurboFilterList} and through a disabled log statement, for a
+ * varying number of installed filters none of which matches, with and
+ * without the filters declaring that they only apply to WARN and ERROR.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurboFilterBenchmark {
+
+    @Param({ "0", "1", "3" })
+    int filterCount;
+
+    @Param({ "false", "true" })
+    boolean levelScoped;
+
+    TurboFilterList turboFilterList = new TurboFilterList();
+    Logger logger;
+    Marker marker = MarkerFactory.getMarker("AUDIT");
+    Object arg = "GET /orders/42";
+
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = new LoggerContext();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        for (int i = 0; i < filterCount; i++) {
+            MarkerFilter markerFilter = new MarkerFilter();
+            markerFilter.setContext(loggerContext);
+            markerFilter.setMarker("MARKER_" + i);
+            markerFilter.setOnMatch("ACCEPT");
+            if (levelScoped) {
+                markerFilter.setLevels("WARN, ERROR");
+            }
+            markerFilter.start();
+            turboFilterList.add(markerFilter);
+            loggerContext.addTurboFilter(markerFilter);
+        }
+        logger = loggerContext.getLogger(Events.LOGGER_NAME);
+    }
+
+    @Benchmark
+    public FilterReply decision() {
+        return turboFilterList.getTurboFilterChainDecision(marker, logger, Level.DEBUG, "Processed request {}", null, null);
+    }
+
+    @Benchmark
+    public void disabledStatement() {
+        logger.debug(marker, "Processed request {}", arg);
+    }
+}
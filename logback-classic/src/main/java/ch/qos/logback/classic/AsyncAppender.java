@@ -14,6 +14,7 @@
 package ch.qos.logback.classic;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.core.AsyncAppenderBase;
 
 /**
@@ -41,8 +42,14 @@ public class AsyncAppender extends AsyncAppenderBase<ILoggingEvent> {
 
     protected void preprocess(ILoggingEvent eventObject) {
         eventObject.prepareForDeferredProcessing();
-        if (includeCallerData)
-            eventObject.getCallerData();
+        if (includeCallerData) {
+            // only the location is captured here, the worker resolves it
+            if (eventObject instanceof LoggingEvent) {
+                ((LoggingEvent) eventObject).captureCallerLocation();
+            } else {
+                eventObject.getCallerData();
+            }
+        }
     }
 
     public boolean isIncludeCallerData() {
@@ -0,0 +1,85 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import java.util.Map;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.FanOutAsyncAppenderBase;
+
+/**
+ * An asynchronous appender dispatching to several attached appenders, each through its own queue and worker
+ * thread. See {@link FanOutAsyncAppenderBase} for details.
+ * <p>
+ * As with {@link AsyncAppender}, events of level TRACE, DEBUG and INFO are deemed discardable. When sharding is
+ * enabled, events are sharded by logger name, or by the value of the MDC key given by the <b>ShardMDCKey</b>
+ * option if set. Events lacking that MDC key are sharded by logger name.
+ *
+ * @since 1.3.7
+ */
+public class FanOutAsyncAppender extends FanOutAsyncAppenderBase<ILoggingEvent> {
+
+    boolean includeCallerData = false;
+    String shardMDCKey;
+
+    /**
+     * Events of level TRACE, DEBUG and INFO are deemed to be discardable.
+     * @param event
+     * @return true if the event is of level TRACE, DEBUG or INFO false otherwise.
+     */
+    protected boolean isDiscardable(ILoggingEvent event) {
+        Level level = event.getLevel();
+        return level.toInt() <= Level.INFO_INT;
+    }
+
+    protected void preprocess(ILoggingEvent eventObject) {
+        eventObject.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            // only the location is captured here, the worker resolves it
+            if (eventObject instanceof LoggingEvent) {
+                ((LoggingEvent) eventObject).captureCallerLocation();
+            } else {
+                eventObject.getCallerData();
+            }
+        }
+    }
+
+    protected Object getShardKey(ILoggingEvent event) {
+        if (shardMDCKey != null) {
+            Map<String, String> mdcPropertyMap = event.getMDCPropertyMap();
+            String value = mdcPropertyMap == null ? null : mdcPropertyMap.get(shardMDCKey);
+            if (value != null) {
+                return value;
+            }
+        }
+        return event.getLoggerName();
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public String getShardMDCKey() {
+        return shardMDCKey;
+    }
+
+    public void setShardMDCKey(String shardMDCKey) {
+        this.shardMDCKey = shardMDCKey;
+    }
+}
@@ -18,7 +18,8 @@ import java.io.Serializable;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
@@ -28,6 +29,8 @@ import org.slf4j.spi.LoggingEventBuilder;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LogbackLoggingEventBuilder;
 import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.ReusableLoggingEvent;
+import ch.qos.logback.classic.spi.TurboFilterChain;
 import ch.qos.logback.classic.util.LoggerNameUtil;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.CoreConstants;
@@ -54,8 +57,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     transient private Level level;
 
     // The effective levelInt is the assigned levelInt and if null, a levelInt is
-    // inherited form a parent.
-    transient private int effectiveLevelInt;
+    // inherited form a parent. Volatile so that a child created without holding
+    // any lock can check that it inherited the latest levelInt of its parent.
+    transient private volatile int effectiveLevelInt;
 
     /**
      * The parent of this category. All categories have at least one ancestor
@@ -64,9 +68,17 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     transient private Logger parent;
 
     /**
-     * The children of this logger. A logger may have zero or more children.
+     * The children of this logger by name. A logger may have zero or more
+     * children. Installed lazily by compare-and-set.
      */
-    transient private List<Logger> childrenList;
+    transient private volatile ConcurrentHashMap<String, Logger> children;
+
+    // the statements this logger rejects without consulting turbo filters
+    transient private Enablement enablement;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Logger, ConcurrentHashMap> CHILDREN_UPDATER = AtomicReferenceFieldUpdater.newUpdater(Logger.class,
+                    ConcurrentHashMap.class, "children");
 
     /**
      * It is assumed that once the 'aai' variable is set to a non-null value, it
@@ -129,21 +141,8 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     }
 
     Logger getChildByName(final String childName) {
-        if (childrenList == null) {
-            return null;
-        } else {
-            int len = this.childrenList.size();
-            for (int i = 0; i < len; i++) {
-                final Logger childLogger_i = (Logger) childrenList.get(i);
-                final String childName_i = childLogger_i.getName();
-
-                if (childName.equals(childName_i)) {
-                    return childLogger_i;
-                }
-            }
-            // no child found
-            return null;
-        }
+        ConcurrentHashMap<String, Logger> children = this.children;
+        return children == null ? null : children.get(childName);
     }
 
     public synchronized void setLevel(Level newLevel) {
@@ -163,14 +162,14 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
             effectiveLevelInt = newLevel.levelInt;
         }
 
-        if (childrenList != null) {
-            int len = childrenList.size();
-            for (int i = 0; i < len; i++) {
-                Logger child = (Logger) childrenList.get(i);
+        ConcurrentHashMap<String, Logger> children = this.children;
+        if (children != null) {
+            for (Logger child : children.values()) {
                 // tell child to handle parent levelInt change
                 child.handleParentLevelChange(effectiveLevelInt);
             }
         }
+        loggerContext.levelsChanged();
         // inform listeners
         loggerContext.fireOnLevelChange(this, newLevel);
     }
@@ -188,10 +187,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
             effectiveLevelInt = newParentLevelInt;
 
             // propagate the parent levelInt change to this logger's children
-            if (childrenList != null) {
-                int len = childrenList.size();
-                for (int i = 0; i < len; i++) {
-                    Logger child = (Logger) childrenList.get(i);
+            ConcurrentHashMap<String, Logger> children = this.children;
+            if (children != null) {
+                for (Logger child : children.values()) {
                     child.handleParentLevelChange(newParentLevelInt);
                 }
             }
@@ -291,8 +289,8 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
      * lastPart is "z", then the created child logger will be named "x.y.z".
      * 
      * <p>
-     * IMPORTANT: Calls to this method must be within a synchronized block on this
-     * logger.
+     * If another thread concurrently creates the same child, the child created
+     * first is returned.
      * 
      * @param lastPart
      *          the suffix (i.e. last part) of the child logger name. This
@@ -306,18 +304,11 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
             throw new IllegalArgumentException("Child name [" + lastPart + " passed as parameter, may not include [" + CoreConstants.DOT + "]");
         }
 
-        if (childrenList == null) {
-            childrenList = new CopyOnWriteArrayList<Logger>();
-        }
-        Logger childLogger;
         if (this.isRootLogger()) {
-            childLogger = new Logger(lastPart, this, this.loggerContext);
+            return addChild(lastPart);
         } else {
-            childLogger = new Logger(name + CoreConstants.DOT + lastPart, this, this.loggerContext);
+            return addChild(name + CoreConstants.DOT + lastPart);
         }
-        childrenList.add(childLogger);
-        childLogger.effectiveLevelInt = this.effectiveLevelInt;
-        return childLogger;
     }
 
     private void localLevelReset() {
@@ -333,34 +324,64 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
         detachAndStopAllAppenders();
         localLevelReset();
         additive = true;
-        if (childrenList == null) {
+        ConcurrentHashMap<String, Logger> children = this.children;
+        if (children == null) {
             return;
         }
-        for (Logger childLogger : childrenList) {
+        for (Logger childLogger : children.values()) {
             childLogger.recursiveReset();
         }
     }
 
     /**
-     * The default size of child list arrays. The JDK 1.5 default is 10. We use a
-     * smaller value to save a little space.
+     * Create a child of this logger by its full name. If another thread
+     * concurrently creates the same child, the child created first is returned.
      */
-
     Logger createChildByName(final String childName) {
         int i_index = LoggerNameUtil.getSeparatorIndexOf(childName, this.name.length() + 1);
         if (i_index != -1) {
             throw new IllegalArgumentException("For logger [" + this.name + "] child name [" + childName
                             + " passed as parameter, may not include '.' after index" + (this.name.length() + 1));
         }
+        return addChild(childName);
+    }
 
-        if (childrenList == null) {
-            childrenList = new CopyOnWriteArrayList<Logger>();
+    /**
+     * Add a child without taking any lock on this logger. The child map decides
+     * which of concurrently created children wins. The winner then re-reads the
+     * effective levelInt of this logger until it is stable: a concurrent
+     * {@link #setLevel(Level)} either sees the new child in the map or has
+     * already published the levelInt the child reads.
+     */
+    private Logger addChild(final String childName) {
+        ConcurrentHashMap<String, Logger> children = this.children;
+        if (children == null) {
+            CHILDREN_UPDATER.compareAndSet(this, null, new ConcurrentHashMap<String, Logger>(4));
+            children = this.children;
+        }
+        Logger childLogger = children.get(childName);
+        if (childLogger != null) {
+            return childLogger;
+        }
+        Logger candidate = new Logger(childName, this, this.loggerContext);
+        candidate.effectiveLevelInt = this.effectiveLevelInt;
+        childLogger = children.putIfAbsent(childName, candidate);
+        if (childLogger != null) {
+            return childLogger;
+        }
+        int levelInt;
+        boolean changed = false;
+        do {
+            levelInt = this.effectiveLevelInt;
+            if (candidate.effectiveLevelInt != levelInt) {
+                candidate.handleParentLevelChange(levelInt);
+                changed = true;
+            }
+        } while (levelInt != this.effectiveLevelInt);
+        if (changed) {
+            loggerContext.levelsChanged();
         }
-        Logger childLogger;
-        childLogger = new Logger(childName, this, this.loggerContext);
-        childrenList.add(childLogger);
-        childLogger.effectiveLevelInt = this.effectiveLevelInt;
-        return childLogger;
+        return candidate;
     }
 
     /**
@@ -372,6 +393,10 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     private void filterAndLog_0_Or3Plus(final String localFQCN, final Marker marker, final Level level, final String msg, final Object[] params,
                     final Throwable t) {
 
+        if (isRejectedWithoutFilters(marker, level)) {
+            return;
+        }
+
         final FilterReply decision = loggerContext.getTurboFilterChainDecision_0_3OrMore(marker, this, level, msg, params, t);
 
         if (decision == FilterReply.NEUTRAL) {
@@ -382,11 +407,20 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
             return;
         }
 
+        ReusableLoggingEvent reusable = loggerContext.acquireReusableEvent();
+        if (reusable != null) {
+            appendReusableEvent(reusable, localFQCN, marker, level, msg, params, t);
+            return;
+        }
         buildLoggingEventAndAppend(localFQCN, marker, level, msg, params, t);
     }
 
     private void filterAndLog_1(final String localFQCN, final Marker marker, final Level level, final String msg, final Object param, final Throwable t) {
 
+        if (isRejectedWithoutFilters(marker, level)) {
+            return;
+        }
+
         final FilterReply decision = loggerContext.getTurboFilterChainDecision_1(marker, this, level, msg, param, t);
 
         if (decision == FilterReply.NEUTRAL) {
@@ -397,12 +431,21 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
             return;
         }
 
+        ReusableLoggingEvent reusable = loggerContext.acquireReusableEvent();
+        if (reusable != null) {
+            appendReusableEvent(reusable, localFQCN, marker, level, msg, reusable.arguments(param), t);
+            return;
+        }
         buildLoggingEventAndAppend(localFQCN, marker, level, msg, new Object[] { param }, t);
     }
 
     private void filterAndLog_2(final String localFQCN, final Marker marker, final Level level, final String msg, final Object param1, final Object param2,
                     final Throwable t) {
 
+        if (isRejectedWithoutFilters(marker, level)) {
+            return;
+        }
+
         final FilterReply decision = loggerContext.getTurboFilterChainDecision_2(marker, this, level, msg, param1, param2, t);
 
         if (decision == FilterReply.NEUTRAL) {
@@ -413,6 +456,11 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
             return;
         }
 
+        ReusableLoggingEvent reusable = loggerContext.acquireReusableEvent();
+        if (reusable != null) {
+            appendReusableEvent(reusable, localFQCN, marker, level, msg, reusable.arguments(param1, param2), t);
+            return;
+        }
         buildLoggingEventAndAppend(localFQCN, marker, level, msg, new Object[] { param1, param2 }, t);
     }
 
@@ -423,6 +471,16 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
         callAppenders(le);
     }
 
+    private void appendReusableEvent(final ReusableLoggingEvent le, final String localFQCN, final Marker marker, final Level level, final String msg,
+                    final Object[] params, final Throwable t) {
+        try {
+            le.reinit(localFQCN, this, level, marker, msg, params, t);
+            callAppenders(le);
+        } finally {
+            le.release();
+        }
+    }
+
     public void trace(String msg) {
         filterAndLog_0_Or3Plus(FQCN, null, Level.TRACE, msg, null, null);
     }
@@ -468,6 +526,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     }
 
     public boolean isDebugEnabled(Marker marker) {
+        if (isRejectedWithoutFilters(marker, Level.DEBUG)) {
+            return false;
+        }
         final FilterReply decision = callTurboFilters(marker, Level.DEBUG);
         if (decision == FilterReply.NEUTRAL) {
             return effectiveLevelInt <= Level.DEBUG_INT;
@@ -565,6 +626,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     }
 
     public boolean isInfoEnabled(Marker marker) {
+        if (isRejectedWithoutFilters(marker, Level.INFO)) {
+            return false;
+        }
         FilterReply decision = callTurboFilters(marker, Level.INFO);
         if (decision == FilterReply.NEUTRAL) {
             return effectiveLevelInt <= Level.INFO_INT;
@@ -622,6 +686,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     }
 
     public boolean isTraceEnabled(Marker marker) {
+        if (isRejectedWithoutFilters(marker, Level.TRACE)) {
+            return false;
+        }
         final FilterReply decision = callTurboFilters(marker, Level.TRACE);
         if (decision == FilterReply.NEUTRAL) {
             return effectiveLevelInt <= Level.TRACE_INT;
@@ -639,6 +706,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     }
 
     public boolean isErrorEnabled(Marker marker) {
+        if (isRejectedWithoutFilters(marker, Level.ERROR)) {
+            return false;
+        }
         FilterReply decision = callTurboFilters(marker, Level.ERROR);
         if (decision == FilterReply.NEUTRAL) {
             return effectiveLevelInt <= Level.ERROR_INT;
@@ -656,6 +726,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     }
 
     public boolean isWarnEnabled(Marker marker) {
+        if (isRejectedWithoutFilters(marker, Level.WARN)) {
+            return false;
+        }
         FilterReply decision = callTurboFilters(marker, Level.WARN);
         if (decision == FilterReply.NEUTRAL) {
             return effectiveLevelInt <= Level.WARN_INT;
@@ -670,6 +743,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
     }
 
     public boolean isEnabledFor(Marker marker, Level level) {
+        if (isRejectedWithoutFilters(marker, level)) {
+            return false;
+        }
         FilterReply decision = callTurboFilters(marker, level);
         if (decision == FilterReply.NEUTRAL) {
             return effectiveLevelInt <= level.levelInt;
@@ -753,6 +829,50 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger, Appe
         return loggerContext.getTurboFilterChainDecision_0_3OrMore(marker, this, level, null, null, null);
     }
 
+    /**
+     * Whether a statement of the given level and marker is below the level of
+     * this logger and no turbo filter applying to it may accept it, in which
+     * case it can be rejected without consulting the turbo filters.
+     * <p>
+     * The answer comes from an {@link Enablement} computed for the current
+     * turbo filter chain and level epoch of the context, and recomputed when
+     * either changes.
+     */
+    private boolean isRejectedWithoutFilters(final Marker marker, final Level level) {
+        final TurboFilterChain chain = loggerContext.getTurboFilterChain();
+        Enablement e = enablement;
+        if (e == null || e.chain != chain || e.levelEpoch != loggerContext.getLevelEpoch()) {
+            e = computeEnablement(chain);
+        }
+        return (e.rejectMask & TurboFilterChain.bit(marker, level)) != 0;
+    }
+
+    private Enablement computeEnablement(final TurboFilterChain chain) {
+        // read the epoch before the level, a level change in between leaves a
+        // stale epoch behind, not a stale level
+        final int levelEpoch = loggerContext.getLevelEpoch();
+        final Enablement e = new Enablement(chain, levelEpoch, chain.rejectMask(effectiveLevelInt, this));
+        enablement = e;
+        return e;
+    }
+
+    /**
+     * The statements a logger rejects without consulting the turbo filters,
+     * for a given turbo filter chain and level epoch. Immutable, so that the
+     * field holding it may be read and written without synchronization.
+     */
+    private static final class Enablement {
+        final TurboFilterChain chain;
+        final int levelEpoch;
+        final int rejectMask;
+
+        Enablement(TurboFilterChain chain, int levelEpoch, int rejectMask) {
+            this.chain = chain;
+            this.levelEpoch = levelEpoch;
+            this.rejectMask = rejectMask;
+        }
+    }
+
     /**
      * Return the context for this logger.
      * 
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Marker;
@@ -30,6 +31,8 @@ import org.slf4j.Marker;
 import ch.qos.logback.classic.spi.LoggerComparator;
 import ch.qos.logback.classic.spi.LoggerContextListener;
 import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.ReusableLoggingEvent;
+import ch.qos.logback.classic.spi.TurboFilterChain;
 import ch.qos.logback.classic.spi.TurboFilterList;
 import ch.qos.logback.classic.turbo.TurboFilter;
 import ch.qos.logback.classic.util.LoggerNameUtil;
@@ -56,8 +59,11 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
     /** Default setting of packaging data in stack traces */
     public static final boolean DEFAULT_PACKAGING_DATA = false;
 
+    /** Default setting of garbage-free mode */
+    public static final boolean DEFAULT_GARBAGE_FREE = false;
+
     final Logger root;
-    private int size;
+    private final AtomicInteger size = new AtomicInteger();
     private int noAppenderWarning = 0;
     final private List<LoggerContextListener> loggerContextListenerList = new ArrayList<LoggerContextListener>();
 
@@ -65,7 +71,13 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
 
     private LoggerContextVO loggerContextRemoteView;
     private final TurboFilterList turboFilterList = new TurboFilterList();
+    // incremented after the effective level of any logger may have changed,
+    // invalidating the enablement cached by loggers
+    private volatile int levelEpoch;
+    private final Object levelEpochLock = new Object();
     private boolean packagingDataEnabled = DEFAULT_PACKAGING_DATA;
+    private volatile boolean garbageFree = DEFAULT_GARBAGE_FREE;
+    private final ThreadLocal<ReusableLoggingEvent> reusableEvent = new ThreadLocal<ReusableLoggingEvent>();
     SequenceNumberGenerator sequenceNumberGenerator = null; // by default there is no SequenceNumberGenerator
     
     private int maxCallerDataDepth = ClassicConstants.DEFAULT_MAX_CALLEDER_DATA_DEPTH;
@@ -82,7 +94,7 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
         this.root.setLevel(Level.DEBUG);
         loggerCache.put(Logger.ROOT_LOGGER_NAME, root);
         initEvaluatorMap();
-        size = 1;
+        size.set(1);
         this.frameworkPackages = new ArrayList<String>();
     }
 
@@ -139,7 +151,9 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
         }
 
         // if the desired logger does not exist, them create all the loggers
-        // in between as well (if they don't already exist)
+        // in between as well (if they don't already exist). No lock is taken:
+        // Logger.createChildByName returns whichever child won a concurrent
+        // creation.
         String childName;
         while (true) {
             int h = LoggerNameUtil.getSeparatorIndexOf(name, i);
@@ -150,11 +164,10 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
             }
             // move i left of the last point
             i = h + 1;
-            synchronized (logger) {
-                childLogger = logger.getChildByName(childName);
-                if (childLogger == null) {
-                    childLogger = logger.createChildByName(childName);
-                    loggerCache.put(childName, childLogger);
+            childLogger = logger.getChildByName(childName);
+            if (childLogger == null) {
+                childLogger = logger.createChildByName(childName);
+                if (loggerCache.putIfAbsent(childName, childLogger) == null) {
                     incSize();
                 }
             }
@@ -166,11 +179,11 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
     }
 
     private void incSize() {
-        size++;
+        size.incrementAndGet();
     }
 
     int size() {
-        return size;
+        return size.get();
     }
 
     /**
@@ -208,6 +221,44 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
         return packagingDataEnabled;
     }
 
+    /**
+     * Enable or disable garbage-free mode. In garbage-free mode, each thread
+     * recycles a single {@link ReusableLoggingEvent} instead of allocating a
+     * new event per logging call, and appenders deriving from
+     * OutputStreamAppender encode it through a per-thread buffer.
+     * <p>
+     * Appenders shipped with logback which retain events, for example
+     * AsyncAppender, retain snapshots instead. Custom appenders which keep
+     * events beyond {@code doAppend} must do the same. As the recycled events
+     * are held in thread-locals, this mode is not recommended in applications
+     * which are redeployed within a long-lived container.
+     *
+     * @since 1.3.7
+     */
+    public void setGarbageFree(boolean garbageFree) {
+        this.garbageFree = garbageFree;
+    }
+
+    public boolean isGarbageFree() {
+        return garbageFree;
+    }
+
+    /**
+     * Returns the calling thread's reusable event marked as in use, or
+     * null if garbage-free mode is off or the event is already in use.
+     */
+    ReusableLoggingEvent acquireReusableEvent() {
+        if (!garbageFree) {
+            return null;
+        }
+        ReusableLoggingEvent event = reusableEvent.get();
+        if (event == null) {
+            event = new ReusableLoggingEvent();
+            reusableEvent.set(event);
+        }
+        return event.acquire() ? event : null;
+    }
+
     /**
      * This method clears all internal properties, except internal status messages,
      * closes all appenders, removes any turboFilters, fires an OnReset event,
@@ -223,6 +274,7 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
         initEvaluatorMap();
         initCollisionMaps();
         root.recursiveReset();
+        levelsChanged();
         resetTurboFilterList();
         cancelScheduledTasks();
         fireOnReset();
@@ -248,6 +300,24 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
         return turboFilterList;
     }
 
+    final TurboFilterChain getTurboFilterChain() {
+        return turboFilterList.getChain();
+    }
+
+    final int getLevelEpoch() {
+        return levelEpoch;
+    }
+
+    /**
+     * Invalidate the enablement cached by loggers. To be called after, not
+     * before, effective levels change.
+     */
+    final void levelsChanged() {
+        synchronized (levelEpochLock) {
+            levelEpoch++;
+        }
+    }
+
     public void addTurboFilter(TurboFilter newFilter) {
         turboFilterList.add(newFilter);
     }
@@ -265,26 +335,29 @@ public class LoggerContext extends ContextBase implements ILoggerFactory, LifeCy
 
     final FilterReply getTurboFilterChainDecision_0_3OrMore(final Marker marker, final Logger logger, final Level level, final String format,
                     final Object[] params, final Throwable t) {
-        if (turboFilterList.size() == 0) {
+        final TurboFilter[] filters = turboFilterList.getChain().select(marker, level);
+        if (filters.length == 0) {
             return FilterReply.NEUTRAL;
         }
-        return turboFilterList.getTurboFilterChainDecision(marker, logger, level, format, params, t);
+        return TurboFilterChain.decide(filters, marker, logger, level, format, params, t);
     }
 
     final FilterReply getTurboFilterChainDecision_1(final Marker marker, final Logger logger, final Level level, final String format, final Object param,
                     final Throwable t) {
-        if (turboFilterList.size() == 0) {
+        final TurboFilter[] filters = turboFilterList.getChain().select(marker, level);
+        if (filters.length == 0) {
             return FilterReply.NEUTRAL;
         }
-        return turboFilterList.getTurboFilterChainDecision(marker, logger, level, format, new Object[] { param }, t);
+        return TurboFilterChain.decide(filters, marker, logger, level, format, new Object[] { param }, t);
     }
 
     final FilterReply getTurboFilterChainDecision_2(final Marker marker, final Logger logger, final Level level, final String format, final Object param1,
                     final Object param2, final Throwable t) {
-        if (turboFilterList.size() == 0) {
+        final TurboFilter[] filters = turboFilterList.getChain().select(marker, level);
+        if (filters.length == 0) {
             return FilterReply.NEUTRAL;
         }
-        return turboFilterList.getTurboFilterChainDecision(marker, logger, level, format, new Object[] { param1, param2 }, t);
+        return TurboFilterChain.decide(filters, marker, logger, level, format, new Object[] { param1, param2 }, t);
     }
 
     // === start listeners ==============================================
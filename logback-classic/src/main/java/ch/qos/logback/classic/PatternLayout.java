@@ -141,6 +141,16 @@ public class PatternLayout extends PatternLayoutBase<ILoggingEvent> {
         return writeLoopOnConverters(event);
     }
 
+    /**
+     * Declared alongside {@link #doLayout(ILoggingEvent)}, so that subclasses
+     * overriding the latter only are not bypassed, see
+     * {@link PatternLayoutBase#doLayout(Object, StringBuilder)}.
+     */
+    @Override
+    public void doLayout(ILoggingEvent event, StringBuilder buf) {
+        super.doLayout(event, buf);
+    }
+
     @Override
     protected String getPresentationHeaderPrefix() {
         return HEADER_PREFIX;
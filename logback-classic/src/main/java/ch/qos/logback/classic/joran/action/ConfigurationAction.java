@@ -25,6 +25,7 @@ public class ConfigurationAction extends BaseModelAction {
 	static final String SCAN_ATTR = "scan";
 	static final String SCAN_PERIOD_ATTR = "scanPeriod";
 	static final String PACKAGING_DATA_ATTR = "packagingData";
+	static final String GARBAGE_FREE_ATTR = "garbageFree";
 
 	@Override
 	protected Model buildCurrentModel(InterpretationContext interpretationContext, String name, Attributes attributes) {
@@ -33,6 +34,7 @@ public class ConfigurationAction extends BaseModelAction {
 		configurationModel.setScanStr(attributes.getValue(SCAN_ATTR));
 		configurationModel.setScanPeriodStr(attributes.getValue(SCAN_PERIOD_ATTR));
 		configurationModel.setPackagingDataStr(attributes.getValue(PACKAGING_DATA_ATTR));
+		configurationModel.setGarbageFreeStr(attributes.getValue(GARBAGE_FREE_ATTR));
 		return configurationModel;
 	}
 
@@ -40,7 +40,7 @@ public class TTLLLayout extends LayoutBase<ILoggingEvent> {
 
         long timestamp = event.getTimeStamp();
 
-        sb.append(cachingDateFormatter.format(timestamp));
+        cachingDateFormatter.format(timestamp, sb);
         sb.append(" [");
         sb.append(event.getThreadName());
         sb.append("] ");
@@ -13,6 +13,7 @@ public class ConfigurationModel extends Model {
     String scanStr;
     String scanPeriodStr;
     String packagingDataStr;
+    String garbageFreeStr;
     
 
     public String getDebugStr() {
@@ -40,4 +41,11 @@ public class ConfigurationModel extends Model {
     public void setPackagingDataStr(String packagingDataStr) {
         this.packagingDataStr = packagingDataStr;
     }
+
+    public String getGarbageFreeStr() {
+        return garbageFreeStr;
+    }
+    public void setGarbageFreeStr(String garbageFreeStr) {
+        this.garbageFreeStr = garbageFreeStr;
+    }
 }
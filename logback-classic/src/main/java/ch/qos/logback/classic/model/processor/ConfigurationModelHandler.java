@@ -60,6 +60,10 @@ public class ConfigurationModelHandler extends ModelHandlerBase {
 				LoggerContext.DEFAULT_PACKAGING_DATA);
 		lc.setPackagingDataEnabled(packagingData);
 
+		boolean garbageFree = OptionHelper.toBoolean(intercon.subst(configurationModel.getGarbageFreeStr()),
+				LoggerContext.DEFAULT_GARBAGE_FREE);
+		lc.setGarbageFree(garbageFree);
+
 		if (EnvUtil.isGroovyAvailable()) {
 			ContextUtil contextUtil = new ContextUtil(context);
 			contextUtil.addGroovyPackages(lc.getFrameworkPackages());
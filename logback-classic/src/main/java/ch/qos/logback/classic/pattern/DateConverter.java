@@ -20,10 +20,12 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.util.CachingDateFormatter;
 
+/**
+ * Formats the event's timestamp with a {@link CachingDateFormatter}, which is
+ * lock-free and writes straight into the output buffer.
+ */
 public class DateConverter extends ClassicConverter {
 
-    long lastTimestamp = -1;
-    String timestampStrCache = null;
     CachingDateFormatter cachingDateFormatter = null;
 
     public void start() {
@@ -42,7 +44,7 @@ public class DateConverter extends ClassicConverter {
             // maximumCacheValidity =
             // CachedDateFormat.getMaximumCacheValidity(pattern);
         } catch (IllegalArgumentException e) {
-            addWarn("Could not instantiate SimpleDateFormat with pattern " + datePattern, e);
+            addWarn("Invalid SimpleDateFormat pattern [" + datePattern + "], defaulting to ISO8601", e);
             // default to the ISO8601 format
             cachingDateFormatter = new CachingDateFormatter(CoreConstants.ISO8601_PATTERN);
         }
@@ -60,4 +62,19 @@ public class DateConverter extends ClassicConverter {
         long timestamp = le.getTimeStamp();
         return cachingDateFormatter.format(timestamp);
     }
+
+    /**
+     * Appends the formatted date without allocating on cache hits. Subclasses
+     * overriding {@link #convert(ILoggingEvent)} alone are formatted through
+     * their convert method instead.
+     */
+    @Override
+    protected void writeUnformatted(StringBuilder buf, ILoggingEvent le) {
+        cachingDateFormatter.format(le.getTimeStamp(), buf);
+    }
+
+    @Override
+    protected boolean canWriteInPlace() {
+        return true;
+    }
 }
@@ -14,6 +14,7 @@
 package ch.qos.logback.classic.pattern;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.ReusableLoggingEvent;
 
 /**
  * Return the event's formatted message.
@@ -26,4 +27,13 @@ public class MessageConverter extends ClassicConverter {
         return event.getFormattedMessage();
     }
 
+    @Override
+    protected void writeUnformatted(StringBuilder buf, ILoggingEvent event) {
+        if (event instanceof ReusableLoggingEvent) {
+            ((ReusableLoggingEvent) event).appendFormattedMessage(buf);
+        } else {
+            buf.append(event.getFormattedMessage());
+        }
+    }
+
 }
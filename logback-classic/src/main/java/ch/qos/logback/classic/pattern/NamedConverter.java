@@ -53,4 +53,27 @@ public abstract class NamedConverter extends ClassicConverter {
             return abbreviator.abbreviate(fqn);
         }
     }
+
+    /**
+     * Appends the abbreviated name without an intermediate String. Subclasses
+     * overriding {@link #convert(ILoggingEvent)} alone are formatted through
+     * their convert method instead.
+     */
+    @Override
+    protected void writeUnformatted(StringBuilder buf, ILoggingEvent event) {
+        String fqn = getFullyQualifiedName(event);
+
+        if (abbreviator == null) {
+            buf.append(fqn);
+        } else if (abbreviator instanceof TargetLengthBasedClassNameAbbreviator) {
+            ((TargetLengthBasedClassNameAbbreviator) abbreviator).abbreviate(fqn, buf);
+        } else {
+            buf.append(abbreviator.abbreviate(fqn));
+        }
+    }
+
+    @Override
+    protected boolean canWriteInPlace() {
+        return true;
+    }
 }
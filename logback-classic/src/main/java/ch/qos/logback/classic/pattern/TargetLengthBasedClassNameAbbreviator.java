@@ -25,102 +25,53 @@ public class TargetLengthBasedClassNameAbbreviator implements Abbreviator {
     }
 
     public String abbreviate(String fqClassName) {
+        if (fqClassName == null) {
+            throw new IllegalArgumentException("Class name may not be null");
+        }
+        if (fqClassName.length() < targetLength) {
+            return fqClassName;
+        }
         StringBuilder buf = new StringBuilder(targetLength);
+        abbreviate(fqClassName, buf);
+        return buf.toString();
+    }
+
+    /**
+     * Appends the abbreviation of the given class name to <code>buf</code>.
+     * Scanning from the left, package names are shortened to their first
+     * character while the result would exceed the target length. At most the
+     * first {@link ClassicConstants#MAX_DOTS} parts are shortened.
+     * 
+     * @since 1.3.7
+     */
+    public void abbreviate(String fqClassName, StringBuilder buf) {
         if (fqClassName == null) {
             throw new IllegalArgumentException("Class name may not be null");
         }
 
         int inLen = fqClassName.length();
         if (inLen < targetLength) {
-            return fqClassName;
+            buf.append(fqClassName);
+            return;
         }
 
-        int[] dotIndexesArray = new int[ClassicConstants.MAX_DOTS];
+        int toTrim = inLen - targetLength;
+        int partStart = 0;
         // a.b.c contains 2 dots but 2+1 parts.
         // see also http://jira.qos.ch/browse/LBCLASSIC-110
-        int[] lengthArray = new int[ClassicConstants.MAX_DOTS + 1];
-
-        int dotCount = computeDotIndexes(fqClassName, dotIndexesArray);
-
-        // System.out.println();
-        // System.out.println("Dot count for [" + className + "] is " + dotCount);
-        // if there are not dots than abbreviation is not possible
-        if (dotCount == 0) {
-            return fqClassName;
-        }
-        // printArray("dotArray: ", dotArray);
-        computeLengthArray(fqClassName, dotIndexesArray, lengthArray, dotCount);
-        // printArray("lengthArray: ", lengthArray);
-        for (int i = 0; i <= dotCount; i++) {
-            if (i == 0) {
-                buf.append(fqClassName.substring(0, lengthArray[i] - 1));
-            } else {
-                buf.append(fqClassName.substring(dotIndexesArray[i - 1], dotIndexesArray[i - 1] + lengthArray[i]));
-            }
-            // System.out.println("i=" + i + ", buf=" + buf);
-        }
-
-        return buf.toString();
-    }
-
-    static int computeDotIndexes(final String className, int[] dotArray) {
-        int dotCount = 0;
-        int k = 0;
-        while (true) {
+        for (int dotCount = 0; dotCount < ClassicConstants.MAX_DOTS; dotCount++) {
             // ignore the $ separator in our computations. This is both convenient
             // and sensible.
-            k = className.indexOf(CoreConstants.DOT, k);
-            if (k != -1 && dotCount < ClassicConstants.MAX_DOTS) {
-                dotArray[dotCount] = k;
-                dotCount++;
-                k++;
-            } else {
+            int dotIndex = fqClassName.indexOf(CoreConstants.DOT, partStart);
+            if (dotIndex == -1) {
                 break;
             }
-        }
-        return dotCount;
-    }
-
-    void computeLengthArray(final String className, int[] dotArray, int[] lengthArray, int dotCount) {
-        int toTrim = className.length() - targetLength;
-        // System.out.println("toTrim=" + toTrim);
-
-        // int toTrimAvarage = 0;
-
-        int len;
-        for (int i = 0; i < dotCount; i++) {
-            int previousDotPosition = -1;
-            if (i > 0) {
-                previousDotPosition = dotArray[i - 1];
-            }
-            int available = dotArray[i] - previousDotPosition - 1;
-            // System.out.println("i=" + i + ", available = " + available);
-
-            len = (available < 1) ? available : 1;
-            // System.out.println("i=" + i + ", toTrim = " + toTrim);
-
-            if (toTrim > 0) {
-                len = (available < 1) ? available : 1;
-            } else {
-                len = available;
-            }
+            int available = dotIndex - partStart;
+            int len = (toTrim > 0 && available > 1) ? 1 : available;
             toTrim -= (available - len);
-            lengthArray[i] = len + 1;
-        }
-
-        int lastDotIndex = dotCount - 1;
-        lengthArray[dotCount] = className.length() - dotArray[lastDotIndex];
-    }
-
-    static void printArray(String msg, int[] ia) {
-        System.out.print(msg);
-        for (int i = 0; i < ia.length; i++) {
-            if (i == 0) {
-                System.out.print(ia[i]);
-            } else {
-                System.out.print(", " + ia[i]);
-            }
+            buf.append(fqClassName, partStart, partStart + len).append(CoreConstants.DOT);
+            partStart = dotIndex + 1;
         }
-        System.out.println();
+        buf.append(fqClassName, partStart, inLen);
     }
-}
\ No newline at end of file
+}
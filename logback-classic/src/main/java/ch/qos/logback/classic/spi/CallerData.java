@@ -48,6 +48,21 @@ public class CallerData {
      */
     public static final StackTraceElement[] EMPTY_CALLER_DATA_ARRAY = new StackTraceElement[0];
 
+    /**
+     * Extract caller data information as an array by walking the stack of the
+     * current thread.
+     * <p>
+     * Unlike {@link #extract(Throwable, String, int, List)}, which needs the
+     * whole stack trace to be filled in, the walk stops at the last frame
+     * returned, and only those frames are turned into StackTraceElement
+     * instances, as described in {@link CallerLocation}.
+     *
+     * @since 1.3.7
+     */
+    public static StackTraceElement[] extract(String fqnOfInvokingClass, int maxDepth, List<String> frameworkPackageList) {
+        return CallerLocation.capture(fqnOfInvokingClass, maxDepth, frameworkPackageList).toCallerData();
+    }
+
     /**
      * Extract caller data information as an array based on a Throwable passed as
      * parameter
@@ -0,0 +1,198 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The stack frames of the caller of a logging statement, captured without
+ * resolving them into {@link StackTraceElement} instances.
+ * <p>
+ * Capturing only walks the stack and keeps references to the frames, which
+ * identify a method and a bytecode index. Line numbers and file names are
+ * resolved later, by {@link #toCallerData()}, typically on the worker thread
+ * of an asynchronous appender. Resolved frames are cached per call site, that
+ * is per method and bytecode index, so that a statement logged repeatedly
+ * reuses the same StackTraceElement instances. The cache is attached to the
+ * declaring classes and does not keep them from being unloaded.
+ *
+ * @since 1.3.7
+ */
+public final class CallerLocation {
+
+    /**
+     * Call sites cached per class. Beyond that, frames are resolved afresh
+     * every time.
+     */
+    static final int MAX_CALL_SITES_PER_CLASS = 1024;
+
+    private static final StackFrame[] NO_FRAMES = new StackFrame[0];
+
+    public static final CallerLocation NA = new CallerLocation(NO_FRAMES);
+
+    private static final boolean CLASS_REFERENCE_RETAINED;
+    private static final StackWalker STACK_WALKER;
+
+    static {
+        StackWalker stackWalker;
+        boolean classReferenceRetained;
+        try {
+            stackWalker = StackWalker.getInstance(EnumSet.of(StackWalker.Option.SHOW_REFLECT_FRAMES, StackWalker.Option.RETAIN_CLASS_REFERENCE));
+            classReferenceRetained = true;
+        } catch (SecurityException e) {
+            // without class references, frames cannot be cached
+            stackWalker = StackWalker.getInstance(StackWalker.Option.SHOW_REFLECT_FRAMES);
+            classReferenceRetained = false;
+        }
+        STACK_WALKER = stackWalker;
+        CLASS_REFERENCE_RETAINED = classReferenceRetained;
+    }
+
+    private static final ClassValue<ConcurrentHashMap<CallSite, StackTraceElement>> CALL_SITES = new ClassValue<ConcurrentHashMap<CallSite, StackTraceElement>>() {
+        @Override
+        protected ConcurrentHashMap<CallSite, StackTraceElement> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<CallSite, StackTraceElement>();
+        }
+    };
+
+    private final StackFrame[] frames;
+
+    private CallerLocation(StackFrame[] frames) {
+        this.frames = frames;
+    }
+
+    /**
+     * Capture the frames of the caller of <code>fqnOfInvokingClass</code>, or
+     * of the classes in <code>frameworkPackageList</code>, on the stack of the
+     * current thread, up to <code>maxDepth</code> frames. Returns {@link #NA}
+     * if the caller cannot be found.
+     */
+    public static CallerLocation capture(final String fqnOfInvokingClass, final int maxDepth, final List<String> frameworkPackageList) {
+        if (maxDepth <= 0) {
+            return NA;
+        }
+        return STACK_WALKER.walk(new Function<Stream<StackFrame>, CallerLocation>() {
+            public CallerLocation apply(Stream<StackFrame> frames) {
+                return capture(frames.iterator(), fqnOfInvokingClass, maxDepth, frameworkPackageList);
+            }
+        });
+    }
+
+    private static CallerLocation capture(Iterator<StackFrame> frames, String fqnOfInvokingClass, int maxDepth,
+                    List<String> frameworkPackageList) {
+        StackFrame caller = null;
+        boolean inFrameworkSpace = false;
+        while (frames.hasNext()) {
+            StackFrame frame = frames.next();
+            if (CallerData.isInFrameworkSpace(frame.getClassName(), fqnOfInvokingClass, frameworkPackageList)) {
+                inFrameworkSpace = true;
+            } else if (inFrameworkSpace) {
+                caller = frame;
+                break;
+            }
+        }
+
+        // we failed to find the caller
+        if (caller == null) {
+            return NA;
+        }
+
+        StackFrame[] callerFrames = new StackFrame[maxDepth];
+        callerFrames[0] = caller;
+        int depth = 1;
+        while (depth < maxDepth && frames.hasNext()) {
+            callerFrames[depth++] = frames.next();
+        }
+        if (depth < maxDepth) {
+            StackFrame[] trimmed = new StackFrame[depth];
+            System.arraycopy(callerFrames, 0, trimmed, 0, depth);
+            callerFrames = trimmed;
+        }
+        return new CallerLocation(callerFrames);
+    }
+
+    /**
+     * Returns the number of frames captured, zero if the caller could not be
+     * found.
+     */
+    public int getDepth() {
+        return frames.length;
+    }
+
+    /**
+     * Resolve the captured frames, as returned by
+     * {@link ILoggingEvent#getCallerData()}.
+     */
+    public StackTraceElement[] toCallerData() {
+        if (frames.length == 0) {
+            return CallerData.EMPTY_CALLER_DATA_ARRAY;
+        }
+        StackTraceElement[] callerDataArray = new StackTraceElement[frames.length];
+        for (int i = 0; i < frames.length; i++) {
+            callerDataArray[i] = toStackTraceElement(frames[i]);
+        }
+        return callerDataArray;
+    }
+
+    private static StackTraceElement toStackTraceElement(StackFrame frame) {
+        if (!CLASS_REFERENCE_RETAINED) {
+            return frame.toStackTraceElement();
+        }
+        ConcurrentHashMap<CallSite, StackTraceElement> callSites = CALL_SITES.get(frame.getDeclaringClass());
+        CallSite callSite = new CallSite(frame.getMethodName(), frame.getDescriptor(), frame.getByteCodeIndex());
+        StackTraceElement ste = callSites.get(callSite);
+        if (ste == null) {
+            ste = frame.toStackTraceElement();
+            if (callSites.size() < MAX_CALL_SITES_PER_CLASS) {
+                callSites.putIfAbsent(callSite, ste);
+            }
+        }
+        return ste;
+    }
+
+    /**
+     * A bytecode index within a method of a class.
+     */
+    private static final class CallSite {
+        final String methodName;
+        final String descriptor;
+        final int byteCodeIndex;
+
+        CallSite(String methodName, String descriptor, int byteCodeIndex) {
+            this.methodName = methodName;
+            this.descriptor = descriptor;
+            this.byteCodeIndex = byteCodeIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return (methodName.hashCode() * 31 + descriptor.hashCode()) * 31 + byteCodeIndex;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CallSite)) {
+                return false;
+            }
+            CallSite other = (CallSite) obj;
+            return byteCodeIndex == other.byteCodeIndex && methodName.equals(other.methodName) && descriptor.equals(other.descriptor);
+        }
+    }
+}
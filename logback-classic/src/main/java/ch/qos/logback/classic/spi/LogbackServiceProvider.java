@@ -9,7 +9,7 @@ import org.slf4j.spi.SLF4JServiceProvider;
 
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.util.ContextInitializer;
-import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.classic.util.PersistentMDCAdapter;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.joran.spi.JoranException;
 import ch.qos.logback.core.status.StatusUtil;
@@ -39,7 +39,7 @@ public class LogbackServiceProvider implements SLF4JServiceProvider {
         defaultLoggerContext.setName(CoreConstants.DEFAULT_CONTEXT_NAME);
         initializeLoggerContext();
         markerFactory = new BasicMarkerFactory();
-        mdcAdapter = new LogbackMDCAdapter();
+        mdcAdapter = new PersistentMDCAdapter();
         //initialized = true;
     }
 
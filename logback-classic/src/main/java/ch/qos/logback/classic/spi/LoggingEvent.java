@@ -26,6 +26,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.classic.util.PersistentMDCAdapter;
 import ch.qos.logback.core.spi.SequenceNumberGenerator;
 
 import org.slf4j.spi.MDCAdapter;
@@ -85,10 +86,15 @@ public class LoggingEvent implements ILoggingEvent {
 
     private transient Object[] argumentArray;
 
-    private ThrowableProxy throwableProxy;
+    // the proxy of the throwable is built lazily, see getThrowableProxy()
+    private transient Throwable throwable;
+
+    private volatile ThrowableProxy throwableProxy;
 
     private StackTraceElement[] callerDataArray;
 
+    private transient CallerLocation callerLocation;
+
     private Marker marker;
 
     private Map<String, String> mdcPropertyMap;
@@ -105,6 +111,34 @@ public class LoggingEvent implements ILoggingEvent {
     }
 
     public LoggingEvent(String fqcn, Logger logger, Level level, String message, Throwable throwable, Object[] argArray) {           
+        populate(fqcn, logger, level, message, throwable, argArray);
+    }
+
+    /**
+     * Copy constructor used to take snapshots of {@link ReusableLoggingEvent}
+     * instances. The argument array is copied, all other fields are shared.
+     */
+    LoggingEvent(LoggingEvent other) {
+        this.fqnOfLoggerClass = other.fqnOfLoggerClass;
+        this.threadName = other.threadName;
+        this.loggerName = other.loggerName;
+        this.loggerContext = other.loggerContext;
+        this.loggerContextVO = other.loggerContextVO;
+        this.level = other.level;
+        this.message = other.message;
+        this.formattedMessage = other.formattedMessage;
+        this.argumentArray = other.argumentArray == null ? null : other.argumentArray.clone();
+        this.throwable = other.throwable;
+        this.throwableProxy = other.throwableProxy;
+        this.callerDataArray = other.callerDataArray;
+        this.callerLocation = other.callerLocation;
+        this.marker = other.marker;
+        this.mdcPropertyMap = other.mdcPropertyMap;
+        this.timeStamp = other.timeStamp;
+        this.sequenceNumber = other.sequenceNumber;
+    }
+
+    final void populate(String fqcn, Logger logger, Level level, String message, Throwable throwable, Object[] argArray) {
         this.fqnOfLoggerClass = fqcn;
         this.loggerName = logger.getName();
         this.loggerContext = logger.getLoggerContext();
@@ -127,15 +161,30 @@ public class LoggingEvent implements ILoggingEvent {
             throwable = extractThrowableAnRearrangeArguments(argArray);
         }
 
-        if (throwable != null) {
-            this.throwableProxy = new ThrowableProxy(throwable);
-           
-            if (loggerContext != null && loggerContext.isPackagingDataEnabled()) {
-                this.throwableProxy.calculatePackagingData();
-            }
-        }
+        this.throwable = throwable;
+    }
 
-        
+    /**
+     * Clear all fields so that this instance can be populated again.
+     */
+    final void clear() {
+        this.fqnOfLoggerClass = null;
+        this.threadName = null;
+        this.loggerName = null;
+        this.loggerContext = null;
+        this.loggerContextVO = null;
+        this.level = null;
+        this.message = null;
+        this.formattedMessage = null;
+        this.argumentArray = null;
+        this.throwable = null;
+        this.throwableProxy = null;
+        this.callerDataArray = null;
+        this.callerLocation = null;
+        this.marker = null;
+        this.mdcPropertyMap = null;
+        this.timeStamp = 0;
+        this.sequenceNumber = 0;
     }
 
     private Throwable extractThrowableAnRearrangeArguments(Object[] argArray) {
@@ -192,6 +241,30 @@ public class LoggingEvent implements ILoggingEvent {
      * <code>null</code> if there is no such information.
      */
     public IThrowableProxy getThrowableProxy() {
+        ThrowableProxy tp = throwableProxy;
+        if (tp == null && throwable != null) {
+            tp = buildThrowableProxy();
+        }
+        return tp;
+    }
+
+    /**
+     * Build the proxy of the throwable the first time it is needed, so that
+     * events whose throwable is never output do not pay for it. Unless
+     * packaging data is enabled, the stack frames of the proxy are shared with
+     * those of earlier, identical stack traces.
+     */
+    private synchronized ThrowableProxy buildThrowableProxy() {
+        if (throwableProxy == null) {
+            ThrowableProxy tp;
+            if (loggerContext != null && loggerContext.isPackagingDataEnabled()) {
+                tp = new ThrowableProxy(throwable);
+                tp.calculatePackagingData();
+            } else {
+                tp = ThrowableProxy.withSharedFrames(throwable);
+            }
+            throwableProxy = tp;
+        }
         return throwableProxy;
     }
 
@@ -199,7 +272,7 @@ public class LoggingEvent implements ILoggingEvent {
      * Set this event's throwable information.
      */
     public void setThrowableProxy(ThrowableProxy tp) {
-        if (throwableProxy != null) {
+        if (throwableProxy != null || throwable != null) {
             throw new IllegalStateException("ThrowableProxy has been already set.");
         } else {
             throwableProxy = tp;
@@ -217,6 +290,8 @@ public class LoggingEvent implements ILoggingEvent {
     public void prepareForDeferredProcessing() {
         this.getFormattedMessage();
         this.getThreadName();
+        // the throwable may still change, e.g. gain suppressed exceptions
+        this.getThrowableProxy();
         // fixes http://jira.qos.ch/browse/LBCLASSIC-104
         this.getMDCPropertyMap();
     }
@@ -273,20 +348,43 @@ public class LoggingEvent implements ILoggingEvent {
      * Note that after serialization it is impossible to correctly extract caller
      * information.
      * </p>
+     * <p>
+     * A location captured by {@link #captureCallerLocation()} is resolved under
+     * the event's lock, so that appenders reading the event on several threads
+     * all obtain the same caller data.
+     * </p>
      */
-    public StackTraceElement[] getCallerData() {
+    public synchronized StackTraceElement[] getCallerData() {
         if (callerDataArray == null) {
-            callerDataArray = CallerData
-                            .extract(new Throwable(), fqnOfLoggerClass, loggerContext.getMaxCallerDataDepth(), loggerContext.getFrameworkPackages());
+            if (callerLocation != null) {
+                callerDataArray = callerLocation.toCallerData();
+                callerLocation = null;
+            } else {
+                callerDataArray = CallerData.extract(fqnOfLoggerClass, loggerContext.getMaxCallerDataDepth(), loggerContext.getFrameworkPackages());
+            }
         }
         return callerDataArray;
     }
 
-    public boolean hasCallerData() {
-        return (callerDataArray != null);
+    /**
+     * Capture the location of the caller on the current thread, leaving the
+     * resolution of the caller data to the first invocation of
+     * {@link #getCallerData()}, possibly on another thread. This is much
+     * cheaper than invoking getCallerData() right away.
+     *
+     * @since 1.3.7
+     */
+    public synchronized void captureCallerLocation() {
+        if (callerDataArray == null && callerLocation == null) {
+            callerLocation = CallerLocation.capture(fqnOfLoggerClass, loggerContext.getMaxCallerDataDepth(), loggerContext.getFrameworkPackages());
+        }
+    }
+
+    public synchronized boolean hasCallerData() {
+        return (callerDataArray != null || callerLocation != null);
     }
 
-    public void setCallerData(StackTraceElement[] callerDataArray) {
+    public synchronized void setCallerData(StackTraceElement[] callerDataArray) {
         this.callerDataArray = callerDataArray;
     }
 
@@ -323,7 +421,9 @@ public class LoggingEvent implements ILoggingEvent {
         // populate mdcPropertyMap if null
         if (mdcPropertyMap == null) {
             MDCAdapter mdc = MDC.getMDCAdapter();
-            if (mdc instanceof LogbackMDCAdapter)
+            if (mdc instanceof PersistentMDCAdapter)
+                mdcPropertyMap = ((PersistentMDCAdapter) mdc).getPropertyMap();
+            else if (mdc instanceof LogbackMDCAdapter)
                 mdcPropertyMap = ((LogbackMDCAdapter) mdc).getPropertyMap();
             else
                 mdcPropertyMap = mdc.getCopyOfContextMap();
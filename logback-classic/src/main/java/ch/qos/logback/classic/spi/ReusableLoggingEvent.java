@@ -0,0 +1,176 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import org.slf4j.Marker;
+import org.slf4j.helpers.Util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.core.spi.ReusableEvent;
+
+/**
+ * A mutable {@link LoggingEvent} which is recycled by its thread from one
+ * logging call to the next when the logger context runs in garbage-free mode.
+ * See {@link ch.qos.logback.classic.LoggerContext#setGarbageFree(boolean)}.
+ * <p>
+ * An instance is only valid while the appenders are being invoked. Appenders
+ * which keep events around must retain its {@link #snapshot() snapshot}.
+ *
+ * @since 1.3.7
+ */
+public class ReusableLoggingEvent extends LoggingEvent implements ReusableEvent<ILoggingEvent> {
+
+    static final String DELIM_STR = "{}";
+    static final char ESCAPE_CHAR = '\\';
+
+    private final Object[] oneArgument = new Object[1];
+    private final Object[] twoArguments = new Object[2];
+
+    private boolean inUse;
+
+    /**
+     * Mark this event as in use. Returns false if it is already in use, which
+     * happens when an appender logs while processing this event.
+     */
+    public boolean acquire() {
+        if (inUse) {
+            return false;
+        }
+        inUse = true;
+        return true;
+    }
+
+    /**
+     * Release this event and drop its references to the logged data.
+     */
+    public void release() {
+        clear();
+        oneArgument[0] = null;
+        twoArguments[0] = null;
+        twoArguments[1] = null;
+        inUse = false;
+    }
+
+    public void reinit(String fqcn, Logger logger, Level level, Marker marker, String message, Object[] argArray, Throwable throwable) {
+        clear();
+        populate(fqcn, logger, level, message, throwable, argArray);
+        setMarker(marker);
+    }
+
+    /**
+     * Returns this event's argument array of length one holding the given
+     * argument.
+     */
+    public Object[] arguments(Object arg) {
+        oneArgument[0] = arg;
+        return oneArgument;
+    }
+
+    /**
+     * Returns this event's argument array of length two holding the given
+     * arguments.
+     */
+    public Object[] arguments(Object arg1, Object arg2) {
+        twoArguments[0] = arg1;
+        twoArguments[1] = arg2;
+        return twoArguments;
+    }
+
+    /**
+     * Only capture the thread name and the MDC. The formatted message is not
+     * computed as a reusable event is never processed after its appenders have
+     * returned.
+     */
+    @Override
+    public void prepareForDeferredProcessing() {
+        getThreadName();
+        getMDCPropertyMap();
+    }
+
+    public ILoggingEvent snapshot() {
+        prepareForDeferredProcessing();
+        return new LoggingEvent(this);
+    }
+
+    /**
+     * Append the formatted message to the given builder. Messages without
+     * escaped placeholders and whose arguments are not arrays are formatted in
+     * place, which yields the same result as {@link #getFormattedMessage()}
+     * without creating intermediate Strings for String, boxed integral,
+     * Boolean and Character arguments.
+     */
+    public void appendFormattedMessage(StringBuilder buf) {
+        if (formattedMessage != null) {
+            buf.append(formattedMessage);
+            return;
+        }
+        String message = getMessage();
+        Object[] argArray = getArgumentArray();
+        if (message == null || argArray == null || argArray.length == 0) {
+            buf.append(message);
+        } else if (isFormattableInPlace(message, argArray)) {
+            formatInPlace(buf, message, argArray);
+        } else {
+            buf.append(getFormattedMessage());
+        }
+    }
+
+    static boolean isFormattableInPlace(String message, Object[] argArray) {
+        if (message.indexOf(ESCAPE_CHAR) != -1) {
+            return false;
+        }
+        for (Object arg : argArray) {
+            if (arg != null && arg.getClass().isArray()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void formatInPlace(StringBuilder buf, String message, Object[] argArray) {
+        int i = 0;
+        for (int l = 0; l < argArray.length; l++) {
+            int j = message.indexOf(DELIM_STR, i);
+            if (j == -1) {
+                break;
+            }
+            buf.append(message, i, j);
+            appendArgument(buf, argArray[l]);
+            i = j + 2;
+        }
+        buf.append(message, i, message.length());
+    }
+
+    static void appendArgument(StringBuilder buf, Object arg) {
+        if (arg == null) {
+            buf.append("null");
+        } else if (arg instanceof String) {
+            buf.append((String) arg);
+        } else if (arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte) {
+            buf.append(((Number) arg).longValue());
+        } else if (arg instanceof Boolean) {
+            buf.append(((Boolean) arg).booleanValue());
+        } else if (arg instanceof Character) {
+            buf.append(((Character) arg).charValue());
+        } else {
+            try {
+                buf.append(arg.toString());
+            } catch (Throwable t) {
+                Util.report("SLF4J: Failed toString() invocation on an object of type [" + arg.getClass().getName() + "]", t);
+                buf.append("[FAILED toString()]");
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the {@link StackTraceElementProxy} arrays of stack traces, so that
+ * an exception logged over and over again, as during an error storm, shares
+ * one array of proxies instead of allocating a new one each time.
+ * <p>
+ * Structurally identical stack traces map to the same {@link Trace}, which
+ * also remembers the number of frames it has in common with the trace of its
+ * enclosing throwable. The cache holds at most {@link #MAX_TRACES} traces and
+ * starts over once full.
+ * <p>
+ * Shared proxies must not receive packaging data, see
+ * {@link ThrowableProxy#calculatePackagingData()}.
+ *
+ * @since 1.3.7
+ */
+final class StackTraceCache {
+
+    static final int MAX_TRACES = 512;
+
+    private static final ConcurrentHashMap<Trace, Trace> TRACES = new ConcurrentHashMap<Trace, Trace>();
+
+    private StackTraceCache() {
+    }
+
+    static Trace intern(StackTraceElement[] steArray) {
+        Trace key = new Trace(steArray);
+        Trace trace = TRACES.get(key);
+        if (trace != null) {
+            return trace;
+        }
+        key.stepArray = ThrowableProxyUtil.steArrayToStepArray(steArray);
+        if (TRACES.size() >= MAX_TRACES) {
+            TRACES.clear();
+        }
+        trace = TRACES.putIfAbsent(key, key);
+        return trace == null ? key : trace;
+    }
+
+    static int size() {
+        return TRACES.size();
+    }
+
+    static void clear() {
+        TRACES.clear();
+    }
+
+    static final class Trace {
+        final StackTraceElement[] steArray;
+        final int hashCode;
+        StackTraceElementProxy[] stepArray;
+        // frames in common with the trace of the last enclosing throwable
+        private volatile CommonFrames commonFrames;
+
+        Trace(StackTraceElement[] steArray) {
+            this.steArray = steArray;
+            this.hashCode = Arrays.hashCode(steArray);
+        }
+
+        int commonFramesWith(Trace enclosing) {
+            CommonFrames known = commonFrames;
+            if (known != null && known.enclosing == enclosing) {
+                return known.count;
+            }
+            int count = ThrowableProxyUtil.findNumberOfCommonFrames(steArray, enclosing.stepArray);
+            commonFrames = new CommonFrames(enclosing, count);
+            return count;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Trace)) {
+                return false;
+            }
+            Trace other = (Trace) obj;
+            return hashCode == other.hashCode && Arrays.equals(steArray, other.steArray);
+        }
+    }
+
+    private static final class CommonFrames {
+        final Trace enclosing;
+        final int count;
+
+        CommonFrames(Trace enclosing, int count) {
+            this.enclosing = enclosing;
+            this.count = count;
+        }
+    }
+}
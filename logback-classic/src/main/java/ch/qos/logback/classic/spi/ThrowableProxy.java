@@ -30,6 +30,9 @@ public class ThrowableProxy implements IThrowableProxy {
     private ThrowableProxy cause;
     private ThrowableProxy[] suppressed = NO_SUPPRESSED;
 
+    // non-null if the stack frames are shared with other proxies
+    private transient StackTraceCache.Trace trace;
+
     private transient PackagingDataCalculator packagingDataCalculator;
     private boolean calculatedPackageData = false;
 
@@ -48,17 +51,33 @@ public class ThrowableProxy implements IThrowableProxy {
     private static final ThrowableProxy[] NO_SUPPRESSED = new ThrowableProxy[0];
 
     public ThrowableProxy(Throwable throwable) {
+        this(throwable, throwable.getStackTrace(), null);
+    }
+
+    /**
+     * Build a proxy whose stack frames are shared with other proxies of
+     * structurally identical stack traces, as interned by
+     * {@link StackTraceCache}.
+     *
+     * @since 1.3.7
+     */
+    static ThrowableProxy withSharedFrames(Throwable throwable) {
+        StackTraceElement[] steArray = throwable.getStackTrace();
+        return new ThrowableProxy(throwable, steArray, StackTraceCache.intern(steArray));
+    }
+
+    private ThrowableProxy(Throwable throwable, StackTraceElement[] steArray, StackTraceCache.Trace trace) {
 
         this.throwable = throwable;
         this.className = throwable.getClass().getName();
         this.message = throwable.getMessage();
-        this.stackTraceElementProxyArray = ThrowableProxyUtil.steArrayToStepArray(throwable.getStackTrace());
+        this.trace = trace;
+        this.stackTraceElementProxyArray = trace == null ? ThrowableProxyUtil.steArrayToStepArray(steArray) : trace.stepArray;
 
         Throwable nested = throwable.getCause();
 
         if (nested != null) {
-            this.cause = new ThrowableProxy(nested);
-            this.cause.commonFrames = ThrowableProxyUtil.findNumberOfCommonFrames(nested.getStackTrace(), stackTraceElementProxyArray);
+            this.cause = enclosed(nested);
         }
         if (GET_SUPPRESSED_METHOD != null) {
             // this will only execute on Java 7
@@ -69,9 +88,7 @@ public class ThrowableProxy implements IThrowableProxy {
                     if (throwableSuppressed.length > 0) {
                         suppressed = new ThrowableProxy[throwableSuppressed.length];
                         for (int i = 0; i < throwableSuppressed.length; i++) {
-                            this.suppressed[i] = new ThrowableProxy(throwableSuppressed[i]);
-                            this.suppressed[i].commonFrames = ThrowableProxyUtil.findNumberOfCommonFrames(throwableSuppressed[i].getStackTrace(),
-                                            stackTraceElementProxyArray);
+                            this.suppressed[i] = enclosed(throwableSuppressed[i]);
                         }
                     }
                 }
@@ -84,6 +101,22 @@ public class ThrowableProxy implements IThrowableProxy {
 
     }
 
+    /**
+     * Build the proxy of a cause or suppressed throwable of this one.
+     */
+    private ThrowableProxy enclosed(Throwable nested) {
+        StackTraceElement[] nestedSTE = nested.getStackTrace();
+        if (trace == null) {
+            ThrowableProxy nestedTP = new ThrowableProxy(nested, nestedSTE, null);
+            nestedTP.commonFrames = ThrowableProxyUtil.findNumberOfCommonFrames(nestedSTE, stackTraceElementProxyArray);
+            return nestedTP;
+        }
+        StackTraceCache.Trace nestedTrace = StackTraceCache.intern(nestedSTE);
+        ThrowableProxy nestedTP = new ThrowableProxy(nested, nestedSTE, nestedTrace);
+        nestedTP.commonFrames = nestedTrace.commonFramesWith(trace);
+        return nestedTP;
+    }
+
     public Throwable getThrowable() {
         return throwable;
     }
@@ -138,11 +171,33 @@ public class ThrowableProxy implements IThrowableProxy {
         }
         PackagingDataCalculator pdc = this.getPackagingDataCalculator();
         if (pdc != null) {
+            unshareFrames();
             calculatedPackageData = true;
             pdc.calculate(this);
         }
     }
 
+    /**
+     * Packaging data is set on the stack frames themselves, which therefore
+     * must not be shared with other proxies.
+     */
+    private void unshareFrames() {
+        if (trace != null) {
+            trace = null;
+            StackTraceElementProxy[] stepArray = new StackTraceElementProxy[stackTraceElementProxyArray.length];
+            for (int i = 0; i < stepArray.length; i++) {
+                stepArray[i] = new StackTraceElementProxy(stackTraceElementProxyArray[i].ste);
+            }
+            stackTraceElementProxyArray = stepArray;
+        }
+        if (cause != null) {
+            cause.unshareFrames();
+        }
+        for (ThrowableProxy current : suppressed) {
+            current.unshareFrames();
+        }
+    }
+
     public void fullDump() {
         StringBuilder builder = new StringBuilder();
         for (StackTraceElementProxy step : stackTraceElementProxyArray) {
@@ -0,0 +1,207 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * An immutable snapshot of a turbo filter chain, pre-screened by level and by
+ * the presence of a marker.
+ * <p>
+ * For each of the five levels a statement can be logged at, and separately for
+ * statements with and without a marker, the chain holds the filters which, by
+ * their own declaration, may reply something other than
+ * {@link FilterReply#NEUTRAL}, in chain order. A statement no filter applies
+ * to thus costs an array lookup and a length check.
+ * 
+ * @see TurboFilter#appliesTo(Level)
+ * @see TurboFilter#appliesToUnmarked()
+ * @since 1.3.7
+ */
+public final class TurboFilterChain {
+
+    private static final Level[] LEVELS = { Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR };
+    // slot for levels other than the above, such as OFF passed to isEnabledFor
+    private static final int OTHER = LEVELS.length;
+
+    public static final TurboFilterChain EMPTY = compile(new TurboFilter[0]);
+
+    private final TurboFilter[] filters;
+    private final TurboFilter[][] markedByLevel;
+    private final TurboFilter[][] unmarkedByLevel;
+
+    private TurboFilterChain(TurboFilter[] filters, TurboFilter[][] markedByLevel, TurboFilter[][] unmarkedByLevel) {
+        this.filters = filters;
+        this.markedByLevel = markedByLevel;
+        this.unmarkedByLevel = unmarkedByLevel;
+    }
+
+    /**
+     * Compile the given filters, queried for their declarations once.
+     */
+    public static TurboFilterChain compile(TurboFilter[] filters) {
+        TurboFilter[][] markedByLevel = new TurboFilter[OTHER + 1][];
+        TurboFilter[][] unmarkedByLevel = new TurboFilter[OTHER + 1][];
+        List<TurboFilter> marked = new ArrayList<TurboFilter>();
+        List<TurboFilter> unmarked = new ArrayList<TurboFilter>();
+        boolean[] appliesToAnyLevel = new boolean[filters.length];
+        for (int slot = 0; slot < OTHER; slot++) {
+            marked.clear();
+            unmarked.clear();
+            for (int i = 0; i < filters.length; i++) {
+                TurboFilter tf = filters[i];
+                if (tf.appliesTo(LEVELS[slot])) {
+                    appliesToAnyLevel[i] = true;
+                    marked.add(tf);
+                    if (tf.appliesToUnmarked()) {
+                        unmarked.add(tf);
+                    }
+                }
+            }
+            markedByLevel[slot] = marked.toArray(new TurboFilter[0]);
+            unmarkedByLevel[slot] = unmarked.toArray(new TurboFilter[0]);
+        }
+        marked.clear();
+        unmarked.clear();
+        for (int i = 0; i < filters.length; i++) {
+            if (appliesToAnyLevel[i]) {
+                marked.add(filters[i]);
+                if (filters[i].appliesToUnmarked()) {
+                    unmarked.add(filters[i]);
+                }
+            }
+        }
+        markedByLevel[OTHER] = marked.toArray(new TurboFilter[0]);
+        unmarkedByLevel[OTHER] = unmarked.toArray(new TurboFilter[0]);
+        return new TurboFilterChain(filters.clone(), markedByLevel, unmarkedByLevel);
+    }
+
+    /**
+     * Returns all filters of this chain, whether they apply to anything or not.
+     */
+    public TurboFilter[] getFilters() {
+        return filters.clone();
+    }
+
+    public boolean isEmpty() {
+        return filters.length == 0;
+    }
+
+    /**
+     * Returns the filters which may apply to a statement of the given level and
+     * marker, in chain order. The returned array must not be modified.
+     */
+    public TurboFilter[] select(final Marker marker, final Level level) {
+        return (marker == null ? unmarkedByLevel : markedByLevel)[slot(level.levelInt)];
+    }
+
+    /**
+     * Returns the bit standing for statements of the given level and marker in
+     * the masks computed by {@link #rejectMask(int, Logger)}, 0 for levels
+     * other than TRACE to ERROR.
+     */
+    public static int bit(final Marker marker, final Level level) {
+        final int slot = slot(level.levelInt);
+        if (slot == OTHER) {
+            return 0;
+        }
+        return 1 << (2 * slot + (marker == null ? 0 : 1));
+    }
+
+    /**
+     * Compute the statements a logger of the given effective level can reject
+     * without consulting this chain: those below its level which no filter
+     * applying to the logger may accept. Returns a mask of the bits given by
+     * {@link #bit(Marker, Level)}.
+     */
+    public int rejectMask(final int effectiveLevelInt, final Logger logger) {
+        int mask = 0;
+        for (int slot = 0; slot < OTHER; slot++) {
+            Level level = LEVELS[slot];
+            if (effectiveLevelInt <= level.levelInt) {
+                continue;
+            }
+            if (!mayAccept(unmarkedByLevel[slot], level, logger)) {
+                mask |= 1 << (2 * slot);
+            }
+            if (!mayAccept(markedByLevel[slot], level, logger)) {
+                mask |= 1 << (2 * slot + 1);
+            }
+        }
+        return mask;
+    }
+
+    private static boolean mayAccept(TurboFilter[] selected, Level level, Logger logger) {
+        for (TurboFilter tf : selected) {
+            if (tf.appliesToLogger(logger) && tf.mayAccept(level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int slot(final int levelInt) {
+        switch (levelInt) {
+        case Level.TRACE_INT:
+            return 0;
+        case Level.DEBUG_INT:
+            return 1;
+        case Level.INFO_INT:
+            return 2;
+        case Level.WARN_INT:
+            return 3;
+        case Level.ERROR_INT:
+            return 4;
+        default:
+            return OTHER;
+        }
+    }
+
+    /**
+     * Loop through the filters applying to the statement. As soon as a filter
+     * decides on ACCEPT or DENY, then that value is returned. If all of the
+     * filters return NEUTRAL, then NEUTRAL is returned.
+     */
+    public FilterReply decide(final Marker marker, final Logger logger, final Level level, final String format, final Object[] params, final Throwable t) {
+        return decide(select(marker, level), marker, logger, level, format, params, t);
+    }
+
+    /**
+     * Loop through <code>selected</code>, as returned by
+     * {@link #select(Marker, Level)}, and return the first reply other than
+     * NEUTRAL, if any.
+     */
+    public static FilterReply decide(final TurboFilter[] selected, final Marker marker, final Logger logger, final Level level, final String format,
+                    final Object[] params, final Throwable t) {
+        for (int i = 0; i < selected.length; i++) {
+            final TurboFilter tf = selected[i];
+            if (!tf.isInScope(marker, logger)) {
+                continue;
+            }
+            final FilterReply r = tf.decide(marker, logger, level, format, params, t);
+            if (r == FilterReply.DENY || r == FilterReply.ACCEPT) {
+                return r;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -13,7 +13,13 @@
  */
 package ch.qos.logback.classic.spi;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import org.slf4j.Marker;
 
@@ -24,6 +30,13 @@ import ch.qos.logback.core.spi.FilterReply;
 
 /**
  * Implementation of TurboFilterAttachable.
+ * <p>
+ * Every modification of the list recompiles the {@link TurboFilterChain}
+ * consulted by loggers, which thus never copies or locks anything. Filters
+ * declare their scope when the chain is compiled: properties affecting the
+ * declarations of a filter should be set before the filter is added, or
+ * {@link #recompile()} be called afterwards. Modifications through
+ * {@link #subList(int, int)} are not tracked either.
  * 
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -31,6 +44,24 @@ final public class TurboFilterList extends CopyOnWriteArrayList<TurboFilter> {
 
     private static final long serialVersionUID = 1L;
 
+    private transient volatile TurboFilterChain chain = TurboFilterChain.EMPTY;
+
+    /**
+     * Returns the compiled snapshot of this list.
+     */
+    public TurboFilterChain getChain() {
+        return chain;
+    }
+
+    /**
+     * Compile the current filters into a new chain. Synchronized so that
+     * concurrent modifications cannot install a chain older than the list.
+     */
+    public synchronized void recompile() {
+        TurboFilter[] filters = toArray(new TurboFilter[0]);
+        chain = TurboFilterChain.compile(filters);
+    }
+
     /**
      * Loop through the filters in the chain. As soon as a filter decides on
      * ACCEPT or DENY, then that value is returned. If all of the filters return
@@ -38,43 +69,112 @@ final public class TurboFilterList extends CopyOnWriteArrayList<TurboFilter> {
      */
     public FilterReply getTurboFilterChainDecision(final Marker marker, final Logger logger, final Level level, final String format, final Object[] params,
                     final Throwable t) {
+        return chain.decide(marker, logger, level, format, params, t);
+    }
+
+    @Override
+    public boolean add(TurboFilter e) {
+        boolean result = super.add(e);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public void add(int index, TurboFilter element) {
+        super.add(index, element);
+        recompile();
+    }
+
+    @Override
+    public boolean addIfAbsent(TurboFilter e) {
+        boolean result = super.addIfAbsent(e);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends TurboFilter> c) {
+        boolean result = super.addAll(c);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends TurboFilter> c) {
+        boolean result = super.addAll(index, c);
+        recompile();
+        return result;
+    }
 
-        final int size = size();
-        // if (size == 0) {
-        // return FilterReply.NEUTRAL;
-        // }
-        if (size == 1) {
-            try {
-                TurboFilter tf = get(0);
-                return tf.decide(marker, logger, level, format, params, t);
-            } catch (IndexOutOfBoundsException iobe) {
-                return FilterReply.NEUTRAL;
-            }
-        }
-
-        Object[] tfa = toArray();
-        final int len = tfa.length;
-        for (int i = 0; i < len; i++) {
-            // for (TurboFilter tf : this) {
-            final TurboFilter tf = (TurboFilter) tfa[i];
-            final FilterReply r = tf.decide(marker, logger, level, format, params, t);
-            if (r == FilterReply.DENY || r == FilterReply.ACCEPT) {
-                return r;
-            }
-        }
-        return FilterReply.NEUTRAL;
-    }
-
-    // public boolean remove(TurboFilter turboFilter) {
-    // return tfList.remove(turboFilter);
-    // }
-    //
-    // public TurboFilter remove(int index) {
-    // return tfList.remove(index);
-    // }
-    //
-    // final public int size() {
-    // return tfList.size();
-    // }
+    @Override
+    public int addAllAbsent(Collection<? extends TurboFilter> c) {
+        int result = super.addAllAbsent(c);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public TurboFilter set(int index, TurboFilter element) {
+        TurboFilter result = super.set(index, element);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public TurboFilter remove(int index) {
+        TurboFilter result = super.remove(index);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        boolean result = super.remove(o);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean result = super.removeAll(c);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean result = super.retainAll(c);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super TurboFilter> filter) {
+        boolean result = super.removeIf(filter);
+        recompile();
+        return result;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<TurboFilter> operator) {
+        super.replaceAll(operator);
+        recompile();
+    }
 
+    @Override
+    public void sort(Comparator<? super TurboFilter> c) {
+        super.sort(c);
+        recompile();
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        recompile();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        recompile();
+    }
 }
@@ -13,6 +13,8 @@
  */
 package ch.qos.logback.classic.turbo;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import org.slf4j.Marker;
 
 import ch.qos.logback.classic.Level;
@@ -23,6 +25,10 @@ import ch.qos.logback.core.spi.FilterReply;
  * 
  * See {@link http://logback.qos.ch/manual/filters.html#DuplicateMessageFilter}
  * for details.
+ * <p>
+ * Messages are counted in a {@link StripedMessageCache}, so that threads
+ * logging different messages rarely contend. The least recently seen messages
+ * are evicted per stripe, eviction is hence approximately LRU.
  * 
  * @author Ceki Gulcu
  * 
@@ -41,11 +47,13 @@ public class DuplicateMessageFilter extends TurboFilter {
     public int allowedRepetitions = DEFAULT_ALLOWED_REPETITIONS;
     public int cacheSize = DEFAULT_CACHE_SIZE;
 
-    private LRUMessageCache msgCache;
+    private StripedMessageCache msgCache;
+    private final LongAdder suppressedCount = new LongAdder();
 
     @Override
     public void start() {
-        msgCache = new LRUMessageCache(cacheSize);
+        msgCache = new StripedMessageCache(cacheSize);
+        suppressedCount.reset();
         super.start();
     }
 
@@ -62,10 +70,36 @@ public class DuplicateMessageFilter extends TurboFilter {
         if (count <= allowedRepetitions) {
             return FilterReply.NEUTRAL;
         } else {
+            suppressedCount.increment();
             return FilterReply.DENY;
         }
     }
 
+    /**
+     * This filter only ever denies. Note that statements below the level of
+     * their logger are thus not counted.
+     */
+    @Override
+    public boolean mayAccept(Level level) {
+        return false;
+    }
+
+    /**
+     * Returns the number of statements whose message was found in the cache
+     * since this filter was started, or 0 if it is not started.
+     */
+    public long getHitCount() {
+        StripedMessageCache cache = msgCache;
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    /**
+     * Returns the number of statements denied since this filter was started.
+     */
+    public long getSuppressedCount() {
+        return suppressedCount.sum();
+    }
+
     public int getAllowedRepetitions() {
         return allowedRepetitions;
     }
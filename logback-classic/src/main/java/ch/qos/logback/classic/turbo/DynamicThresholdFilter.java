@@ -252,4 +252,38 @@ public class DynamicThresholdFilter extends TurboFilter {
             return onLower;
         }
     }
+
+    /**
+     * Statements at or above the highest threshold always get
+     * {@link #getOnHigherOrEqual()}, those below the lowest threshold always
+     * get {@link #getOnLower()}.
+     */
+    @Override
+    public boolean appliesTo(Level level) {
+        if (!super.appliesTo(level)) {
+            return false;
+        }
+        return mayReply(level, FilterReply.ACCEPT) || mayReply(level, FilterReply.DENY);
+    }
+
+    @Override
+    public boolean mayAccept(Level level) {
+        return mayReply(level, FilterReply.ACCEPT);
+    }
+
+    private boolean mayReply(Level level, FilterReply reply) {
+        Level lowest = defaultThreshold;
+        Level highest = defaultThreshold;
+        for (Level threshold : valueLevelMap.values()) {
+            if (threshold.isGreaterOrEqual(highest)) {
+                highest = threshold;
+            }
+            if (lowest.isGreaterOrEqual(threshold)) {
+                lowest = threshold;
+            }
+        }
+        boolean mayBeHigherOrEqual = level.isGreaterOrEqual(lowest);
+        boolean mayBeLower = !level.isGreaterOrEqual(highest);
+        return (mayBeHigherOrEqual && onHigherOrEqual == reply) || (mayBeLower && onLower == reply);
+    }
 }
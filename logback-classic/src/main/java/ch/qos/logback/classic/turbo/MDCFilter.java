@@ -86,4 +86,17 @@ public class MDCFilter extends MatchingFilter {
         this.MDCKey = MDCKey;
     }
 
+    /**
+     * A filter replying NEUTRAL on match and on mismatch applies to nothing.
+     */
+    @Override
+    public boolean appliesTo(Level level) {
+        return (onMatch != FilterReply.NEUTRAL || onMismatch != FilterReply.NEUTRAL) && super.appliesTo(level);
+    }
+
+    @Override
+    public boolean mayAccept(Level level) {
+        return onMatch == FilterReply.ACCEPT || onMismatch == FilterReply.ACCEPT;
+    }
+
 }
@@ -64,4 +64,25 @@ public class MarkerFilter extends MatchingFilter {
             this.markerToMatch = MarkerFactory.getMarker(markerStr);
         }
     }
+
+    /**
+     * A filter replying NEUTRAL on match and on mismatch applies to nothing.
+     */
+    @Override
+    public boolean appliesTo(Level level) {
+        return (onMatch != FilterReply.NEUTRAL || onMismatch != FilterReply.NEUTRAL) && super.appliesTo(level);
+    }
+
+    @Override
+    public boolean mayAccept(Level level) {
+        return onMatch == FilterReply.ACCEPT || onMismatch == FilterReply.ACCEPT;
+    }
+
+    /**
+     * Statements without a marker get the mismatch reply.
+     */
+    @Override
+    public boolean appliesToUnmarked() {
+        return onMismatch != FilterReply.NEUTRAL && super.appliesToUnmarked();
+    }
 }
@@ -0,0 +1,46 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+/**
+ * What a {@link RateLimitingFilter} keeps a separate rate limit for.
+ *
+ * @since 1.3.7
+ */
+public enum RateLimitKey {
+
+    /**
+     * One limit per logger. This is the default.
+     */
+    LOGGER,
+
+    /**
+     * One limit per message template, that is, per format string.
+     */
+    TEMPLATE,
+
+    /**
+     * One limit per value of an MDC key, such as a user or tenant id.
+     */
+    MDC;
+
+    public static RateLimitKey findByName(String name) {
+        for (RateLimitKey key : RateLimitKey.values()) {
+            if (key.name().equalsIgnoreCase(name)) {
+                return key;
+            }
+        }
+        return null;
+    }
+}
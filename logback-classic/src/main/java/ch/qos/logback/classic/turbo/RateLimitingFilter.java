@@ -0,0 +1,253 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+
+/**
+ * Denies log statements once they exceed <code>maxEvents</code> per
+ * <code>period</code>, with a separate limit per logger, per message template
+ * or per value of an MDC key, as chosen by the <code>key</code> option.
+ * <p>
+ * Each limit is a token bucket holding up to <code>burst</code> tokens,
+ * <code>maxEvents</code> by default, refilled at <code>maxEvents</code> tokens
+ * per <code>period</code>. Buckets are kept as a single theoretical arrival
+ * time updated by compare-and-set, so deciding takes no lock.
+ * <p>
+ * At most <code>maxKeys</code> buckets are kept. Once that many keys have been
+ * seen, buckets which are full again are discarded, and statements with a new
+ * key share one overflow bucket, named "*", if none is.
+ * Statements without a value for the MDC key are not limited.
+ * <p>
+ * Combined with {@link #setLevels(String)}, {@link #setMarkers(String)} and
+ * {@link #setLoggers(String)}, the limit can be restricted to, say, DEBUG
+ * statements of a chatty library. Suppressed statements are summarized as
+ * described in {@link SuppressingTurboFilter}.
+ *
+ * @since 1.3.7
+ */
+public class RateLimitingFilter extends SuppressingTurboFilter {
+
+    public static final int DEFAULT_MAX_EVENTS = 100;
+    public static final Duration DEFAULT_PERIOD = Duration.buildBySeconds(1);
+    public static final int DEFAULT_MAX_KEYS = 1000;
+    static final String OVERFLOW_KEY = "*";
+
+    private RateLimitKey key = RateLimitKey.LOGGER;
+    private String mdcKey;
+    private int maxEvents = DEFAULT_MAX_EVENTS;
+    private Duration period = DEFAULT_PERIOD;
+    private int burst;
+    private int maxKeys = DEFAULT_MAX_KEYS;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<String, AtomicLong>();
+    private long intervalNanos;
+    private long toleranceNanos;
+    // no bucket is full again before then
+    private volatile long nextEvictionNanos;
+
+    @Override
+    public void start() {
+        int errorCount = 0;
+        if (maxEvents < 1) {
+            addError("'maxEvents' must be positive. Cannot start.");
+            errorCount++;
+        }
+        if (period == null || period.getMilliseconds() <= 0) {
+            addError("'period' must be positive. Cannot start.");
+            errorCount++;
+        }
+        if (key == RateLimitKey.MDC && mdcKey == null) {
+            addError("'mdcKey' parameter is mandatory with key MDC. Cannot start.");
+            errorCount++;
+        }
+        if (errorCount > 0) {
+            return;
+        }
+        if (maxKeys < 1) {
+            addWarn("'maxKeys' must be positive, using " + DEFAULT_MAX_KEYS + " instead.");
+            maxKeys = DEFAULT_MAX_KEYS;
+        }
+        int effectiveBurst = burst > 0 ? burst : maxEvents;
+        intervalNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(period.getMilliseconds()) / maxEvents);
+        toleranceNanos = intervalNanos * effectiveBurst;
+        buckets.clear();
+        nextEvictionNanos = nanoTime();
+        super.start();
+    }
+
+    @Override
+    protected FilterReply decideSuppression(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        String bucketKey = bucketKey(logger, format);
+        if (bucketKey == null) {
+            return FilterReply.NEUTRAL;
+        }
+        AtomicLong bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !evictFullBuckets()) {
+                bucketKey = OVERFLOW_KEY;
+            }
+            bucket = bucketFor(bucketKey);
+        }
+        if (tryAcquire(bucket)) {
+            return FilterReply.NEUTRAL;
+        }
+        return suppress(bucketKey, logger);
+    }
+
+    private String bucketKey(Logger logger, String format) {
+        switch (key) {
+        case TEMPLATE:
+            return format;
+        case MDC:
+            return MDC.get(mdcKey);
+        default:
+            return logger.getName();
+        }
+    }
+
+    private AtomicLong bucketFor(String bucketKey) {
+        AtomicLong bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            // a new bucket starts full
+            AtomicLong created = new AtomicLong(nanoTime() - toleranceNanos);
+            bucket = buckets.putIfAbsent(bucketKey, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Discard the buckets which are full again, as a new bucket would be, and
+     * return whether there is room for a new one.
+     */
+    private boolean evictFullBuckets() {
+        long now = nanoTime();
+        if (now - nextEvictionNanos < 0) {
+            return false;
+        }
+        long earliest = now + toleranceNanos;
+        for (Iterator<AtomicLong> it = buckets.values().iterator(); it.hasNext();) {
+            long tat = it.next().get();
+            if (tat - now <= 0) {
+                it.remove();
+            } else if (tat - earliest < 0) {
+                earliest = tat;
+            }
+        }
+        nextEvictionNanos = earliest;
+        return buckets.size() < maxKeys;
+    }
+
+    /**
+     * Generic cell rate algorithm: the bucket holds the time at which it will
+     * be full again, and a statement is allowed if taking a token leaves that
+     * time no further than <code>burst</code> tokens ahead of now.
+     */
+    private boolean tryAcquire(AtomicLong theoreticalArrival) {
+        long now = nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = (tat - now > 0 ? tat : now) + intervalNanos;
+            if (next - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Overridden by tests to control the clock.
+     */
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    public String getKey() {
+        return key.name();
+    }
+
+    /**
+     * One of LOGGER (the default), TEMPLATE or MDC.
+     */
+    public void setKey(String keyStr) {
+        RateLimitKey found = RateLimitKey.findByName(keyStr);
+        if (found == null) {
+            addWarn("[" + keyStr + "] should be one of " + Arrays.toString(RateLimitKey.values()));
+            addWarn("Using previously set key, " + key + ", by default.");
+            return;
+        }
+        this.key = found;
+    }
+
+    public String getMdcKey() {
+        return mdcKey;
+    }
+
+    public void setMdcKey(String mdcKey) {
+        this.mdcKey = mdcKey;
+    }
+
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    public void setMaxEvents(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(Duration period) {
+        this.period = period;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * The number of statements allowed in a row after an idle spell. Defaults
+     * to <code>maxEvents</code>.
+     */
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+}
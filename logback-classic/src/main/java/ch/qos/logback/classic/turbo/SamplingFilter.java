@@ -0,0 +1,106 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Lets through a fraction <code>rate</code> of log statements, between 0 and 1,
+ * and denies the rest.
+ * <p>
+ * By default each statement is kept or dropped at random. When
+ * <code>mdcKey</code> is set, the decision is instead derived from a hash of
+ * the MDC value, for instance a trace id, so that all statements of a sampled
+ * trace are kept together, on every node using the same rate. Statements
+ * without a value for the MDC key are not sampled.
+ * <p>
+ * Use {@link #setLevels(String)} to sample, say, only DEBUG and TRACE
+ * statements. Dropped statements are summarized as described in
+ * {@link SuppressingTurboFilter}.
+ *
+ * @since 1.3.7
+ */
+public class SamplingFilter extends SuppressingTurboFilter {
+
+    static final String SAMPLED_KEY = "sampling";
+
+    private double rate = 1.0;
+    private String mdcKey;
+    // statements are kept when an unsigned 32 bit hash is below this
+    private long threshold;
+
+    @Override
+    public void start() {
+        if (rate < 0 || rate > 1 || Double.isNaN(rate)) {
+            addError("'rate' must be between 0 and 1, found " + rate + ". Cannot start.");
+            return;
+        }
+        threshold = (long) (rate * (1L << 32));
+        super.start();
+    }
+
+    @Override
+    protected FilterReply decideSuppression(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        long hash;
+        if (mdcKey == null) {
+            hash = ThreadLocalRandom.current().nextInt() & 0xFFFFFFFFL;
+        } else {
+            String value = MDC.get(mdcKey);
+            if (value == null) {
+                return FilterReply.NEUTRAL;
+            }
+            hash = mix(value.hashCode()) & 0xFFFFFFFFL;
+        }
+        if (hash < threshold) {
+            return FilterReply.NEUTRAL;
+        }
+        return suppress(mdcKey == null ? SAMPLED_KEY : mdcKey, logger);
+    }
+
+    /**
+     * Murmur3 finalizer, spreading similar ids such as sequence numbers
+     * uniformly over the hash range.
+     */
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public String getMdcKey() {
+        return mdcKey;
+    }
+
+    public void setMdcKey(String mdcKey) {
+        this.mdcKey = mdcKey;
+    }
+}
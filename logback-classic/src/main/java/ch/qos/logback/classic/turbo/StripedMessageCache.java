@@ -0,0 +1,151 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread safe message counter with approximate LRU eviction.
+ * <p>
+ * Messages are spread by hash over independent stripes, each an access
+ * ordered {@link LinkedHashMap} guarded by its own lock and evicting its own
+ * least recently used message when full. Threads counting messages of
+ * different stripes thus do not contend. Eviction is LRU within a stripe
+ * only, and the cache holds at most the number of stripes times the stripe
+ * capacity, which is the requested size rounded up to a multiple of the
+ * number of stripes.
+ *
+ * @since 1.3.7
+ */
+class StripedMessageCache {
+
+    static final int MAX_STRIPES = 64;
+    // keep stripes large enough for LRU eviction to remain meaningful
+    static final int MIN_STRIPE_CAPACITY = 8;
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final LongAdder hitCount = new LongAdder();
+
+    StripedMessageCache(int cacheSize) {
+        this(cacheSize, defaultStripeCount(cacheSize));
+    }
+
+    StripedMessageCache(int cacheSize, int stripeCount) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size cannot be smaller than 1");
+        }
+        if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two");
+        }
+        int stripeCapacity = (cacheSize + stripeCount - 1) / stripeCount;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+        mask = stripeCount - 1;
+    }
+
+    static int defaultStripeCount(int cacheSize) {
+        int wanted = Math.min(MAX_STRIPES, 4 * Runtime.getRuntime().availableProcessors());
+        int byCapacity = Math.max(1, cacheSize / MIN_STRIPE_CAPACITY);
+        int count = Integer.highestOneBit(Math.min(wanted, byCapacity));
+        return Math.max(1, count);
+    }
+
+    /**
+     * Returns the number of times <code>msg</code> was counted before, as far
+     * as the cache remembers, and count it once more.
+     */
+    int getMessageCountAndThenIncrement(String msg) {
+        // don't insert null elements
+        if (msg == null) {
+            return 0;
+        }
+        int h = msg.hashCode();
+        h ^= (h >>> 16);
+        int count = stripes[h & mask].getAndIncrement(msg);
+        if (count > 0) {
+            hitCount.increment();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of messages found in the cache.
+     */
+    long getHitCount() {
+        return hitCount.sum();
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+
+    void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+        hitCount.reset();
+    }
+
+    private static final class Counter {
+        int count;
+    }
+
+    private static final class Stripe {
+        private final LinkedHashMap<String, Counter> map;
+
+        Stripe(final int capacity) {
+            map = new LinkedHashMap<String, Counter>((int) (capacity * (4.0f / 3)) + 1, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Counter> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized int getAndIncrement(String msg) {
+            Counter counter = map.get(msg);
+            if (counter == null) {
+                map.put(msg, new Counter());
+                return 0;
+            }
+            if (counter.count < Integer.MAX_VALUE) {
+                counter.count++;
+            }
+            return counter.count;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+    }
+}
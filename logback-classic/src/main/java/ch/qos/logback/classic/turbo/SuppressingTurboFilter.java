@@ -0,0 +1,186 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+
+/**
+ * Base class of turbo filters which deny statements to contain log storms,
+ * and report what they denied.
+ * <p>
+ * Every <code>summaryPeriod</code>, the filter logs one WARN event per key
+ * for which it denied statements during the period, stating how many. The
+ * event goes to the logger set by {@link #setSummaryLogger(String)} or, by
+ * default, to the logger of the first statement denied for that key. Summary
+ * events bear the {@link #SUMMARY_MARKER} marker and are never denied by a
+ * suppressing filter. A zero period disables summaries.
+ * <p>
+ * Calls to <code>isXxxEnabled()</code> are never denied, so that they do not
+ * count against the limits of the statements they guard.
+ *
+ * @since 1.3.7
+ */
+public abstract class SuppressingTurboFilter extends TurboFilter {
+
+    public static final Marker SUMMARY_MARKER = MarkerFactory.getMarker("SUPPRESSION_SUMMARY");
+    public static final Duration DEFAULT_SUMMARY_PERIOD = Duration.buildBySeconds(10);
+
+    private Duration summaryPeriod = DEFAULT_SUMMARY_PERIOD;
+    private String summaryLoggerName;
+    private final ConcurrentHashMap<String, Suppressed> suppressedByKey = new ConcurrentHashMap<String, Suppressed>();
+    private final LongAdder suppressedCount = new LongAdder();
+    private ScheduledFuture<?> summaryFuture;
+
+    @Override
+    public void start() {
+        long periodMillis = summaryPeriod.getMilliseconds();
+        if (periodMillis > 0 && getContext() != null) {
+            summaryFuture = getContext().getScheduledExecutorService().scheduleAtFixedRate(new Runnable() {
+                public void run() {
+                    emitSummaries();
+                }
+            }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+            getContext().addScheduledFuture(summaryFuture);
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (summaryFuture != null) {
+            summaryFuture.cancel(false);
+            summaryFuture = null;
+        }
+        super.stop();
+    }
+
+    @Override
+    public final FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || marker == SUMMARY_MARKER) {
+            return FilterReply.NEUTRAL;
+        }
+        return decideSuppression(marker, logger, level, format, params, t);
+    }
+
+    /**
+     * Decide on a log statement, by returning either NEUTRAL or the result of
+     * {@link #suppress(String, Logger)}.
+     */
+    protected abstract FilterReply decideSuppression(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t);
+
+    /**
+     * Count a statement of <code>logger</code> as suppressed under
+     * <code>key</code>, and return DENY.
+     */
+    protected final FilterReply suppress(String key, Logger logger) {
+        suppressedCount.increment();
+        Suppressed suppressed = suppressedByKey.get(key);
+        if (suppressed == null) {
+            Suppressed created = new Suppressed(logger.getName());
+            suppressed = suppressedByKey.putIfAbsent(key, created);
+            if (suppressed == null) {
+                suppressed = created;
+            }
+        }
+        suppressed.count.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    /**
+     * These filters only ever deny.
+     */
+    @Override
+    public boolean mayAccept(Level level) {
+        return false;
+    }
+
+    /**
+     * Log a summary for each key with statements suppressed since the last
+     * summary. Invoked periodically once the filter is started.
+     */
+    public void emitSummaries() {
+        if (!(getContext() instanceof LoggerContext)) {
+            return;
+        }
+        LoggerContext loggerContext = (LoggerContext) getContext();
+        String filterName = getName() == null ? getClass().getSimpleName() : getName();
+        for (Map.Entry<String, Suppressed> entry : suppressedByKey.entrySet()) {
+            Suppressed suppressed = entry.getValue();
+            long count = suppressed.count.getAndSet(0);
+            if (count == 0) {
+                // idle for a whole period, forget the key
+                suppressedByKey.remove(entry.getKey(), suppressed);
+                continue;
+            }
+            String loggerName = summaryLoggerName == null ? suppressed.loggerName : summaryLoggerName;
+            loggerContext.getLogger(loggerName).warn(SUMMARY_MARKER, "{} events suppressed by [{}] for [{}] in the last {}",
+                            new Object[] { count, filterName, entry.getKey(), summaryPeriod });
+        }
+    }
+
+    /**
+     * Returns the number of statements suppressed since this filter was
+     * created.
+     */
+    public long getSuppressedCount() {
+        return suppressedCount.sum();
+    }
+
+    public Duration getSummaryPeriod() {
+        return summaryPeriod;
+    }
+
+    /**
+     * The period between two summaries of suppressed statements, 10 seconds by
+     * default. Zero disables summaries.
+     */
+    public void setSummaryPeriod(Duration summaryPeriod) {
+        this.summaryPeriod = summaryPeriod;
+    }
+
+    public String getSummaryLogger() {
+        return summaryLoggerName;
+    }
+
+    /**
+     * The name of the logger summaries are logged to, instead of the logger of
+     * the first suppressed statement of each key.
+     */
+    public void setSummaryLogger(String summaryLoggerName) {
+        this.summaryLoggerName = summaryLoggerName;
+    }
+
+    private static final class Suppressed {
+        final String loggerName;
+        final AtomicLong count = new AtomicLong();
+
+        Suppressed(String loggerName) {
+            this.loggerName = loggerName;
+        }
+    }
+}
@@ -13,7 +13,11 @@
  */
 package ch.qos.logback.classic.turbo;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
@@ -26,6 +30,17 @@ import ch.qos.logback.core.spi.LifeCycle;
  * of parameters instead of a single event object. The latter is cleaner but 
  * the first is much more performant.
  * <p>
+ * A filter may restrict the statements it is consulted for to some levels,
+ * markers and loggers, see {@link #setLevels(String)},
+ * {@link #setMarkers(String)} and {@link #setLoggers(String)}. Subclasses
+ * knowing that they reply {@link FilterReply#NEUTRAL} to whole classes of
+ * statements declare it by overriding {@link #appliesTo(Level)} and
+ * {@link #appliesToUnmarked()}, and those which never accept some statements
+ * by overriding {@link #mayAccept(Level)}. The chain of turbo filters is
+ * compiled with these declarations so that statements no filter applies to
+ * stay cheap, and statements below the level of a logger which no filter may
+ * accept are rejected without consulting the chain.
+ * <p>
  * For more information about turbo filters, please refer to the online manual at
  * http://logback.qos.ch/manual/filters.html#TurboFilter
  * 
@@ -36,6 +51,11 @@ public abstract class TurboFilter extends ContextAwareBase implements LifeCycle
     private String name;
     boolean start = false;
 
+    // null if not restricted
+    private List<Level> levels;
+    private Marker[] markers;
+    private String[] loggerNames;
+
     /**
      * Make a decision based on the multiple parameters passed as arguments.
      * The returned value should be one of <code>{@link FilterReply#DENY}</code>, 
@@ -63,6 +83,128 @@ public abstract class TurboFilter extends ContextAwareBase implements LifeCycle
         this.start = false;
     }
 
+    /**
+     * Whether {@link #decide} may reply something other than NEUTRAL for
+     * statements of the given level. Queried when the filter chain is compiled.
+     * By default, true for the levels set by {@link #setLevels(String)} or, if
+     * none were set, all levels.
+     */
+    public boolean appliesTo(Level level) {
+        return levels == null || levels.contains(level);
+    }
+
+    /**
+     * Whether {@link #decide} may reply something other than NEUTRAL for
+     * statements without a marker. Queried when the filter chain is compiled.
+     * By default, true unless markers were set by {@link #setMarkers(String)}.
+     */
+    public boolean appliesToUnmarked() {
+        return markers == null;
+    }
+
+    /**
+     * Whether {@link #decide} may reply ACCEPT for statements of the given
+     * level. Queried when the enablement of a logger is computed: statements
+     * below the effective level of a logger are rejected without consulting
+     * the chain unless a filter applying to them may accept them. By default,
+     * true.
+     */
+    public boolean mayAccept(Level level) {
+        return true;
+    }
+
+    /**
+     * Whether the logger is within the loggers set for this filter, if any.
+     */
+    public final boolean appliesToLogger(Logger logger) {
+        return loggerNames == null || isWithinLoggers(logger.getName());
+    }
+
+    /**
+     * Whether a statement is within the markers and loggers set for this
+     * filter. Checked for each statement before {@link #decide} is invoked.
+     */
+    public final boolean isInScope(Marker marker, Logger logger) {
+        if (markers != null) {
+            if (marker == null || !containsAny(marker)) {
+                return false;
+            }
+        }
+        if (loggerNames != null) {
+            return isWithinLoggers(logger.getName());
+        }
+        return true;
+    }
+
+    private boolean containsAny(Marker marker) {
+        for (Marker m : markers) {
+            if (marker.contains(m)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isWithinLoggers(String name) {
+        for (String loggerName : loggerNames) {
+            if (name.startsWith(loggerName) && (name.length() == loggerName.length() || name.charAt(loggerName.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restrict this filter to statements of the given comma separated levels.
+     */
+    public void setLevels(String levelList) {
+        List<Level> result = new ArrayList<Level>();
+        for (String levelStr : split(levelList)) {
+            Level level = Level.toLevel(levelStr, null);
+            if (level == null) {
+                addWarn("Unknown level [" + levelStr + "] ignored");
+            } else {
+                result.add(level);
+            }
+        }
+        this.levels = result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Restrict this filter to statements bearing one of the given comma
+     * separated markers.
+     */
+    public void setMarkers(String markerList) {
+        List<Marker> result = new ArrayList<Marker>();
+        for (String markerStr : split(markerList)) {
+            result.add(MarkerFactory.getMarker(markerStr));
+        }
+        this.markers = result.isEmpty() ? null : result.toArray(new Marker[0]);
+    }
+
+    /**
+     * Restrict this filter to statements of the given comma separated loggers
+     * and their descendants.
+     */
+    public void setLoggers(String loggerList) {
+        List<String> result = split(loggerList);
+        this.loggerNames = result.isEmpty() ? null : result.toArray(new String[0]);
+    }
+
+    private static List<String> split(String list) {
+        List<String> result = new ArrayList<String>();
+        if (list == null) {
+            return result;
+        }
+        for (String s : list.split(",")) {
+            s = s.trim();
+            if (s.length() > 0) {
+                result.add(s);
+            }
+        }
+        return result;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,170 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * An immutable snapshot of a thread's MDC, which can be bound to another
+ * thread for the duration of a task.
+ * <p/>
+ * With {@link PersistentMDCAdapter}, capturing a context and binding it only
+ * move a reference to the thread's immutable map: no map is copied per task.
+ * Other adapters fall back on {@link MDCAdapter#getCopyOfContextMap()} and
+ * {@link MDCAdapter#setContextMap(Map)}.
+ * <p/>
+ * A binding is scoped: {@link #run(Runnable)} and {@link #call(Callable)}
+ * restore the MDC the thread had before once the task completes, normally or
+ * not. Binding the empty context leaves no map behind in the thread, so
+ * short-lived threads such as virtual threads running tasks without context
+ * cost next to nothing.
+ *
+ * @see MDCExecutors
+ * @since 1.3.7
+ */
+public final class MDCContext {
+
+    public static final MDCContext EMPTY = new MDCContext(null);
+
+    // null if empty
+    private final Map<String, String> map;
+
+    private MDCContext(Map<String, String> map) {
+        this.map = map;
+    }
+
+    /**
+     * Returns the MDC of the current thread.
+     */
+    public static MDCContext capture() {
+        MDCAdapter mdc = MDC.getMDCAdapter();
+        Map<String, String> map;
+        if (mdc instanceof PersistentMDCAdapter) {
+            map = ((PersistentMDCAdapter) mdc).getPropertyMap();
+        } else {
+            map = mdc.getCopyOfContextMap();
+        }
+        return of(map);
+    }
+
+    /**
+     * Returns a context holding the entries of <code>map</code>, which may be
+     * null.
+     */
+    public static MDCContext of(Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return EMPTY;
+        }
+        return new MDCContext(PersistentStringMap.of(map));
+    }
+
+    public boolean isEmpty() {
+        return map == null;
+    }
+
+    /**
+     * Returns the entries of this context as an unmodifiable map.
+     */
+    public Map<String, String> getMap() {
+        return map == null ? Collections.<String, String> emptyMap() : map;
+    }
+
+    /**
+     * Run <code>runnable</code> with this context as the MDC of the current
+     * thread.
+     */
+    public void run(Runnable runnable) {
+        MDCAdapter mdc = MDC.getMDCAdapter();
+        Map<String, String> previous = attach(mdc, map);
+        try {
+            runnable.run();
+        } finally {
+            attach(mdc, previous);
+        }
+    }
+
+    /**
+     * Call <code>callable</code> with this context as the MDC of the current
+     * thread.
+     */
+    public <V> V call(Callable<V> callable) throws Exception {
+        MDCAdapter mdc = MDC.getMDCAdapter();
+        Map<String, String> previous = attach(mdc, map);
+        try {
+            return callable.call();
+        } finally {
+            attach(mdc, previous);
+        }
+    }
+
+    /**
+     * Returns a runnable running <code>runnable</code> within this context.
+     */
+    public Runnable wrap(final Runnable runnable) {
+        return new Runnable() {
+            public void run() {
+                MDCContext.this.run(runnable);
+            }
+        };
+    }
+
+    /**
+     * Returns a callable calling <code>callable</code> within this context.
+     * Named apart from {@link #wrap(Runnable)} so that lambdas passed to
+     * either method are not ambiguous.
+     */
+    public <V> Callable<V> wrapCallable(final Callable<V> callable) {
+        return new Callable<V>() {
+            public V call() throws Exception {
+                return MDCContext.this.call(callable);
+            }
+        };
+    }
+
+    /**
+     * Returns a supplier calling <code>supplier</code> within this context.
+     */
+    public <T> Supplier<T> wrapSupplier(final Supplier<T> supplier) {
+        return new Supplier<T>() {
+            public T get() {
+                MDCAdapter mdc = MDC.getMDCAdapter();
+                Map<String, String> previous = attach(mdc, map);
+                try {
+                    return supplier.get();
+                } finally {
+                    attach(mdc, previous);
+                }
+            }
+        };
+    }
+
+    private static Map<String, String> attach(MDCAdapter mdc, Map<String, String> map) {
+        if (mdc instanceof PersistentMDCAdapter) {
+            return ((PersistentMDCAdapter) mdc).attach(map);
+        }
+        Map<String, String> previous = mdc.getCopyOfContextMap();
+        if (map == null) {
+            mdc.clear();
+        } else {
+            mdc.setContextMap(map);
+        }
+        return previous;
+    }
+}
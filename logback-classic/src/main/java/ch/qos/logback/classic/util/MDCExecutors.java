@@ -0,0 +1,111 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executors and {@link CompletableFuture} factories which run each task
+ * within the {@link MDCContext} of the thread submitting it.
+ * <p/>
+ * The context is captured when a task is handed to the executor. For the
+ * dependent stages of a {@link CompletableFuture} that is the thread
+ * completing the previous stage, which, when it is itself a wrapped task,
+ * runs within the propagated context.
+ *
+ * @since 1.3.7
+ */
+public final class MDCExecutors {
+
+    private MDCExecutors() {
+    }
+
+    /**
+     * Returns an executor which runs each task on <code>executor</code> within
+     * the MDC of the thread calling {@link Executor#execute(Runnable)}.
+     */
+    public static Executor wrap(final Executor executor) {
+        return new Executor() {
+            public void execute(Runnable command) {
+                executor.execute(MDCContext.capture().wrap(command));
+            }
+        };
+    }
+
+    /**
+     * Returns an executor service which runs each task on
+     * <code>executorService</code> within the MDC of the submitting thread.
+     * Shutting down the returned service shuts down
+     * <code>executorService</code>.
+     */
+    public static ExecutorService wrap(ExecutorService executorService) {
+        return new MDCExecutorService(executorService);
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(MDCContext.capture().wrapSupplier(supplier));
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        return CompletableFuture.supplyAsync(MDCContext.capture().wrapSupplier(supplier), executor);
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable runnable) {
+        return CompletableFuture.runAsync(MDCContext.capture().wrap(runnable));
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+        return CompletableFuture.runAsync(MDCContext.capture().wrap(runnable), executor);
+    }
+
+    // submit(), invokeAll() and invokeAny() all end up in execute()
+    private static final class MDCExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+
+        MDCExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        public void execute(Runnable command) {
+            delegate.execute(MDCContext.capture().wrap(command));
+        }
+
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
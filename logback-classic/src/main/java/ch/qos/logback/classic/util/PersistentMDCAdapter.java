@@ -0,0 +1,144 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * An MDC adapter keeping the context of each thread in an immutable,
+ * structurally shared map.
+ * <p/>
+ * <code>put</code> and <code>remove</code> replace the thread's map with an
+ * updated one which shares all but a few small nodes with the previous map.
+ * Consequently, {@link #getPropertyMap()} can hand the current map to a logging
+ * event without copying it, however many events are logged between two
+ * modifications, and without the bookkeeping {@link LogbackMDCAdapter} does to
+ * decide when a copy is needed.
+ * <p/>
+ * <b><em>The MDC is managed on a per thread basis</em></b>. Note that a child
+ * thread <b>does not</b> inherit the mapped diagnostic context of its parent.
+ * Use {@link MDCContext} and {@link MDCExecutors} to carry a context over to
+ * tasks run by other threads. A thread whose MDC is empty holds no map.
+ *
+ * @since 1.3.7
+ */
+public class PersistentMDCAdapter implements MDCAdapter {
+
+    final ThreadLocal<PersistentStringMap> threadLocal = new ThreadLocal<PersistentStringMap>();
+
+    /**
+     * Put a context value (the <code>val</code> parameter) as identified with the
+     * <code>key</code> parameter into the current thread's context map. Note that
+     * the <code>val</code> parameter can be null.
+     *
+     * @throws IllegalArgumentException in case the "key" parameter is null
+     */
+    public void put(String key, String val) throws IllegalArgumentException {
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        PersistentStringMap map = threadLocal.get();
+        if (map == null) {
+            map = PersistentStringMap.EMPTY;
+        }
+        PersistentStringMap newMap = map.plus(key, val);
+        if (newMap != map) {
+            threadLocal.set(newMap);
+        }
+    }
+
+    /**
+     * Get the context identified by the <code>key</code> parameter.
+     */
+    public String get(String key) {
+        PersistentStringMap map = threadLocal.get();
+        if (map == null || key == null) {
+            return null;
+        }
+        return map.get(key);
+    }
+
+    /**
+     * Remove the the context identified by the <code>key</code> parameter.
+     */
+    public void remove(String key) {
+        PersistentStringMap map = threadLocal.get();
+        if (map == null) {
+            return;
+        }
+        PersistentStringMap newMap = map.minus(key);
+        if (newMap.isEmpty()) {
+            threadLocal.remove();
+        } else if (newMap != map) {
+            threadLocal.set(newMap);
+        }
+    }
+
+    /**
+     * Clear all entries in the MDC.
+     */
+    public void clear() {
+        threadLocal.remove();
+    }
+
+    /**
+     * Returns the current thread's context map. The map is immutable and
+     * remains unaffected by later changes to the MDC. Returned value may be
+     * null.
+     */
+    public Map<String, String> getPropertyMap() {
+        return threadLocal.get();
+    }
+
+    /**
+     * Returns the keys in the MDC as a {@link Set}. The returned value can be
+     * null.
+     */
+    public Set<String> getKeys() {
+        PersistentStringMap map = threadLocal.get();
+        return map == null ? null : map.keySet();
+    }
+
+    /**
+     * Return a copy of the current thread's context map. Returned value may be
+     * null.
+     */
+    public Map<String, String> getCopyOfContextMap() {
+        PersistentStringMap map = threadLocal.get();
+        return map == null ? null : new HashMap<String, String>(map);
+    }
+
+    public void setContextMap(Map<String, String> contextMap) {
+        threadLocal.set(PersistentStringMap.of(contextMap));
+    }
+
+    /**
+     * Replace the current thread's context map by <code>contextMap</code>,
+     * without copying it if it is already immutable, and return the previous
+     * one. A null or empty map leaves no value in the thread local.
+     */
+    Map<String, String> attach(Map<String, String> contextMap) {
+        PersistentStringMap previous = threadLocal.get();
+        if (contextMap == null || contextMap.isEmpty()) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(PersistentStringMap.of(contextMap));
+        }
+        return previous;
+    }
+}
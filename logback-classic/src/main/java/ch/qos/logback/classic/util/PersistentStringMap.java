@@ -0,0 +1,399 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map of strings implemented as a hash array mapped trie.
+ * <p>
+ * {@link #plus(String, String)} and {@link #minus(String)} return a new map
+ * which shares all but the path to the modified entry with this one: at most
+ * one node of at most 32 entries per level of the trie is copied. Keys may not
+ * be null, values may.
+ * <p>
+ * The map is serialized as a {@link HashMap}.
+ *
+ * @since 1.3.7
+ */
+final class PersistentStringMap extends AbstractMap<String, String> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final PersistentStringMap EMPTY = new PersistentStringMap(null, 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object NOT_FOUND = new Object();
+
+    private final Node root;
+    private final int size;
+    // lazily flattened keys and values, for iteration; volatile as maps are
+    // shared between threads through the MDC
+    private transient volatile Object[] flat;
+    private transient Set<Entry<String, String>> entrySet;
+
+    private PersistentStringMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static PersistentStringMap of(Map<String, String> map) {
+        if (map instanceof PersistentStringMap) {
+            return (PersistentStringMap) map;
+        }
+        PersistentStringMap result = EMPTY;
+        for (Entry<String, String> entry : map.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Returns a map associating <code>value</code> with <code>key</code>, or
+     * this map if it already does.
+     */
+    PersistentStringMap plus(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        boolean[] added = new boolean[1];
+        int hash = hash(key);
+        Node newRoot = (root == null ? BitmapNode.EMPTY : root).put(0, hash, key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentStringMap(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without <code>key</code>, or this map if it does not
+     * contain it.
+     */
+    PersistentStringMap minus(String key) {
+        if (key == null || root == null) {
+            return this;
+        }
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? EMPTY : new PersistentStringMap(newRoot, size - 1);
+    }
+
+    @Override
+    public String get(Object key) {
+        Object value = find(key);
+        return value == NOT_FOUND ? null : (String) value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != NOT_FOUND;
+    }
+
+    private Object find(Object key) {
+        if (!(key instanceof String) || root == null) {
+            return NOT_FOUND;
+        }
+        String k = (String) key;
+        return root.find(0, hash(k), k);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private Object[] flat() {
+        Object[] result = flat;
+        if (result == null) {
+            result = new Object[2 * size];
+            if (root != null) {
+                root.flatten(result, 0);
+            }
+            flat = result;
+        }
+        return result;
+    }
+
+    private Object writeReplace() {
+        return new HashMap<String, String>(this);
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            final Object[] keysAndValues = flat();
+            return new Iterator<Entry<String, String>>() {
+                int i = 0;
+
+                public boolean hasNext() {
+                    return i < keysAndValues.length;
+                }
+
+                public Entry<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<String, String> entry = new SimpleImmutableEntry<String, String>((String) keysAndValues[i], (String) keysAndValues[i + 1]);
+                    i += 2;
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    abstract static class Node {
+
+        abstract Object find(int shift, int hash, String key);
+
+        abstract Node put(int shift, int hash, String key, String value, boolean[] added);
+
+        /**
+         * Returns this node if the key is absent, null if the node would be
+         * empty.
+         */
+        abstract Node remove(int shift, int hash, String key);
+
+        /**
+         * Copy keys and values to <code>out</code> from <code>pos</code> on and
+         * return the next position.
+         */
+        abstract int flatten(Object[] out, int pos);
+    }
+
+    /**
+     * A node with up to 32 slots, one per 5 bits of hash at its level. Each
+     * occupied slot holds a key and its value, or null and a child node.
+     */
+    static final class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Object find(int shift, int hash, String key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int idx = index(bit);
+            Object k = array[2 * idx];
+            Object v = array[2 * idx + 1];
+            if (k == null) {
+                return ((Node) v).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? v : NOT_FOUND;
+        }
+
+        Node put(int shift, int hash, String key, String value, boolean[] added) {
+            int bit = bitpos(hash, shift);
+            int idx = index(bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[2 * idx];
+                Object v = array[2 * idx + 1];
+                if (k == null) {
+                    Node child = ((Node) v).put(shift + BITS, hash, key, value, added);
+                    return child == v ? this : with(2 * idx + 1, child);
+                }
+                if (key.equals(k)) {
+                    return v == value || (v != null && v.equals(value)) ? this : with(2 * idx + 1, value);
+                }
+                added[0] = true;
+                Object[] newArray = array.clone();
+                newArray[2 * idx] = null;
+                newArray[2 * idx + 1] = createNode(shift + BITS, (String) k, (String) v, hash, key, value);
+                return new BitmapNode(bitmap, newArray);
+            }
+            added[0] = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            newArray[2 * idx] = key;
+            newArray[2 * idx + 1] = value;
+            System.arraycopy(array, 2 * idx, newArray, 2 * idx + 2, array.length - 2 * idx);
+            return new BitmapNode(bitmap | bit, newArray);
+        }
+
+        Node remove(int shift, int hash, String key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = index(bit);
+            Object k = array[2 * idx];
+            Object v = array[2 * idx + 1];
+            if (k == null) {
+                Node child = ((Node) v).remove(shift + BITS, hash, key);
+                if (child == v) {
+                    return this;
+                }
+                if (child != null) {
+                    return with(2 * idx + 1, child);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            System.arraycopy(array, 2 * idx + 2, newArray, 2 * idx, newArray.length - 2 * idx);
+            return new BitmapNode(bitmap ^ bit, newArray);
+        }
+
+        int flatten(Object[] out, int pos) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    pos = ((Node) array[i + 1]).flatten(out, pos);
+                } else {
+                    out[pos++] = array[i];
+                    out[pos++] = array[i + 1];
+                }
+            }
+            return pos;
+        }
+
+        private BitmapNode with(int i, Object o) {
+            Object[] newArray = array.clone();
+            newArray[i] = o;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private static Node createNode(int shift, String key1, String value1, int hash2, String key2, String value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+            }
+            boolean[] added = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, added).put(shift, hash2, key2, value2, added);
+        }
+    }
+
+    /**
+     * The keys and values of keys whose hashes are equal.
+     */
+    static final class CollisionNode extends Node {
+
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Object find(int shift, int hash, String key) {
+            int i = indexOf(key);
+            return i == -1 ? NOT_FOUND : array[i + 1];
+        }
+
+        Node put(int shift, int hash, String key, String value, boolean[] added) {
+            if (hash != this.hash) {
+                BitmapNode parent = new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this });
+                return parent.put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i != -1) {
+                Object v = array[i + 1];
+                if (v == value || (v != null && v.equals(value))) {
+                    return this;
+                }
+                Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+            added[0] = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        Node remove(int shift, int hash, String key) {
+            int i = indexOf(key);
+            if (i == -1) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            return new CollisionNode(hash, newArray);
+        }
+
+        int flatten(Object[] out, int pos) {
+            System.arraycopy(array, 0, out, pos, array.length);
+            return pos + array.length;
+        }
+    }
+}
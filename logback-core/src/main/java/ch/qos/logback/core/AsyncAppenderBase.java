@@ -13,11 +13,18 @@
  */
 package ch.qos.logback.core;
 
+import ch.qos.logback.core.async.QueueType;
+import ch.qos.logback.core.async.RingBufferBlockingQueue;
+import ch.qos.logback.core.async.WaitStrategy;
 import ch.qos.logback.core.spi.AppenderAttachable;
 import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import ch.qos.logback.core.spi.ReusableEvent;
 import ch.qos.logback.core.util.InterruptUtil;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 
@@ -29,6 +36,13 @@ import java.util.concurrent.BlockingQueue;
  * This appender buffers events in a {@link BlockingQueue}. {@link Worker} thread created by this appender takes
  * events from the head of the queue, and dispatches them to the single appender attached to this appender.
  * <p>
+ * By default the queue is an {@link ArrayBlockingQueue}. Setting the <b>QueueType</b> option to
+ * <code>RING_BUFFER</code> selects a lock-free {@link RingBufferBlockingQueue} instead, in which case the
+ * <b>WaitStrategy</b> option determines how the worker and blocked producers wait.
+ * <p>
+ * The worker removes up to <b>MaxBatchSize</b> events from the queue at a time. Attached appenders implementing
+ * {@link BatchAppender} receive each such batch in a single call.
+ * <p>
  * Please refer to the <a href="http://logback.qos.ch/manual/appenders.html#AsyncAppender">logback manual</a> for
  * further information about this appender.</p>
  *
@@ -54,6 +68,9 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
     int discardingThreshold = UNDEFINED;
     boolean neverBlock = false;
 
+    QueueType queueType = QueueType.ARRAY_BLOCKING;
+    WaitStrategy waitStrategy = WaitStrategy.PARK;
+
     Worker worker = new Worker();
 
     /**
@@ -64,6 +81,12 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
     public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
     int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
 
+    /**
+     * The default maximum number of events the worker removes from the queue and dispatches at once.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
     /**
      * Is the eventObject passed as parameter discardable? The base class's implementation of this method always returns
      * 'false' but sub-classes may (and do) override this method.
@@ -87,6 +110,22 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
     protected void preprocess(E eventObject) {
     }
 
+    /**
+     * Create the queue events are buffered in. Invoked once by {@link #start()}, after the queue size was
+     * validated. Sub-classes may override this method in order to supply their own queue implementation.
+     *
+     * @return a new queue holding at most {@link #getQueueSize()} events
+     */
+    protected BlockingQueue<E> createBlockingQueue() {
+        switch (queueType) {
+        case RING_BUFFER:
+            return new RingBufferBlockingQueue<E>(queueSize, waitStrategy);
+        case ARRAY_BLOCKING:
+        default:
+            return new ArrayBlockingQueue<E>(queueSize);
+        }
+    }
+
     @Override
     public void start() {
         if (isStarted())
@@ -99,8 +138,15 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
             addError("Invalid queue size [" + queueSize + "]");
             return;
         }
-        blockingQueue = new ArrayBlockingQueue<E>(queueSize);
+        blockingQueue = createBlockingQueue();
+        if (queueType == QueueType.RING_BUFFER) {
+            addInfo("Using a ring buffer queue with wait strategy " + waitStrategy);
+        }
 
+        if (maxBatchSize < 1) {
+            addError("Invalid maxBatchSize [" + maxBatchSize + "]");
+            return;
+        }
         if (discardingThreshold == UNDEFINED)
             discardingThreshold = queueSize / 5;
         addInfo("Setting discardingThreshold to " + discardingThreshold);
@@ -113,8 +159,20 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
 
     @Override
     public void stop() {
-        if (!isStarted())
+        if (!beginStop())
             return;
+        awaitWorker(maxFlushTime);
+    }
+
+    /**
+     * Mark this appender as stopped and interrupt the worker, without waiting
+     * for it to flush the queue.
+     *
+     * @return false if this appender was not started
+     */
+    boolean beginStop() {
+        if (!isStarted())
+            return false;
 
         // mark this appender as stopped so that Worker can also processPriorToRemoval if it is invoking
         // aii.appendLoopOnAppenders
@@ -124,13 +182,20 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
         // interrupt the worker thread so that it can terminate. Note that the interruption can be consumed
         // by sub-appenders
         worker.interrupt();
+        return true;
+    }
 
+    /**
+     * Wait at most <code>millis</code> milliseconds, 0 meaning forever, for
+     * the worker to flush the queue after {@link #beginStop()}.
+     */
+    void awaitWorker(long millis) {
         InterruptUtil interruptUtil = new InterruptUtil(context);
 
         try {
             interruptUtil.maskInterruptFlag();
 
-            worker.join(maxFlushTime);
+            worker.join(millis);
 
             // check to see if the thread ended and if not add a warning message
             if (worker.isAlive()) {
@@ -148,15 +213,12 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
         }
     }
 
-
-
-
-
     @Override
     protected void append(E eventObject) {
         if (isQueueBelowDiscardingThreshold() && isDiscardable(eventObject)) {
             return;
         }
+        eventObject = ReusableEvent.retainable(eventObject);
         preprocess(eventObject);
         put(eventObject);
     }
@@ -215,6 +277,19 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
         this.maxFlushTime = maxFlushTime;
     }
 
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of events the worker dispatches at once. A value of 1 disables batching.
+     *
+     * @param maxBatchSize
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
     /**
      * Returns the number of elements currently in the blocking queue.
      *
@@ -224,6 +299,46 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
         return blockingQueue.size();
     }
 
+    /**
+     * Sets the value of the <b>QueueType</b> option. Recognized values are listed in {@link QueueType}, the
+     * comparison is case-insensitive.
+     *
+     * @param value the name of the queue type
+     */
+    public void setQueueType(String value) {
+        QueueType t = QueueType.findByName(value.trim());
+        if (t == null) {
+            addWarn("[" + value + "] should be one of " + Arrays.toString(QueueType.values()));
+            addWarn("Using previously set queue type, " + queueType + ", by default.");
+        } else {
+            queueType = t;
+        }
+    }
+
+    public String getQueueType() {
+        return queueType.name();
+    }
+
+    /**
+     * Sets the value of the <b>WaitStrategy</b> option, one of {@link WaitStrategy}. Only taken into account
+     * for the <code>RING_BUFFER</code> queue type.
+     *
+     * @param value the name of the wait strategy
+     */
+    public void setWaitStrategy(String value) {
+        WaitStrategy ws = WaitStrategy.findByName(value.trim());
+        if (ws == null) {
+            addWarn("[" + value + "] should be one of " + Arrays.toString(WaitStrategy.values()));
+            addWarn("Using previously set wait strategy, " + waitStrategy + ", by default.");
+        } else {
+            waitStrategy = ws;
+        }
+    }
+
+    public String getWaitStrategy() {
+        return waitStrategy.name();
+    }
+
     public void setNeverBlock(boolean neverBlock) {
         this.neverBlock = neverBlock;
     }
@@ -279,30 +394,53 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
         return aai.detachAppender(name);
     }
 
+    /**
+     * Invoked by the worker thread once it has flushed the queue. Detaches and stops the attached appender.
+     */
+    void onWorkerExit() {
+        aai.detachAndStopAllAppenders();
+    }
+
     class Worker extends Thread {
 
         public void run() {
             AsyncAppenderBase<E> parent = AsyncAppenderBase.this;
             AppenderAttachableImpl<E> aai = parent.aai;
+            BlockingQueue<E> blockingQueue = parent.blockingQueue;
+            int batchSize = parent.maxBatchSize;
+            List<E> batch = new ArrayList<E>(batchSize);
 
             // loop while the parent is started
             while (parent.isStarted()) {
                 try {
-                    E e = parent.blockingQueue.take();
-                    aai.appendLoopOnAppenders(e);
+                    batch.add(blockingQueue.take());
+                    if (batchSize > 1) {
+                        blockingQueue.drainTo(batch, batchSize - 1);
+                    }
+                    dispatch(aai, batch);
                 } catch (InterruptedException ie) {
                     break;
+                } finally {
+                    batch.clear();
                 }
             }
 
             addInfo("Worker thread will flush remaining events before exiting. ");
 
-            for (E e : parent.blockingQueue) {
-                aai.appendLoopOnAppenders(e);
-                parent.blockingQueue.remove(e);
+            while (blockingQueue.drainTo(batch, batchSize) > 0) {
+                dispatch(aai, batch);
+                batch.clear();
             }
 
-            aai.detachAndStopAllAppenders();
+            parent.onWorkerExit();
+        }
+
+        private void dispatch(AppenderAttachableImpl<E> aai, List<E> batch) {
+            if (batch.size() == 1) {
+                aai.appendLoopOnAppenders(batch.get(0));
+            } else {
+                aai.appendBatchLoopOnAppenders(batch);
+            }
         }
     }
 }
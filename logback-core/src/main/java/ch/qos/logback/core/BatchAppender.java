@@ -0,0 +1,41 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import java.util.List;
+
+/**
+ * An appender which can process several events in one go, for example by
+ * writing them under a single lock acquisition and flushing once per batch
+ * instead of once per event.
+ * <p>
+ * Callers such as {@link AsyncAppenderBase} use {@link #doAppendBatch(List)}
+ * when they hold more than one event. The outcome must be the same as calling
+ * {@link #doAppend(Object)} for each event of the batch, in order.
+ *
+ * @param <E>
+ * @since 1.3.7
+ */
+public interface BatchAppender<E> extends Appender<E> {
+
+    /**
+     * Append all events of the list, in list order. The list must not be
+     * modified by the appender and should not be retained after the call
+     * returns.
+     * 
+     * @param events the events to append
+     */
+    void doAppendBatch(List<E> events) throws LogbackException;
+
+}
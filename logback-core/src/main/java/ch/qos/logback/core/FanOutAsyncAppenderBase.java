@@ -0,0 +1,357 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import ch.qos.logback.core.spi.ReusableEvent;
+
+/**
+ * An asynchronous appender which, unlike {@link AsyncAppenderBase}, accepts any number of attached appenders.
+ * <p>
+ * Each attached appender is served by its own queue and worker thread, called a lane, so that a slow appender,
+ * e.g. one writing to a remote server, cannot hold back the others. Queue related options such as
+ * <b>QueueSize</b>, <b>DiscardingThreshold</b>, <b>NeverBlock</b> or <b>MaxFlushTime</b> have the same meaning
+ * as for {@link AsyncAppenderBase} and apply to each lane separately.
+ * <p>
+ * When <b>ShardCount</b> is larger than one, each attached appender is served by that many lanes. Events are
+ * distributed across them according to the hash of their {@link #getShardKey(Object) shard key}. Events sharing a
+ * key always go through the same lane and are thus appended in order, whereas events with different keys may be
+ * appended concurrently. Attached appenders must therefore be thread-safe in this mode.
+ * <p>
+ * Appenders must be attached before this appender is started.
+ *
+ * @param <E>
+ * @since 1.3.7
+ */
+public class FanOutAsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implements AppenderAttachable<E> {
+
+    AppenderAttachableImpl<E> aai = new AppenderAttachableImpl<E>();
+
+    int queueSize = AsyncAppenderBase.DEFAULT_QUEUE_SIZE;
+    int discardingThreshold = AsyncAppenderBase.UNDEFINED;
+    boolean neverBlock = false;
+    int maxFlushTime = AsyncAppenderBase.DEFAULT_MAX_FLUSH_TIME;
+    int maxBatchSize = AsyncAppenderBase.DEFAULT_MAX_BATCH_SIZE;
+    String queueType;
+    String waitStrategy;
+
+    int shardCount = 1;
+
+    // lanes[i][j] serves shard j of the i-th attached appender
+    Lane<E>[][] lanes;
+
+    /**
+     * Is the eventObject passed as parameter discardable? See {@link AsyncAppenderBase#isDiscardable(Object)}.
+     *
+     * @param eventObject
+     * @return - true if the event can be discarded, false otherwise
+     */
+    protected boolean isDiscardable(E eventObject) {
+        return false;
+    }
+
+    /**
+     * Pre-process the event prior to queueing. Invoked once per event, however many lanes it is queued in.
+     *
+     * @param eventObject
+     */
+    protected void preprocess(E eventObject) {
+    }
+
+    /**
+     * The key events are sharded by when <b>ShardCount</b> is larger than one. The base class returns
+     * <code>null</code> which places all events in the first shard. Sub-classes are expected to override this
+     * method.
+     *
+     * @param eventObject
+     * @return the shard key, may be null
+     */
+    protected Object getShardKey(E eventObject) {
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void start() {
+        if (isStarted())
+            return;
+        List<Appender<E>> appenderList = new ArrayList<Appender<E>>();
+        for (Iterator<Appender<E>> it = aai.iteratorForAppenders(); it.hasNext();) {
+            appenderList.add(it.next());
+        }
+        if (appenderList.isEmpty()) {
+            addError("No attached appenders found.");
+            return;
+        }
+        if (shardCount < 1) {
+            addError("Invalid shard count [" + shardCount + "]");
+            return;
+        }
+
+        Lane<E>[][] newLanes = new Lane[appenderList.size()][];
+        for (int i = 0; i < newLanes.length; i++) {
+            Appender<E> appender = appenderList.get(i);
+            newLanes[i] = new Lane[shardCount];
+            for (int j = 0; j < shardCount; j++) {
+                Lane<E> lane = buildLane(appender, j);
+                lane.start();
+                if (!lane.isStarted()) {
+                    addError("Failed to start lane for appender named [" + appender.getName() + "].");
+                    stopLanes(newLanes);
+                    return;
+                }
+                newLanes[i][j] = lane;
+            }
+        }
+        lanes = newLanes;
+        addInfo("Started " + (appenderList.size() * shardCount) + " lane(s) for " + appenderList.size() + " appender(s)");
+        super.start();
+    }
+
+    private Lane<E> buildLane(Appender<E> appender, int shard) {
+        Lane<E> lane = new Lane<E>(this, appender);
+        lane.setContext(context);
+        String laneName = getName() + "-" + appender.getName();
+        if (shardCount > 1) {
+            laneName += "-" + shard;
+        }
+        lane.setName(laneName);
+        lane.setQueueSize(queueSize);
+        lane.setDiscardingThreshold(discardingThreshold);
+        lane.setNeverBlock(neverBlock);
+        lane.setMaxFlushTime(maxFlushTime);
+        lane.setMaxBatchSize(maxBatchSize);
+        if (queueType != null) {
+            lane.setQueueType(queueType);
+        }
+        if (waitStrategy != null) {
+            lane.setWaitStrategy(waitStrategy);
+        }
+        lane.addAppender(appender);
+        return lane;
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted())
+            return;
+        super.stop();
+        stopLanes(lanes);
+        aai.detachAndStopAllAppenders();
+    }
+
+    // stops all lanes at once, then waits for their workers against a single
+    // deadline, so that stopping takes at most maxFlushTime overall
+    private void stopLanes(Lane<E>[][] lanesToStop) {
+        if (lanesToStop == null) {
+            return;
+        }
+        List<Lane<E>> stopped = new ArrayList<Lane<E>>();
+        for (Lane<E>[] perAppender : lanesToStop) {
+            if (perAppender == null) {
+                continue;
+            }
+            for (Lane<E> lane : perAppender) {
+                if (lane != null && lane.beginStop()) {
+                    stopped.add(lane);
+                }
+            }
+        }
+        long deadline = System.currentTimeMillis() + maxFlushTime;
+        for (Lane<E> lane : stopped) {
+            if (maxFlushTime <= 0) {
+                lane.awaitWorker(0);
+            } else {
+                // join(0) would wait forever
+                lane.awaitWorker(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        }
+    }
+
+    @Override
+    protected void append(E eventObject) {
+        Lane<E>[][] currentLanes = lanes;
+        eventObject = ReusableEvent.retainable(eventObject);
+        preprocess(eventObject);
+        int shard = shardCount == 1 ? 0 : shardIndex(getShardKey(eventObject));
+        for (int i = 0; i < currentLanes.length; i++) {
+            currentLanes[i][shard].append(eventObject);
+        }
+    }
+
+    int shardIndex(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        return (key.hashCode() & Integer.MAX_VALUE) % shardCount;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isNeverBlock() {
+        return neverBlock;
+    }
+
+    public void setNeverBlock(boolean neverBlock) {
+        this.neverBlock = neverBlock;
+    }
+
+    public String getQueueType() {
+        return queueType;
+    }
+
+    /**
+     * See {@link AsyncAppenderBase#setQueueType(String)}.
+     */
+    public void setQueueType(String queueType) {
+        this.queueType = queueType;
+    }
+
+    public String getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * See {@link AsyncAppenderBase#setWaitStrategy(String)}.
+     */
+    public void setWaitStrategy(String waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * The number of lanes serving each attached appender. The default is 1, i.e. no sharding.
+     *
+     * @param shardCount
+     */
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Returns the number of events currently queued, summed over all lanes.
+     *
+     * @return number of queued events
+     */
+    public int getNumberOfElementsInQueues() {
+        Lane<E>[][] currentLanes = lanes;
+        if (currentLanes == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Lane<E>[] perAppender : currentLanes) {
+            for (Lane<E> lane : perAppender) {
+                count += lane.getNumberOfElementsInQueue();
+            }
+        }
+        return count;
+    }
+
+    public void addAppender(Appender<E> newAppender) {
+        if (isStarted()) {
+            addWarn("Appenders must be attached before start. Ignoring appender named [" + newAppender.getName() + "]");
+            return;
+        }
+        addInfo("Attaching appender named [" + newAppender.getName() + "] to " + getClass().getSimpleName() + ".");
+        aai.addAppender(newAppender);
+    }
+
+    public Iterator<Appender<E>> iteratorForAppenders() {
+        return aai.iteratorForAppenders();
+    }
+
+    public Appender<E> getAppender(String name) {
+        return aai.getAppender(name);
+    }
+
+    public boolean isAttached(Appender<E> eAppender) {
+        return aai.isAttached(eAppender);
+    }
+
+    public void detachAndStopAllAppenders() {
+        aai.detachAndStopAllAppenders();
+    }
+
+    public boolean detachAppender(Appender<E> eAppender) {
+        return aai.detachAppender(eAppender);
+    }
+
+    public boolean detachAppender(String name) {
+        return aai.detachAppender(name);
+    }
+
+    /**
+     * A queue and worker thread serving one shard of one attached appender.
+     */
+    static class Lane<E> extends AsyncAppenderBase<E> {
+
+        final FanOutAsyncAppenderBase<E> parent;
+        final Appender<E> appender;
+
+        Lane(FanOutAsyncAppenderBase<E> parent, Appender<E> appender) {
+            this.parent = parent;
+            this.appender = appender;
+        }
+
+        @Override
+        protected boolean isDiscardable(E eventObject) {
+            return parent.isDiscardable(eventObject);
+        }
+
+        @Override
+        void onWorkerExit() {
+            // the appender may be shared by several lanes, it is stopped by
+            // the parent once all lanes are done
+            detachAppender(appender);
+        }
+    }
+}
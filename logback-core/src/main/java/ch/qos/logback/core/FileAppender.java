@@ -18,19 +18,40 @@ import static ch.qos.logback.core.CoreConstants.MORE_INFO_PREFIX;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
-
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.core.encoder.EncodingBuffer;
+import ch.qos.logback.core.nio.DirectBufferPool;
+import ch.qos.logback.core.nio.Durability;
+import ch.qos.logback.core.nio.FileChannelOutputStream;
+import ch.qos.logback.core.nio.MappedFileOutputStream;
 import ch.qos.logback.core.recovery.ResilientFileOutputStream;
 import ch.qos.logback.core.util.ContextUtil;
+import ch.qos.logback.core.util.Duration;
 import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.FileUtil;
 
 /**
  * FileAppender appends log events to a file.
  * 
+ * <p>In <b>nio</b> mode, events are written through a
+ * {@link FileChannelOutputStream}: they are copied into pooled direct buffers
+ * and written to the file channel with group commit. The <b>durability</b>
+ * property then replaces <b>immediateFlush</b>, see {@link Durability}. NIO
+ * mode does not support prudent mode.
+ * 
+ * <p>In <b>mapped</b> mode, events are copied into a memory-mapped region of
+ * the file, which is remapped every <b>regionSize</b> bytes, see
+ * {@link MappedFileOutputStream}. The file is truncated to the length of its
+ * data when closed. Mapped mode supports neither prudent mode nor nio mode.
+ * 
  * For more information about this appender, please refer to the online manual
  * at http://logback.qos.ch/manual/appenders.html#FileAppender
  * 
@@ -40,6 +61,10 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
 
     public static final long DEFAULT_BUFFER_SIZE = 8192;
 
+    public static final long DEFAULT_FSYNC_PERIOD_MILLIS = 1000;
+
+    public static final long DEFAULT_REGION_SIZE = 32 * FileSize.MB_COEFFICIENT;
+
     static protected String COLLISION_WITH_EARLIER_APPENDER_URL = CODES_URL + "#earlier_fa_collision";
 
     /**
@@ -58,6 +83,15 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
 
     private FileSize bufferSize = new FileSize(DEFAULT_BUFFER_SIZE);
 
+    private boolean nio = false;
+    private Durability durability = Durability.FLUSH;
+    private Duration fsyncPeriod = Duration.buildByMilliseconds(DEFAULT_FSYNC_PERIOD_MILLIS);
+    private DirectBufferPool bufferPool;
+    private ScheduledFuture<?> fsyncFuture;
+
+    private boolean mapped = false;
+    private FileSize regionSize = new FileSize(DEFAULT_REGION_SIZE);
+
     /**
      * The <b>File</b> property takes a string value which should be the name of
      * the file to append to.
@@ -117,6 +151,25 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
                 }
             }
 
+            if (mapped) {
+                if (prudent) {
+                    addWarn("Mapped mode is not supported in prudent mode. Disabling mapped mode.");
+                    mapped = false;
+                } else if (nio) {
+                    addWarn("Mapped mode and NIO mode are mutually exclusive. Disabling NIO mode.");
+                    nio = false;
+                }
+            }
+
+            if (nio) {
+                if (prudent) {
+                    addWarn("NIO mode is not supported in prudent mode. Disabling NIO mode.");
+                    nio = false;
+                } else {
+                    bufferPool = new DirectBufferPool((int) bufferSize.getSize());
+                }
+            }
+
             if (checkForFileCollisionInPreviousFileAppenders()) {
                 addError("Collisions detected with FileAppender/RollingAppender instances defined earlier. Aborting.");
                 addError(MORE_INFO_PREFIX + COLLISION_WITH_EARLIER_APPENDER_URL);
@@ -136,11 +189,50 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
         }
         if (errors == 0) {
             super.start();
+            if (nio && durability == Durability.FSYNC) {
+                scheduleFsync();
+            }
+        }
+    }
+
+    private void scheduleFsync() {
+        long period = fsyncPeriod.getMilliseconds();
+        if (period <= 0) {
+            addWarn("Invalid fsyncPeriod [" + fsyncPeriod + "]. Using default [" + DEFAULT_FSYNC_PERIOD_MILLIS + " milliseconds].");
+            period = DEFAULT_FSYNC_PERIOD_MILLIS;
+        }
+        Runnable fsyncTask = new Runnable() {
+            @Override
+            public void run() {
+                fsync();
+            }
+        };
+        fsyncFuture = context.getScheduledExecutorService().scheduleAtFixedRate(fsyncTask, period, period, TimeUnit.MILLISECONDS);
+        context.addScheduledFuture(fsyncFuture);
+    }
+
+    /**
+     * Force the current file to the storage device. Invoked periodically in
+     * nio mode with {@link Durability#FSYNC} durability.
+     */
+    void fsync() {
+        OutputStream os = getOutputStream();
+        if (!(os instanceof FileChannelOutputStream)) {
+            return;
+        }
+        try {
+            ((FileChannelOutputStream) os).force();
+        } catch (IOException e) {
+            addError("Failed to force file [" + fileName + "] to the storage device.", e);
         }
     }
 
     @Override
     public void stop() {
+        if (fsyncFuture != null) {
+            fsyncFuture.cancel(false);
+            fsyncFuture = null;
+        }
         super.stop();
 
         Map<String, String> map = ContextUtil.getFilenameCollisionMap(context);
@@ -201,9 +293,15 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
                 addError("Failed to create parent directories for [" + file.getAbsolutePath() + "]");
             }
 
-            ResilientFileOutputStream resilientFos = new ResilientFileOutputStream(file, append, bufferSize.getSize());
-            resilientFos.setContext(context);
-            setOutputStream(resilientFos);
+            if (mapped) {
+                setOutputStream(new MappedFileOutputStream(file, append, regionSize.getSize()));
+            } else if (nio) {
+                setOutputStream(new FileChannelOutputStream(file, append, bufferPool, durability));
+            } else {
+                ResilientFileOutputStream resilientFos = new ResilientFileOutputStream(file, append, bufferSize.getSize());
+                resilientFos.setContext(context);
+                setOutputStream(resilientFos);
+            }
         } finally {
             lock.unlock();
         }
@@ -237,6 +335,117 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
         this.bufferSize = bufferSize;
     }
 
+    public boolean isNio() {
+        return nio;
+    }
+
+    /**
+     * When nio is set to true, events are written to the file through a
+     * FileChannel with group commit instead of a buffered output stream. The
+     * buffer size applies to the direct buffers used.
+     * 
+     * @param nio
+     * @since 1.3.7
+     */
+    public void setNio(boolean nio) {
+        this.nio = nio;
+    }
+
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * When mapped is set to true, events are written to the file through a
+     * memory-mapped region instead of a buffered output stream.
+     * 
+     * @param mapped
+     * @since 1.3.7
+     */
+    public void setMapped(boolean mapped) {
+        this.mapped = mapped;
+    }
+
+    public FileSize getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * Sets the size of the regions mapped in mapped mode. The default is 32MB.
+     * 
+     * @since 1.3.7
+     */
+    public void setRegionSize(FileSize regionSize) {
+        if (regionSize.getSize() <= 0 || regionSize.getSize() > Integer.MAX_VALUE) {
+            addWarn("Invalid regionSize [" + regionSize + "]. Using previously set regionSize, " + this.regionSize + ", by default.");
+            return;
+        }
+        this.regionSize = regionSize;
+    }
+
+    public String getDurability() {
+        return durability.name();
+    }
+
+    /**
+     * Sets the durability of nio mode, one of NONE, FLUSH or FSYNC. The default
+     * is FLUSH.
+     * 
+     * @since 1.3.7
+     */
+    public void setDurability(String value) {
+        Durability d = Durability.findByName(value);
+        if (d == null) {
+            addWarn("[" + value + "] should be one of " + Arrays.toString(Durability.values()));
+            addWarn("Using previously set durability, " + durability + ", by default.");
+            return;
+        }
+        this.durability = d;
+    }
+
+    public Duration getFsyncPeriod() {
+        return fsyncPeriod;
+    }
+
+    /**
+     * Sets the period at which the file is forced to the storage device when
+     * durability is FSYNC. The default is one second.
+     * 
+     * @since 1.3.7
+     */
+    public void setFsyncPeriod(Duration fsyncPeriod) {
+        this.fsyncPeriod = fsyncPeriod;
+    }
+
+    /**
+     * In nio mode, the buffer's content is appended to the channel stream while
+     * holding the lock, and committed according to the durability after the
+     * lock has been released, allowing concurrent writers to be committed
+     * together.
+     */
+    @Override
+    protected void writeBytes(EncodingBuffer buffer) throws IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+        FileChannelOutputStream channelStream;
+        long ticket;
+        lock.lock();
+        try {
+            OutputStream os = getOutputStream();
+            if (!(os instanceof FileChannelOutputStream)) {
+                super.writeBytes(buffer);
+                return;
+            }
+            channelStream = (FileChannelOutputStream) os;
+            ticket = channelStream.append(buffer.getByteBuffer().array(), buffer.getByteBuffer().arrayOffset(), buffer.size());
+            bytesWritten(buffer.size());
+        } finally {
+            lock.unlock();
+        }
+        channelStream.awaitCommit(ticket);
+    }
+
     private void safeWrite(E event) throws IOException {
         ResilientFileOutputStream resilientFOS = (ResilientFileOutputStream) getOutputStream();
         FileChannel fileChannel = resilientFOS.getChannel();
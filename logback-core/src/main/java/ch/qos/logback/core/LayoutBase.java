@@ -44,6 +44,18 @@ abstract public class LayoutBase<E> extends ContextAwareBase implements Layout<E
         return started;
     }
 
+    /**
+     * Append the formatted event to the given builder. The default
+     * implementation appends the result of {@link #doLayout(Object)}; layouts
+     * able to write directly into the builder override it to avoid the
+     * intermediate String.
+     *
+     * @since 1.3.7
+     */
+    public void doLayout(E event, StringBuilder buf) {
+        buf.append(doLayout(event));
+    }
+
     public String getFileHeader() {
         return fileHeader;
     }
@@ -0,0 +1,36 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import ch.qos.logback.core.nio.MappedFileOutputStream;
+
+/**
+ * MappedFileAppender is a {@link FileAppender} in mapped mode: events are
+ * appended to a memory-mapped region of the file, which is remapped in chunks
+ * of <b>regionSize</b> bytes as the file grows. See
+ * {@link MappedFileOutputStream}.
+ * 
+ * <p>Since bytes copied to the mapped region are visible to readers of the
+ * file at once, <b>immediateFlush</b> has no effect. To use a mapped file with
+ * rolling, set the <b>mapped</b> property of
+ * {@link ch.qos.logback.core.rolling.RollingFileAppender RollingFileAppender}.
+ * 
+ * @since 1.3.7
+ */
+public class MappedFileAppender<E> extends FileAppender<E> {
+
+    public MappedFileAppender() {
+        setMapped(true);
+    }
+}
@@ -17,9 +17,12 @@ import static ch.qos.logback.core.CoreConstants.CODES_URL;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
+import ch.qos.logback.core.encoder.BufferEncoder;
 import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncodingBuffer;
 import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
 import ch.qos.logback.core.spi.DeferredProcessingAware;
 import ch.qos.logback.core.status.ErrorStatus;
@@ -28,12 +31,20 @@ import ch.qos.logback.core.status.ErrorStatus;
  * OutputStreamAppender appends events to a {@link OutputStream}. This class
  * provides basic services that other appenders build upon.
  * 
+ * <p>As a {@link BatchAppender}, it encodes a batch of events and writes the
+ * result while holding its lock only once. With <b>immediateFlush</b> set, the
+ * output stream is flushed once per batch.
+ * 
+ * <p>Events are encoded into a per-thread {@link EncodingBuffer} when the
+ * encoder implements {@link BufferEncoder}, so that no intermediate byte array
+ * is created per event.
+ * 
  * For more information about this appender, please refer to the online manual
  * at http://logback.qos.ch/manual/appenders.html#OutputStreamAppender
  * 
  * @author Ceki G&uuml;lc&uuml;
  */
-public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
+public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> implements BatchAppender<E> {
 
     /**
      * It is the encoder which is ultimately responsible for writing the event to
@@ -102,6 +113,15 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
         subAppend(eventObject);
     }
 
+    @Override
+    protected void appendBatch(List<E> events) {
+        if (!isStarted()) {
+            return;
+        }
+
+        subAppendBatch(events);
+    }
+
     /**
      * Stop this appender instance. The underlying stream or writer is also
      * closed.
@@ -135,6 +155,21 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
         }
     }
 
+    /**
+     * Write the footer and detach the underlying {@link OutputStream} without
+     * closing it. The caller becomes responsible for closing the returned
+     * stream. Must be invoked while holding the lock.
+     *
+     * @return the detached stream, or null if there was none
+     * @since 1.3.7
+     */
+    protected OutputStream detachOutputStream() {
+        encoderClose();
+        OutputStream os = this.outputStream;
+        this.outputStream = null;
+        return os;
+    }
+
     void encoderClose() {
         if (encoder != null && this.outputStream != null) {
             try {
@@ -186,10 +221,50 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
         }
     }
     protected void writeOut(E event) throws IOException {
+        if (this.encoder instanceof BufferEncoder) {
+            writeEncoded(event);
+            return;
+        }
         byte[] byteArray = this.encoder.encode(event);
         writeBytes(byteArray);
     }
 
+    /**
+     * Encode the event into the current thread's {@link EncodingBuffer} and
+     * write the buffer out, without an intermediate byte array.
+     */
+    private void writeEncoded(E event) throws IOException {
+        EncodingBuffer buffer = EncodingBuffer.acquire();
+        try {
+            ((BufferEncoder<E>) this.encoder).encode(event, buffer);
+            writeBytes(buffer);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Write the content of the buffer while holding the lock, flushing the
+     * output stream if immediateFlush is set.
+     * 
+     * @since 1.3.7
+     */
+    protected void writeBytes(EncodingBuffer buffer) throws IOException {
+        if (buffer.size() == 0)
+            return;
+
+        lock.lock();
+        try {
+            buffer.writeTo(this.outputStream);
+            bytesWritten(buffer.size());
+            if (immediateFlush) {
+                this.outputStream.flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private void writeBytes(byte[] byteArray) throws IOException {
         if(byteArray == null || byteArray.length == 0)
             return;
@@ -197,6 +272,7 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
         lock.lock();
         try {
             this.outputStream.write(byteArray);
+            bytesWritten(byteArray.length);
             if (immediateFlush) {
                 this.outputStream.flush();
             }
@@ -205,6 +281,15 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
         }
     }
 
+    /**
+     * Invoked while holding the lock, each time <code>count</code> bytes have
+     * been written to the output stream. Does nothing by default.
+     * 
+     * @since 1.3.7
+     */
+    protected void bytesWritten(long count) {
+    }
+
     /**
      * Actual writing occurs here.
      * <p>
@@ -227,6 +312,11 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
             // converter. Converters assume that they are in a synchronized block.
             // lock.lock();
 
+            if (this.encoder instanceof BufferEncoder) {
+                writeEncoded(event);
+                return;
+            }
+
             byte[] byteArray = this.encoder.encode(event);
             writeBytes(byteArray);
 
@@ -238,6 +328,75 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
         }
     }
 
+    /**
+     * Batch counterpart of {@link #subAppend(Object)}. All events are encoded into a single {@link EncodingBuffer}
+     * which is then written while holding the lock once. An event failing to be encoded is reported and left out,
+     * the remaining events of the batch are written nonetheless.
+     * <p>
+     * Sub-classes overriding {@link #subAppend(Object)} should override this method as well.
+     * 
+     * @since 1.3.7
+     */
+    protected void subAppendBatch(List<E> events) {
+        if (!isStarted()) {
+            return;
+        }
+        EncodingBuffer buffer = EncodingBuffer.acquire();
+        try {
+            final int len = events.size();
+            for (int i = 0; i < len; i++) {
+                E event = events.get(i);
+                beforeBatchEvent(event, buffer);
+                int mark = buffer.size();
+                try {
+                    // this step avoids LBCLASSIC-139
+                    if (event instanceof DeferredProcessingAware) {
+                        ((DeferredProcessingAware) event).prepareForDeferredProcessing();
+                    }
+                    encode(event, buffer);
+                } catch (RuntimeException e) {
+                    // drop whatever the failing event left in the buffer
+                    buffer.truncate(mark);
+                    appendFailed(e);
+                }
+            }
+            writeBytes(buffer);
+
+        } catch (IOException ioe) {
+            // as soon as an exception occurs, move to non-started state
+            // and add a single ErrorStatus to the SM.
+            this.started = false;
+            addStatus(new ErrorStatus("IO failure in appender", this, ioe));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Invoked by {@link #subAppendBatch(List)} before each event is encoded,
+     * with the buffer holding the encoded preceding events of the batch. Does
+     * nothing by default.
+     * 
+     * @since 1.3.7
+     */
+    protected void beforeBatchEvent(E event, EncodingBuffer pending) throws IOException {
+    }
+
+    /**
+     * Append the encoded form of the event to the buffer, copying the byte
+     * array returned by encoders which do not implement {@link BufferEncoder}.
+     */
+    private void encode(E event, EncodingBuffer buffer) {
+        if (this.encoder instanceof BufferEncoder) {
+            ((BufferEncoder<E>) this.encoder).encode(event, buffer);
+            return;
+        }
+        byte[] byteArray = this.encoder.encode(event);
+        if (byteArray != null) {
+            buffer.write(byteArray);
+        }
+    }
+
     public Encoder<E> getEncoder() {
         return encoder;
     }
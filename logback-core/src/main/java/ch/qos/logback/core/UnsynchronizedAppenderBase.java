@@ -13,6 +13,7 @@
  */
 package ch.qos.logback.core;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import ch.qos.logback.core.filter.Filter;
@@ -94,6 +95,91 @@ abstract public class UnsynchronizedAppenderBase<E> extends ContextAwareBase imp
 
     abstract protected void append(E eventObject);
 
+    /**
+     * Batch counterpart of {@link #doAppend(Object)}, used by sub-classes implementing {@link BatchAppender}.
+     * Events denied by the filter chain are removed from the batch before it is handed to
+     * {@link #appendBatch(List)}.
+     */
+    public void doAppendBatch(List<E> events) {
+        // WARNING: The guard check MUST be the first statement in the
+        // doAppendBatch() method.
+
+        // prevent re-entry.
+        if (Boolean.TRUE.equals(guard.get())) {
+            return;
+        }
+
+        try {
+            guard.set(Boolean.TRUE);
+
+            if (!this.started) {
+                if (statusRepeatCount++ < ALLOWED_REPEATS) {
+                    addStatus(new WarnStatus("Attempted to append to non started appender [" + name + "].", this));
+                }
+                return;
+            }
+
+            List<E> accepted = filterBatch(events);
+            if (accepted.isEmpty()) {
+                return;
+            }
+
+            this.appendBatch(accepted);
+
+        } catch (Exception e) {
+            appendFailed(e);
+        } finally {
+            guard.set(Boolean.FALSE);
+        }
+    }
+
+    /**
+     * Returns the events of the batch which are not denied by the filter chain. The batch itself is returned,
+     * without copying, if no event is denied.
+     */
+    private List<E> filterBatch(List<E> events) {
+        List<E> accepted = null;
+        final int len = events.size();
+        for (int i = 0; i < len; i++) {
+            E e = events.get(i);
+            boolean denied = getFilterChainDecision(e) == FilterReply.DENY;
+            if (denied && accepted == null) {
+                accepted = new ArrayList<E>(events.subList(0, i));
+            } else if (!denied && accepted != null) {
+                accepted.add(e);
+            }
+        }
+        return accepted == null ? events : accepted;
+    }
+
+    /**
+     * Append a batch of events which already went through the filter chain. The default implementation invokes
+     * {@link #append(Object)} for each event so that a failing event does not prevent the remaining ones from
+     * being appended. Sub-classes can override this method in order to process the batch more efficiently.
+     */
+    protected void appendBatch(List<E> events) {
+        final int len = events.size();
+        for (int i = 0; i < len; i++) {
+            try {
+                this.append(events.get(i));
+            } catch (Exception e) {
+                appendFailed(e);
+            }
+        }
+    }
+
+    /**
+     * Report an exception thrown while appending, as {@link #doAppend(Object)} does. Sub-classes processing a
+     * batch invoke this method for each failing event before carrying on with the remaining ones.
+     * 
+     * @since 1.3.7
+     */
+    protected void appendFailed(Exception e) {
+        if (exceptionCount++ < ALLOWED_REPEATS) {
+            addError("Appender [" + name + "] failed to append.", e);
+        }
+    }
+
     /**
      * Set the name of this appender.
      */
@@ -0,0 +1,45 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * The queue implementations an asynchronous appender can buffer its events in.
+ *
+ * @since 1.3.7
+ */
+public enum QueueType {
+
+    /**
+     * An {@link ArrayBlockingQueue}, guarded by a single lock. This is the
+     * default.
+     */
+    ARRAY_BLOCKING,
+
+    /**
+     * A lock-free {@link RingBufferBlockingQueue} which scales better when many
+     * threads log concurrently.
+     */
+    RING_BUFFER;
+
+    public static QueueType findByName(String name) {
+        for (QueueType type : QueueType.values()) {
+            if (type.name().equalsIgnoreCase(name) || type.name().replace("_", "").equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,292 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, preallocated, lock-free multi-producer/single-consumer queue.
+ * <p>
+ * Producers claim a slot with a single compare-and-set on the tail counter and
+ * publish their element by advancing the sequence number of that slot. The
+ * consumer never contends with producers. Waiting, either for space in
+ * {@link #put(Object)} or for elements in {@link #take()}, is delegated to a
+ * {@link WaitStrategy}.
+ * <p>
+ * <b>Only a single thread may remove elements</b> from this queue, i.e. call
+ * {@link #poll()}, {@link #take()} or one of the drainTo methods, at any given
+ * time. Any number of threads may insert elements concurrently.
+ * <p>
+ * The iterator returned by {@link #iterator()} is a weakly consistent snapshot
+ * and does not support removal.
+ *
+ * @param <E> the type of queued elements
+ * @since 1.3.7
+ */
+public class RingBufferBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * Upper bound of a single park of the consumer. Producers unpark a parked
+     * consumer so this bound only matters if a wake-up is missed.
+     */
+    static final long CONSUMER_PARK_NANOS = 10 * 1000 * 1000L;
+
+    final int capacity;
+    final Object[] buffer;
+    // for a slot at position p, sequence == p means free, sequence == p+1 means published
+    final AtomicLongArray sequences;
+    final WaitStrategy waitStrategy;
+
+    // next position to be claimed by a producer
+    final AtomicLong tail = new AtomicLong();
+    // next position to be read by the consumer
+    final AtomicLong head = new AtomicLong();
+
+    volatile Thread parkedConsumer;
+
+    public RingBufferBlockingQueue(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive, was " + capacity);
+        }
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("waitStrategy cannot be null");
+        }
+        this.capacity = capacity;
+        this.waitStrategy = waitStrategy;
+        this.buffer = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    private int indexOf(long position) {
+        return (int) (position % capacity);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long position = tail.get();
+        while (true) {
+            int index = indexOf(position);
+            long delta = sequences.get(index) - position;
+            if (delta == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = e;
+                    // volatile write, must be ordered before the read of parkedConsumer
+                    sequences.set(index, position + 1);
+                    signalConsumer();
+                    return true;
+                }
+                position = tail.get();
+            } else if (delta < 0) {
+                // slot still holds the element of the previous lap
+                return false;
+            } else {
+                // another producer claimed this position
+                position = tail.get();
+            }
+        }
+    }
+
+    private void signalConsumer() {
+        Thread consumer = parkedConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        int round = 0;
+        while (!offer(e)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            round = waitStrategy.idle(round);
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int round = 0;
+        while (!offer(e)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            round = waitStrategy.idle(round);
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = head.get();
+        int index = indexOf(position);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E e = (E) buffer[index];
+        buffer[index] = null;
+        // only the consumer writes head, other threads read it to compute the size
+        head.lazySet(position + 1);
+        sequences.set(index, position + capacity);
+        return e;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        int round = 0;
+        E e;
+        while ((e = poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            round = awaitElement(round);
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int round = 0;
+        E e;
+        while ((e = poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            round = waitStrategy.idle(round);
+        }
+        return e;
+    }
+
+    private int awaitElement(int round) {
+        if (!waitStrategy.isParking(round)) {
+            return waitStrategy.idle(round);
+        }
+        parkedConsumer = Thread.currentThread();
+        try {
+            // re-check after announcing ourselves, a producer may have published in between
+            if (isEmpty()) {
+                LockSupport.parkNanos(this, CONSUMER_PARK_NANOS);
+            }
+        } finally {
+            parkedConsumer = null;
+        }
+        return round;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long position = head.get();
+        int index = indexOf(position);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        return (E) buffer[index];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        long position = head.get();
+        return sequences.get(indexOf(position)) != position + 1;
+    }
+
+    @Override
+    public int size() {
+        long h = head.get();
+        long size = tail.get() - h;
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, capacity);
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        int count = 0;
+        E e;
+        while (count < maxElements && (e = poll()) != null) {
+            c.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        List<E> snapshot = new ArrayList<E>();
+        long end = tail.get();
+        for (long position = head.get(); position < end; position++) {
+            int index = indexOf(position);
+            if (sequences.get(index) != position + 1) {
+                continue;
+            }
+            Object o = buffer[index];
+            // the slot may have been consumed and re-used while we were reading it
+            if (o != null && sequences.get(index) == position + 1) {
+                snapshot.add((E) o);
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The ways in which a thread can wait for a {@link RingBufferBlockingQueue} to
+ * become non-empty (consumer side) or non-full (producer side).
+ * <p>
+ * All strategies start by busy-spinning for a few rounds. {@link #SPIN} keeps
+ * spinning for as long as it has to wait and thus burns a full core, even when
+ * idle. On a single processor machine spinning is replaced by yielding. {@link #YIELD} falls back to {@link Thread#yield()}, and {@link #PARK}
+ * eventually parks the waiting thread which keeps idle CPU usage close to zero
+ * at the cost of a slightly higher wake-up latency.
+ *
+ * @since 1.3.7
+ */
+public enum WaitStrategy {
+
+    SPIN {
+        @Override
+        public int idle(int round) {
+            if (MULTI_PROCESSOR) {
+                Thread.onSpinWait();
+            } else {
+                // spinning cannot make progress without a second processor
+                Thread.yield();
+            }
+            return round + 1;
+        }
+    },
+
+    YIELD {
+        @Override
+        public int idle(int round) {
+            if (round < SPIN_ROUNDS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return round + 1;
+        }
+    },
+
+    PARK {
+        @Override
+        public int idle(int round) {
+            if (round < SPIN_ROUNDS) {
+                Thread.onSpinWait();
+            } else if (round < SPIN_ROUNDS + YIELD_ROUNDS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return round + 1;
+        }
+
+        @Override
+        boolean isParking(int round) {
+            return round >= SPIN_ROUNDS + YIELD_ROUNDS;
+        }
+    };
+
+    static final boolean MULTI_PROCESSOR = Runtime.getRuntime().availableProcessors() > 1;
+    static final int SPIN_ROUNDS = MULTI_PROCESSOR ? 100 : 0;
+    static final int YIELD_ROUNDS = 100;
+
+    /**
+     * Upper bound of a single park, in nanoseconds. Producers waiting for free
+     * space are not signalled and rely on this bound to re-check the queue.
+     */
+    static final long PARK_NANOS = 100 * 1000L;
+
+    /**
+     * Wait for a short while.
+     * 
+     * @param round the number of times the caller has waited so far, zero on
+     *              the first call
+     * @return the value to pass as <code>round</code> on the next call
+     */
+    public abstract int idle(int round);
+
+    /**
+     * Whether the given round would park the calling thread.
+     */
+    boolean isParking(int round) {
+        return false;
+    }
+
+    public static WaitStrategy findByName(String name) {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            if (strategy.name().equalsIgnoreCase(name)) {
+                return strategy;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.encoder;
+
+/**
+ * An {@link Encoder} which can also write the encoded form of an event into a
+ * caller-supplied {@link EncodingBuffer}, sparing the byte array returned by
+ * {@link #encode(Object)}. Appenders such as OutputStreamAppender use this
+ * contract when it is available.
+ * <p>
+ * Both methods must produce the same bytes. Implementations meant to be
+ * subclassed should fall back to {@link #encode(Object)} when a subclass
+ * overrides it only, as {@link LayoutWrappingEncoder} does.
+ *
+ * @param <E> event type
+ * @since 1.3.7
+ */
+public interface BufferEncoder<E> extends Encoder<E> {
+
+    /**
+     * Append the encoded form of the event to the given buffer. Characters
+     * left in the buffer's StringBuilder must be encoded before returning.
+     *
+     * @param event the event to encode
+     * @param buffer the buffer receiving the encoded bytes
+     */
+    void encode(E event, EncodingBuffer buffer);
+}
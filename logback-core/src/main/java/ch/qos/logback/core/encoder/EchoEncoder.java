@@ -15,7 +15,7 @@ package ch.qos.logback.core.encoder;
 
 import ch.qos.logback.core.CoreConstants;
 
-public class EchoEncoder<E> extends EncoderBase<E> {
+public class EchoEncoder<E> extends EncoderBase<E> implements BufferEncoder<E> {
 
     String fileHeader;
     String fileFooter;
@@ -25,6 +25,12 @@ public class EchoEncoder<E> extends EncoderBase<E> {
         return val.getBytes();
     }
 
+    @Override
+    public void encode(E event, EncodingBuffer buffer) {
+        buffer.getStringBuilder().append(event).append(CoreConstants.LINE_SEPARATOR);
+        buffer.encodeChars(null);
+    }
+
     public byte[] footerBytes()  {
         if (fileFooter == null) {
             return null;
@@ -0,0 +1,216 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.encoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reusable scratch space for encoding events without allocating: a
+ * {@link StringBuilder} which layouts write into, and a growable byte buffer
+ * which receives the encoded characters.
+ * <p>
+ * Instances are obtained with {@link #acquire()}, which hands out one buffer
+ * per thread, and must be given back with {@link #release()}. Nested use on
+ * the same thread, for example when a component logs while an event is being
+ * encoded, is served by a throw-away instance.
+ *
+ * @since 1.3.7
+ */
+public class EncodingBuffer {
+
+    static final int INITIAL_CHAR_CAPACITY = 256;
+    static final int INITIAL_BYTE_CAPACITY = 512;
+
+    /**
+     * Buffers which grew beyond this capacity, in chars or bytes, are not kept
+     * for reuse so that a single large event does not pin memory for the
+     * lifetime of the thread.
+     */
+    static final int MAX_RETAINED_CAPACITY = 32 * 1024;
+
+    private static final ThreadLocal<EncodingBuffer> THREAD_BUFFER = new ThreadLocal<EncodingBuffer>();
+
+    private StringBuilder chars = new StringBuilder(INITIAL_CHAR_CAPACITY);
+    private char[] charArray = new char[INITIAL_CHAR_CAPACITY];
+    private CharBuffer charBuffer = CharBuffer.wrap(charArray);
+    private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_BYTE_CAPACITY);
+
+    private Charset encoderCharset;
+    private CharsetEncoder encoder;
+
+    private boolean inUse;
+
+    /**
+     * Returns the buffer of the current thread, cleared and marked as in use.
+     */
+    public static EncodingBuffer acquire() {
+        EncodingBuffer buffer = THREAD_BUFFER.get();
+        if (buffer == null) {
+            buffer = new EncodingBuffer();
+            THREAD_BUFFER.set(buffer);
+        } else if (buffer.inUse) {
+            buffer = new EncodingBuffer();
+        }
+        buffer.inUse = true;
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Marks this buffer as available for the next {@link #acquire()} on the
+     * current thread.
+     */
+    public void release() {
+        inUse = false;
+        if (chars.capacity() > MAX_RETAINED_CAPACITY) {
+            chars = new StringBuilder(INITIAL_CHAR_CAPACITY);
+        }
+        if (charArray.length > MAX_RETAINED_CAPACITY) {
+            charArray = new char[INITIAL_CHAR_CAPACITY];
+            charBuffer = CharBuffer.wrap(charArray);
+        }
+        if (bytes.capacity() > MAX_RETAINED_CAPACITY) {
+            bytes = ByteBuffer.allocate(INITIAL_BYTE_CAPACITY);
+        }
+    }
+
+    /**
+     * Discards any pending characters and encoded bytes.
+     */
+    public void clear() {
+        chars.setLength(0);
+        bytes.clear();
+    }
+
+    /**
+     * Discards any pending characters and the encoded bytes beyond the given
+     * size, as returned by an earlier call to {@link #size()}.
+     */
+    public void truncate(int size) {
+        chars.setLength(0);
+        bytes.position(size);
+    }
+
+    /**
+     * Returns the builder holding characters not yet encoded.
+     */
+    public StringBuilder getStringBuilder() {
+        return chars;
+    }
+
+    /**
+     * Encodes the characters accumulated in the {@link #getStringBuilder()
+     * builder} with the given charset, appends the result to the encoded bytes
+     * and empties the builder. Malformed input and unmappable characters are
+     * replaced, as {@link String#getBytes(Charset)} does.
+     *
+     * @param charset the charset to use, {@code null} for the system's default
+     */
+    public void encodeChars(Charset charset) {
+        int len = chars.length();
+        if (len == 0) {
+            return;
+        }
+        if (charArray.length < len) {
+            charArray = new char[Math.max(len, 2 * charArray.length)];
+            charBuffer = CharBuffer.wrap(charArray);
+        }
+        chars.getChars(0, len, charArray, 0);
+        charBuffer.clear();
+        charBuffer.limit(len);
+
+        CharsetEncoder enc = encoderFor(charset);
+        ensureRemaining((int) (len * enc.maxBytesPerChar()));
+
+        CoderResult cr;
+        do {
+            cr = enc.encode(charBuffer, bytes, true);
+            if (cr.isOverflow()) {
+                ensureRemaining(bytes.capacity());
+            }
+        } while (cr.isOverflow());
+        do {
+            cr = enc.flush(bytes);
+            if (cr.isOverflow()) {
+                ensureRemaining(bytes.capacity());
+            }
+        } while (cr.isOverflow());
+        chars.setLength(0);
+    }
+
+    /**
+     * Appends raw bytes to the encoded bytes.
+     */
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    public void write(byte[] b, int off, int len) {
+        ensureRemaining(len);
+        bytes.put(b, off, len);
+    }
+
+    /**
+     * Returns the number of encoded bytes.
+     */
+    public int size() {
+        return bytes.position();
+    }
+
+    /**
+     * Returns the internal byte buffer. It is left in write mode, that is the
+     * encoded bytes range from index 0 to its current position.
+     */
+    public ByteBuffer getByteBuffer() {
+        return bytes;
+    }
+
+    /**
+     * Writes the encoded bytes to the given stream.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes.array(), bytes.arrayOffset(), bytes.position());
+    }
+
+    private CharsetEncoder encoderFor(Charset charset) {
+        if (charset == null) {
+            charset = Charset.defaultCharset();
+        }
+        if (encoder == null || !charset.equals(encoderCharset)) {
+            encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            encoderCharset = charset;
+        } else {
+            encoder.reset();
+        }
+        return encoder;
+    }
+
+    private void ensureRemaining(int n) {
+        if (bytes.remaining() >= n) {
+            return;
+        }
+        int required = bytes.position() + n;
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(required, 2 * bytes.capacity()));
+        bytes.flip();
+        grown.put(bytes);
+        bytes = grown;
+    }
+}
@@ -18,9 +18,11 @@ import java.nio.charset.Charset;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.LayoutBase;
 import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.util.OverrideUtil;
 
-public class LayoutWrappingEncoder<E> extends EncoderBase<E> {
+public class LayoutWrappingEncoder<E> extends EncoderBase<E> implements BufferEncoder<E> {
 
     protected Layout<E> layout;
 
@@ -34,6 +36,8 @@ public class LayoutWrappingEncoder<E> extends EncoderBase<E> {
 
     Appender<?> parent;
     Boolean immediateFlush = null;
+    // false if a subclass overrides encode(E) only
+    private final boolean bufferEncoding = OverrideUtil.isOverriddenTogether(getClass(), "encode", EncodingBuffer.class);
 
     public Layout<E> getLayout() {
         return layout;
@@ -114,6 +118,30 @@ public class LayoutWrappingEncoder<E> extends EncoderBase<E> {
         return convertToBytes(txt);
     }
 
+    /**
+     * Encode the event into the given buffer. Layouts deriving from
+     * {@link LayoutBase} write directly into the buffer's StringBuilder, which
+     * is then encoded without going through an intermediate String or byte
+     * array. Subclasses overriding {@link #encode(Object)} but not this method
+     * have their bytes copied into the buffer.
+     *
+     * @since 1.3.7
+     */
+    @Override
+    public void encode(E event, EncodingBuffer buffer) {
+        if (!bufferEncoding) {
+            buffer.write(encode(event));
+            return;
+        }
+        StringBuilder sb = buffer.getStringBuilder();
+        if (layout instanceof LayoutBase) {
+            ((LayoutBase<E>) layout).doLayout(event, sb);
+        } else {
+            sb.append(layout.doLayout(event));
+        }
+        buffer.encodeChars(charset);
+    }
+
     public boolean isStarted() {
         return started;
     }
@@ -28,6 +28,7 @@ import javax.net.SocketFactory;
 
 import ch.qos.logback.core.AppenderBase;
 import ch.qos.logback.core.spi.PreSerializationTransformer;
+import ch.qos.logback.core.spi.ReusableEvent;
 import ch.qos.logback.core.util.CloseUtil;
 import ch.qos.logback.core.util.Duration;
 
@@ -175,7 +176,7 @@ public abstract class AbstractSocketAppender<E> extends AppenderBase<E> implemen
             return;
 
         try {
-            final boolean inserted = deque.offer(event, eventDelayLimit.getMilliseconds(), TimeUnit.MILLISECONDS);
+            final boolean inserted = deque.offer(ReusableEvent.retainable(event), eventDelayLimit.getMilliseconds(), TimeUnit.MILLISECONDS);
             if (!inserted) {
                 addInfo("Dropping event due to timeout limit of [" + eventDelayLimit + "] being exceeded");
             }
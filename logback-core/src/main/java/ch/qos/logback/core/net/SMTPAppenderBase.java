@@ -42,6 +42,7 @@ import ch.qos.logback.core.pattern.PatternLayoutBase;
 import ch.qos.logback.core.sift.DefaultDiscriminator;
 import ch.qos.logback.core.sift.Discriminator;
 import ch.qos.logback.core.spi.CyclicBufferTracker;
+import ch.qos.logback.core.spi.ReusableEvent;
 import ch.qos.logback.core.util.ContentTypeUtil;
 import ch.qos.logback.core.util.OptionHelper;
 
@@ -189,6 +190,7 @@ public abstract class SMTPAppenderBase<E> extends AppenderBase<E> {
         if (!checkEntryConditions()) {
             return;
         }
+        eventObject = ReusableEvent.retainable(eventObject);
 
         String key = discriminator.getDiscriminatingValue(eventObject);
         long now = System.currentTimeMillis();
@@ -0,0 +1,86 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.nio;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A small pool of direct {@link ByteBuffer}s of identical capacity. Direct
+ * buffers are costly to allocate and are only freed by the garbage collector,
+ * so they are handed back to the pool when a file is closed and reused for the
+ * next one, e.g. after rollover.
+ *
+ * @since 1.3.7
+ */
+public class DirectBufferPool {
+
+    public static final int DEFAULT_MAX_POOLED = 4;
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> pooled = new ArrayDeque<ByteBuffer>();
+
+    public DirectBufferPool(int bufferSize) {
+        this(bufferSize, DEFAULT_MAX_POOLED);
+    }
+
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Returns a cleared buffer, from the pool if one is available.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer;
+        synchronized (pooled) {
+            buffer = pooled.poll();
+        }
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool. Buffers of a different capacity and
+     * buffers beyond the pool's capacity are dropped.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize) {
+            return;
+        }
+        synchronized (pooled) {
+            if (pooled.size() < maxPooled) {
+                pooled.push(buffer);
+            }
+        }
+    }
+
+    public int getPooledCount() {
+        synchronized (pooled) {
+            return pooled.size();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.nio;
+
+/**
+ * How far written events are pushed towards the disk by a file appender in
+ * NIO mode, trading latency against crash safety.
+ *
+ * @since 1.3.7
+ */
+public enum Durability {
+
+    /**
+     * Events stay in the appender's buffer until it fills up, or until the
+     * file is closed. A crash of the JVM loses the buffered events.
+     */
+    NONE,
+
+    /**
+     * Each event is handed to the operating system before the logging call
+     * returns, possibly together with concurrent events (group commit). A
+     * crash of the JVM loses nothing, a crash of the operating system may. This
+     * is the default.
+     */
+    FLUSH,
+
+    /**
+     * As {@link #FLUSH}, and in addition the file is forced to the storage
+     * device periodically, at most one period's worth of events being at risk.
+     */
+    FSYNC;
+
+    public static Durability findByName(String name) {
+        for (Durability durability : Durability.values()) {
+            if (durability.name().equalsIgnoreCase(name)) {
+                return durability;
+            }
+        }
+        return null;
+    }
+}
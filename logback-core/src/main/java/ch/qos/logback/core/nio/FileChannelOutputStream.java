@@ -0,0 +1,259 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.nio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An output stream writing to a {@link FileChannel} through pooled direct
+ * buffers, with group commit.
+ * <p>
+ * Bytes are first {@link #append(byte[], int, int) appended} to the active
+ * buffer, which is cheap, and return a ticket. Calling {@link #commit(long)}
+ * with that ticket then ensures that the bytes have been written to the
+ * channel. The first committer takes the active buffer, swaps in a spare one
+ * so that appending can go on, and writes out the data of all threads which
+ * appended in the meantime; their own commit calls then return immediately.
+ * <p>
+ * When to commit is governed by the stream's {@link Durability}, see
+ * {@link #awaitCommit(long)}. With {@link Durability#FSYNC}, {@link #force()}
+ * is expected to be invoked periodically.
+ *
+ * @since 1.3.7
+ */
+public class FileChannelOutputStream extends OutputStream {
+
+    private final File file;
+    private final FileChannel channel;
+    private final DirectBufferPool bufferPool;
+    private final Durability durability;
+    private final int capacity;
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    // guarded by this
+    private ByteBuffer active;
+    private long appended;
+
+    // guarded by commitLock
+    private ByteBuffer spare;
+
+    private volatile long committed;
+    private volatile long forced;
+    private volatile boolean closed;
+
+    public FileChannelOutputStream(File file, boolean append, DirectBufferPool bufferPool, Durability durability) throws IOException {
+        this.file = file;
+        this.bufferPool = bufferPool;
+        this.durability = durability;
+        if (append) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } else {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        this.active = bufferPool.acquire();
+        this.spare = bufferPool.acquire();
+        this.capacity = active.capacity();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Append bytes to the active buffer and return the ticket to
+     * {@link #commit(long) commit} them with. Only if the active buffer is full
+     * does this method write to the channel.
+     */
+    public long append(byte[] b, int off, int len) throws IOException {
+        for (;;) {
+            long target;
+            synchronized (this) {
+                ensureOpen();
+                if (active.remaining() >= len) {
+                    active.put(b, off, len);
+                    appended += len;
+                    return appended;
+                }
+                target = appended;
+            }
+            if (len > capacity) {
+                return writeThrough(b, off, len);
+            }
+            commit(target);
+        }
+    }
+
+    /**
+     * Ensure that all bytes up to the given ticket have been written to the
+     * channel. Returns at once if another thread has already done so.
+     */
+    public void commit(long ticket) throws IOException {
+        if (committed >= ticket) {
+            return;
+        }
+        commitLock.lock();
+        try {
+            if (committed >= ticket) {
+                return;
+            }
+            ByteBuffer toWrite;
+            long upTo;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                toWrite = active;
+                active = spare;
+                upTo = appended;
+            }
+            spare = null;
+            try {
+                toWrite.flip();
+                writeFully(toWrite);
+            } finally {
+                toWrite.clear();
+                spare = toWrite;
+            }
+            committed = upTo;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Commit the bytes up to the given ticket if the durability requires it,
+     * that is unless it is {@link Durability#NONE}.
+     */
+    public void awaitCommit(long ticket) throws IOException {
+        if (durability != Durability.NONE) {
+            commit(ticket);
+        }
+    }
+
+    /**
+     * Force committed bytes to the storage device, if any were written since
+     * the last call.
+     */
+    public void force() throws IOException {
+        long upTo = committed;
+        if (closed || upTo <= forced) {
+            return;
+        }
+        try {
+            channel.force(false);
+            forced = upTo;
+        } catch (ClosedChannelException e) {
+            if (!closed) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        append(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        append(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long target;
+        synchronized (this) {
+            target = appended;
+        }
+        awaitCommit(target);
+    }
+
+    @Override
+    public void close() throws IOException {
+        commitLock.lock();
+        try {
+            ByteBuffer remaining;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                remaining = active;
+                active = null;
+            }
+            try {
+                remaining.flip();
+                writeFully(remaining);
+                committed = appended;
+                if (durability == Durability.FSYNC) {
+                    channel.force(false);
+                }
+            } finally {
+                channel.close();
+                bufferPool.release(remaining);
+                bufferPool.release(spare);
+                spare = null;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private long writeThrough(byte[] b, int off, int len) throws IOException {
+        commitLock.lock();
+        try {
+            synchronized (this) {
+                ensureOpen();
+                active.flip();
+                writeFully(active);
+                active.clear();
+                writeFully(ByteBuffer.wrap(b, off, len));
+                appended += len;
+                committed = appended;
+                return appended;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream for file [" + file + "] is closed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "c.q.l.c.nio.FileChannelOutputStream@" + System.identityHashCode(this);
+    }
+}
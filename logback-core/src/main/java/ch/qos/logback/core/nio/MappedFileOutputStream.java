@@ -0,0 +1,185 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.nio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An output stream writing to a file through a memory-mapped region.
+ * <p>
+ * The file is mapped in regions of a fixed size starting at the current end
+ * of the data. Writing copies bytes into the mapped region and, once it is
+ * full, the next region is mapped. Mapping extends the file beyond the data
+ * written so far; {@link #close()} truncates the file to its logical
+ * {@link #getLength() length}. Until then, the length of the file as reported
+ * by the file system is not the length of its data. If the JVM terminates
+ * without closing the stream, the unwritten part of the region stays in the
+ * file as zero bytes; opening it in append mode resumes after the last
+ * non-zero byte.
+ * <p>
+ * Bytes written are visible to other processes reading the file as soon as
+ * they are copied, and survive the termination of the JVM, without any
+ * flushing. Use {@link #force()} to write them to the storage device.
+ *
+ * @since 1.3.7
+ */
+public class MappedFileOutputStream extends OutputStream {
+
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long regionSize;
+
+    // guarded by this
+    private MappedByteBuffer region;
+    private long length;
+    private boolean closed;
+
+    public MappedFileOutputStream(File file, boolean append, long regionSize) throws IOException {
+        if (regionSize <= 0 || regionSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Region size must be between 1 and " + Integer.MAX_VALUE + " bytes, was " + regionSize);
+        }
+        this.file = file;
+        this.regionSize = regionSize;
+        if (append) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } else {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        try {
+            this.length = append ? dataEnd(channel) : 0;
+            map();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the position following the last non-zero byte of the file.
+     */
+    static long dataEnd(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - SCAN_BUFFER_SIZE);
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) != 0) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * Returns the number of bytes of data in the file, which is less than the
+     * file's size while a region is mapped.
+     */
+    public synchronized long getLength() {
+        return length;
+    }
+
+    private void map() throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, length, regionSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (!region.hasRemaining()) {
+                map();
+            }
+            int n = Math.min(len, region.remaining());
+            region.put(b, off, n);
+            off += n;
+            len -= n;
+            length += n;
+        }
+    }
+
+    /**
+     * Does nothing: bytes written to the mapped region are already visible to
+     * readers of the file.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+    }
+
+    /**
+     * Force the bytes written to the mapped region to the storage device.
+     */
+    public synchronized void force() throws IOException {
+        ensureOpen();
+        region.force();
+    }
+
+    /**
+     * Truncate the file to the length of its data and close it.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        region = null;
+        try {
+            channel.truncate(length);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream for file [" + file + "] is closed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "c.q.l.c.nio.MappedFileOutputStream@" + System.identityHashCode(this);
+    }
+}
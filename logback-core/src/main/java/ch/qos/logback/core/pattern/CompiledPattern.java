@@ -0,0 +1,198 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern;
+
+/**
+ * The compiled form of a converter chain: the linked list built by the
+ * pattern {@link ch.qos.logback.core.pattern.parser.Parser Parser} is
+ * flattened into arrays of instructions which {@link #write(StringBuilder, Object)}
+ * executes in a single loop.
+ * <p>
+ * Adjacent literals are merged into a single character array. Formatting
+ * converters are formatted without creating intermediate strings: converters
+ * which {@link FormattingConverter#canWriteInPlace() can write in place}
+ * append their value to the output, which is then padded or truncated where
+ * it stands, while the values returned by other converters are copied
+ * partially or padded as needed. Converters overriding
+ * {@link Converter#write(StringBuilder, Object)} are invoked as such.
+ * <p>
+ * The output is identical to that of the converter chain.
+ *
+ * @since 1.3.7
+ */
+public final class CompiledPattern<E> {
+
+    static final byte LITERAL = 0;
+    static final byte WRITE = 1;
+    static final byte FORMAT = 2;
+    static final byte FORMAT_IN_PLACE = 3;
+
+    private final byte[] opcodes;
+    private final char[][] literals;
+    private final Converter<E>[] converters;
+    private final int[] min;
+    private final int[] max;
+    private final boolean[] leftPad;
+    private final boolean[] leftTruncate;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private CompiledPattern(int length) {
+        opcodes = new byte[length];
+        literals = new char[length][];
+        converters = new Converter[length];
+        min = new int[length];
+        max = new int[length];
+        leftPad = new boolean[length];
+        leftTruncate = new boolean[length];
+    }
+
+    /**
+     * Compile the converter chain starting at <code>head</code>. The
+     * converters must have been started.
+     */
+    public static <E> CompiledPattern<E> compile(Converter<E> head) {
+        int length = 0;
+        boolean previousIsLiteral = false;
+        for (Converter<E> c = head; c != null; c = c.getNext()) {
+            boolean literal = c instanceof LiteralConverter;
+            if (!(literal && previousIsLiteral)) {
+                length++;
+            }
+            previousIsLiteral = literal;
+        }
+
+        CompiledPattern<E> program = new CompiledPattern<E>(length);
+        int i = -1;
+        StringBuilder literal = null;
+        for (Converter<E> c = head; c != null; c = c.getNext()) {
+            if (c instanceof LiteralConverter) {
+                if (literal == null) {
+                    literal = new StringBuilder();
+                    i++;
+                }
+                literal.append(((LiteralConverter<E>) c).literal);
+                continue;
+            }
+            if (literal != null) {
+                program.setLiteral(i, literal);
+                literal = null;
+            }
+            i++;
+            program.converters[i] = c;
+            program.opcodes[i] = WRITE;
+            if (c instanceof FormattingConverter) {
+                FormattingConverter<E> fc = (FormattingConverter<E>) c;
+                FormatInfo formatInfo = fc.getFormattingInfo();
+                if (formatInfo != null) {
+                    program.opcodes[i] = fc.isWritableInPlace() ? FORMAT_IN_PLACE : FORMAT;
+                    program.min[i] = formatInfo.getMin();
+                    program.max[i] = formatInfo.getMax();
+                    program.leftPad[i] = formatInfo.isLeftPad();
+                    program.leftTruncate[i] = formatInfo.isLeftTruncate();
+                }
+            }
+        }
+        if (literal != null) {
+            program.setLiteral(i, literal);
+        }
+        return program;
+    }
+
+    private void setLiteral(int i, StringBuilder literal) {
+        opcodes[i] = LITERAL;
+        literals[i] = new char[literal.length()];
+        literal.getChars(0, literal.length(), literals[i], 0);
+    }
+
+    /**
+     * Returns the number of instructions of this program.
+     */
+    public int size() {
+        return opcodes.length;
+    }
+
+    public void write(StringBuilder buf, E event) {
+        for (int i = 0; i < opcodes.length; i++) {
+            switch (opcodes[i]) {
+            case LITERAL:
+                buf.append(literals[i]);
+                break;
+            case WRITE:
+                converters[i].write(buf, event);
+                break;
+            case FORMAT:
+                format(buf, converters[i].convert(event), i);
+                break;
+            case FORMAT_IN_PLACE:
+                int start = buf.length();
+                ((FormattingConverter<E>) converters[i]).writeUnformatted(buf, event);
+                formatInPlace(buf, start, i);
+                break;
+            default:
+                throw new IllegalStateException("Unknown opcode " + opcodes[i]);
+            }
+        }
+    }
+
+    private void format(StringBuilder buf, String s, int i) {
+        if (s == null) {
+            if (0 < min[i]) {
+                SpacePadder.spacePad(buf, min[i]);
+            }
+            return;
+        }
+        int len = s.length();
+        if (len > max[i]) {
+            if (leftTruncate[i]) {
+                buf.append(s, len - max[i], len);
+            } else {
+                buf.append(s, 0, max[i]);
+            }
+        } else if (len < min[i]) {
+            if (leftPad[i]) {
+                SpacePadder.spacePad(buf, min[i] - len);
+                buf.append(s);
+            } else {
+                buf.append(s);
+                SpacePadder.spacePad(buf, min[i] - len);
+            }
+        } else {
+            buf.append(s);
+        }
+    }
+
+    private void formatInPlace(StringBuilder buf, int start, int i) {
+        int len = buf.length() - start;
+        if (len > max[i]) {
+            if (leftTruncate[i]) {
+                buf.delete(start, start + len - max[i]);
+            } else {
+                buf.setLength(start + max[i]);
+            }
+        } else if (len < min[i]) {
+            if (leftPad[i]) {
+                int padding = min[i] - len;
+                buf.setLength(start + min[i]);
+                for (int j = len - 1; j >= 0; j--) {
+                    buf.setCharAt(start + padding + j, buf.charAt(start + j));
+                }
+                for (int j = 0; j < padding; j++) {
+                    buf.setCharAt(start + j, ' ');
+                }
+            } else {
+                SpacePadder.spacePad(buf, min[i] - len);
+            }
+        }
+    }
+}
@@ -13,6 +13,8 @@
  */
 package ch.qos.logback.core.pattern;
 
+import ch.qos.logback.core.util.OverrideUtil;
+
 abstract public class FormattingConverter<E> extends Converter<E> {
 
     static final int INITIAL_BUF_SIZE = 256;
@@ -20,6 +22,10 @@ abstract public class FormattingConverter<E> extends Converter<E> {
 
     FormatInfo formattingInfo;
 
+    // false if a subclass overrides convert() but not writeUnformatted(),
+    // which would then bypass the overriding convert()
+    private final boolean writeUnformattedIsConsistent = OverrideUtil.isOverriddenTogether(getClass(), "convert", 1, "writeUnformatted", 2);
+
     final public FormatInfo getFormattingInfo() {
         return formattingInfo;
     }
@@ -33,13 +39,13 @@ abstract public class FormattingConverter<E> extends Converter<E> {
 
     @Override
     final public void write(StringBuilder buf, E event) {
-        String s = convert(event);
-
         if (formattingInfo == null) {
-            buf.append(s);
+            appendUnformatted(buf, event);
             return;
         }
 
+        String s = convert(event);
+
         int min = formattingInfo.getMin();
         int max = formattingInfo.getMax();
 
@@ -67,4 +73,49 @@ abstract public class FormattingConverter<E> extends Converter<E> {
             buf.append(s);
         }
     }
+
+    /**
+     * Appends the converted value of the event when no formatting options
+     * apply. Converters which can append their value without building an
+     * intermediate String may override this method. It is not invoked for
+     * subclasses which override {@link #convert(Object)} but not this method.
+     *
+     * @since 1.3.7
+     */
+    protected void writeUnformatted(StringBuilder buf, E event) {
+        buf.append(convert(event));
+    }
+
+    /**
+     * Appends the value through {@link #writeUnformatted(StringBuilder, Object)}
+     * unless a subclass overrides {@link #convert(Object)} without overriding
+     * writeUnformatted as well.
+     */
+    final void appendUnformatted(StringBuilder buf, E event) {
+        if (writeUnformattedIsConsistent) {
+            writeUnformatted(buf, event);
+        } else {
+            buf.append(convert(event));
+        }
+    }
+
+    /**
+     * Can {@link CompiledPattern} format the value in place? Not if a subclass
+     * overrides {@link #convert(Object)} without overriding writeUnformatted.
+     */
+    final boolean isWritableInPlace() {
+        return writeUnformattedIsConsistent && canWriteInPlace();
+    }
+
+    /**
+     * Returns true if {@link #writeUnformatted(StringBuilder, Object)} appends
+     * the value which {@link #convert(Object)} would return and that value is
+     * never null. A {@link CompiledPattern} then pads or truncates the appended
+     * characters in place instead of converting the event to a String first.
+     *
+     * @since 1.3.7
+     */
+    protected boolean canWriteInPlace() {
+        return false;
+    }
 }
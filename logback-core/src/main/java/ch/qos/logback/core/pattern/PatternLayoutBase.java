@@ -24,12 +24,29 @@ import ch.qos.logback.core.pattern.parser.Parser;
 import ch.qos.logback.core.spi.ScanException;
 import ch.qos.logback.core.status.ErrorStatus;
 import ch.qos.logback.core.status.StatusManager;
+import ch.qos.logback.core.util.OverrideUtil;
 
+/**
+ * Base class for layouts formatting events according to a conversion pattern.
+ * 
+ * <p>In <b>compiled</b> mode, the converter chain is flattened into a
+ * {@link CompiledPattern} when the layout is started. The output is the same,
+ * with fewer intermediate strings.
+ * 
+ * <p>Events are written directly into the builder passed to
+ * {@link #doLayout(Object, StringBuilder)}, unless a subclass overrides
+ * {@link #doLayout(Object)} without overriding it as well, in which case the
+ * result of {@link #doLayout(Object)} is appended.
+ */
 abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
 
     static final int INTIAL_STRING_BUILDER_SIZE = 256;
     Converter<E> head;
+    CompiledPattern<E> compiledPattern;
     String pattern;
+    boolean compiled = false;
+    // false if a subclass overrides doLayout(E) only, see start()
+    private boolean writeIntoBuilder;
     protected PostCompileProcessor<E> postCompileProcessor;
     
     Map<String, String> instanceConverterMap = new HashMap<String, String>();
@@ -87,6 +104,8 @@ abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
             }
             ConverterUtil.setContextForConverters(getContext(), head);
             ConverterUtil.startConverters(this.head);
+            compiledPattern = compiled ? CompiledPattern.compile(head) : null;
+            writeIntoBuilder = OverrideUtil.isOverriddenTogether(getClass(), "doLayout", StringBuilder.class);
             super.start();
         } catch (ScanException sce) {
             StatusManager sm = getContext().getStatusManager();
@@ -110,12 +129,35 @@ abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
 
     protected String writeLoopOnConverters(E event) {
         StringBuilder strBuilder = new StringBuilder(INTIAL_STRING_BUILDER_SIZE);
+        writeLoopOnConverters(strBuilder, event);
+        return strBuilder.toString();
+    }
+
+    /**
+     * @since 1.3.7
+     */
+    protected void writeLoopOnConverters(StringBuilder strBuilder, E event) {
+        if (compiledPattern != null) {
+            compiledPattern.write(strBuilder, event);
+            return;
+        }
         Converter<E> c = head;
         while (c != null) {
             c.write(strBuilder, event);
             c = c.getNext();
         }
-        return strBuilder.toString();
+    }
+
+    @Override
+    public void doLayout(E event, StringBuilder buf) {
+        if (!isStarted()) {
+            return;
+        }
+        if (!writeIntoBuilder) {
+            buf.append(doLayout(event));
+            return;
+        }
+        writeLoopOnConverters(buf, event);
     }
 
     public String getPattern() {
@@ -126,6 +168,20 @@ abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
         this.pattern = pattern;
     }
 
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * When compiled is set to true, the converter chain is compiled into a
+     * {@link CompiledPattern} on start.
+     * 
+     * @since 1.3.7
+     */
+    public void setCompiled(boolean compiled) {
+        this.compiled = compiled;
+    }
+
     public String toString() {
         return this.getClass().getName() + "(\"" + getPattern() + "\")";
     }
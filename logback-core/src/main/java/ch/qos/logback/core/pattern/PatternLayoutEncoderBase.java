@@ -23,6 +23,8 @@ public class PatternLayoutEncoderBase<E> extends LayoutWrappingEncoder<E> {
     // due to popular demand outputPatternAsHeader is set to false by default
     protected boolean outputPatternAsHeader = false;
 
+    protected boolean compiled = false;
+
     public String getPattern() {
         return pattern;
     }
@@ -45,6 +47,20 @@ public class PatternLayoutEncoderBase<E> extends LayoutWrappingEncoder<E> {
         this.outputPatternAsHeader = outputPatternAsHeader;
     }
 
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Use a layout in compiled mode, see {@link PatternLayoutBase#setCompiled(boolean)}.
+     *
+     * @param compiled
+     * @since 1.3.7
+     */
+    public void setCompiled(boolean compiled) {
+        this.compiled = compiled;
+    }
+
     public boolean isOutputPatternAsPresentationHeader() {
         return outputPatternAsHeader;
     }
@@ -26,7 +26,7 @@ import ch.qos.logback.core.rolling.helper.TimeBasedArchiveRemover;
  * @param <E>
  */
 @NoAutoStart
-public class DefaultTimeBasedFileNamingAndTriggeringPolicy<E> extends TimeBasedFileNamingAndTriggeringPolicyBase<E> {
+public class DefaultTimeBasedFileNamingAndTriggeringPolicy<E> extends TimeBasedFileNamingAndTriggeringPolicyBase<E> implements ThresholdTriggeringPolicy<E> {
 
     @Override
     public void start() {
@@ -57,6 +57,14 @@ public class DefaultTimeBasedFileNamingAndTriggeringPolicy<E> extends TimeBasedF
         }
     }
 
+    public boolean mayTrigger(long activeFileLength) {
+        return getCurrentTime() >= nextCheck;
+    }
+
+    public boolean isTriggeringEvent(File activeFile, long activeFileLength, E event) {
+        return isTriggeringEvent(activeFile, event);
+    }
+
     @Override
     public String toString() {
         return "c.q.l.core.rolling.DefaultTimeBasedFileNamingAndTriggeringPolicy";
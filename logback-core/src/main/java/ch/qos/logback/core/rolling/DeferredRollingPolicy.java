@@ -0,0 +1,41 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling;
+
+/**
+ * A <code>DeferredRollingPolicy</code> can archive the hereto active log file
+ * on a background thread. This allows {@link RollingFileAppender} to switch to
+ * the new active file straight away, see
+ * {@link RollingFileAppender#setBackgroundRollover(boolean)}.
+ *
+ * @since 1.3.7
+ */
+public interface DeferredRollingPolicy extends RollingPolicy {
+
+    /**
+     * Rolls over log files, deferring all file operations to the returned job.
+     * Invoked while holding the roll-over lock, once the hereto active log file
+     * has been moved to <code>fileName</code> if need be, but before it is
+     * closed.
+     *
+     * @param fileName
+     *          The name of the log file to archive.
+     * @return The job archiving the log file. It is run on a background thread
+     *         once the log file has been closed. Jobs run one at a time, in
+     *         roll-over order.
+     * @throws RolloverFailure
+     *           Thrown if the rollover cannot be prepared.
+     */
+    Runnable deferRollover(String fileName) throws RolloverFailure;
+}
@@ -30,7 +30,7 @@ import ch.qos.logback.core.rolling.helper.*;
  * 
  * @author Ceki G&uuml;lc&uuml;
  */
-public class FixedWindowRollingPolicy extends RollingPolicyBase {
+public class FixedWindowRollingPolicy extends RollingPolicyBase implements DeferredRollingPolicy {
     static final String FNP_NOT_SET = "The \"FileNamePattern\" property must be set before using FixedWindowRollingPolicy. ";
     static final String PRUDENT_MODE_UNSUPPORTED = "See also "+CODES_URL+"#tbr_fnp_prudent_unsupported";
     static final String SEE_PARENT_FN_NOT_SET = "Please refer to "+CODES_URL+"#fwrp_parentFileName_not_set";
@@ -98,8 +98,7 @@ public class FixedWindowRollingPolicy extends RollingPolicyBase {
             String zipEntryFileNamePatternStr = transformFileNamePatternFromInt2Date(fileNamePatternStr);
             zipEntryFileNamePattern = new FileNamePattern(zipEntryFileNamePatternStr, context);
         }
-        compressor = new Compressor(compressionMode);
-        compressor.setContext(this.context);
+        compressor = newCompressor();
         super.start();
     }
 
@@ -124,40 +123,72 @@ public class FixedWindowRollingPolicy extends RollingPolicyBase {
         // closed.
         // If maxIndex <= 0, then there is no file renaming to be done.
         if (maxIndex >= 0) {
-            // Delete the oldest file, to keep Windows happy.
-            File file = new File(fileNamePattern.convertInt(maxIndex));
-
-            if (file.exists()) {
-                file.delete();
-            }
+            shiftWindow();
+            archive(getActiveFileName(), zipEntryName());
+        }
+    }
 
-            // Map {(maxIndex - 1), ..., minIndex} to {maxIndex, ..., minIndex+1}
-            for (int i = maxIndex - 1; i >= minIndex; i--) {
-                String toRenameStr = fileNamePattern.convertInt(i);
-                File toRename = new File(toRenameStr);
-                // no point in trying to rename an inexistent file
-                if (toRename.exists()) {
-                    util.rename(toRenameStr, fileNamePattern.convertInt(i + 1));
-                } else {
-                    addInfo("Skipping roll-over for inexistent file " + toRenameStr);
+    public Runnable deferRollover(final String fileName) throws RolloverFailure {
+        final String innerEntryName = zipEntryName();
+        return new Runnable() {
+            public void run() {
+                if (maxIndex >= 0) {
+                    try {
+                        shiftWindow();
+                        archive(fileName, innerEntryName);
+                    } catch (RolloverFailure rf) {
+                        addError("Failed to archive [" + fileName + "].", rf);
+                    }
                 }
             }
+        };
+    }
+
+    private String zipEntryName() {
+        return compressionMode == CompressionMode.ZIP ? zipEntryFileNamePattern.convert(new Date()) : null;
+    }
 
-            // move active file name to min
-            switch (compressionMode) {
-            case NONE:
-                util.rename(getActiveFileName(), fileNamePattern.convertInt(minIndex));
-                break;
-            case GZ:
-                compressor.compress(getActiveFileName(), fileNamePattern.convertInt(minIndex), null);
-                break;
-            case ZIP:
-                compressor.compress(getActiveFileName(), fileNamePattern.convertInt(minIndex), zipEntryFileNamePattern.convert(new Date()));
-                break;
+    private void shiftWindow() throws RolloverFailure {
+        // Delete the oldest file, to keep Windows happy.
+        File file = new File(fileNamePattern.convertInt(maxIndex));
+
+        if (file.exists()) {
+            file.delete();
+        }
+
+        // Map {(maxIndex - 1), ..., minIndex} to {maxIndex, ..., minIndex+1}
+        for (int i = maxIndex - 1; i >= minIndex; i--) {
+            String toRenameStr = fileNamePattern.convertInt(i);
+            File toRename = new File(toRenameStr);
+            // no point in trying to rename an inexistent file
+            if (toRename.exists()) {
+                util.rename(toRenameStr, fileNamePattern.convertInt(i + 1));
+            } else {
+                addInfo("Skipping roll-over for inexistent file " + toRenameStr);
             }
         }
     }
 
+    // move the given file name to min
+    private void archive(String fileName, String innerEntryName) throws RolloverFailure {
+        if (isActiveFileCompressed()) {
+            util.rename(fileName, fileNamePattern.convertInt(minIndex));
+            return;
+        }
+        switch (compressionMode) {
+        case NONE:
+            util.rename(fileName, fileNamePattern.convertInt(minIndex));
+            break;
+        case GZ:
+        case CODEC:
+            compressor.compress(fileName, fileNamePattern.convertInt(minIndex), null);
+            break;
+        case ZIP:
+            compressor.compress(fileName, fileNamePattern.convertInt(minIndex), innerEntryName);
+            break;
+        }
+    }
+
     /**
      * Return the value of the parent's RawFile property.
      */
@@ -17,21 +17,57 @@ import static ch.qos.logback.core.CoreConstants.CODES_URL;
 import static ch.qos.logback.core.CoreConstants.MORE_INFO_PREFIX;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.EncodingBuffer;
+import ch.qos.logback.core.nio.MappedFileOutputStream;
+import ch.qos.logback.core.rolling.helper.CompressionCodec;
 import ch.qos.logback.core.rolling.helper.CompressionMode;
 import ch.qos.logback.core.rolling.helper.FileNamePattern;
+import ch.qos.logback.core.rolling.helper.RenameUtil;
+import ch.qos.logback.core.rolling.helper.SyncFlushOutputStream;
 import ch.qos.logback.core.util.ContextUtil;
+import ch.qos.logback.core.util.Duration;
 
 /**
  * <code>RollingFileAppender</code> extends {@link FileAppender} to backup the
  * log files depending on {@link RollingPolicy} and {@link TriggeringPolicy}.
  * 
  * <p>
+ * Except in prudent mode, the length of the active file seen by triggering
+ * policies is the number of bytes written to it, as counted by the appender.
+ * In mapped mode, this is the length of the data rather than that of the
+ * mapped region. A {@link ThresholdTriggeringPolicy} is then consulted without
+ * locking, and only the event crossing its threshold takes the roll-over lock.
+ * 
+ * <p>
+ * With <b>backgroundRollover</b> set, roll-over opens the new active file
+ * straight away, and the hereto active file is closed and archived on a
+ * background thread, see {@link DeferredRollingPolicy}.
+ * 
+ * <p>
+ * With <b>compressActiveFile</b> set, the active file is written through the
+ * compression codec of the rolling policy, and archiving it only takes renaming
+ * it. Its length, as seen by triggering policies, is then its compressed length.
+ * A plain active file found on start is compressed in place first. Conversely,
+ * the appender does not start if it finds a compressed active file while
+ * compressActiveFile is not set.
+ * 
+ * <p>
  * For more information about this appender, please refer to the online manual
  * at http://logback.qos.ch/manual/appenders.html#RollingFileAppender
  *
@@ -42,6 +78,22 @@ public class RollingFileAppender<E> extends FileAppender<E> {
     File currentlyActiveFile;
     TriggeringPolicy<E> triggeringPolicy;
     RollingPolicy rollingPolicy;
+    // null in prudent mode, or if the triggering policy is not threshold based
+    private ThresholdTriggeringPolicy<E> thresholdPolicy;
+    private final AtomicLong activeFileLength = new AtomicLong();
+
+    private boolean backgroundRollover = false;
+    // completes once the background roll-overs submitted so far are done
+    private CompletableFuture<Void> backgroundRollovers = CompletableFuture.completedFuture(null);
+
+    public static final long DEFAULT_COMPRESSION_SYNC_PERIOD_MILLIS = 1000;
+
+    private boolean compressActiveFile = false;
+    private Duration compressionSyncPeriod = Duration.buildByMilliseconds(DEFAULT_COMPRESSION_SYNC_PERIOD_MILLIS);
+    // set while the active file is compressed
+    private CompressionCodec activeFileCodec;
+    private int compressionLevel;
+    private ScheduledFuture<?> syncFuture;
 
     static private String RFA_NO_TP_URL = CODES_URL + "#rfa_no_tp";
     static private String RFA_NO_RP_URL = CODES_URL + "#rfa_no_rp";
@@ -95,9 +147,148 @@ public class RollingFileAppender<E> extends FileAppender<E> {
             }
         }
 
-        currentlyActiveFile = new File(getFile());
+        if (backgroundRollover) {
+            if (isPrudent()) {
+                addWarn("Background rollover is not supported in prudent mode. Disabling background rollover.");
+                backgroundRollover = false;
+            } else if (!(rollingPolicy instanceof DeferredRollingPolicy)) {
+                addWarn("RollingPolicy does not support background rollover. Disabling background rollover.");
+                backgroundRollover = false;
+            }
+        }
+
+        if (compressActiveFile) {
+            CompressionCodec codec = rollingPolicy instanceof RollingPolicyBase ? ((RollingPolicyBase) rollingPolicy).getCompressionCodec() : null;
+            if (isPrudent() || isNio() || isMapped()) {
+                addWarn("Compressing the active file is not supported in prudent, nio or mapped mode. Disabling active file compression.");
+                compressActiveFile = false;
+            } else if (codec == null) {
+                addWarn("The fileNamePattern does not designate gz or codec compression. Disabling active file compression.");
+                compressActiveFile = false;
+            } else {
+                activeFileCodec = codec;
+                compressionLevel = ((RollingPolicyBase) rollingPolicy).getCompressionLevel();
+            }
+        }
+
+        if (!isPrudent() && triggeringPolicy instanceof ThresholdTriggeringPolicy) {
+            thresholdPolicy = (ThresholdTriggeringPolicy<E>) triggeringPolicy;
+        }
+
+        if (!checkActiveFileFormat()) {
+            return;
+        }
+
+        currentlyActiveFile = new ActiveFile(getFile());
         addInfo("Active log file name: " + getFile());
         super.start();
+        if (isStarted() && activeFileCodec != null) {
+            scheduleSync();
+        }
+    }
+
+    /**
+     * Make sure that an existing active file is in the format it is about to be
+     * appended in. A plain active file, left by a configuration without
+     * compressActiveFile, is compressed in place so that compressed output is
+     * not appended to plain text. Plain text cannot be appended to an active
+     * file left compressed, in which case the appender does not start.
+     * 
+     * @return false if the appender must not start
+     */
+    private boolean checkActiveFileFormat() {
+        CompressionCodec codec = rollingPolicy instanceof RollingPolicyBase ? ((RollingPolicyBase) rollingPolicy).getCompressionCodec() : null;
+        String activeFileName = getFile();
+        if (codec == null || activeFileName == null || isPrudent()) {
+            return true;
+        }
+        File activeFile = new File(activeFileName);
+        if (activeFile.length() == 0) {
+            return true;
+        }
+        boolean compressed;
+        try {
+            compressed = startsWith(activeFile, codec.getMagicNumber());
+        } catch (IOException e) {
+            addError("Failed to read the active file [" + activeFile + "].", e);
+            return false;
+        }
+        if (activeFileCodec != null && !compressed) {
+            return compressInPlace(activeFile, codec);
+        }
+        if (activeFileCodec == null && compressed) {
+            addError("The active file [" + activeFile + "] is compressed, most likely because compressActiveFile was set. Plain text cannot be appended to it.");
+            addError("Set compressActiveFile to true or move the file away. Aborting.");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean startsWith(File file, byte[] magicNumber) throws IOException {
+        byte[] head = new byte[magicNumber.length];
+        try (InputStream in = new FileInputStream(file)) {
+            int n = 0;
+            while (n < head.length) {
+                int count = in.read(head, n, head.length - n);
+                if (count < 0) {
+                    return false;
+                }
+                n += count;
+            }
+        }
+        return Arrays.equals(head, magicNumber);
+    }
+
+    private boolean compressInPlace(File activeFile, CompressionCodec codec) {
+        addInfo("Compressing the plain active file [" + activeFile + "] before appending compressed output to it.");
+        String compressedFileName = activeFile.getPath() + codec.getSuffix();
+        if (!((RollingPolicyBase) rollingPolicy).newCompressor().compress(activeFile.getPath(), compressedFileName, null)) {
+            addError("Failed to compress the plain active file [" + activeFile + "]. Aborting.");
+            return false;
+        }
+        RenameUtil renameUtil = new RenameUtil();
+        renameUtil.setContext(context);
+        try {
+            renameUtil.rename(compressedFileName, activeFile.getPath());
+        } catch (RolloverFailure e) {
+            addError("Failed to rename [" + compressedFileName + "] as [" + activeFile + "]. Aborting.", e);
+            return false;
+        }
+        return true;
+    }
+
+    private void scheduleSync() {
+        long period = compressionSyncPeriod.getMilliseconds();
+        if (period <= 0) {
+            // every flush syncs, there is nothing left to sync periodically
+            return;
+        }
+        Runnable syncTask = new Runnable() {
+            @Override
+            public void run() {
+                sync();
+            }
+        };
+        syncFuture = context.getScheduledExecutorService().scheduleAtFixedRate(syncTask, period, period, TimeUnit.MILLISECONDS);
+        context.addScheduledFuture(syncFuture);
+    }
+
+    /**
+     * Make the compressed active file readable up to the last event written.
+     * Invoked periodically when the active file is compressed.
+     */
+    void sync() {
+        lock.lock();
+        try {
+            OutputStream os = getOutputStream();
+            if (os instanceof SyncFlushOutputStream) {
+                ((SyncFlushOutputStream) os).sync();
+            }
+        } catch (IOException e) {
+            addError("Failed to flush the compressed file [" + currentlyActiveFile + "].", e);
+        } finally {
+            lock.unlock();
+        }
     }
 
     private boolean checkForFileAndPatternCollisions() {
@@ -146,8 +337,14 @@ public class RollingFileAppender<E> extends FileAppender<E> {
 
     @Override
     public void stop() {
+        if (syncFuture != null) {
+            syncFuture.cancel(false);
+            syncFuture = null;
+        }
         super.stop();
-        
+        awaitBackgroundRollovers();
+        activeFileCodec = null;
+
         if (rollingPolicy != null)
             rollingPolicy.stop();
         if (triggeringPolicy != null)
@@ -181,6 +378,9 @@ public class RollingFileAppender<E> extends FileAppender<E> {
     public void rollover() {
         lock.lock();
         try {
+            if (backgroundRollover && rolloverInBackground()) {
+                return;
+            }
             // Note: This method needs to be synchronized because it needs exclusive
             // access while it closes and then re-opens the target file.
             //
@@ -194,10 +394,74 @@ public class RollingFileAppender<E> extends FileAppender<E> {
         }
     }
 
+    /**
+     * Switches to the new active file, leaving the closing and the archiving of
+     * the hereto active file to a background thread.
+     * 
+     * @return false if the hereto active file could not be moved out of the way
+     *         while open, as under Windows, in which case the roll-over must take
+     *         place in the foreground
+     */
+    private boolean rolloverInBackground() {
+        String elapsedFileName = currentlyActiveFile.getPath();
+        // the new active file may have the same name as the hereto active one
+        boolean move = elapsedFileName.equals(rollingPolicy.getActiveFileName());
+        if (move) {
+            elapsedFileName = elapsedFileName + System.nanoTime() + ".tmp";
+        }
+
+        final Runnable archiver;
+        try {
+            archiver = ((DeferredRollingPolicy) rollingPolicy).deferRollover(elapsedFileName);
+        } catch (RolloverFailure rf) {
+            addWarn("RolloverFailure occurred. Deferring roll-over.");
+            return true;
+        }
+
+        if (move && !currentlyActiveFile.renameTo(new File(elapsedFileName))) {
+            addWarn("Failed to move open file [" + currentlyActiveFile + "]. Rolling over in the foreground.");
+            awaitBackgroundRollovers();
+            return false;
+        }
+
+        final OutputStream elapsedStream = detachOutputStream();
+        final String fileToArchive = elapsedFileName;
+        attemptOpenFile();
+
+        Runnable job = new Runnable() {
+            public void run() {
+                try {
+                    if (elapsedStream != null) {
+                        elapsedStream.close();
+                    }
+                } catch (IOException e) {
+                    addError("Could not close [" + fileToArchive + "].", e);
+                }
+                try {
+                    archiver.run();
+                } catch (RuntimeException e) {
+                    addError("Failed to archive [" + fileToArchive + "].", e);
+                }
+            }
+        };
+        backgroundRollovers = backgroundRollovers.thenRunAsync(job, context.getScheduledExecutorService());
+        return true;
+    }
+
+    private void awaitBackgroundRollovers() {
+        try {
+            backgroundRollovers.get(CoreConstants.SECONDS_TO_WAIT_FOR_COMPRESSION_JOBS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            addError("Timeout while waiting for background rollover to finish", e);
+        } catch (Exception e) {
+            addError("Unexpected exception while waiting for background rollover to finish", e);
+        }
+    }
+
     private void attemptOpenFile() {
         try {
             // update the currentlyActiveFile LOGBACK-64
-            currentlyActiveFile = new File(rollingPolicy.getActiveFileName());
+            currentlyActiveFile = new ActiveFile(rollingPolicy.getActiveFileName());
 
             // This will also close the file. This is OK since multiple close operations are safe.
             this.openFile(rollingPolicy.getActiveFileName());
@@ -206,6 +470,113 @@ public class RollingFileAppender<E> extends FileAppender<E> {
         }
     }
 
+    /**
+     * Opens the file, counting its bytes from its current length on.
+     */
+    @Override
+    public void openFile(String file_name) throws IOException {
+        lock.lock();
+        try {
+            activeFileLength.set(new File(file_name).length());
+            super.openFile(file_name);
+            OutputStream os = getOutputStream();
+            if (os instanceof MappedFileOutputStream) {
+                activeFileLength.set(((MappedFileOutputStream) os).getLength());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * When the active file is compressed, the stream is wrapped so that the
+     * encoder's header is compressed as well, and the compressed bytes are
+     * counted instead of the bytes written.
+     */
+    @Override
+    public void setOutputStream(OutputStream outputStream) {
+        lock.lock();
+        try {
+            if (activeFileCodec != null && outputStream != null) {
+                try {
+                    OutputStream compressingStream = activeFileCodec.compress(new CountingOutputStream(outputStream), compressionLevel);
+                    outputStream = new SyncFlushOutputStream(compressingStream, compressionSyncPeriod.getMilliseconds());
+                } catch (IOException e) {
+                    addError("Failed to compress the active file [" + currentlyActiveFile + "].", e);
+                    this.started = false;
+                    closeQuietly(outputStream);
+                    outputStream = null;
+                }
+            }
+            super.setOutputStream(outputStream);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly(OutputStream os) {
+        try {
+            os.close();
+        } catch (IOException e) {
+            // the error leading here has been reported already
+        }
+    }
+
+    @Override
+    protected void bytesWritten(long count) {
+        if (activeFileCodec == null) {
+            activeFileLength.addAndGet(count);
+        }
+    }
+
+    /**
+     * Counts the compressed bytes written to the active file.
+     */
+    private class CountingOutputStream extends FilterOutputStream {
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            activeFileLength.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            activeFileLength.addAndGet(len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * The active file. Except in prudent mode, where other processes write to
+     * it as well, its length is the number of bytes written to it by this
+     * appender, so that triggering policies need not ask the file system.
+     */
+    @SuppressWarnings("serial")
+    private class ActiveFile extends File {
+
+        ActiveFile(String pathname) {
+            super(pathname);
+        }
+
+        @Override
+        public long length() {
+            if (isPrudent()) {
+                return super.length();
+            }
+            return activeFileLength.get();
+        }
+    }
+
     private void attemptRollover() {
         try {
             rollingPolicy.rollover();
@@ -224,15 +595,71 @@ public class RollingFileAppender<E> extends FileAppender<E> {
         // The roll-over check must precede actual writing. This is the
         // only correct behavior for time driven triggers.
 
-        // We need to synchronize on triggeringPolicy so that only one rollover
-        // occurs at a time
+        if (mayTrigger()) {
+            // We need to synchronize on triggeringPolicy so that only one rollover
+            // occurs at a time
+            synchronized (triggeringPolicy) {
+                if (isTriggeringEvent(event)) {
+                    rollover();
+                }
+            }
+        }
+
+        super.subAppend(event);
+    }
+
+    /**
+     * Lock-free check of a threshold based triggering policy. The check is
+     * repeated under the roll-over lock, since another thread may have rolled
+     * over in the meantime.
+     */
+    private boolean mayTrigger() {
+        return mayTrigger(0);
+    }
+
+    private boolean mayTrigger(int pendingBytes) {
+        return thresholdPolicy == null || thresholdPolicy.mayTrigger(activeFileLength.get() + pendingBytes);
+    }
+
+    private boolean isTriggeringEvent(E event) {
+        return isTriggeringEvent(event, 0);
+    }
+
+    private boolean isTriggeringEvent(E event, int pendingBytes) {
+        if (thresholdPolicy != null) {
+            return thresholdPolicy.isTriggeringEvent(currentlyActiveFile, activeFileLength.get() + pendingBytes, event);
+        }
+        return triggeringPolicy.isTriggeringEvent(currentlyActiveFile, event);
+    }
+
+    /**
+     * Batch counterpart of the roll-over check of {@link #subAppend(Object)}.
+     * The preceding events of the batch are counted as written to the active
+     * file, so that every event ends up in the same file as it would have if
+     * appended on its own, and are written before the roll-over takes place.
+     * Where the length of the active file is not the number of bytes encoded,
+     * with an unknown triggering policy or a compressed active file, they are
+     * written before the check.
+     */
+    @Override
+    protected void beforeBatchEvent(E event, EncodingBuffer pending) throws IOException {
+        if (thresholdPolicy == null || activeFileCodec != null) {
+            writePending(pending);
+        }
+        if (!mayTrigger(pending.size())) {
+            return;
+        }
         synchronized (triggeringPolicy) {
-            if (triggeringPolicy.isTriggeringEvent(currentlyActiveFile, event)) {
+            if (isTriggeringEvent(event, pending.size())) {
+                writePending(pending);
                 rollover();
             }
         }
+    }
 
-        super.subAppend(event);
+    private void writePending(EncodingBuffer pending) throws IOException {
+        writeBytes(pending);
+        pending.clear();
     }
 
     public RollingPolicy getRollingPolicy() {
@@ -259,6 +686,59 @@ public class RollingFileAppender<E> extends FileAppender<E> {
 
     }
 
+    public boolean isBackgroundRollover() {
+        return backgroundRollover;
+    }
+
+    /**
+     * When backgroundRollover is set to true, roll-over opens the new active
+     * file straight away, while the hereto active file is closed, renamed and
+     * compressed on a background thread. The rolling policy must implement
+     * {@link DeferredRollingPolicy}. Not supported in prudent mode.
+     * 
+     * @param backgroundRollover
+     * @since 1.3.7
+     */
+    public void setBackgroundRollover(boolean backgroundRollover) {
+        this.backgroundRollover = backgroundRollover;
+    }
+
+    public boolean isCompressActiveFile() {
+        return compressActiveFile;
+    }
+
+    /**
+     * When compressActiveFile is set to true, the active file is written
+     * through the gz or codec compression designated by the fileNamePattern of
+     * the rolling policy, so that roll-over renames it instead of compressing
+     * it. Naming the active file with the compression suffix is advisable.
+     * Appending to an existing file adds a gzip member or an LZ4 frame, which
+     * readers concatenate. Not supported in prudent, nio or mapped mode.
+     * 
+     * @param compressActiveFile
+     * @since 1.3.7
+     */
+    public void setCompressActiveFile(boolean compressActiveFile) {
+        this.compressActiveFile = compressActiveFile;
+    }
+
+    public Duration getCompressionSyncPeriod() {
+        return compressionSyncPeriod;
+    }
+
+    /**
+     * Sets the period at which the compressed active file is made readable up
+     * to the last event written. Each sync point costs some compression ratio.
+     * Flushes, see <b>immediateFlush</b>, sync at most once per period, and
+     * data left over is synced at the end of the period. The default is one
+     * second; with a period of zero, every flush syncs.
+     * 
+     * @since 1.3.7
+     */
+    public void setCompressionSyncPeriod(Duration compressionSyncPeriod) {
+        this.compressionSyncPeriod = compressionSyncPeriod;
+    }
+
     public void setTriggeringPolicy(TriggeringPolicy<E> policy) {
         triggeringPolicy = policy;
         if (policy instanceof RollingPolicy) {
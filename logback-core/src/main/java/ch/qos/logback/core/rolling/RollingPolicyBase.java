@@ -13,9 +13,14 @@
  */
 package ch.qos.logback.core.rolling;
 
+import java.util.ServiceConfigurationError;
+
 import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.rolling.helper.CompressionCodec;
 import ch.qos.logback.core.rolling.helper.CompressionMode;
+import ch.qos.logback.core.rolling.helper.Compressor;
 import ch.qos.logback.core.rolling.helper.FileNamePattern;
+import ch.qos.logback.core.rolling.helper.GzipCodec;
 import ch.qos.logback.core.spi.ContextAwareBase;
 
 /**
@@ -26,6 +31,8 @@ import ch.qos.logback.core.spi.ContextAwareBase;
  */
 public abstract class RollingPolicyBase extends ContextAwareBase implements RollingPolicy {
     protected CompressionMode compressionMode = CompressionMode.NONE;
+    // set in CODEC compression mode
+    protected CompressionCodec compressionCodec;
 
     FileNamePattern fileNamePattern;
     // fileNamePatternStr is always slashified, see setter
@@ -37,11 +44,16 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements Roll
     FileNamePattern zipEntryFileNamePattern;
     private boolean started;
 
+    private int compressionThreads = 1;
+    private int compressionLevel = Compressor.DEFAULT_LEVEL;
+
     /**
      * Given the FileNamePattern string, this method determines the compression
      * mode depending on last letters of the fileNamePatternStr. Patterns ending
      * with .gz imply GZIP compression, endings with '.zip' imply ZIP compression.
-     * Otherwise and by default, there is no compression.
+     * Patterns ending with the suffix of a {@link CompressionCodec}, such as
+     * '.lz4', imply compression by that codec. Otherwise and by default, there
+     * is no compression.
      * 
      */
     protected void determineCompressionMode() {
@@ -51,12 +63,38 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements Roll
         } else if (fileNamePatternStr.endsWith(".zip")) {
             addInfo("Will use zip compression");
             compressionMode = CompressionMode.ZIP;
+        } else if ((compressionCodec = findCodec()) != null) {
+            addInfo("Will use " + compressionCodec.getSuffix().substring(1) + " compression");
+            compressionMode = CompressionMode.CODEC;
         } else {
             addInfo("No compression will be used");
             compressionMode = CompressionMode.NONE;
         }
     }
 
+    private CompressionCodec findCodec() {
+        try {
+            return Compressor.findCodec(fileNamePatternStr);
+        } catch (ServiceConfigurationError e) {
+            addWarn("Failed to look up compression codecs", e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates a compressor for the compression mode, with the compression
+     * level and threads of this policy.
+     * 
+     * @since 1.3.7
+     */
+    protected Compressor newCompressor() {
+        Compressor compressor = compressionMode == CompressionMode.CODEC ? new Compressor(compressionCodec) : new Compressor(compressionMode);
+        compressor.setContext(context);
+        compressor.setThreadBudget(compressionThreads);
+        compressor.setLevel(compressionLevel);
+        return compressor;
+    }
+
     public void setFileNamePattern(String fnp) {
         fileNamePatternStr = fnp;
     }
@@ -69,6 +107,60 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements Roll
         return compressionMode;
     }
 
+    /**
+     * Returns the codec compressing archives in GZ and CODEC compression
+     * modes.
+     * 
+     * @return the codec, or null in other compression modes
+     * @since 1.3.7
+     */
+    public CompressionCodec getCompressionCodec() {
+        switch (compressionMode) {
+        case GZ:
+            return new GzipCodec();
+        case CODEC:
+            return compressionCodec;
+        default:
+            return null;
+        }
+    }
+
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    /**
+     * Sets the number of threads which may compress archives at once. Above
+     * one, several archives may be compressed at once and large files are
+     * compressed in parallel blocks. The default is one.
+     * 
+     * @param compressionThreads
+     * @since 1.3.7
+     */
+    public void setCompressionThreads(int compressionThreads) {
+        this.compressionThreads = compressionThreads;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the compression level of archives, from 0 (no compression) to 9
+     * (best compression). The default of -1 is the default level of the
+     * compression format, 6 for gz and zip.
+     * 
+     * @param compressionLevel
+     * @since 1.3.7
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < Compressor.DEFAULT_LEVEL || compressionLevel > 9) {
+            addWarn("Invalid compression level [" + compressionLevel + "]. Using previously set level, " + this.compressionLevel + ", by default.");
+            return;
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
     public boolean isStarted() {
         return started;
     }
@@ -89,6 +181,17 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements Roll
         return parent.isPrudent();
     }
 
+    /**
+     * Does the parent write the active file compressed already, so that
+     * archiving it only takes renaming it? See
+     * {@link RollingFileAppender#setCompressActiveFile(boolean)}.
+     * 
+     * @since 1.3.7
+     */
+    public boolean isActiveFileCompressed() {
+        return parent instanceof RollingFileAppender && ((RollingFileAppender<?>) parent).isCompressActiveFile();
+    }
+
     public String getParentsRawFileProperty() {
         return parent.rawFileProperty();
     }
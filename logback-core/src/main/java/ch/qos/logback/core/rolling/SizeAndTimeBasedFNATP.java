@@ -29,7 +29,7 @@ import ch.qos.logback.core.util.DefaultInvocationGate;
 import ch.qos.logback.core.util.InvocationGate;
 
 @NoAutoStart
-public class SizeAndTimeBasedFNATP<E> extends TimeBasedFileNamingAndTriggeringPolicyBase<E> {
+public class SizeAndTimeBasedFNATP<E> extends TimeBasedFileNamingAndTriggeringPolicyBase<E> implements ThresholdTriggeringPolicy<E> {
 
     enum Usage {EMBEDDED, DIRECT};
 
@@ -140,12 +140,7 @@ public class SizeAndTimeBasedFNATP<E> extends TimeBasedFileNamingAndTriggeringPo
 
         // first check for roll-over based on time
         if (time >= nextCheck) {
-            Date dateInElapsedPeriod = dateInCurrentPeriod;
-            elapsedPeriodsFileName = tbrp.fileNamePatternWithoutCompSuffix.convertMultipleArguments(dateInElapsedPeriod, currentPeriodsCounter);
-            currentPeriodsCounter = 0;
-            setDateInCurrentPeriod(time);
-            computeNextCheck();
-            return true;
+            return rollOverTime(time);
         }
 
         // next check for roll-over based on size
@@ -162,15 +157,46 @@ public class SizeAndTimeBasedFNATP<E> extends TimeBasedFileNamingAndTriggeringPo
             return false;
         }
         if (activeFile.length() >= maxFileSize.getSize()) {
-
-            elapsedPeriodsFileName = tbrp.fileNamePatternWithoutCompSuffix.convertMultipleArguments(dateInCurrentPeriod, currentPeriodsCounter);
-            currentPeriodsCounter++;
-            return true;
+            return rollOverSize();
         }
 
         return false;
     }
 
+    public boolean mayTrigger(long activeFileLength) {
+        return getCurrentTime() >= nextCheck || (maxFileSize != null && activeFileLength >= maxFileSize.getSize());
+    }
+
+    /**
+     * Since the length of the active file is known, the size is checked
+     * without going through the invocation gate.
+     */
+    public boolean isTriggeringEvent(File activeFile, long activeFileLength, E event) {
+        long time = getCurrentTime();
+        if (time >= nextCheck) {
+            return rollOverTime(time);
+        }
+        if (maxFileSize != null && activeFileLength >= maxFileSize.getSize()) {
+            return rollOverSize();
+        }
+        return false;
+    }
+
+    private boolean rollOverTime(long time) {
+        Date dateInElapsedPeriod = dateInCurrentPeriod;
+        elapsedPeriodsFileName = tbrp.fileNamePatternWithoutCompSuffix.convertMultipleArguments(dateInElapsedPeriod, currentPeriodsCounter);
+        currentPeriodsCounter = 0;
+        setDateInCurrentPeriod(time);
+        computeNextCheck();
+        return true;
+    }
+
+    private boolean rollOverSize() {
+        elapsedPeriodsFileName = tbrp.fileNamePatternWithoutCompSuffix.convertMultipleArguments(dateInCurrentPeriod, currentPeriodsCounter);
+        currentPeriodsCounter++;
+        return true;
+    }
+
     @Override
     public String getCurrentPeriodsFileNameWithoutCompressionSuffix() {
         return tbrp.fileNamePatternWithoutCompSuffix.convertMultipleArguments(dateInCurrentPeriod, currentPeriodsCounter);
@@ -23,14 +23,17 @@ import ch.qos.logback.core.util.InvocationGate;
  * SizeBasedTriggeringPolicy looks at size of the file being currently written
  * to. If it grows bigger than the specified size, the FileAppender using the
  * SizeBasedTriggeringPolicy rolls the file and creates a new one.
- * 
+ *
+ * Within a {@link RollingFileAppender}, the size of the file is the number of
+ * bytes written to it, which is checked for every event.
+ *
  * For more information about this policy, please refer to the online manual at
  * http://logback.qos.ch/manual/appenders.html#SizeBasedTriggeringPolicy
  * 
  * @author Ceki G&uuml;lc&uuml;
  * 
  */
-public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> {
+public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> implements ThresholdTriggeringPolicy<E> {
 
     public static final String SEE_SIZE_FORMAT = "http://logback.qos.ch/codes.html#sbtp_size_format";
     /**
@@ -53,6 +56,14 @@ public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> {
         return (activeFile.length() >= maxFileSize.getSize());
     }
 
+    public boolean mayTrigger(long activeFileLength) {
+        return activeFileLength >= maxFileSize.getSize();
+    }
+
+    public boolean isTriggeringEvent(File activeFile, long activeFileLength, E event) {
+        return mayTrigger(activeFileLength);
+    }
+
 
     public FileSize getMaxFileSize() {
         return this.maxFileSize;
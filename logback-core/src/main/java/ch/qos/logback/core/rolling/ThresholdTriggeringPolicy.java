@@ -0,0 +1,51 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling;
+
+import java.io.File;
+
+/**
+ * A <code>ThresholdTriggeringPolicy</code> triggers roll-over once the time
+ * or the length of the active file crosses a threshold. This allows
+ * {@link RollingFileAppender} to check for roll-over without locking, using
+ * the number of bytes it has written to the active file instead of asking the
+ * file system for its length.
+ *
+ * @param <E>
+ * @since 1.3.7
+ */
+public interface ThresholdTriggeringPolicy<E> extends TriggeringPolicy<E> {
+
+    /**
+     * Could roll-over be due at this time? This method is invoked for every
+     * event without any lock held, and must therefore be cheap and thread-safe.
+     *
+     * @param activeFileLength The exact length of the currently active log file.
+     * @return false if {@link #isTriggeringEvent(File, long, Object)} would
+     *         return false.
+     */
+    boolean mayTrigger(long activeFileLength);
+
+    /**
+     * Should roll-over be triggered at this time? Invoked under the roll-over
+     * lock of the appender, once {@link #mayTrigger(long)} returned true.
+     *
+     * @param activeFile A reference to the currently active log file.
+     * @param activeFileLength The exact length of the currently active log file,
+     *          which need not be sampled.
+     * @param event A reference to the currently event.
+     * @return true if a roll-over should occur.
+     */
+    boolean isTriggeringEvent(File activeFile, long activeFileLength, E event);
+}
@@ -38,7 +38,8 @@ abstract public class TimeBasedFileNamingAndTriggeringPolicyBase<E> extends Cont
     protected long artificialCurrentTime = -1;
     protected Date dateInCurrentPeriod = null;
 
-    protected long nextCheck;
+    // read without locking, see ThresholdTriggeringPolicy
+    protected volatile long nextCheck;
     protected boolean started = false;
     protected boolean errorFree = true;
 
@@ -41,7 +41,7 @@ import ch.qos.logback.core.util.FileSize;
  * 
  * @author Ceki G&uuml;lc&uuml;
  */
-public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements TriggeringPolicy<E> {
+public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements ThresholdTriggeringPolicy<E>, DeferredRollingPolicy {
     static final String FNP_NOT_SET = "The FileNamePattern option must be set before using TimeBasedRollingPolicy. ";
     // WCS: without compression suffix
     FileNamePattern fileNamePatternWithoutCompSuffix;
@@ -74,8 +74,7 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements Trig
             throw new IllegalStateException(FNP_NOT_SET + CoreConstants.SEE_FNP_NOT_SET);
         }
 
-        compressor = new Compressor(compressionMode);
-        compressor.setContext(context);
+        compressor = newCompressor();
 
         // wcs : without compression suffix
         fileNamePatternWithoutCompSuffix = new FileNamePattern(Compressor.computeFileNameStrWithoutCompSuffix(fileNamePatternStr, compressionMode), this.context);
@@ -169,6 +168,10 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements Trig
             if (getParentsRawFileProperty() != null) {
                 renameUtil.rename(getParentsRawFileProperty(), elapsedPeriodsFileName);
             } // else { nothing to do if CompressionMode == NONE and parentsRawFileProperty == null }
+        } else if (isActiveFileCompressed()) {
+            // the elapsed period's file is compressed already, it only lacks the suffix
+            String fileName = getParentsRawFileProperty() != null ? getParentsRawFileProperty() : elapsedPeriodsFileName;
+            renameUtil.rename(fileName, elapsedPeriodsFileName + getCompressionCodec().getSuffix());
         } else {
             if (getParentsRawFileProperty() == null) {
                 compressionFuture = compressor.asyncCompress(elapsedPeriodsFileName, elapsedPeriodsFileName, elapsedPeriodStem);
@@ -183,6 +186,34 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements Trig
         }
     }
 
+    public Runnable deferRollover(final String fileName) throws RolloverFailure {
+        final String elapsedPeriodsFileName = timeBasedFileNamingAndTriggeringPolicy.getElapsedPeriodsFileName();
+        final String elapsedPeriodStem = FileFilterUtil.afterLastSlash(elapsedPeriodsFileName);
+        final Date now = new Date(timeBasedFileNamingAndTriggeringPolicy.getCurrentTime());
+        final ArchiveRemover remover = archiveRemover;
+
+        return new Runnable() {
+            public void run() {
+                try {
+                    if (compressionMode == CompressionMode.NONE) {
+                        if (!fileName.equals(elapsedPeriodsFileName)) {
+                            renameUtil.rename(fileName, elapsedPeriodsFileName);
+                        }
+                    } else if (isActiveFileCompressed()) {
+                        renameUtil.rename(fileName, elapsedPeriodsFileName + getCompressionCodec().getSuffix());
+                    } else {
+                        compressor.compress(fileName, elapsedPeriodsFileName, elapsedPeriodStem);
+                    }
+                } catch (RolloverFailure rf) {
+                    addError("Failed to archive [" + fileName + "].", rf);
+                }
+                if (remover != null) {
+                    remover.clean(now);
+                }
+            }
+        };
+    }
+
     Future<?> renameRawAndAsyncCompress(String nameOfCompressedFile, String innerEntryName) throws RolloverFailure {
         String parentsRawFile = getParentsRawFileProperty();
         String tmpTarget = nameOfCompressedFile + System.nanoTime() + ".tmp";
@@ -223,6 +254,24 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements Trig
         return timeBasedFileNamingAndTriggeringPolicy.isTriggeringEvent(activeFile, event);
     }
 
+    /**
+     * Nested triggering policies which are not threshold based are consulted
+     * for every event.
+     */
+    public boolean mayTrigger(long activeFileLength) {
+        if (timeBasedFileNamingAndTriggeringPolicy instanceof ThresholdTriggeringPolicy) {
+            return ((ThresholdTriggeringPolicy<E>) timeBasedFileNamingAndTriggeringPolicy).mayTrigger(activeFileLength);
+        }
+        return true;
+    }
+
+    public boolean isTriggeringEvent(File activeFile, long activeFileLength, E event) {
+        if (timeBasedFileNamingAndTriggeringPolicy instanceof ThresholdTriggeringPolicy) {
+            return ((ThresholdTriggeringPolicy<E>) timeBasedFileNamingAndTriggeringPolicy).isTriggeringEvent(activeFile, activeFileLength, event);
+        }
+        return timeBasedFileNamingAndTriggeringPolicy.isTriggeringEvent(activeFile, event);
+    }
+
     /**
      * Get the number of archive files to keep.
      * 
@@ -0,0 +1,58 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A <code>CompressionCodec</code> compresses archived log files into the
+ * format designated by a file name suffix. Rolling policies whose file name
+ * pattern ends with the suffix of a codec compress archives with that codec.
+ * 
+ * <p>Besides the built-in codecs, see {@link Compressor#findCodec(String)},
+ * codecs are looked up with {@link java.util.ServiceLoader}.
+ * 
+ * @since 1.3.7
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return the suffix of the compressed files, including the leading dot,
+     *         e.g. ".lz4"
+     */
+    String getSuffix();
+
+    /**
+     * @return the bytes every output of {@link #compress(OutputStream, int)}
+     *         begins with, telling compressed files from plain ones
+     */
+    byte[] getMagicNumber();
+
+    /**
+     * Returns a stream compressing the bytes written to it into
+     * <code>out</code>. Flushing the returned stream writes out the data
+     * compressed so far in a form that readers can decompress, as is needed to
+     * compress the active log file, see {@link SyncFlushOutputStream}. Closing
+     * it completes the compressed data and closes <code>out</code>.
+     * 
+     * @param out
+     *          the stream receiving the compressed data
+     * @param level
+     *          the compression level, between 0 and 9 like deflate levels, or
+     *          -1 for the default level of the codec. Codecs with a single level
+     *          ignore it.
+     */
+    OutputStream compress(OutputStream out, int level) throws IOException;
+}
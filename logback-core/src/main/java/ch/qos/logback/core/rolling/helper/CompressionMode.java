@@ -14,5 +14,12 @@
 package ch.qos.logback.core.rolling.helper;
 
 public enum CompressionMode {
-    NONE, GZ, ZIP;
+    NONE, GZ, ZIP,
+    /**
+     * Compression by the {@link CompressionCodec} matching the file name
+     * suffix.
+     * 
+     * @since 1.3.7
+     */
+    CODEC;
 }
@@ -13,13 +13,20 @@
  */
 package ch.qos.logback.core.rolling.helper;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.FutureTask;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -27,22 +34,137 @@ import ch.qos.logback.core.rolling.RolloverFailure;
 import ch.qos.logback.core.spi.ContextAwareBase;
 import ch.qos.logback.core.status.ErrorStatus;
 import ch.qos.logback.core.status.WarnStatus;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
 import ch.qos.logback.core.util.FileUtil;
 
 /**
  * The <code>Compression</code> class implements ZIP and GZ file
  * compression/decompression methods.
+ * 
+ * <p>With a thread budget above one, archives are compressed by up to that
+ * many threads of the compressor's own. Several archives may then be
+ * compressed at once, and GZ compression of a large file is split into blocks
+ * compressed in parallel, each block becoming a member of the gzip file.
+ * Readers of gzip files concatenate the members, as <code>gzip -d</code> and
+ * <code>GZIPInputStream</code> do.
+ * 
+ * <p>In {@link CompressionMode#CODEC} mode, archives are compressed by a
+ * {@link CompressionCodec}, such as {@link Lz4FrameCodec}. The compression
+ * level applies to GZ and ZIP compression as well as to codecs with levels.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
 public class Compressor extends ContextAwareBase {
 
     final CompressionMode compressionMode;
+    final CompressionCodec codec;
 
-    static final int BUFFER_SIZE = 8192;
+    static final GzipCodec GZIP_CODEC = new GzipCodec();
+    static final CompressionCodec[] BUILT_IN_CODECS = { GZIP_CODEC, new Lz4FrameCodec() };
+
+    public static final int DEFAULT_LEVEL = -1;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    // progress is reported every tenth of files of at least that many blocks
+    static final int PROGRESS_MIN_BLOCKS = 10;
+
+    private int threadBudget = 1;
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+    private int level = DEFAULT_LEVEL;
+    private ExecutorService workers;
 
     public Compressor(CompressionMode compressionMode) {
         this.compressionMode = compressionMode;
+        this.codec = null;
+    }
+
+    /**
+     * Creates a compressor in {@link CompressionMode#CODEC} mode.
+     * 
+     * @since 1.3.7
+     */
+    public Compressor(CompressionCodec codec) {
+        this.compressionMode = CompressionMode.CODEC;
+        this.codec = codec;
+    }
+
+    /**
+     * Returns the codec whose suffix ends the given file name, either a
+     * built-in codec or one provided through {@link ServiceLoader}.
+     * 
+     * @return the matching codec, or null if there is none
+     * @since 1.3.7
+     */
+    public static CompressionCodec findCodec(String fileName) {
+        for (CompressionCodec codec : BUILT_IN_CODECS) {
+            if (fileName.endsWith(codec.getSuffix())) {
+                return codec;
+            }
+        }
+        for (CompressionCodec codec : ServiceLoader.load(CompressionCodec.class)) {
+            if (fileName.endsWith(codec.getSuffix())) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the compression level, from 0 (no compression) to 9 (best
+     * compression) like deflate levels. The default of -1 stands for the
+     * default level, 6 for GZ and ZIP compression.
+     * 
+     * @since 1.3.7
+     */
+    public void setLevel(int level) {
+        if (level < DEFAULT_LEVEL || level > 9) {
+            addWarn("Invalid compression level [" + level + "]. Using previously set level, " + this.level + ", by default.");
+            return;
+        }
+        this.level = level;
+    }
+
+    public int getThreadBudget() {
+        return threadBudget;
+    }
+
+    /**
+     * Sets the number of threads which may compress at once. With the default
+     * of one, archives are compressed one at a time by a single thread of the
+     * context's executor.
+     * 
+     * @since 1.3.7
+     */
+    public void setThreadBudget(int threadBudget) {
+        if (threadBudget < 1) {
+            addWarn("Invalid thread budget [" + threadBudget + "]. Using previously set thread budget, " + this.threadBudget + ", by default.");
+            return;
+        }
+        this.threadBudget = threadBudget;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Sets the size of the blocks compressed in parallel. The default is 1MB.
+     * 
+     * @since 1.3.7
+     */
+    public void setBlockSize(int blockSize) {
+        if (blockSize <= 0) {
+            addWarn("Invalid block size [" + blockSize + "]. Using previously set block size, " + this.blockSize + ", by default.");
+            return;
+        }
+        this.blockSize = blockSize;
     }
 
     /**
@@ -50,32 +172,35 @@ public class Compressor extends ContextAwareBase {
      * @param nameOfCompressedFile
      * @param innerEntryName 
      *            The name of the file within the zip file. Use for ZIP compression.
+     * @return whether the file was compressed. The file to compress is deleted
+     *         only if it was, the partly written compressed file otherwise.
      */
-    public void compress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName) {
+    public boolean compress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName) {
         switch (compressionMode) {
         case GZ:
-            gzCompress(nameOfFile2Compress, nameOfCompressedFile);
-            break;
+            return streamCompress(nameOfFile2Compress, nameOfCompressedFile, GZIP_CODEC);
         case ZIP:
-            zipCompress(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
-            break;
+            return zipCompress(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
+        case CODEC:
+            return streamCompress(nameOfFile2Compress, nameOfCompressedFile, codec);
         case NONE:
             throw new UnsupportedOperationException("compress method called in NONE compression mode");
         }
+        throw new IllegalStateException("Execution should not reach this point");
     }
 
-    private void zipCompress(String nameOfFile2zip, String nameOfZippedFile, String innerEntryName) {
+    private boolean zipCompress(String nameOfFile2zip, String nameOfZippedFile, String innerEntryName) {
         File file2zip = new File(nameOfFile2zip);
 
         if (!file2zip.exists()) {
             addStatus(new WarnStatus("The file to compress named [" + nameOfFile2zip + "] does not exist.", this));
 
-            return;
+            return false;
         }
 
         if (innerEntryName == null) {
             addStatus(new WarnStatus("The innerEntryName parameter cannot be null", this));
-            return;
+            return false;
         }
 
         if (!nameOfZippedFile.endsWith(".zip")) {
@@ -87,31 +212,146 @@ public class Compressor extends ContextAwareBase {
         if (zippedFile.exists()) {
             addStatus(new WarnStatus("The target compressed file named [" + nameOfZippedFile + "] exist already.", this));
 
-            return;
+            return false;
         }
 
         addInfo("ZIP compressing [" + file2zip + "] as [" + zippedFile + "]");
         createMissingTargetDirsIfNecessary(zippedFile);
 
-        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(nameOfFile2zip));
+        long start = System.currentTimeMillis();
+        try (FileChannel in = FileChannel.open(file2zip.toPath(), StandardOpenOption.READ);
                         ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(nameOfZippedFile))) {
 
+            zos.setLevel(level);
             ZipEntry zipEntry = computeZipEntry(innerEntryName);
             zos.putNextEntry(zipEntry);
 
-            byte[] inbuf = new byte[BUFFER_SIZE];
-            int n;
-
-            while ((n = bis.read(inbuf)) != -1) {
-                zos.write(inbuf, 0, n);
-            }
+            copy(in, zos, new Progress(file2zip, in.size()));
+            zos.finish();
 
-            addInfo("Done ZIP compressing [" + file2zip + "] as [" + zippedFile + "]");
+            addInfo("Done ZIP compressing [" + file2zip + "] as [" + zippedFile + "]" + summary(start, in.size(), zippedFile));
         } catch (Exception e) {
             addStatus(new ErrorStatus("Error occurred while compressing [" + nameOfFile2zip + "] into [" + nameOfZippedFile + "].", this, e));
+            return discardTarget(zippedFile);
+        }
+        return deleteSource(file2zip);
+    }
+
+    private boolean deleteSource(File file2Compress) {
+        if (!file2Compress.delete()) {
+            addStatus(new WarnStatus("Could not delete [" + file2Compress + "].", this));
+        }
+        return true;
+    }
+
+    private boolean discardTarget(File compressedFile) {
+        if (compressedFile.exists() && !compressedFile.delete()) {
+            addStatus(new WarnStatus("Could not delete the partly written [" + compressedFile + "].", this));
+        }
+        return false;
+    }
+
+    private void copy(FileChannel in, OutputStream out, Progress progress) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (in.read(buffer) != -1) {
+            out.write(buffer.array(), 0, buffer.position());
+            progress.advance(buffer.position());
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Compress the blocks of the file in parallel and write them out in order,
+     * each as a gzip member. At most as many blocks as the thread budget are in
+     * flight. A block not yet picked up by a worker when its turn comes is
+     * compressed by the current thread, so that compression progresses even
+     * if all workers are busy.
+     */
+    private void parallelGzCompress(FileChannel in, OutputStream out, Progress progress) throws Exception {
+        ExecutorService executor = workers();
+        ArrayDeque<Block> pending = new ArrayDeque<Block>();
+        boolean eof = false;
+        while (!eof) {
+            ByteBuffer buffer = ByteBuffer.allocate(blockSize);
+            while (buffer.hasRemaining()) {
+                if (in.read(buffer) == -1) {
+                    eof = true;
+                    break;
+                }
+            }
+            if (buffer.position() == 0) {
+                break;
+            }
+            Block block = new Block(buffer.array(), buffer.position(), level);
+            pending.add(block);
+            executor.execute(block);
+            if (pending.size() >= threadBudget) {
+                writeBlock(pending.poll(), out, progress);
+            }
+        }
+        while (!pending.isEmpty()) {
+            writeBlock(pending.poll(), out, progress);
+        }
+    }
+
+    private void writeBlock(Block block, OutputStream out, Progress progress) throws Exception {
+        // does nothing if a worker has started on the block already
+        block.run();
+        out.write(block.get());
+        progress.advance(block.length);
+    }
+
+    static class Block extends FutureTask<byte[]> {
+        final int length;
+
+        Block(final byte[] data, final int length, final int level) {
+            super(new Callable<byte[]>() {
+                public byte[] call() throws IOException {
+                    ByteArrayOutputStream member = new ByteArrayOutputStream(length / 4);
+                    OutputStream gzos = GZIP_CODEC.compress(member, level);
+                    gzos.write(data, 0, length);
+                    gzos.close();
+                    return member.toByteArray();
+                }
+            });
+            this.length = length;
         }
-        if (!file2zip.delete()) {
-            addStatus(new WarnStatus("Could not delete [" + nameOfFile2zip + "].", this));
+    }
+
+    private synchronized ExecutorService workers() {
+        if (workers == null) {
+            workers = ExecutorServiceUtil.newBoundedExecutorService(threadBudget);
+        }
+        return workers;
+    }
+
+    private String summary(long start, long length, File compressedFile) {
+        return " in " + (System.currentTimeMillis() - start) + " ms, " + length + " bytes to " + compressedFile.length() + " bytes";
+    }
+
+    /**
+     * Reports the progress of the compression of large files, every tenth.
+     */
+    class Progress {
+        final File file;
+        final long length;
+        final long step;
+        long done;
+        long nextReport;
+
+        Progress(File file, long length) {
+            this.file = file;
+            this.length = length;
+            this.step = length >= (long) PROGRESS_MIN_BLOCKS * blockSize ? length / 10 : Long.MAX_VALUE;
+            this.nextReport = step;
+        }
+
+        void advance(long count) {
+            done += count;
+            if (done >= nextReport && done < length) {
+                addInfo("Compressed " + (done * 100 / length) + "% of [" + file + "]");
+                nextReport = done - done % step + step;
+            }
         }
     }
 
@@ -139,48 +379,50 @@ public class Compressor extends ContextAwareBase {
         return new ZipEntry(nameOfFileNestedWithinArchive);
     }
 
-    private void gzCompress(String nameOfFile2gz, String nameOfgzedFile) {
-        File file2gz = new File(nameOfFile2gz);
+    private boolean streamCompress(String nameOfFile2Compress, String nameOfCompressedFile, CompressionCodec codec) {
+        File file2Compress = new File(nameOfFile2Compress);
 
-        if (!file2gz.exists()) {
-            addStatus(new WarnStatus("The file to compress named [" + nameOfFile2gz + "] does not exist.", this));
+        if (!file2Compress.exists()) {
+            addStatus(new WarnStatus("The file to compress named [" + nameOfFile2Compress + "] does not exist.", this));
 
-            return;
+            return false;
         }
 
-        if (!nameOfgzedFile.endsWith(".gz")) {
-            nameOfgzedFile = nameOfgzedFile + ".gz";
+        String suffix = codec.getSuffix();
+        if (!nameOfCompressedFile.endsWith(suffix)) {
+            nameOfCompressedFile = nameOfCompressedFile + suffix;
         }
 
-        File gzedFile = new File(nameOfgzedFile);
+        File compressedFile = new File(nameOfCompressedFile);
 
-        if (gzedFile.exists()) {
-            addWarn("The target compressed file named [" + nameOfgzedFile + "] exist already. Aborting file compression.");
-            return;
+        if (compressedFile.exists()) {
+            addWarn("The target compressed file named [" + nameOfCompressedFile + "] exist already. Aborting file compression.");
+            return false;
         }
 
-        addInfo("GZ compressing [" + file2gz + "] as [" + gzedFile + "]");
-        createMissingTargetDirsIfNecessary(gzedFile);
-
-        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(nameOfFile2gz));
-                        GZIPOutputStream gzos = new GZIPOutputStream(new FileOutputStream(nameOfgzedFile))) {
-
-            byte[] inbuf = new byte[BUFFER_SIZE];
-            int n;
-
-            while ((n = bis.read(inbuf)) != -1) {
-                gzos.write(inbuf, 0, n);
+        String format = suffix.substring(1).toUpperCase();
+        addInfo(format + " compressing [" + file2Compress + "] as [" + compressedFile + "]");
+        createMissingTargetDirsIfNecessary(compressedFile);
+
+        long start = System.currentTimeMillis();
+        try (FileChannel in = FileChannel.open(file2Compress.toPath(), StandardOpenOption.READ);
+                        OutputStream out = new FileOutputStream(nameOfCompressedFile)) {
+
+            Progress progress = new Progress(file2Compress, in.size());
+            if (codec == GZIP_CODEC && threadBudget > 1 && in.size() > blockSize) {
+                parallelGzCompress(in, out, progress);
+            } else {
+                OutputStream cos = codec.compress(out, level);
+                copy(in, cos, progress);
+                cos.close();
             }
 
-            addInfo("Done ZIP compressing [" + file2gz + "] as [" + gzedFile + "]");
+            addInfo("Done " + format + " compressing [" + file2Compress + "] as [" + compressedFile + "]" + summary(start, in.size(), compressedFile));
         } catch (Exception e) {
-            addStatus(new ErrorStatus("Error occurred while compressing [" + nameOfFile2gz + "] into [" + nameOfgzedFile + "].", this, e));
+            addStatus(new ErrorStatus("Error occurred while compressing [" + nameOfFile2Compress + "] into [" + nameOfCompressedFile + "].", this, e));
+            return discardTarget(compressedFile);
         }
-
-        if (!file2gz.delete()) {
-            addStatus(new WarnStatus("Could not delete [" + nameOfFile2gz + "].", this));
-        }
-
+        return deleteSource(file2Compress);
     }
 
     static public String computeFileNameStrWithoutCompSuffix(String fileNamePatternStr, CompressionMode compressionMode) {
@@ -196,6 +438,12 @@ public class Compressor extends ContextAwareBase {
                 return fileNamePatternStr.substring(0, len - 4);
             else
                 return fileNamePatternStr;
+        case CODEC:
+            CompressionCodec codec = findCodec(fileNamePatternStr);
+            if (codec != null)
+                return fileNamePatternStr.substring(0, len - codec.getSuffix().length());
+            else
+                return fileNamePatternStr;
         case NONE:
             return fileNamePatternStr;
         }
@@ -216,7 +464,7 @@ public class Compressor extends ContextAwareBase {
 
     public Future<?> asyncCompress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName) throws RolloverFailure {
         CompressionRunnable runnable = new CompressionRunnable(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
-        ExecutorService executorService = context.getScheduledExecutorService();
+        ExecutorService executorService = threadBudget > 1 ? workers() : context.getScheduledExecutorService();
         Future<?> future = executorService.submit(runnable);
         return future;
     }
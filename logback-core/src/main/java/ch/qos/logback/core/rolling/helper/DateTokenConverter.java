@@ -23,7 +23,7 @@ import ch.qos.logback.core.util.CachingDateFormatter;
 import ch.qos.logback.core.util.DatePatternToRegexUtil;
 
 /**
- * Returns a date formatted by SimpleDateFormatter.
+ * Returns a date formatted by a {@link CachingDateFormatter}.
  * 
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -0,0 +1,45 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses into the gzip format, at the given deflate level. Flushing the
+ * stream performs a deflate sync flush.
+ * 
+ * @since 1.3.7
+ */
+public class GzipCodec implements CompressionCodec {
+
+    static final byte[] MAGIC_NUMBER = { 0x1f, (byte) 0x8b };
+
+    public String getSuffix() {
+        return ".gz";
+    }
+
+    public byte[] getMagicNumber() {
+        return MAGIC_NUMBER.clone();
+    }
+
+    public OutputStream compress(OutputStream out, final int level) throws IOException {
+        return new GZIPOutputStream(out, Compressor.BUFFER_SIZE, true) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+}
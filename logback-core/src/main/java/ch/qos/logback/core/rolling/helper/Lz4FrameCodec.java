@@ -0,0 +1,233 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Compresses into the LZ4 frame format, readable by <code>lz4 -d</code>. LZ4
+ * trades compression ratio for speed: it compresses several times faster than
+ * deflate, at a lower ratio.
+ * 
+ * <p>Frames are made of independent blocks of up to 64KB, without checksums.
+ * Blocks are compressed with a single pass over a hash table of recent
+ * positions, so the compression level is ignored. Flushing the stream
+ * completes the current block.
+ * 
+ * @since 1.3.7
+ */
+public class Lz4FrameCodec implements CompressionCodec {
+
+    static final byte[] FRAME_HEADER = {
+                    // magic number 0x184D2204, little endian
+                    0x04, 0x22, 0x4D, 0x18,
+                    // FLG: version 01, independent blocks
+                    0x60,
+                    // BD: 64KB maximum block size
+                    0x40,
+                    // HC: second byte of the xxHash32 of FLG and BD
+                    (byte) 0x82 };
+
+    static final int BLOCK_SIZE = 64 * 1024;
+    static final int UNCOMPRESSED_BLOCK = 0x80000000;
+
+    static final int MIN_MATCH = 4;
+    // the last 5 bytes of a block are literals, and the last match starts at
+    // least 12 bytes before its end
+    static final int LAST_LITERALS = 5;
+    static final int MF_LIMIT = 12;
+    static final int MAX_OFFSET = 65535;
+    static final int HASH_LOG = 12;
+    // the search step grows by one every that many misses in a row
+    static final int SKIP_TRIGGER = 6;
+
+    public String getSuffix() {
+        return ".lz4";
+    }
+
+    public byte[] getMagicNumber() {
+        return Arrays.copyOf(FRAME_HEADER, 4);
+    }
+
+    public OutputStream compress(OutputStream out, int level) throws IOException {
+        return new FrameOutputStream(out);
+    }
+
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses <code>src[0..length)</code> as an LZ4 block into
+     * <code>dst</code> from <code>dstOff</code> on, which must have room for
+     * {@link #maxCompressedLength(int)} bytes.
+     * 
+     * @return the length of the compressed block
+     */
+    static int compressBlock(byte[] src, int length, byte[] dst, int dstOff, int[] hashTable) {
+        Arrays.fill(hashTable, -1);
+        int matchLimit = length - LAST_LITERALS;
+        int limit = length - MF_LIMIT;
+        int anchor = 0;
+        int ip = 0;
+        int op = dstOff;
+        int misses = 0;
+        while (ip < limit) {
+            int sequence = readInt(src, ip);
+            int h = (sequence * -1640531535) >>> (32 - HASH_LOG);
+            int ref = hashTable[h];
+            hashTable[h] = ip;
+            if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                ip += 1 + (misses++ >>> SKIP_TRIGGER);
+                continue;
+            }
+            misses = 0;
+            while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                ip--;
+                ref--;
+            }
+            int matchLength = MIN_MATCH;
+            while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                matchLength++;
+            }
+
+            int token = op++;
+            op = writeLiterals(src, anchor, ip - anchor, dst, token, op);
+            int offset = ip - ref;
+            dst[op++] = (byte) offset;
+            dst[op++] = (byte) (offset >>> 8);
+            int extra = matchLength - MIN_MATCH;
+            if (extra >= 15) {
+                dst[token] |= 15;
+                op = writeLength(extra - 15, dst, op);
+            } else {
+                dst[token] |= extra;
+            }
+
+            ip += matchLength;
+            anchor = ip;
+        }
+        int token = op++;
+        op = writeLiterals(src, anchor, length - anchor, dst, token, op);
+        return op - dstOff;
+    }
+
+    private static int writeLiterals(byte[] src, int from, int count, byte[] dst, int token, int op) {
+        if (count >= 15) {
+            dst[token] = (byte) (15 << 4);
+            op = writeLength(count - 15, dst, op);
+        } else {
+            dst[token] = (byte) (count << 4);
+        }
+        System.arraycopy(src, from, dst, op, count);
+        return op + count;
+    }
+
+    private static int writeLength(int length, byte[] dst, int op) {
+        while (length >= 255) {
+            dst[op++] = (byte) 255;
+            length -= 255;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(byte[] buf, int i) {
+        return (buf[i] & 0xFF) | (buf[i + 1] & 0xFF) << 8 | (buf[i + 2] & 0xFF) << 16 | (buf[i + 3] & 0xFF) << 24;
+    }
+
+    private static void writeInt(int value, byte[] buf, int i) {
+        buf[i] = (byte) value;
+        buf[i + 1] = (byte) (value >>> 8);
+        buf[i + 2] = (byte) (value >>> 16);
+        buf[i + 3] = (byte) (value >>> 24);
+    }
+
+    static class FrameOutputStream extends FilterOutputStream {
+        final byte[] block = new byte[BLOCK_SIZE];
+        // block size field followed by the block
+        final byte[] compressed = new byte[4 + maxCompressedLength(BLOCK_SIZE)];
+        final int[] hashTable = new int[1 << HASH_LOG];
+        int length;
+        boolean closed;
+
+        FrameOutputStream(OutputStream out) throws IOException {
+            super(out);
+            out.write(FRAME_HEADER);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            block[length++] = (byte) b;
+            if (length == BLOCK_SIZE) {
+                writeBlock();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, BLOCK_SIZE - length);
+                System.arraycopy(b, off, block, length, n);
+                length += n;
+                off += n;
+                len -= n;
+                if (length == BLOCK_SIZE) {
+                    writeBlock();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeBlock();
+                // end mark
+                writeInt(0, compressed, 0);
+                out.write(compressed, 0, 4);
+            } finally {
+                out.close();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (length == 0) {
+                return;
+            }
+            int compressedLength = compressBlock(block, length, compressed, 4, hashTable);
+            if (compressedLength < length) {
+                writeInt(compressedLength, compressed, 0);
+                out.write(compressed, 0, 4 + compressedLength);
+            } else {
+                writeInt(length | UNCOMPRESSED_BLOCK, compressed, 0);
+                out.write(compressed, 0, 4);
+                out.write(block, 0, length);
+            }
+            length = 0;
+        }
+    }
+}
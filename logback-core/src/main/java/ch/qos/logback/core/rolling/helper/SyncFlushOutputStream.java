@@ -0,0 +1,76 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Wraps a stream returned by {@link CompressionCodec#compress(OutputStream, int)}
+ * so that flushing, which completes the compressed data written so far and
+ * thus costs compression ratio, happens at most once per sync period. Readers
+ * tailing the file can decompress it up to the last sync point.
+ * 
+ * @since 1.3.7
+ */
+public class SyncFlushOutputStream extends FilterOutputStream {
+
+    private final long syncPeriodMillis;
+    private long lastSync = System.currentTimeMillis();
+    private boolean pending;
+
+    public SyncFlushOutputStream(OutputStream compressingStream, long syncPeriodMillis) {
+        super(compressingStream);
+        this.syncPeriodMillis = syncPeriodMillis;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        pending = true;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        pending = true;
+    }
+
+    /**
+     * Syncs if the sync period has elapsed since the last sync.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (pending && System.currentTimeMillis() - lastSync >= syncPeriodMillis) {
+            sync();
+        }
+    }
+
+    /**
+     * Completes the compressed data written so far and flushes it.
+     */
+    public void sync() throws IOException {
+        if (pending) {
+            out.flush();
+            pending = false;
+        }
+        lastSync = System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
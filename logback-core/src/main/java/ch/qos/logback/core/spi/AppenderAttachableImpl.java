@@ -14,8 +14,10 @@
 package ch.qos.logback.core.spi;
 
 import java.util.Iterator;
+import java.util.List;
 
 import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.BatchAppender;
 import ch.qos.logback.core.util.COWArrayList;
 
 /**
@@ -54,6 +56,32 @@ public class AppenderAttachableImpl<E> implements AppenderAttachable<E> {
         return size;
     }
 
+    /**
+     * Hand a batch of events to all attached appenders. Appenders implementing
+     * {@link BatchAppender} receive the whole batch, other appenders have their
+     * <code>doAppend</code> method called once per event.
+     * 
+     * @since 1.3.7
+     */
+    public int appendBatchLoopOnAppenders(List<E> events) {
+        int size = 0;
+        final Appender<E>[] appenderArray = appenderList.asTypedArray();
+        final int len = appenderArray.length;
+        final int eventCount = events.size();
+        for (int i = 0; i < len; i++) {
+            Appender<E> appender = appenderArray[i];
+            if (appender instanceof BatchAppender) {
+                ((BatchAppender<E>) appender).doAppendBatch(events);
+            } else {
+                for (int j = 0; j < eventCount; j++) {
+                    appender.doAppend(events.get(j));
+                }
+            }
+            size++;
+        }
+        return size;
+    }
+
     /**
      * Get all attached appenders as an Enumeration. If there are no attached
      * appenders <code>null</code> is returned.
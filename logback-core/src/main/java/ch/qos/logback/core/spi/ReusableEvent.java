@@ -0,0 +1,45 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.spi;
+
+/**
+ * Implemented by events which their producer recycles as soon as the
+ * appenders have returned, as is the case in garbage-free mode. Components
+ * which hold on to an event beyond {@code doAppend}, for example by queueing
+ * or buffering it, must keep the {@link #snapshot() snapshot} instead of the
+ * event itself.
+ *
+ * @param <E> the type of the snapshot
+ * @since 1.3.7
+ */
+public interface ReusableEvent<E> {
+
+    /**
+     * Returns an independent copy of this event which stays valid after this
+     * event has been recycled.
+     */
+    E snapshot();
+
+    /**
+     * Returns the given event if it can be retained as is, and its snapshot if
+     * it is a {@link ReusableEvent}.
+     */
+    @SuppressWarnings("unchecked")
+    static <E> E retainable(E event) {
+        if (event instanceof ReusableEvent) {
+            return ((ReusableEvent<E>) event).snapshot();
+        }
+        return event;
+    }
+}
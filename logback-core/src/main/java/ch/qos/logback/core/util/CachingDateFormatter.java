@@ -14,44 +14,412 @@
 package ch.qos.logback.core.util;
 
 import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalField;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.TimeZone;
 
 /**
- * A synchronized implementation of  SimpleDateFormat which uses caching internally.
+ * A thread-safe and lock-free date formatter, based on
+ * {@link DateTimeFormatter}, which caches its output.
+ * <p>
+ * Patterns follow the {@link SimpleDateFormat} syntax, as they did when this
+ * class was built on SimpleDateFormat, and are translated into the equivalent
+ * DateTimeFormatter. In particular <code>u</code> is the day number of the
+ * week, <code>S</code> stands for milliseconds rather than a fraction of a
+ * second, and <code>[ ] { } #</code> are plain literals. Letters which
+ * SimpleDateFormat does not know are rejected.
+ * <p>
+ * When the pattern contains a single <code>SSS</code> millisecond field, the
+ * text before and after that field is cached per second and the milliseconds
+ * are spliced in between, so that a new second is formatted only once.
+ * Patterns without sub-second fields are cached per second, or per minute if
+ * they have no seconds field either. Other patterns are cached per
+ * millisecond.
+ * <p>
+ * Cached values are immutable and published through volatile fields: readers
+ * never block nor write to shared memory, except when a new period begins.
  *
  * @author Ceki G&uuml;lc&uuml;
  * @since 0.9.29
  */
 public class CachingDateFormatter {
 
-    long lastTimestamp = -1;
-    String cachedStr = null;
-    final SimpleDateFormat sdf;
+    static final long MILLISECOND = 1;
+    static final long SECOND = 1000;
+    static final long MINUTE = 60 * SECOND;
+
+    static final String SIMPLE_DATE_FORMAT_LETTERS = "GyYMLwWDdFEuaHkKhmsSzZX";
+
+    final String pattern;
+    volatile Formats formats;
+    volatile CacheEntry cache;
+    volatile CacheEntry lastFormatted;
 
     public CachingDateFormatter(String pattern) {
-        sdf = new SimpleDateFormat(pattern);
+        this(pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the pattern is invalid
+     * @since 1.3.7
+     */
+    public CachingDateFormatter(String pattern, ZoneId zoneId) {
+        this.pattern = pattern;
+        this.formats = new Formats(pattern, zoneId);
     }
 
     public final String format(long now) {
+        CacheEntry last = lastFormatted;
+        Formats f = formats;
+        if (last != null && last.key == now && last.formats == f) {
+            return last.text;
+        }
+        CacheEntry entry = entryFor(now, f);
+        String text;
+        if (entry.text != null) {
+            text = entry.text;
+        } else {
+            StringBuilder buf = new StringBuilder(entry.prefix.length() + 3 + entry.suffix.length());
+            appendSpliced(buf, entry, now);
+            text = buf.toString();
+        }
+        lastFormatted = new CacheEntry(f, now, MILLISECOND, text, null, null);
+        return text;
+    }
+
+    /**
+     * Append the formatted date to <code>buf</code>. When the cache is hit,
+     * nothing is allocated.
+     *
+     * @since 1.3.7
+     */
+    public final void format(long now, StringBuilder buf) {
+        CacheEntry entry = entryFor(now, formats);
+        if (entry.text != null) {
+            buf.append(entry.text);
+        } else {
+            appendSpliced(buf, entry, now);
+        }
+    }
+
+    private CacheEntry entryFor(long now, Formats f) {
+        CacheEntry entry = cache;
+        if (entry != null && entry.formats == f && entry.key == Math.floorDiv(now, entry.period)) {
+            return entry;
+        }
+        CacheEntry newEntry = f.newEntry(now);
+        // do not let late events evict the current period
+        if (entry == null || entry.formats != f || now >= entry.key * entry.period) {
+            cache = newEntry;
+        }
+        return newEntry;
+    }
+
+    private static void appendSpliced(StringBuilder buf, CacheEntry entry, long now) {
+        int millis = (int) Math.floorMod(now, SECOND);
+        buf.append(entry.prefix);
+        buf.append((char) ('0' + millis / 100));
+        buf.append((char) ('0' + millis / 10 % 10));
+        buf.append((char) ('0' + millis % 10));
+        buf.append(entry.suffix);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setTimeZone(TimeZone tz) {
+        formats = new Formats(pattern, tz.toZoneId());
+    }
+
+    /**
+     * The formatters derived from the pattern for a given zone.
+     */
+    static final class Formats {
+        final ZoneId zoneId;
+        final DateTimeFormatter formatter;
+        final boolean spliced;
+        // null if the corresponding part of the pattern is empty
+        final DateTimeFormatter prefixFormatter;
+        final DateTimeFormatter suffixFormatter;
+        final long period;
+
+        Formats(String pattern, ZoneId zoneId) {
+            this.zoneId = zoneId;
+            List<PatternToken> tokens = PatternToken.parse(pattern);
+            this.formatter = toFormatter(tokens, zoneId);
+
+            boolean seconds = false;
+            boolean subSeconds = false;
+            int millisIndex = -1;
+            int millisFieldCount = 0;
+            for (int i = 0; i < tokens.size(); i++) {
+                PatternToken token = tokens.get(i);
+                if (token.letter == 's') {
+                    seconds = true;
+                } else if (token.letter == 'S') {
+                    subSeconds = true;
+                    millisIndex = i;
+                    millisFieldCount++;
+                }
+            }
+
+            spliced = millisFieldCount == 1 && tokens.get(millisIndex).count == 3;
+            if (spliced) {
+                prefixFormatter = toFormatter(tokens.subList(0, millisIndex), zoneId);
+                suffixFormatter = toFormatter(tokens.subList(millisIndex + 1, tokens.size()), zoneId);
+                period = SECOND;
+            } else {
+                prefixFormatter = null;
+                suffixFormatter = null;
+                if (subSeconds) {
+                    period = MILLISECOND;
+                } else if (seconds) {
+                    period = SECOND;
+                } else {
+                    period = MINUTE;
+                }
+            }
+        }
+
+        private static DateTimeFormatter toFormatter(List<PatternToken> tokens, ZoneId zoneId) {
+            if (tokens.isEmpty()) {
+                return null;
+            }
+            Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+            DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+            for (PatternToken token : tokens) {
+                token.appendTo(builder, locale);
+            }
+            return builder.toFormatter(locale).withZone(zoneId);
+        }
+
+        CacheEntry newEntry(long now) {
+            long entryPeriod = period;
+            if (entryPeriod == MINUTE) {
+                // minutes in the zone begin on epoch minutes only for whole-minute offsets
+                Instant instant = Instant.ofEpochMilli(now);
+                if (zoneId.getRules().getOffset(instant).getTotalSeconds() % 60 != 0) {
+                    entryPeriod = SECOND;
+                }
+            }
+            long key = Math.floorDiv(now, entryPeriod);
+            Instant start = Instant.ofEpochMilli(key * entryPeriod);
+            if (spliced) {
+                String prefix = prefixFormatter == null ? "" : prefixFormatter.format(start);
+                String suffix = suffixFormatter == null ? "" : suffixFormatter.format(start);
+                return new CacheEntry(this, key, entryPeriod, null, prefix, suffix);
+            }
+            return new CacheEntry(this, key, entryPeriod, formatter.format(start), null, null);
+        }
+    }
+
+    /**
+     * A field or a literal of a {@link SimpleDateFormat} pattern, translated
+     * into the equivalent {@link DateTimeFormatterBuilder} calls. Letters
+     * unknown to SimpleDateFormat are rejected, as SimpleDateFormat does.
+     */
+    static final class PatternToken {
+        // 0 for a literal
+        final char letter;
+        final int count;
+        final String literal;
+
+        PatternToken(char letter, int count, String literal) {
+            this.letter = letter;
+            this.count = count;
+            this.literal = literal;
+        }
+
+        static List<PatternToken> parse(String pattern) {
+            List<PatternToken> tokens = new ArrayList<PatternToken>();
+            StringBuilder literal = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (i < pattern.length()) {
+                char c = pattern.charAt(i);
+                if (c == '\'') {
+                    if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                        literal.append(c);
+                        i += 2;
+                    } else {
+                        quoted = !quoted;
+                        i++;
+                    }
+                } else if (!quoted && (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) {
+                    int count = 1;
+                    while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                        count++;
+                    }
+                    checkLetter(c, count);
+                    if (literal.length() > 0) {
+                        tokens.add(new PatternToken((char) 0, 0, literal.toString()));
+                        literal.setLength(0);
+                    }
+                    tokens.add(new PatternToken(c, count, null));
+                    i += count;
+                } else {
+                    literal.append(c);
+                    i++;
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quote in pattern [" + pattern + "]");
+            }
+            if (literal.length() > 0) {
+                tokens.add(new PatternToken((char) 0, 0, literal.toString()));
+            }
+            return tokens;
+        }
 
-        // SimpleDateFormat is not thread safe.
+        private static void checkLetter(char c, int count) {
+            if (SIMPLE_DATE_FORMAT_LETTERS.indexOf(c) < 0) {
+                throw new IllegalArgumentException("Illegal pattern character '" + c + "'");
+            }
+            if (c == 'X' && count > 3) {
+                throw new IllegalArgumentException("Invalid ISO 8601 format: length=" + count);
+            }
+        }
+
+        void appendTo(DateTimeFormatterBuilder builder, Locale locale) {
+            switch (letter) {
+            case 0:
+                builder.appendLiteral(literal);
+                break;
+            case 'G':
+                builder.appendText(ChronoField.ERA, textStyle());
+                break;
+            case 'y':
+                appendYear(builder, ChronoField.YEAR_OF_ERA);
+                break;
+            case 'Y':
+                appendYear(builder, WeekFields.of(locale).weekBasedYear());
+                break;
+            case 'M':
+                appendMonth(builder, TextStyle.SHORT, TextStyle.FULL);
+                break;
+            case 'L':
+                appendMonth(builder, TextStyle.SHORT_STANDALONE, TextStyle.FULL_STANDALONE);
+                break;
+            case 'w':
+                appendNumber(builder, WeekFields.of(locale).weekOfWeekBasedYear());
+                break;
+            case 'W':
+                appendNumber(builder, WeekFields.of(locale).weekOfMonth());
+                break;
+            case 'D':
+                appendNumber(builder, ChronoField.DAY_OF_YEAR);
+                break;
+            case 'd':
+                appendNumber(builder, ChronoField.DAY_OF_MONTH);
+                break;
+            case 'F':
+                appendNumber(builder, ChronoField.ALIGNED_WEEK_OF_MONTH);
+                break;
+            case 'E':
+                builder.appendText(ChronoField.DAY_OF_WEEK, textStyle());
+                break;
+            case 'u':
+                appendNumber(builder, ChronoField.DAY_OF_WEEK);
+                break;
+            case 'a':
+                builder.appendText(ChronoField.AMPM_OF_DAY, TextStyle.SHORT);
+                break;
+            case 'H':
+                appendNumber(builder, ChronoField.HOUR_OF_DAY);
+                break;
+            case 'k':
+                appendNumber(builder, ChronoField.CLOCK_HOUR_OF_DAY);
+                break;
+            case 'K':
+                appendNumber(builder, ChronoField.HOUR_OF_AMPM);
+                break;
+            case 'h':
+                appendNumber(builder, ChronoField.CLOCK_HOUR_OF_AMPM);
+                break;
+            case 'm':
+                appendNumber(builder, ChronoField.MINUTE_OF_HOUR);
+                break;
+            case 's':
+                appendNumber(builder, ChronoField.SECOND_OF_MINUTE);
+                break;
+            case 'S':
+                appendNumber(builder, ChronoField.MILLI_OF_SECOND);
+                break;
+            case 'z':
+                builder.appendZoneText(textStyle());
+                break;
+            case 'Z':
+                builder.appendOffset("+HHMM", "+0000");
+                break;
+            case 'X':
+                builder.appendOffset(count == 1 ? "+HH" : count == 2 ? "+HHMM" : "+HH:MM", "Z");
+                break;
+            default:
+                throw new IllegalStateException("Unexpected pattern character '" + letter + "'");
+            }
+        }
 
-        // See also the discussion in http://jira.qos.ch/browse/LBCLASSIC-36
-        // DateFormattingThreadedThroughputCalculator and SelectiveDateFormattingRunnable
-        // are also noteworthy
+        private TextStyle textStyle() {
+            return count >= 4 ? TextStyle.FULL : TextStyle.SHORT;
+        }
 
-        // The now == lastTimestamp guard minimizes synchronization
-        synchronized (this) {
-            if (now != lastTimestamp) {
-                lastTimestamp = now;
-                cachedStr = sdf.format(new Date(now));
+        private void appendYear(DateTimeFormatterBuilder builder, TemporalField field) {
+            if (count == 2) {
+                builder.appendValueReduced(field, 2, 2, 2000);
+            } else {
+                appendNumber(builder, field);
             }
-            return cachedStr;
+        }
+
+        private void appendMonth(DateTimeFormatterBuilder builder, TextStyle shortStyle, TextStyle fullStyle) {
+            if (count >= 4) {
+                builder.appendText(ChronoField.MONTH_OF_YEAR, fullStyle);
+            } else if (count == 3) {
+                builder.appendText(ChronoField.MONTH_OF_YEAR, shortStyle);
+            } else {
+                appendNumber(builder, ChronoField.MONTH_OF_YEAR);
+            }
+        }
+
+        /**
+         * Numbers are zero-padded to the number of pattern letters and never
+         * truncated, milliseconds included.
+         */
+        private void appendNumber(DateTimeFormatterBuilder builder, TemporalField field) {
+            builder.appendValue(field, Math.min(count, 19), 19, SignStyle.NORMAL);
         }
     }
 
-    public void setTimeZone(TimeZone tz) {
-        sdf.setTimeZone(tz);
+    /**
+     * The formatted text of a period, or the text before and after the
+     * milliseconds when they are spliced in.
+     */
+    static final class CacheEntry {
+        final Formats formats;
+        final long key;
+        final long period;
+        final String text;
+        final String prefix;
+        final String suffix;
+
+        CacheEntry(Formats formats, long key, long period, String text, String prefix, String suffix) {
+            this.formats = formats;
+            this.key = key;
+            this.period = period;
+            this.text = text;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
     }
 }
@@ -23,6 +23,8 @@ import java.text.DateFormatSymbols;
  */
 class CharSequenceToRegexMapper {
 
+    static final String REGEX_META_CHARACTERS = "[]{}()*+?^$|";
+
     DateFormatSymbols symbols = DateFormatSymbols.getInstance();
 
     String toRegex(CharSequenceState css) {
@@ -33,26 +35,35 @@ class CharSequenceToRegexMapper {
         case 'z':
             return ".*";
         case 'M':
+        case 'L':
             if (occurrences <= 2)
-                return number(occurrences);
+                return number(occurrences, 2);
             else if (occurrences == 3)
                 return getRegexForShortMonths();
             else
                 return getRegexForLongMonths();
         case 'y':
-        case 'w':
+        case 'Y':
+            // two letters stand for a two-digit year, other counts for the full year
+            if (occurrences == 2)
+                return number(2, 2);
+            return number(occurrences, 4);
         case 'W':
-        case 'D':
-        case 'd':
         case 'F':
+        case 'u':
+            return number(occurrences, 1);
+        case 'w':
+        case 'd':
         case 'H':
         case 'k':
         case 'K':
         case 'h':
         case 'm':
         case 's':
+            return number(occurrences, 2);
+        case 'D':
         case 'S':
-            return number(occurrences);
+            return number(occurrences, 3);
         case 'E':
             if (occurrences >= 4) {
                 return getRegexForLongDaysOfTheWeek();
@@ -63,6 +74,8 @@ class CharSequenceToRegexMapper {
             return getRegexForAmPms();
         case 'Z':
             return "(\\+|-)\\d{4}";
+        case 'X':
+            return "(Z|(\\+|-)\\d{2}(:?\\d{2})?)";
         case '.':
             return "\\.";
         case '\\':
@@ -73,16 +86,24 @@ class CharSequenceToRegexMapper {
             }
             throw new IllegalStateException("Too many single quotes");
         default:
+            String literal = REGEX_META_CHARACTERS.indexOf(c) >= 0 ? "\\" + c : "" + c;
             if (occurrences == 1) {
-                return "" + c;
+                return literal;
             } else {
-                return c + "{" + occurrences + "}";
+                return literal + "{" + occurrences + "}";
             }
         }
     }
 
-    private String number(int occurrences) {
-        return "\\d{" + occurrences + "}";
+    /**
+     * SimpleDateFormat pads numbers to the number of pattern letters but does
+     * not truncate them, so that a field may be wider than its pattern.
+     */
+    private String number(int occurrences, int maxDigits) {
+        if (occurrences >= maxDigits) {
+            return "\\d{" + occurrences + "}";
+        }
+        return "\\d{" + occurrences + "," + maxDigits + "}";
     }
 
     private String getRegexForAmPms() {
@@ -15,6 +15,7 @@ package ch.qos.logback.core.util;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
@@ -33,6 +34,8 @@ import ch.qos.logback.core.CoreConstants;
  */
 public class ExecutorServiceUtil {
 
+    private static final long BOUNDED_KEEP_ALIVE_SECONDS = 10;
+
     private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
 
         private final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
@@ -62,6 +65,21 @@ public class ExecutorServiceUtil {
                         THREAD_FACTORY);
     }
 
+    /**
+     * Creates an executor service running at most <code>threadCount</code>
+     * tasks at once, queueing the others. Its threads terminate when idle.
+     * 
+     * @param threadCount the maximum number of threads
+     * @return executor service
+     * @since 1.3.7
+     */
+    static public ExecutorService newBoundedExecutorService(int threadCount) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, BOUNDED_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<Runnable>(), THREAD_FACTORY);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Shuts down an executor service.
      * <p>
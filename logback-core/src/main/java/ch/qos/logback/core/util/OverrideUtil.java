@@ -0,0 +1,70 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.util;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Helps components with a fast variant of an overridable method to tell
+ * whether a subclass has overridden the plain method without the fast one.
+ * 
+ * @since 1.3.7
+ */
+public class OverrideUtil {
+
+    /**
+     * Is the method <code>name(Object, extraParameterType)</code> declared by
+     * the class declaring <code>name(Object)</code>, or by one of its
+     * subclasses? If not, a subclass has overridden <code>name(Object)</code>
+     * only, and the variant with the extra parameter would bypass it.
+     */
+    public static boolean isOverriddenTogether(Class<?> type, String name, Class<?> extraParameterType) {
+        try {
+            Class<?> plain = type.getMethod(name, Object.class).getDeclaringClass();
+            Class<?> variant = type.getMethod(name, Object.class, extraParameterType).getDeclaringClass();
+            return plain.isAssignableFrom(variant);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Is the method <code>variantName</code> taking
+     * <code>variantParameterCount</code> parameters declared by the class
+     * declaring <code>plainName</code> taking
+     * <code>plainParameterCount</code> parameters, or by one of its
+     * subclasses? Unlike {@link #isOverriddenTogether(Class, String, Class)},
+     * methods are matched whatever their visibility and the erasure of their
+     * parameter types, bridge methods aside.
+     */
+    public static boolean isOverriddenTogether(Class<?> type, String plainName, int plainParameterCount, String variantName,
+                    int variantParameterCount) {
+        Class<?> plain = declaringClass(type, plainName, plainParameterCount);
+        Class<?> variant = declaringClass(type, variantName, variantParameterCount);
+        return plain != null && variant != null && plain.isAssignableFrom(variant);
+    }
+
+    private static Class<?> declaringClass(Class<?> type, String name, int parameterCount) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (!method.isBridge() && !Modifier.isStatic(method.getModifiers()) && method.getName().equals(name)
+                                && method.getParameterCount() == parameterCount) {
+                    return c;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -9,6 +9,7 @@ module ch.qos.logback.core {
     
     
     exports ch.qos.logback.core;
+    exports ch.qos.logback.core.async;
     exports ch.qos.logback.core.boolex;
     exports ch.qos.logback.core.db;
 
@@ -34,11 +35,14 @@ module ch.qos.logback.core {
     exports ch.qos.logback.core.net;
     exports ch.qos.logback.core.net.server;
     exports ch.qos.logback.core.net.ssl;
+    exports ch.qos.logback.core.nio;
 
 
     exports ch.qos.logback.core.pattern;
     exports ch.qos.logback.core.pattern.color;
     exports ch.qos.logback.core.pattern.parser;
+
+    exports ch.qos.logback.core.rolling.helper;
     
     exports ch.qos.logback.core.sift;
     exports ch.qos.logback.core.spi;
@@ -46,5 +50,7 @@ module ch.qos.logback.core {
 
     exports ch.qos.logback.core.util;
 
+    uses ch.qos.logback.core.rolling.helper.CompressionCodec;
+
 }
 
@@ -0,0 +1,225 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.pattern.ClassOfCallerConverter;
+import ch.qos.logback.classic.pattern.DateConverter;
+import ch.qos.logback.classic.pattern.LoggerConverter;
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.pattern.CompositeConverter;
+import ch.qos.logback.core.pattern.parser.Parser;
+
+/**
+ * Differential tests checking that a compiled {@link PatternLayout} produces
+ * the same output as an interpreted one, for every converter.
+ */
+public class CompiledPatternLayoutTest {
+
+    static final String[] FORMATS = { "", "5", "-5", "-25", "8.12", ".-6", ".3", "-40.50" };
+
+    static final Map<String, String[]> OPTIONS = new HashMap<String, String[]>();
+
+    static {
+        String[] loggerOptions = { "{0}", "{5}", "{10}", "{30}" };
+        OPTIONS.put("lo", loggerOptions);
+        OPTIONS.put("logger", loggerOptions);
+        OPTIONS.put("c", loggerOptions);
+        OPTIONS.put("C", loggerOptions);
+        OPTIONS.put("class", loggerOptions);
+        OPTIONS.put("d", new String[] { "{HH:mm:ss.SSS}", "{ISO8601}" });
+        OPTIONS.put("X", new String[] { "{user}", "{missing:-none}" });
+        OPTIONS.put("mdc", new String[] { "{user}" });
+        OPTIONS.put("property", new String[] { "{a}" });
+        OPTIONS.put("caller", new String[] { "{2}" });
+        OPTIONS.put("ex", new String[] { "{short}", "{2}" });
+        OPTIONS.put("xEx", new String[] { "{short}" });
+        OPTIONS.put("replace", new String[] { "{'[aeiou]', '_'}" });
+    }
+
+    LoggerContext lc = new LoggerContext();
+    List<ILoggingEvent> events = new ArrayList<ILoggingEvent>();
+
+    @Before
+    public void setUp() {
+        lc.setName("differential");
+        lc.putProperty("a", "b");
+
+        Logger logger = lc.getLogger("ch.qos.logback.classic.some.deeply.nested.package.SomeService");
+        Exception cause = new IllegalStateException("cause");
+        LoggingEvent withEverything = new LoggingEvent(getClass().getName(), logger, Level.WARN, "Request {} failed after {} ms", new RuntimeException("failure", cause),
+                        new Object[] { "GET /orders/42", 17 });
+        withEverything.setMarker(MarkerFactory.getMarker("AUDIT"));
+        Map<String, String> mdc = new HashMap<String, String>();
+        mdc.put("user", "alice");
+        mdc.put("request", "42");
+        withEverything.setMDCPropertyMap(mdc);
+        withEverything.setThreadName("worker-thread-with-a-long-name");
+        events.add(withEverything);
+
+        events.add(new LoggingEvent(getClass().getName(), lc.getLogger("Short"), Level.INFO, "short", null, null));
+        events.add(new LoggingEvent(getClass().getName(), logger, Level.DEBUG, null, null, null));
+        events.add(new LoggingEvent(getClass().getName(), lc.getLogger(Logger.ROOT_LOGGER_NAME), Level.ERROR, "{} {}", null,
+                        new Object[] { null, new int[] { 1, 2 } }));
+    }
+
+    @Test
+    public void everyConverterProducesTheSameOutput() {
+        TreeSet<String> keywords = new TreeSet<String>(PatternLayout.defaultConverterMap.keySet());
+        keywords.addAll(Parser.DEFAULT_COMPOSITE_CONVERTER_MAP.keySet());
+        int patternCount = 0;
+        for (String keyword : keywords) {
+            List<String> options = new ArrayList<String>();
+            options.add("");
+            if (OPTIONS.containsKey(keyword)) {
+                for (String option : OPTIONS.get(keyword)) {
+                    options.add(option);
+                }
+            }
+            boolean composite = isComposite(keyword);
+            for (String format : FORMATS) {
+                for (String option : options) {
+                    String body = composite ? "(%level %logger{10}: %msg)" : "";
+                    assertSameOutput("[%" + format + keyword + body + option + "]");
+                    patternCount++;
+                }
+            }
+        }
+        assertTrue(patternCount > keywords.size() * FORMATS.length);
+    }
+
+    @Test
+    public void typicalPatternsProduceTheSameOutput() {
+        assertSameOutput("%d %le [%t] %lo{30} - %m%n");
+        assertSameOutput("%-56(%d %lo{20}) - %m%n");
+        assertSameOutput("%date{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n");
+        assertSameOutput("%-4relative [%thread] %-5level %logger{35} - %msg %n");
+        assertSameOutput("%highlight(%-5level) %cyan(%logger{15}) %X{user} %marker %replace(%msg){'\\d', '#'}%n%ex{short}");
+        assertSameOutput("%nopex%caller{1}%C{0}.%M:%L %F %cn %property{a} %lsn");
+    }
+
+    // a subclass overriding convert() only must not be bypassed by writeUnformatted()
+    @Test
+    public void convertOverridesAreHonoured() {
+        assertConverted("masked", MaskingMessageConverter.class, "***");
+        assertConverted("maskedLogger", MaskingLoggerConverter.class, "logger");
+        assertConverted("maskedClass", MaskingClassOfCallerConverter.class, "class");
+        assertConverted("maskedDate", MaskingDateConverter.class, "date");
+    }
+
+    void assertConverted(String keyword, Class<?> converterClass, String expected) {
+        for (boolean compiled : new boolean[] { false, true }) {
+            for (String format : new String[] { "", "-5", "5", ".2" }) {
+                String pattern = "[%" + format + keyword + "]";
+                PatternLayout layout = new PatternLayout();
+                layout.setContext(lc);
+                layout.getInstanceConverterMap().put(keyword, converterClass.getName());
+                layout.setPattern(pattern);
+                layout.setCompiled(compiled);
+                layout.start();
+                // truncation keeps the end of the value
+                String formatted = format.equals(".2") ? expected.substring(expected.length() - 2) : String.format("%" + format + "s", expected);
+                StringBuilder buf = new StringBuilder();
+                layout.doLayout(events.get(1), buf);
+                assertEquals(pattern + (compiled ? " compiled" : ""), "[" + formatted + "]", buf.toString());
+                assertEquals(pattern + (compiled ? " compiled" : ""), "[" + formatted + "]", layout.doLayout(events.get(1)));
+            }
+        }
+    }
+
+    public static class MaskingMessageConverter extends MessageConverter {
+        @Override
+        public String convert(ILoggingEvent event) {
+            return "***";
+        }
+    }
+
+    public static class MaskingLoggerConverter extends LoggerConverter {
+        @Override
+        public String convert(ILoggingEvent event) {
+            return "logger";
+        }
+    }
+
+    public static class MaskingClassOfCallerConverter extends ClassOfCallerConverter {
+        @Override
+        public String convert(ILoggingEvent event) {
+            return "class";
+        }
+    }
+
+    public static class MaskingDateConverter extends DateConverter {
+        @Override
+        public String convert(ILoggingEvent event) {
+            return "date";
+        }
+    }
+
+    void assertSameOutput(String pattern) {
+        PatternLayout interpreted = newPatternLayout(pattern, false);
+        PatternLayout compiled = newPatternLayout(pattern, true);
+        for (ILoggingEvent event : events) {
+            assertEquals(pattern + " for [" + event.getMessage() + "]", mask(interpreted.doLayout(event)), mask(compiled.doLayout(event)));
+
+            StringBuilder interpretedBuf = new StringBuilder("prefix ");
+            StringBuilder compiledBuf = new StringBuilder("prefix ");
+            interpreted.doLayout(event, interpretedBuf);
+            compiled.doLayout(event, compiledBuf);
+            assertEquals(pattern, mask(interpretedBuf.toString()), mask(compiledBuf.toString()));
+        }
+    }
+
+    /**
+     * Each %lsn converter starts its sequence at the time it is created.
+     */
+    String mask(String output) {
+        return output.replaceAll("[0-9]{12,}", "<lsn>");
+    }
+
+    PatternLayout newPatternLayout(String pattern, boolean compiled) {
+        PatternLayout layout = new PatternLayout();
+        layout.setContext(lc);
+        layout.setPattern(pattern);
+        layout.setCompiled(compiled);
+        layout.start();
+        assertTrue(pattern, layout.isStarted());
+        return layout;
+    }
+
+    boolean isComposite(String keyword) {
+        String className = PatternLayout.defaultConverterMap.get(keyword);
+        if (className == null) {
+            className = Parser.DEFAULT_COMPOSITE_CONVERTER_MAP.get(keyword);
+        }
+        try {
+            return CompositeConverter.class.isAssignableFrom(Class.forName(className));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
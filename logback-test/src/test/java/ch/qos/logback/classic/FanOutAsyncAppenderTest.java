@@ -0,0 +1,94 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+public class FanOutAsyncAppenderTest {
+
+    LoggerContext context = new LoggerContext();
+    FanOutAsyncAppender fanOutAppender = new FanOutAsyncAppender();
+    ListAppender<ILoggingEvent> listAppender0 = new ListAppender<ILoggingEvent>();
+    ListAppender<ILoggingEvent> listAppender1 = new ListAppender<ILoggingEvent>();
+    Logger logger = context.getLogger(this.getClass());
+
+    @Before
+    public void setUp() {
+        fanOutAppender.setContext(context);
+        fanOutAppender.setName("fanOut");
+        listAppender0.setContext(context);
+        listAppender0.setName("list0");
+        listAppender0.start();
+        listAppender1.setContext(context);
+        listAppender1.setName("list1");
+        listAppender1.start();
+    }
+
+    @Test
+    public void eachAttachedAppenderReceivesAllEvents() {
+        fanOutAppender.addAppender(listAppender0);
+        fanOutAppender.addAppender(listAppender1);
+        fanOutAppender.setIncludeCallerData(true);
+        fanOutAppender.start();
+
+        logger.addAppender(fanOutAppender);
+        logger.setAdditive(false);
+        logger.info("hello");
+        logger.warn("world");
+        fanOutAppender.stop();
+
+        assertEquals(2, listAppender0.list.size());
+        assertEquals(2, listAppender1.list.size());
+        assertTrue(listAppender0.list.get(0).hasCallerData());
+        assertEquals("world", listAppender1.list.get(1).getMessage());
+    }
+
+    @Test
+    public void shardKeyDefaultsToLoggerName() {
+        LoggingEvent event = new LoggingEvent(null, logger, Level.INFO, "hello", null, null);
+        assertEquals(logger.getName(), fanOutAppender.getShardKey(event));
+    }
+
+    @Test
+    public void shardKeyFromMDC() {
+        fanOutAppender.setShardMDCKey("tenant");
+        LoggingEvent event = new LoggingEvent(null, logger, Level.INFO, "hello", null, null);
+        Map<String, String> mdcMap = new HashMap<String, String>();
+        mdcMap.put("tenant", "t1");
+        event.setMDCPropertyMap(mdcMap);
+        assertEquals("t1", fanOutAppender.getShardKey(event));
+
+        LoggingEvent noTenant = new LoggingEvent(null, logger, Level.INFO, "hello", null, null);
+        noTenant.setMDCPropertyMap(new HashMap<String, String>());
+        assertEquals(logger.getName(), fanOutAppender.getShardKey(noTenant));
+    }
+
+    @Test
+    public void debugIsDiscardable() {
+        assertTrue(fanOutAppender.isDiscardable(new LoggingEvent(null, logger, Level.DEBUG, "x", null, null)));
+        assertFalse(fanOutAppender.isDiscardable(new LoggingEvent(null, logger, Level.WARN, "x", null, null)));
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.ReusableLoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.read.ListAppender;
+
+public class GarbageFreeModeTest {
+
+    static final int WARM_UP_COUNT = 20000;
+    static final int MEASURED_COUNT = 10000;
+
+    LoggerContext loggerContext = new LoggerContext();
+    Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+    Logger logger = loggerContext.getLogger(GarbageFreeModeTest.class);
+    Exception lastArgument = new Exception("last argument");
+
+    @Before
+    public void setUp() {
+        loggerContext.setGarbageFree(true);
+    }
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+        loggerContext.stop();
+    }
+
+    @Test
+    public void noAllocationPerEventForCommonPatterns() {
+        com.sun.management.ThreadMXBean threadMXBean = allocationMeasuringBean();
+        Assume.assumeTrue(threadMXBean != null);
+
+        verifyNoAllocation(threadMXBean, "%level [%thread] %logger - %msg%n");
+        verifyNoAllocation(threadMXBean, "%-5level [%15.15thread] %logger %X{user} - %message%n");
+    }
+
+    @Test
+    public void outputIsIdenticalToRegularMode() {
+        ByteArrayOutputStream regular = new ByteArrayOutputStream();
+        ByteArrayOutputStream garbageFree = new ByteArrayOutputStream();
+
+        OutputStreamAppender<ILoggingEvent> appender = buildAppender("%-5level %logger{0} - %msg%n", regular);
+        loggerContext.setGarbageFree(false);
+        logVariousMessages();
+        appender.setOutputStream(garbageFree);
+        loggerContext.setGarbageFree(true);
+        logVariousMessages();
+
+        assertEquals(regular.toString(), garbageFree.toString());
+    }
+
+    @Test
+    public void retainingAppendersKeepSnapshots() {
+        ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+        listAppender.setContext(loggerContext);
+        listAppender.start();
+        root.addAppender(listAppender);
+
+        MDC.put("user", "alice");
+        logger.info("first {}", "a");
+        MDC.put("user", "bob");
+        logger.warn("second {} {}", "b", "c", new Exception("x"));
+
+        assertEquals(2, listAppender.list.size());
+        ILoggingEvent first = listAppender.list.get(0);
+        ILoggingEvent second = listAppender.list.get(1);
+        assertNotSame(first, second);
+        assertFalse(first instanceof ReusableLoggingEvent);
+        assertFalse(second instanceof ReusableLoggingEvent);
+
+        assertEquals("first a", first.getFormattedMessage());
+        assertEquals(Level.INFO, first.getLevel());
+        assertEquals("alice", first.getMDCPropertyMap().get("user"));
+        assertEquals(Thread.currentThread().getName(), first.getThreadName());
+
+        assertEquals("second b c", second.getFormattedMessage());
+        assertEquals("bob", second.getMDCPropertyMap().get("user"));
+        assertNotNull(second.getThrowableProxy());
+    }
+
+    @Test
+    public void nestedLoggingUsesDistinctEvent() {
+        final ListAppender<ILoggingEvent> nestedAppender = new ListAppender<ILoggingEvent>();
+        nestedAppender.setContext(loggerContext);
+        nestedAppender.start();
+        final Logger nestedLogger = loggerContext.getLogger("nested");
+        nestedLogger.setAdditive(false);
+        nestedLogger.addAppender(nestedAppender);
+
+        final List<String> seen = new ArrayList<String>();
+        AppenderBase<ILoggingEvent> reentrant = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                nestedLogger.info("nested {}", event.getMessage());
+                seen.add(event.getFormattedMessage());
+            }
+        };
+        reentrant.setContext(loggerContext);
+        reentrant.start();
+        logger.addAppender(reentrant);
+
+        logger.info("outer {}", "x");
+
+        assertEquals(1, seen.size());
+        assertEquals("outer x", seen.get(0));
+        assertEquals(1, nestedAppender.list.size());
+        assertEquals("nested outer {}", nestedAppender.list.get(0).getFormattedMessage());
+    }
+
+    void verifyNoAllocation(com.sun.management.ThreadMXBean threadMXBean, String pattern) {
+        loggerContext.reset();
+        loggerContext.setGarbageFree(true);
+        CountingOutputStream sink = new CountingOutputStream();
+        buildAppender(pattern, sink);
+        MDC.put("user", "alice");
+
+        logLoop(WARM_UP_COUNT);
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        logLoop(MEASURED_COUNT);
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        assertTrue(sink.count > 0);
+        long allocated = after - before;
+        // less than one byte per event on average means no event allocated
+        assertTrue("allocated " + allocated + " bytes for " + MEASURED_COUNT + " events with pattern " + pattern, allocated < MEASURED_COUNT);
+    }
+
+    void logLoop(int count) {
+        for (int i = 0; i < count; i++) {
+            logger.info("Hello {}", "world");
+            logger.warn("{} is {}", "answer", Boolean.TRUE);
+            logger.debug("counter {}", Integer.valueOf(i & 0x7f));
+            logger.error("no arguments");
+        }
+    }
+
+    void logVariousMessages() {
+        logger.info("plain");
+        logger.info("one {}", "a");
+        logger.info("two {} {}", "a", "b");
+        logger.info("three {} {} {}", "a", "b", "c");
+        logger.info("null {}", (Object) null);
+        logger.info("numbers {} {}", Long.valueOf(-12345678901L), Short.valueOf((short) 7));
+        logger.info("chars {} {}", Character.valueOf('c'), Boolean.FALSE);
+        logger.info("double {}", Double.valueOf(1.5));
+        logger.info("missing {} {}", "a");
+        logger.info("surplus {}", "a", "b");
+        logger.info("array {}", new int[] { 1, 2 });
+        logger.info("escaped \\{} {}", "a");
+        logger.info("double escaped \\\\{}", "a");
+        logger.info("{}", lastArgument);
+        logger.info(null);
+    }
+
+    OutputStreamAppender<ILoggingEvent> buildAppender(String pattern, OutputStream os) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(pattern);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<ILoggingEvent>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(os);
+        appender.start();
+        root.addAppender(appender);
+        return appender;
+    }
+
+    static com.sun.management.ThreadMXBean allocationMeasuringBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        return sunBean;
+    }
+
+    static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -18,10 +18,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -276,4 +278,68 @@ public class LoggerContextTest {
         }
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void concurrentCreationYieldsSingleInstances() throws InterruptedException {
+        final int threadCount = 8;
+        final int loggerCount = 2000;
+        final Logger[][] results = new Logger[threadCount][loggerCount];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < loggerCount; i++) {
+                        results[threadIndex][i] = lc.getLogger("tenant" + (i % 10) + ".service" + (i % 100) + ".Class" + i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < loggerCount; i++) {
+            for (int t = 1; t < threadCount; t++) {
+                assertSame(results[0][i], results[t][i]);
+            }
+            Logger logger = results[0][i];
+            assertSame(logger, lc.getLogger(logger.getName()));
+        }
+        // root + 10 tenants + 100 services + one logger per name
+        assertEquals(1 + 10 + 100 + loggerCount, lc.size());
+        assertEquals(lc.size(), lc.getLoggerList().size());
+    }
+
+    @Test
+    public void concurrentCreationInheritsLevelChanges() throws InterruptedException {
+        final Logger parent = lc.getLogger("parent");
+        final int loggerCount = 5000;
+        Thread creator = new Thread(new Runnable() {
+            public void run() {
+                for (int i = 0; i < loggerCount; i++) {
+                    lc.getLogger("parent.child" + i);
+                }
+            }
+        });
+        creator.start();
+        for (int i = 0; creator.isAlive(); i++) {
+            parent.setLevel(i % 2 == 0 ? Level.WARN : Level.INFO);
+        }
+        creator.join();
+
+        // no child may have missed the last level change made while it was created
+        for (int i = 0; i < loggerCount; i++) {
+            assertEquals(parent.getEffectiveLevel(), lc.getLogger("parent.child" + i).getEffectiveLevel());
+        }
+    }
+
+}
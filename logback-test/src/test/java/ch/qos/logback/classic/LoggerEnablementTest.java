@@ -0,0 +1,173 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.MDCFilter;
+import ch.qos.logback.classic.turbo.MarkerFilter;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class LoggerEnablementTest {
+
+    LoggerContext lc = new LoggerContext();
+    Logger logger = lc.getLogger("a.b.C");
+    ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+
+    static class CountingFilter extends TurboFilter {
+        final FilterReply reply;
+        final boolean mayAccept;
+        int invocations;
+
+        CountingFilter(FilterReply reply, boolean mayAccept) {
+            this.reply = reply;
+            this.mayAccept = mayAccept;
+        }
+
+        @Override
+        public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+            invocations++;
+            return reply;
+        }
+
+        @Override
+        public boolean mayAccept(Level level) {
+            return mayAccept;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        listAppender.start();
+        lc.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(listAppender);
+        logger.setLevel(Level.INFO);
+    }
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void filtersWhichCannotAcceptAreSkippedBelowLevel() {
+        CountingFilter denying = new CountingFilter(FilterReply.DENY, false);
+        lc.addTurboFilter(denying);
+
+        logger.debug("below level");
+        assertFalse(logger.isDebugEnabled());
+        assertEquals(0, denying.invocations);
+
+        logger.info("at level");
+        assertEquals(1, denying.invocations);
+        assertEquals(0, listAppender.list.size());
+    }
+
+    @Test
+    public void filtersWhichMayAcceptAreConsulted() {
+        MDCFilter mdcFilter = new MDCFilter();
+        mdcFilter.setMDCKey("user");
+        mdcFilter.setValue("alice");
+        mdcFilter.setOnMatch("ACCEPT");
+        mdcFilter.start();
+        lc.addTurboFilter(mdcFilter);
+
+        logger.debug("not accepted");
+        MDC.put("user", "alice");
+        logger.debug("accepted");
+
+        assertEquals(1, listAppender.list.size());
+        assertEquals("accepted", listAppender.list.get(0).getMessage());
+    }
+
+    @Test
+    public void markerFilterOnlyAcceptsMarkedStatements() {
+        Marker blue = MarkerFactory.getMarker("BLUE");
+        MarkerFilter markerFilter = new MarkerFilter();
+        markerFilter.setMarker("BLUE");
+        markerFilter.setOnMatch("ACCEPT");
+        markerFilter.start();
+        lc.addTurboFilter(markerFilter);
+
+        assertFalse(logger.isDebugEnabled());
+        assertTrue(logger.isDebugEnabled(blue));
+        logger.debug(blue, "accepted");
+        logger.debug("rejected");
+        assertEquals(1, listAppender.list.size());
+    }
+
+    @Test
+    public void levelChangeInvalidatesEnablement() {
+        logger.debug("rejected");
+        lc.getLogger("a").setLevel(Level.DEBUG);
+        // a.b.C has its own level
+        logger.debug("still rejected");
+        logger.setLevel(null);
+        logger.debug("accepted");
+        lc.getLogger("a").setLevel(Level.WARN);
+        logger.info("rejected");
+
+        assertEquals(1, listAppender.list.size());
+        assertEquals("accepted", listAppender.list.get(0).getMessage());
+    }
+
+    @Test
+    public void filterChangeInvalidatesEnablement() {
+        logger.debug("rejected");
+        CountingFilter accepting = new CountingFilter(FilterReply.ACCEPT, true);
+        lc.addTurboFilter(accepting);
+        logger.debug("accepted");
+        lc.getTurboFilterList().remove(accepting);
+        logger.debug("rejected");
+
+        assertEquals(1, listAppender.list.size());
+        assertEquals(1, accepting.invocations);
+    }
+
+    @Test
+    public void acceptingFilterScopedToOtherLoggers() {
+        CountingFilter accepting = new CountingFilter(FilterReply.ACCEPT, true);
+        accepting.setLoggers("x.y");
+        lc.addTurboFilter(accepting);
+
+        logger.debug("rejected");
+        assertEquals(0, accepting.invocations);
+        lc.getLogger("x.y.Z").setLevel(Level.INFO);
+        lc.getLogger("x.y.Z").debug("accepted");
+        assertEquals(1, accepting.invocations);
+        assertEquals(1, listAppender.list.size());
+    }
+
+    @Test
+    public void resetInvalidatesEnablement() {
+        logger.debug("rejected");
+        lc.reset();
+        // reset stops the appender and resets a.b.C to inherit DEBUG from root
+        listAppender.start();
+        lc.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(listAppender);
+        logger.debug("accepted");
+        assertEquals(1, listAppender.list.size());
+    }
+}
@@ -28,6 +28,8 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EncodingBuffer;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
 
 public class PatternLayoutEncoderTest {
 
@@ -77,6 +79,73 @@ public class PatternLayoutEncoderTest {
         assertEquals(msg, new String(baos.toByteArray(), utf8Charset));
     }
 
+    @Test
+    public void encodeIntoBufferMatchesEncode() throws IOException {
+        ple.setPattern("%-5level %logger{0} - %m%n");
+        ple.setCharset(utf8Charset);
+        init(baos);
+        ILoggingEvent event = makeLoggingEvent("\u03b1\u03b2 hello");
+
+        EncodingBuffer buffer = EncodingBuffer.acquire();
+        try {
+            ple.encode(event, buffer);
+            buffer.writeTo(baos);
+        } finally {
+            buffer.release();
+        }
+        assertArrayEquals(ple.encode(event), baos.toByteArray());
+    }
+
+    static class MaskingPatternLayout extends PatternLayout {
+        @Override
+        public String doLayout(ILoggingEvent event) {
+            return super.doLayout(event).replaceAll("\\d", "*");
+        }
+    }
+
+    static class MaskingPatternLayoutEncoder extends PatternLayoutEncoder {
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            return new String(super.encode(event)).replaceAll("\\d", "*").getBytes();
+        }
+    }
+
+    private String encodeIntoBuffer(LayoutWrappingEncoder<ILoggingEvent> encoder, ILoggingEvent event) {
+        EncodingBuffer buffer = EncodingBuffer.acquire();
+        try {
+            encoder.encode(event, buffer);
+            return new String(buffer.getByteBuffer().array(), buffer.getByteBuffer().arrayOffset(), buffer.size());
+        } finally {
+            buffer.release();
+        }
+    }
+
+    // the buffer path must not bypass subclasses overriding doLayout(E)
+    @Test
+    public void overridingLayoutIsHonoured() {
+        MaskingPatternLayout layout = new MaskingPatternLayout();
+        layout.setContext(context);
+        layout.setPattern("%m");
+        layout.start();
+        LayoutWrappingEncoder<ILoggingEvent> encoder = new LayoutWrappingEncoder<ILoggingEvent>();
+        encoder.setContext(context);
+        encoder.setLayout(layout);
+        encoder.start();
+
+        assertEquals("card ****", encodeIntoBuffer(encoder, makeLoggingEvent("card 1234")));
+    }
+
+    // the buffer path must not bypass subclasses overriding encode(E)
+    @Test
+    public void overridingEncoderIsHonoured() {
+        MaskingPatternLayoutEncoder encoder = new MaskingPatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%m");
+        encoder.start();
+
+        assertEquals("card ****", encodeIntoBuffer(encoder, makeLoggingEvent("card 1234")));
+    }
+
     @Test
     public void isStarted() throws IOException {
         assertTrue(!ple.isStarted());
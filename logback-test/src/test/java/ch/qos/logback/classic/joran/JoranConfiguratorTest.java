@@ -448,6 +448,13 @@ public class JoranConfiguratorTest {
 		assertTrue(loggerContext.isPackagingDataEnabled());
 	}
 
+	@Test
+	public void garbageFreeEnabledByConfigAttribute() throws JoranException {
+		assertFalse(loggerContext.isGarbageFree());
+		configure(ClassicTestConstants.JORAN_INPUT_PREFIX + "garbageFree.xml");
+		assertTrue(loggerContext.isGarbageFree());
+	}
+
 	@Test
 	public void valueOfConvention() throws JoranException {
 		String configFileAsStr = ClassicTestConstants.JORAN_INPUT_PREFIX + "valueOfConvention.xml";
@@ -17,6 +17,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
+
 import org.junit.Test;
 
 public class CallerDataTest {
@@ -44,4 +46,46 @@ public class CallerDataTest {
         assertEquals(0, cda.length);
     }
 
+    @Test
+    public void walkedStackMatchesThrowable() {
+        StackTraceElement[] expected = CallerData.extract(new Throwable(), CallerDataTest.class.getName(), 3, null);
+        StackTraceElement[] cda = CallerData.extract(CallerDataTest.class.getName(), 3, null);
+        assertEquals(3, cda.length);
+        for (int i = 0; i < cda.length; i++) {
+            assertEquals(expected[i].getClassName(), cda[i].getClassName());
+            assertEquals(expected[i].getMethodName(), cda[i].getMethodName());
+        }
+    }
+
+    @Test
+    public void walkedStackStopsAtMaxDepth() {
+        assertEquals(1, CallerData.extract(CallerDataTest.class.getName(), 1, null).length);
+        assertEquals(0, CallerData.extract(CallerDataTest.class.getName(), 0, null).length);
+    }
+
+    @Test
+    public void walkedStackWithoutBoundary() {
+        StackTraceElement[] cda = CallerData.extract("com.inexistent.foo", 10, null);
+        assertNotNull(cda);
+        assertEquals(0, cda.length);
+    }
+
+    @Test
+    public void walkedStackSkipsFrameworkPackages() {
+        StackTraceElement[] cda = new Facade().extract();
+        assertEquals(CallerDataTest.class.getName(), cda[0].getClassName());
+        assertEquals("walkedStackSkipsFrameworkPackages", cda[0].getMethodName());
+    }
+
+    static class Facade {
+        StackTraceElement[] extract() {
+            return new Inner().extract();
+        }
+    }
+
+    static class Inner {
+        StackTraceElement[] extract() {
+            return CallerData.extract(Inner.class.getName(), 5, Collections.singletonList(Facade.class.getName()));
+        }
+    }
 }
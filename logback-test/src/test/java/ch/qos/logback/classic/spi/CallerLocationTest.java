@@ -0,0 +1,147 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+
+public class CallerLocationTest {
+
+    static final String FQCN = Boundary.class.getName();
+
+    @Test
+    public void resolvesLikeThrowableExtraction() {
+        StackTraceElement[] expected = Boundary.extract(4);
+        CallerLocation location = Boundary.capture(4);
+        assertEquals(4, location.getDepth());
+        StackTraceElement[] cda = location.toCallerData();
+        assertEquals(4, cda.length);
+        for (int i = 0; i < cda.length; i++) {
+            assertEquals(expected[i].getClassName(), cda[i].getClassName());
+            assertEquals(expected[i].getMethodName(), cda[i].getMethodName());
+            assertEquals(expected[i].getFileName(), cda[i].getFileName());
+        }
+    }
+
+    @Test
+    public void callerNotFound() {
+        CallerLocation location = CallerLocation.capture("com.inexistent.foo", 4, null);
+        assertSame(CallerLocation.NA, location);
+        assertEquals(0, location.toCallerData().length);
+    }
+
+    @Test
+    public void callSiteIsResolvedOnce() {
+        StackTraceElement[] first = null;
+        for (int i = 0; i < 3; i++) {
+            StackTraceElement[] cda = Boundary.capture(2).toCallerData();
+            if (first == null) {
+                first = cda;
+            } else {
+                assertSame(first[0], cda[0]);
+            }
+        }
+    }
+
+    @Test
+    public void distinctCallSitesOfAMethod() {
+        StackTraceElement a = Boundary.capture(1).toCallerData()[0];
+        StackTraceElement b = Boundary.capture(1).toCallerData()[0];
+        assertEquals("distinctCallSitesOfAMethod", a.getMethodName());
+        assertEquals(a.getLineNumber() + 1, b.getLineNumber());
+    }
+
+    @Test
+    public void resolvedOnAnotherThread() throws Exception {
+        LoggerContext loggerContext = new LoggerContext();
+        final LoggingEvent event = new LoggingEvent(FQCN, loggerContext.getLogger("a"), Level.INFO, "m", null, null);
+        Boundary.captureCallerLocation(event);
+        assertTrue(event.hasCallerData());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            StackTraceElement[] cda = executor.submit(new Callable<StackTraceElement[]>() {
+                public StackTraceElement[] call() {
+                    return event.getCallerData();
+                }
+            }).get();
+            assertEquals(CallerLocationTest.class.getName(), cda[0].getClassName());
+            assertEquals("resolvedOnAnotherThread", cda[0].getMethodName());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void resolvedConcurrently() throws Exception {
+        LoggerContext loggerContext = new LoggerContext();
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 200; round++) {
+                final LoggingEvent event = new LoggingEvent(FQCN, loggerContext.getLogger("a"), Level.INFO, "m", null, null);
+                Boundary.captureCallerLocation(event);
+                final CountDownLatch start = new CountDownLatch(1);
+                List<Future<StackTraceElement[]>> futures = new ArrayList<Future<StackTraceElement[]>>();
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(new Callable<StackTraceElement[]>() {
+                        public StackTraceElement[] call() throws InterruptedException {
+                            start.await();
+                            return event.getCallerData();
+                        }
+                    }));
+                }
+                start.countDown();
+                StackTraceElement[] first = futures.get(0).get();
+                assertEquals(CallerLocationTest.class.getName(), first[0].getClassName());
+                assertEquals("resolvedConcurrently", first[0].getMethodName());
+                for (Future<StackTraceElement[]> future : futures) {
+                    assertSame(first, future.get());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Stands for the logger, the caller is the frame below.
+     */
+    static class Boundary {
+        static CallerLocation capture(int maxDepth) {
+            return CallerLocation.capture(FQCN, maxDepth, null);
+        }
+
+        static StackTraceElement[] extract(int maxDepth) {
+            return CallerData.extract(new Throwable(), FQCN, maxDepth, null);
+        }
+
+        static void captureCallerLocation(LoggingEvent event) {
+            event.captureCallerLocation();
+        }
+    }
+}
@@ -19,7 +19,9 @@ import ch.qos.logback.classic.LoggerContext;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertEquals;
 
 public class LoggingEventTest {
@@ -72,4 +74,27 @@ public class LoggingEventTest {
         assertNull(event.formattedMessage);
         assertEquals(message, event.getFormattedMessage());
     }
+
+    @Test
+    public void throwableProxyIsBuiltOnce() {
+        Exception e = new Exception("x");
+        LoggingEvent event = new LoggingEvent("", logger, Level.INFO, "m {}", null, new Object[] { 1, e });
+        assertEquals(1, event.getArgumentArray().length);
+        IThrowableProxy tp = event.getThrowableProxy();
+        assertSame(e, ((ThrowableProxy) tp).getThrowable());
+        assertSame(tp, event.getThrowableProxy());
+    }
+
+    @Test
+    public void throwableProxyWithPackagingData() {
+        loggerContext.setPackagingDataEnabled(true);
+        LoggingEvent event = new LoggingEvent("", logger, Level.INFO, "m", new Exception("x"), null);
+        assertNotNull(event.getThrowableProxy().getStackTraceElementProxyArray()[0].getClassPackagingData());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void throwableProxyCannotBeReplaced() {
+        LoggingEvent event = new LoggingEvent("", logger, Level.INFO, "m", new Exception("x"), null);
+        event.setThrowableProxy(new ThrowableProxy(new Exception("y")));
+    }
 }
@@ -15,6 +15,9 @@ package ch.qos.logback.classic.spi;
 
 import static ch.qos.logback.classic.util.TestHelper.addSuppressed;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assume.assumeTrue;
 
 import java.io.PrintWriter;
@@ -57,6 +60,12 @@ public class ThrowableProxyTest {
         System.out.println(result);
 
         assertEquals(expected, result);
+
+        // twice, the second time with stack frames from the cache
+        for (int i = 0; i < 2; i++) {
+            String sharedResult = ThrowableProxyUtil.asString(ThrowableProxy.withSharedFrames(t));
+            assertEquals(expected, sharedResult.replace("common frames omitted", "more"));
+        }
     }
 
     @Test
@@ -182,4 +191,36 @@ public class ThrowableProxyTest {
             throw new Exception("someOtherMethod", e);
         }
     }
+
+    @Test
+    public void identicalStackTracesShareFrames() {
+        ThrowableProxy[] proxies = new ThrowableProxy[2];
+        for (int i = 0; i < proxies.length; i++) {
+            proxies[i] = ThrowableProxy.withSharedFrames(new Exception("wrapping", new Exception("cause")));
+        }
+        assertSame(proxies[0].getStackTraceElementProxyArray(), proxies[1].getStackTraceElementProxyArray());
+        assertSame(proxies[0].getCause().getStackTraceElementProxyArray(), proxies[1].getCause().getStackTraceElementProxyArray());
+        assertEquals(proxies[0].getCause().getCommonFrames(), proxies[1].getCause().getCommonFrames());
+        assertNotSame(proxies[0].getStackTraceElementProxyArray(), new ThrowableProxy(new Exception()).getStackTraceElementProxyArray());
+    }
+
+    @Test
+    public void packagingDataUnsharesFrames() {
+        ThrowableProxy[] proxies = new ThrowableProxy[2];
+        for (int i = 0; i < proxies.length; i++) {
+            proxies[i] = ThrowableProxy.withSharedFrames(new Exception("x"));
+        }
+        proxies[0].calculatePackagingData();
+        proxies[1].calculatePackagingData();
+        assertNotSame(proxies[0].getStackTraceElementProxyArray(), proxies[1].getStackTraceElementProxyArray());
+        assertNotNull(proxies[1].getStackTraceElementProxyArray()[0].getClassPackagingData());
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        for (int i = 0; i < StackTraceCache.MAX_TRACES + 10; i++) {
+            StackTraceCache.intern(new StackTraceElement[] { new StackTraceElement("C", "m", "C.java", i) });
+        }
+        assertEquals(true, StackTraceCache.size() <= StackTraceCache.MAX_TRACES);
+    }
 }
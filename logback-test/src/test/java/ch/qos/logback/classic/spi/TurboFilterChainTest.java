@@ -0,0 +1,211 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.DynamicThresholdFilter;
+import ch.qos.logback.classic.turbo.MDCFilter;
+import ch.qos.logback.classic.turbo.MDCValueLevelPair;
+import ch.qos.logback.classic.turbo.MarkerFilter;
+import ch.qos.logback.classic.turbo.MatchingFilter;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class TurboFilterChainTest {
+
+    LoggerContext loggerContext = new LoggerContext();
+    Logger logger = loggerContext.getLogger("a.b.C");
+    Marker blue = MarkerFactory.getMarker("BLUE");
+
+    static class FixedReplyFilter extends TurboFilter {
+        final FilterReply reply;
+        int invocations;
+
+        FixedReplyFilter(FilterReply reply) {
+            this.reply = reply;
+        }
+
+        @Override
+        public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+            invocations++;
+            return reply;
+        }
+    }
+
+    @Test
+    public void emptyChain() {
+        assertTrue(TurboFilterChain.EMPTY.isEmpty());
+        assertEquals(0, TurboFilterChain.EMPTY.select(null, Level.DEBUG).length);
+        assertEquals(FilterReply.NEUTRAL, TurboFilterChain.EMPTY.decide(null, logger, Level.DEBUG, "x", null, null));
+    }
+
+    @Test
+    public void levelsArePreScreenedInChainOrder() {
+        FixedReplyFilter debugOnly = new FixedReplyFilter(FilterReply.DENY);
+        debugOnly.setLevels("DEBUG, TRACE");
+        FixedReplyFilter all = new FixedReplyFilter(FilterReply.NEUTRAL);
+        TurboFilterChain chain = TurboFilterChain.compile(new TurboFilter[] { debugOnly, all });
+
+        assertArrayEquals(new TurboFilter[] { debugOnly, all }, chain.select(null, Level.DEBUG));
+        assertArrayEquals(new TurboFilter[] { debugOnly, all }, chain.select(blue, Level.TRACE));
+        assertArrayEquals(new TurboFilter[] { all }, chain.select(null, Level.INFO));
+        assertArrayEquals(new TurboFilter[] { debugOnly, all }, chain.select(null, Level.OFF));
+
+        assertEquals(FilterReply.DENY, chain.decide(null, logger, Level.DEBUG, "x", null, null));
+        assertEquals(FilterReply.NEUTRAL, chain.decide(null, logger, Level.INFO, "x", null, null));
+        assertEquals(1, debugOnly.invocations);
+        assertEquals(1, all.invocations);
+    }
+
+    @Test
+    public void markerScopedFiltersSkipUnmarkedStatements() {
+        FixedReplyFilter blueOnly = new FixedReplyFilter(FilterReply.ACCEPT);
+        blueOnly.setMarkers("BLUE");
+        TurboFilterChain chain = TurboFilterChain.compile(new TurboFilter[] { blueOnly });
+
+        assertEquals(0, chain.select(null, Level.DEBUG).length);
+        assertEquals(1, chain.select(blue, Level.DEBUG).length);
+        assertEquals(FilterReply.ACCEPT, chain.decide(blue, logger, Level.DEBUG, "x", null, null));
+        assertEquals(FilterReply.NEUTRAL, chain.decide(MarkerFactory.getMarker("RED"), logger, Level.DEBUG, "x", null, null));
+        assertEquals(1, blueOnly.invocations);
+    }
+
+    @Test
+    public void loggerScopedFilters() {
+        FixedReplyFilter scoped = new FixedReplyFilter(FilterReply.DENY);
+        scoped.setLoggers("a.b, x");
+        TurboFilterChain chain = TurboFilterChain.compile(new TurboFilter[] { scoped });
+
+        assertEquals(FilterReply.DENY, chain.decide(null, logger, Level.INFO, "x", null, null));
+        assertEquals(FilterReply.DENY, chain.decide(null, loggerContext.getLogger("a.b"), Level.INFO, "x", null, null));
+        assertEquals(FilterReply.NEUTRAL, chain.decide(null, loggerContext.getLogger("a.bc"), Level.INFO, "x", null, null));
+        assertEquals(FilterReply.NEUTRAL, chain.decide(null, loggerContext.getLogger("a"), Level.INFO, "x", null, null));
+    }
+
+    @Test
+    public void markerFilterDeclaresMismatchScope() {
+        MarkerFilter neutralOnMismatch = new MarkerFilter();
+        neutralOnMismatch.setMarker("BLUE");
+        neutralOnMismatch.setOnMatch("ACCEPT");
+        assertFalse(neutralOnMismatch.appliesToUnmarked());
+        assertTrue(neutralOnMismatch.appliesTo(Level.DEBUG));
+
+        MarkerFilter denyOnMismatch = new MarkerFilter();
+        denyOnMismatch.setMarker("BLUE");
+        denyOnMismatch.setOnMismatch("DENY");
+        assertTrue(denyOnMismatch.appliesToUnmarked());
+
+        MarkerFilter neutral = new MarkerFilter();
+        neutral.setMarker("BLUE");
+        assertFalse(neutral.appliesTo(Level.DEBUG));
+    }
+
+    // a subclass of MatchingFilter may reply without consulting onMatch and onMismatch
+    @Test
+    public void matchingFilterSubclassDecidingDirectlyIsKept() {
+        MatchingFilter deny = new MatchingFilter() {
+            @Override
+            public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+                return FilterReply.DENY;
+            }
+        };
+        assertTrue(deny.appliesTo(Level.INFO));
+        TurboFilterChain chain = TurboFilterChain.compile(new TurboFilter[] { deny });
+        assertEquals(FilterReply.DENY, chain.decide(null, logger, Level.INFO, "x", null, null));
+    }
+
+    @Test
+    public void matchingFilterSubclassAcceptingDirectlyIsConsulted() {
+        MatchingFilter accept = new MatchingFilter() {
+            @Override
+            public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+                return FilterReply.ACCEPT;
+            }
+        };
+        assertTrue(accept.mayAccept(Level.TRACE));
+        TurboFilterChain chain = TurboFilterChain.compile(new TurboFilter[] { accept });
+        assertEquals(FilterReply.ACCEPT, chain.decide(null, logger, Level.TRACE, "x", null, null));
+    }
+
+    @Test
+    public void mdcFilterDeclaresScope() {
+        MDCFilter neutral = new MDCFilter();
+        neutral.setMDCKey("user");
+        neutral.setValue("alice");
+        assertFalse(neutral.appliesTo(Level.DEBUG));
+        neutral.setOnMatch("DENY");
+        assertTrue(neutral.appliesTo(Level.DEBUG));
+        assertFalse(neutral.mayAccept(Level.DEBUG));
+        neutral.setOnMismatch("ACCEPT");
+        assertTrue(neutral.mayAccept(Level.DEBUG));
+    }
+
+    @Test
+    public void dynamicThresholdFilterDeclaresLevels() {
+        DynamicThresholdFilter filter = new DynamicThresholdFilter();
+        filter.setKey("user");
+        filter.setDefaultThreshold(Level.INFO);
+        MDCValueLevelPair pair = new MDCValueLevelPair();
+        pair.setValue("alice");
+        pair.setLevel(Level.DEBUG);
+        filter.addMDCValueLevelPair(pair);
+
+        // onHigherOrEqual is NEUTRAL by default
+        assertFalse(filter.appliesTo(Level.ERROR));
+        assertFalse(filter.appliesTo(Level.INFO));
+        assertTrue(filter.appliesTo(Level.DEBUG));
+        assertTrue(filter.appliesTo(Level.TRACE));
+
+        filter.setOnHigherOrEqual(FilterReply.ACCEPT);
+        assertTrue(filter.appliesTo(Level.ERROR));
+        assertTrue(filter.mayAccept(Level.DEBUG));
+        assertFalse(filter.mayAccept(Level.TRACE));
+
+        filter.setOnHigherOrEqual(FilterReply.NEUTRAL);
+        filter.setOnLower(FilterReply.NEUTRAL);
+        assertFalse(filter.appliesTo(Level.TRACE));
+        assertFalse(filter.appliesTo(Level.DEBUG));
+    }
+
+    @Test
+    public void listRecompilesOnModification() {
+        FixedReplyFilter deny = new FixedReplyFilter(FilterReply.DENY);
+        deny.setLevels("DEBUG");
+        deny.start();
+        loggerContext.addTurboFilter(deny);
+        assertEquals(1, loggerContext.getTurboFilterList().getChain().select(null, Level.DEBUG).length);
+        assertFalse(logger.isDebugEnabled());
+        assertTrue(logger.isInfoEnabled());
+        assertEquals(1, deny.invocations);
+
+        loggerContext.getTurboFilterList().remove(deny);
+        assertTrue(loggerContext.getTurboFilterList().getChain().isEmpty());
+        assertTrue(logger.isDebugEnabled());
+
+        loggerContext.addTurboFilter(deny);
+        loggerContext.resetTurboFilterList();
+        assertTrue(loggerContext.getTurboFilterList().getChain().isEmpty());
+    }
+}
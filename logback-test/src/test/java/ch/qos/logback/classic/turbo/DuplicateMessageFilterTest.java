@@ -74,4 +74,18 @@ public class DuplicateMessageFilterTest {
         assertEquals(FilterReply.NEUTRAL, dmf.decide(null, null, null, null, null, null));
     }
 
+    @Test
+    public void hitAndSuppressedCounts() {
+        DuplicateMessageFilter dmf = new DuplicateMessageFilter();
+        dmf.setAllowedRepetitions(1);
+        assertEquals(0, dmf.getHitCount());
+        dmf.start();
+        for (int i = 0; i < 4; i++) {
+            dmf.decide(null, null, null, "x", null, null);
+        }
+        dmf.decide(null, null, null, "y", null, null);
+        assertEquals(3, dmf.getHitCount());
+        assertEquals(2, dmf.getSuppressedCount());
+    }
+
 }
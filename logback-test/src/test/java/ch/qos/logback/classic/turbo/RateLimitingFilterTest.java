@@ -0,0 +1,209 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+
+public class RateLimitingFilterTest {
+
+    LoggerContext loggerContext = new LoggerContext();
+    Logger a = loggerContext.getLogger("a");
+    Logger b = loggerContext.getLogger("b");
+    ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+    long now = 1000000000L;
+
+    RateLimitingFilter filter = new RateLimitingFilter() {
+        @Override
+        long nanoTime() {
+            return now;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        filter.setContext(loggerContext);
+        filter.setSummaryPeriod(Duration.buildByMilliseconds(0));
+        filter.setMaxEvents(10);
+        filter.setPeriod(Duration.buildBySeconds(1));
+        listAppender.setContext(loggerContext);
+        listAppender.start();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(listAppender);
+    }
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+        loggerContext.stop();
+    }
+
+    FilterReply decide(Logger logger, String format) {
+        return filter.decide(null, logger, Level.INFO, format, null, null);
+    }
+
+    @Test
+    public void allowsBurstThenRefills() {
+        filter.start();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        }
+        assertEquals(FilterReply.DENY, decide(a, "x"));
+        now += 100000000L; // one token
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        assertEquals(FilterReply.DENY, decide(a, "x"));
+        assertEquals(2, filter.getSuppressedCount());
+    }
+
+    @Test
+    public void smallerBurst() {
+        filter.setBurst(2);
+        filter.start();
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        assertEquals(FilterReply.DENY, decide(a, "x"));
+    }
+
+    @Test
+    public void separateLimitPerLogger() {
+        filter.setMaxEvents(1);
+        filter.start();
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        assertEquals(FilterReply.DENY, decide(a, "x"));
+        assertEquals(FilterReply.NEUTRAL, decide(b, "x"));
+    }
+
+    @Test
+    public void separateLimitPerTemplate() {
+        filter.setKey("template");
+        filter.setMaxEvents(1);
+        filter.start();
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        assertEquals(FilterReply.DENY, decide(b, "x"));
+        assertEquals(FilterReply.NEUTRAL, decide(a, "y"));
+    }
+
+    @Test
+    public void separateLimitPerMDCValue() {
+        filter.setKey("MDC");
+        filter.setMdcKey("user");
+        filter.setMaxEvents(1);
+        filter.start();
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        MDC.put("user", "alice");
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+        assertEquals(FilterReply.DENY, decide(a, "x"));
+        MDC.put("user", "bob");
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+    }
+
+    @Test
+    public void mdcKeyIsMandatoryForMDC() {
+        filter.setKey("MDC");
+        filter.start();
+        assertFalse(filter.isStarted());
+    }
+
+    @Test
+    public void unknownKeyKeepsPrevious() {
+        filter.setKey("nonsense");
+        assertEquals("LOGGER", filter.getKey());
+    }
+
+    @Test
+    public void newKeysShareOverflowBucketWhenFull() {
+        filter.setKey("TEMPLATE");
+        filter.setMaxEvents(1);
+        filter.setMaxKeys(2);
+        filter.start();
+        assertEquals(FilterReply.NEUTRAL, decide(a, "k1"));
+        assertEquals(FilterReply.NEUTRAL, decide(a, "k2"));
+        assertEquals(FilterReply.NEUTRAL, decide(a, "k3"));
+        assertEquals(FilterReply.DENY, decide(a, "k4"));
+        assertEquals(FilterReply.DENY, decide(a, "k1"));
+    }
+
+    @Test
+    public void fullBucketsAreEvicted() {
+        filter.setKey("TEMPLATE");
+        filter.setMaxEvents(1);
+        filter.setMaxKeys(2);
+        filter.start();
+        assertEquals(FilterReply.NEUTRAL, decide(a, "k1"));
+        assertEquals(FilterReply.NEUTRAL, decide(a, "k2"));
+        now += 1000000000L; // k1 and k2 are full again
+        assertEquals(FilterReply.NEUTRAL, decide(a, "k3"));
+        assertEquals(FilterReply.DENY, decide(a, "k3"));
+        assertEquals(FilterReply.NEUTRAL, decide(a, "k4"));
+        assertEquals(FilterReply.NEUTRAL, decide(a, "k5"));
+        assertEquals(FilterReply.DENY, decide(a, "k6"));
+    }
+
+    @Test
+    public void isEnabledChecksAreNotLimited() {
+        filter.setMaxEvents(1);
+        filter.start();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(a, null));
+        }
+        assertEquals(FilterReply.NEUTRAL, decide(a, "x"));
+    }
+
+    @Test
+    public void summarizesSuppressedStatements() {
+        filter.setMaxEvents(1);
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+        for (int i = 0; i < 5; i++) {
+            a.info("storm");
+        }
+        assertEquals(1, listAppender.list.size());
+        filter.emitSummaries();
+        assertEquals(2, listAppender.list.size());
+        ILoggingEvent summary = listAppender.list.get(1);
+        assertEquals("a", summary.getLoggerName());
+        assertEquals(Level.WARN, summary.getLevel());
+        assertTrue(summary.getFormattedMessage(), summary.getFormattedMessage().startsWith("4 events suppressed"));
+
+        // nothing suppressed since the last summary
+        filter.emitSummaries();
+        assertEquals(2, listAppender.list.size());
+    }
+
+    @Test
+    public void summaryLogger() {
+        filter.setMaxEvents(1);
+        filter.setSummaryLogger("summaries");
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+        a.info("storm");
+        a.info("storm");
+        filter.emitSummaries();
+        assertEquals("summaries", listAppender.list.get(1).getLoggerName());
+    }
+}
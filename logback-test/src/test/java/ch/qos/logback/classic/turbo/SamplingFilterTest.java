@@ -0,0 +1,110 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+
+public class SamplingFilterTest {
+
+    LoggerContext loggerContext = new LoggerContext();
+    Logger logger = loggerContext.getLogger("a");
+    SamplingFilter filter = new SamplingFilter();
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+        loggerContext.stop();
+    }
+
+    void start(double rate) {
+        filter.setContext(loggerContext);
+        filter.setSummaryPeriod(Duration.buildByMilliseconds(0));
+        filter.setRate(rate);
+        filter.start();
+    }
+
+    FilterReply decide() {
+        return filter.decide(null, logger, Level.DEBUG, "x", null, null);
+    }
+
+    @Test
+    public void rateOutOfRange() {
+        start(1.5);
+        assertFalse(filter.isStarted());
+    }
+
+    @Test
+    public void extremes() {
+        start(0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.DENY, decide());
+        }
+        filter.setRate(1);
+        filter.start();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide());
+        }
+    }
+
+    @Test
+    public void randomSamplingKeepsRoughlyRate() {
+        start(0.25);
+        int total = 20000;
+        int kept = 0;
+        for (int i = 0; i < total; i++) {
+            if (decide() == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertTrue("kept " + kept, kept > total * 0.2 && kept < total * 0.3);
+        assertEquals(total - kept, filter.getSuppressedCount());
+    }
+
+    @Test
+    public void mdcSamplingIsDeterministic() {
+        filter.setMdcKey("traceId");
+        start(0.5);
+        int kept = 0;
+        for (int i = 0; i < 1000; i++) {
+            MDC.put("traceId", "trace-" + i);
+            FilterReply first = decide();
+            for (int j = 0; j < 5; j++) {
+                assertEquals(first, decide());
+            }
+            if (first == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertTrue("kept " + kept, kept > 400 && kept < 600);
+    }
+
+    @Test
+    public void noMDCValueIsNotSampled() {
+        filter.setMdcKey("traceId");
+        start(0);
+        assertEquals(FilterReply.NEUTRAL, decide());
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StripedMessageCacheTest {
+
+    @Test
+    public void singleStripeIsLRU() {
+        final StripedMessageCache cache = new StripedMessageCache(2, 1);
+        assertEquals(0, cache.getMessageCountAndThenIncrement("0"));
+        assertEquals(1, cache.getMessageCountAndThenIncrement("0"));
+        assertEquals(0, cache.getMessageCountAndThenIncrement("1"));
+        assertEquals(1, cache.getMessageCountAndThenIncrement("1"));
+        // 0 is the least recently used
+        assertEquals(0, cache.getMessageCountAndThenIncrement("2"));
+        assertEquals(2, cache.getMessageCountAndThenIncrement("1"));
+        // 2 is now the least recently used
+        assertEquals(0, cache.getMessageCountAndThenIncrement("0"));
+        assertEquals(3, cache.getMessageCountAndThenIncrement("1"));
+        assertEquals(0, cache.getMessageCountAndThenIncrement("2"));
+    }
+
+    @Test
+    public void nullMessage() {
+        StripedMessageCache cache = new StripedMessageCache(10);
+        assertEquals(0, cache.getMessageCountAndThenIncrement(null));
+        assertEquals(0, cache.getMessageCountAndThenIncrement(null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void boundedByStripeCapacity() {
+        StripedMessageCache cache = new StripedMessageCache(100, 16);
+        for (int i = 0; i < 10000; i++) {
+            cache.getMessageCountAndThenIncrement("msg" + i);
+        }
+        // 16 stripes of 7
+        assertTrue(cache.size() <= 16 * 7);
+        assertTrue(cache.size() > 16 * 6);
+    }
+
+    @Test
+    public void defaultStripeCount() {
+        assertEquals(1, StripedMessageCache.defaultStripeCount(1));
+        assertEquals(1, StripedMessageCache.defaultStripeCount(10));
+        int count = StripedMessageCache.defaultStripeCount(100000);
+        assertEquals(1, Integer.bitCount(count));
+        assertTrue(count <= StripedMessageCache.MAX_STRIPES);
+    }
+
+    @Test
+    public void hitCount() {
+        StripedMessageCache cache = new StripedMessageCache(10);
+        cache.getMessageCountAndThenIncrement("a");
+        cache.getMessageCountAndThenIncrement("a");
+        cache.getMessageCountAndThenIncrement("b");
+        cache.getMessageCountAndThenIncrement("a");
+        assertEquals(2, cache.getHitCount());
+        cache.clear();
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMessageCountAndThenIncrement("a"));
+    }
+
+    @Test
+    public void concurrentCountsAreExact() throws InterruptedException {
+        final StripedMessageCache cache = new StripedMessageCache(1000, 8);
+        final int threadCount = 4;
+        final int loopLen = 10000;
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < loopLen; i++) {
+                        cache.getMessageCountAndThenIncrement("msg" + (i % 100));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(threadCount * loopLen / 100, cache.getMessageCountAndThenIncrement("msg" + i));
+        }
+    }
+}
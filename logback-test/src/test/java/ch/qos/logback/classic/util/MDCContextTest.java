@@ -0,0 +1,143 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+public class MDCContextTest {
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void emptyCapture() {
+        assertSame(MDCContext.EMPTY, MDCContext.capture());
+        assertTrue(MDCContext.EMPTY.getMap().isEmpty());
+    }
+
+    @Test
+    public void captureIsSnapshot() {
+        MDC.put("k", "v0");
+        MDCContext context = MDCContext.capture();
+        MDC.put("k", "v1");
+        assertEquals("v0", context.getMap().get("k"));
+    }
+
+    @Test
+    public void captureDoesNotCopyPersistentMap() {
+        PersistentMDCAdapter adapter = (PersistentMDCAdapter) MDC.getMDCAdapter();
+        MDC.put("k", "v");
+        assertSame(adapter.getPropertyMap(), MDCContext.capture().getMap());
+    }
+
+    @Test
+    public void runBindsAndRestores() {
+        MDC.put("k", "outer");
+        MDCContext context = MDCContext.of(map("k", "inner"));
+        final String[] seen = new String[1];
+        context.run(new Runnable() {
+            public void run() {
+                seen[0] = MDC.get("k");
+                MDC.put("other", "x");
+            }
+        });
+        assertEquals("inner", seen[0]);
+        assertEquals("outer", MDC.get("k"));
+        assertNull(MDC.get("other"));
+    }
+
+    @Test
+    public void callRestoresOnException() throws Exception {
+        MDC.put("k", "outer");
+        try {
+            MDCContext.EMPTY.call(new Callable<Void>() {
+                public Void call() throws Exception {
+                    assertNull(MDC.get("k"));
+                    throw new IllegalStateException("expected");
+                }
+            });
+            fail("expected exception");
+        } catch (IllegalStateException e) {
+        }
+        assertEquals("outer", MDC.get("k"));
+    }
+
+    @Test
+    public void emptyContextLeavesNoMap() {
+        PersistentMDCAdapter adapter = (PersistentMDCAdapter) MDC.getMDCAdapter();
+        MDCContext.of(map("k", "v")).run(new Runnable() {
+            public void run() {
+                MDC.remove("k");
+            }
+        });
+        assertNull(adapter.getPropertyMap());
+    }
+
+    @Test
+    public void wrappedTaskRunsInOtherThread() throws InterruptedException {
+        MDC.put("k", "v");
+        final String[] seen = new String[1];
+        Thread thread = new Thread(MDCContext.capture().wrap(new Runnable() {
+            public void run() {
+                seen[0] = MDC.get("k");
+            }
+        }));
+        thread.start();
+        thread.join();
+        assertEquals("v", seen[0]);
+    }
+
+    @Test
+    public void wrappedLambdas() throws Exception {
+        MDC.put("k", "v");
+        MDCContext context = MDCContext.capture();
+        MDC.clear();
+        final String[] seen = new String[1];
+        // a lambda returning a value must not be ambiguous
+        context.wrap(() -> seen[0] = MDC.get("k")).run();
+        assertEquals("v", seen[0]);
+        assertEquals("v", context.wrapCallable(() -> MDC.get("k")).call());
+        assertEquals("v", context.wrapSupplier(() -> MDC.get("k")).get());
+        assertNull(MDC.get("k"));
+    }
+
+    @Test
+    public void ofCopiesEntries() {
+        Map<String, String> source = map("k", "v");
+        MDCContext context = MDCContext.of(source);
+        source.put("k", "changed");
+        assertEquals("v", context.getMap().get("k"));
+        assertSame(MDCContext.EMPTY, MDCContext.of(null));
+    }
+
+    static Map<String, String> map(String key, String value) {
+        Map<String, String> map = new HashMap<String, String>();
+        map.put(key, value);
+        return map;
+    }
+}
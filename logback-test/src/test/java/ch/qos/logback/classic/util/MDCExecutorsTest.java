@@ -0,0 +1,114 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+public class MDCExecutorsTest {
+
+    ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        MDC.clear();
+        pool.shutdownNow();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    static final Callable<String> GET_K = new Callable<String>() {
+        public String call() {
+            return MDC.get("k");
+        }
+    };
+
+    @Test
+    public void executorServicePropagatesSubmittersContext() throws Exception {
+        ExecutorService executorService = MDCExecutors.wrap(pool);
+        MDC.put("k", "first");
+        Future<String> first = executorService.submit(GET_K);
+        MDC.put("k", "second");
+        Future<String> second = executorService.submit(GET_K);
+        MDC.clear();
+        Future<String> third = executorService.submit(GET_K);
+
+        assertEquals("first", first.get());
+        assertEquals("second", second.get());
+        assertNull(third.get());
+    }
+
+    @Test
+    public void workerContextIsRestored() throws Exception {
+        // a context set by the worker itself survives wrapped tasks
+        pool.submit(new Runnable() {
+            public void run() {
+                MDC.put("k", "worker");
+            }
+        }).get();
+        MDC.put("k", "caller");
+        assertEquals("caller", MDCExecutors.wrap(pool).submit(GET_K).get());
+        assertEquals("worker", pool.submit(GET_K).get());
+    }
+
+    @Test
+    public void executor() throws Exception {
+        MDC.put("k", "v");
+        final CompletableFuture<String> result = new CompletableFuture<String>();
+        MDCExecutors.wrap((Executor) pool).execute(new Runnable() {
+            public void run() {
+                result.complete(MDC.get("k"));
+            }
+        });
+        assertEquals("v", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void completableFuture() throws Exception {
+        MDC.put("k", "v");
+        CompletableFuture<String> supplied = MDCExecutors.supplyAsync(new Supplier<String>() {
+            public String get() {
+                return MDC.get("k");
+            }
+        }, pool);
+        final String[] seen = new String[1];
+        CompletableFuture<Void> ran = MDCExecutors.runAsync(new Runnable() {
+            public void run() {
+                seen[0] = MDC.get("k");
+            }
+        });
+
+        assertEquals("v", supplied.get(5, TimeUnit.SECONDS));
+        ran.get(5, TimeUnit.SECONDS);
+        assertEquals("v", seen[0]);
+    }
+}
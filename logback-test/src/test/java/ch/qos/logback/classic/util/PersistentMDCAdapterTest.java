@@ -0,0 +1,111 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PersistentMDCAdapterTest {
+
+    private final PersistentMDCAdapter mdcAdapter = new PersistentMDCAdapter();
+
+    @Test
+    public void emptyContext() {
+        assertNull(mdcAdapter.get("k"));
+        assertNull(mdcAdapter.get(null));
+        assertNull(mdcAdapter.getPropertyMap());
+        assertNull(mdcAdapter.getCopyOfContextMap());
+        assertNull(mdcAdapter.getKeys());
+        mdcAdapter.remove("k");
+        mdcAdapter.remove(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullKey() {
+        mdcAdapter.put(null, "v");
+    }
+
+    @Test
+    public void putGetRemove() {
+        mdcAdapter.put("k0", "v0");
+        mdcAdapter.put("k1", null);
+        assertEquals("v0", mdcAdapter.get("k0"));
+        assertNull(mdcAdapter.get("k1"));
+        assertEquals(2, mdcAdapter.getKeys().size());
+        mdcAdapter.remove("k0");
+        assertNull(mdcAdapter.get("k0"));
+        mdcAdapter.clear();
+        assertNull(mdcAdapter.getPropertyMap());
+    }
+
+    @Test
+    public void propertyMapIsSnapshot() {
+        mdcAdapter.put("k0", "v0");
+        Map<String, String> map0 = mdcAdapter.getPropertyMap();
+        // no copy while the context is unchanged
+        assertSame(map0, mdcAdapter.getPropertyMap());
+
+        mdcAdapter.put("k0", "v1");
+        mdcAdapter.put("k1", "v1");
+        mdcAdapter.remove("k0");
+
+        assertEquals(1, map0.size());
+        assertEquals("v0", map0.get("k0"));
+        assertNotSame(map0, mdcAdapter.getPropertyMap());
+    }
+
+    @Test
+    public void copyOfContextMapIsIndependent() {
+        mdcAdapter.put("k0", "v0");
+        Map<String, String> copy = mdcAdapter.getCopyOfContextMap();
+        assertEquals(HashMap.class, copy.getClass());
+        copy.put("k1", "v1");
+        assertNull(mdcAdapter.get("k1"));
+    }
+
+    @Test
+    public void setContextMap() {
+        Map<String, String> source = new HashMap<String, String>();
+        source.put("k0", "v0");
+        mdcAdapter.put("old", "x");
+        mdcAdapter.setContextMap(source);
+        source.put("k1", "v1");
+        assertNull(mdcAdapter.get("old"));
+        assertNull(mdcAdapter.get("k1"));
+        assertEquals("v0", mdcAdapter.get("k0"));
+    }
+
+    @Test
+    public void notInheritedByChildThread() throws InterruptedException {
+        mdcAdapter.put("k0", "v0");
+        final String[] childValue = { "unset" };
+        Thread child = new Thread(new Runnable() {
+            public void run() {
+                childValue[0] = mdcAdapter.get("k0");
+                mdcAdapter.put("k0", "child");
+            }
+        });
+        child.start();
+        child.join();
+        assertNull(childValue[0]);
+        assertEquals("v0", mdcAdapter.get("k0"));
+    }
+}
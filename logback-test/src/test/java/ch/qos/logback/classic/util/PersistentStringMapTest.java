@@ -0,0 +1,163 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PersistentStringMapTest {
+
+    @Test
+    public void empty() {
+        PersistentStringMap map = PersistentStringMap.EMPTY;
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+        assertNull(map.get("k"));
+        assertFalse(map.containsKey("k"));
+        assertSame(map, map.minus("k"));
+        assertEquals(new HashMap<String, String>(), map);
+    }
+
+    @Test
+    public void plusLeavesOriginalUntouched() {
+        PersistentStringMap map0 = PersistentStringMap.EMPTY.plus("k0", "v0");
+        PersistentStringMap map1 = map0.plus("k1", "v1");
+        PersistentStringMap map2 = map1.plus("k0", "v2");
+
+        assertEquals(1, map0.size());
+        assertEquals("v0", map0.get("k0"));
+        assertNull(map0.get("k1"));
+        assertEquals(2, map1.size());
+        assertEquals("v0", map1.get("k0"));
+        assertEquals(2, map2.size());
+        assertEquals("v2", map2.get("k0"));
+    }
+
+    @Test
+    public void unchangedMapIsReused() {
+        PersistentStringMap map = PersistentStringMap.EMPTY.plus("k0", "v0").plus("k1", null);
+        assertSame(map, map.plus("k0", "v0"));
+        assertSame(map, map.plus("k1", null));
+        assertSame(map, map.minus("absent"));
+        assertSame(map, map.minus(null));
+    }
+
+    @Test
+    public void nullValue() {
+        PersistentStringMap map = PersistentStringMap.EMPTY.plus("k", null);
+        assertEquals(1, map.size());
+        assertTrue(map.containsKey("k"));
+        assertNull(map.get("k"));
+        assertEquals("v", map.plus("k", "v").get("k"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullKey() {
+        PersistentStringMap.EMPTY.plus(null, "v");
+    }
+
+    @Test
+    public void collidingKeys() {
+        // all of these have the same hash code
+        String[] keys = { "AaAa", "AaBB", "BBAa", "BBBB" };
+        PersistentStringMap map = PersistentStringMap.EMPTY.plus("other", "o");
+        for (String key : keys) {
+            map = map.plus(key, key.toLowerCase());
+        }
+        assertEquals(5, map.size());
+        for (String key : keys) {
+            assertEquals(key.toLowerCase(), map.get(key));
+        }
+        map = map.minus("AaBB").minus("BBBB");
+        assertEquals(3, map.size());
+        assertNull(map.get("AaBB"));
+        assertEquals("aaaa", map.get("AaAa"));
+        assertEquals("bbaa", map.get("BBAa"));
+        map = map.minus("AaAa").minus("BBAa").minus("other");
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void behavesLikeHashMap() {
+        Random random = new Random(42);
+        Map<String, String> model = new HashMap<String, String>();
+        PersistentStringMap map = PersistentStringMap.EMPTY;
+        List<PersistentStringMap> snapshots = new ArrayList<PersistentStringMap>();
+        List<Map<String, String>> models = new ArrayList<Map<String, String>>();
+
+        for (int i = 0; i < 5000; i++) {
+            String key = "key" + random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                model.remove(key);
+                map = map.minus(key);
+            } else {
+                String value = random.nextInt(10) == 0 ? null : "v" + i;
+                model.put(key, value);
+                map = map.plus(key, value);
+            }
+            if (i % 100 == 0) {
+                snapshots.add(map);
+                models.add(new HashMap<String, String>(model));
+            }
+            assertEquals(model.size(), map.size());
+        }
+        assertEquals(model, map);
+        assertEquals(map, model);
+        assertEquals(model.hashCode(), map.hashCode());
+        assertEquals(model.keySet(), map.keySet());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(models.get(i), snapshots.get(i));
+        }
+    }
+
+    @Test
+    public void of() {
+        Map<String, String> source = new HashMap<String, String>();
+        source.put("a", "1");
+        source.put("b", null);
+        PersistentStringMap map = PersistentStringMap.of(source);
+        assertEquals(source, map);
+        assertSame(map, PersistentStringMap.of(map));
+    }
+
+    @Test
+    public void serializedAsHashMap() throws Exception {
+        PersistentStringMap map = PersistentStringMap.EMPTY.plus("k0", "v0").plus("k1", null);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(map);
+        oos.close();
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        Object result = ois.readObject();
+
+        assertEquals(HashMap.class, result.getClass());
+        assertEquals(map, result);
+    }
+}
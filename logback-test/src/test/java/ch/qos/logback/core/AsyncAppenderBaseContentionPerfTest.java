@@ -0,0 +1,84 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import ch.qos.logback.core.async.QueueType;
+import ch.qos.logback.core.async.WaitStrategy;
+import ch.qos.logback.core.contention.RunnableWithCounterAndDone;
+import ch.qos.logback.core.contention.ThreadedThroughputCalculator;
+import ch.qos.logback.core.helpers.NOPAppender;
+
+/**
+ * Compares the throughput of {@link AsyncAppenderBase} with its different queue types when many threads log
+ * concurrently.
+ */
+@Ignore("Takes too long")
+public class AsyncAppenderBaseContentionPerfTest {
+
+    static int[] THREAD_COUNTS = { 1, 4, 16, 64 };
+    int totalTestDuration = 2000;
+
+    @Test
+    public void computeResults() throws InterruptedException {
+        for (int threadCount : THREAD_COUNTS) {
+            measure(QueueType.ARRAY_BLOCKING, WaitStrategy.PARK, threadCount);
+            for (WaitStrategy ws : WaitStrategy.values()) {
+                measure(QueueType.RING_BUFFER, ws, threadCount);
+            }
+        }
+    }
+
+    private void measure(QueueType queueType, WaitStrategy waitStrategy, int threadCount) throws InterruptedException {
+        Context context = new ContextBase();
+        NOPAppender<Object> nopAppender = new NOPAppender<Object>();
+        nopAppender.setContext(context);
+        nopAppender.start();
+
+        AsyncAppenderBase<Object> asyncAppender = new AsyncAppenderBase<Object>();
+        asyncAppender.setContext(context);
+        asyncAppender.setQueueType(queueType.name());
+        asyncAppender.setWaitStrategy(waitStrategy.name());
+        asyncAppender.setQueueSize(1024);
+        asyncAppender.addAppender(nopAppender);
+        asyncAppender.start();
+
+        RunnableWithCounterAndDone[] runnableArray = new RunnableWithCounterAndDone[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            runnableArray[i] = new AppendingRunnable(asyncAppender);
+        }
+        ThreadedThroughputCalculator harness = new ThreadedThroughputCalculator(totalTestDuration);
+        harness.execute(runnableArray);
+        asyncAppender.stop();
+        harness.printThroughput(queueType + "/" + waitStrategy + " with " + threadCount + " threads: ");
+    }
+
+    static class AppendingRunnable extends RunnableWithCounterAndDone {
+        final AsyncAppenderBase<Object> asyncAppender;
+        final Object event = new Object();
+
+        AppendingRunnable(AsyncAppenderBase<Object> asyncAppender) {
+            this.asyncAppender = asyncAppender;
+        }
+
+        public void run() {
+            while (!isDone()) {
+                asyncAppender.doAppend(event);
+                counter++;
+            }
+        }
+    }
+}
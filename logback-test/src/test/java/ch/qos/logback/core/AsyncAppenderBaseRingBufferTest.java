@@ -0,0 +1,30 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import org.junit.Before;
+
+/**
+ * Runs all of {@link AsyncAppenderBaseTest} against the ring buffer queue.
+ */
+public class AsyncAppenderBaseRingBufferTest extends AsyncAppenderBaseTest {
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        asyncAppenderBase.setQueueType("RING_BUFFER");
+        lossyAsyncAppender.setQueueType("RING_BUFFER");
+    }
+}
@@ -17,6 +17,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -291,6 +295,47 @@ public class AsyncAppenderBaseTest {
         assertFalse(asyncAppenderBase.worker.isInterrupted());
     }
 
+    @Test(timeout = 2000)
+    public void batchAppenderReceivesBatches() throws InterruptedException {
+        int loopLen = 50;
+        int maxBatchSize = 10;
+        BatchListAppender batchListAppender = new BatchListAppender();
+        batchListAppender.setContext(context);
+        batchListAppender.start();
+        asyncAppenderBase.addAppender(batchListAppender);
+        asyncAppenderBase.setQueueSize(loopLen);
+        asyncAppenderBase.setMaxBatchSize(maxBatchSize);
+        asyncAppenderBase.start();
+
+        // the worker blocks on the first event until all others are queued
+        asyncAppenderBase.doAppend(0);
+        for (int i = 1; i <= loopLen; i++) {
+            asyncAppenderBase.doAppend(i);
+        }
+        batchListAppender.latch.countDown();
+        asyncAppenderBase.stop();
+
+        assertEquals(loopLen + 1, batchListAppender.list.size());
+        for (int i = 0; i <= loopLen; i++) {
+            assertEquals(Integer.valueOf(i), batchListAppender.list.get(i));
+        }
+        int largestBatch = 0;
+        for (int size : batchListAppender.batchSizes) {
+            largestBatch = Math.max(largestBatch, size);
+        }
+        assertEquals(maxBatchSize, largestBatch);
+        statusChecker.assertIsErrorFree();
+    }
+
+    @Test
+    public void invalidMaxBatchSizeShouldResultInNonStartedAppender() {
+        asyncAppenderBase.addAppender(new NOPAppender<Integer>());
+        asyncAppenderBase.setMaxBatchSize(0);
+        asyncAppenderBase.start();
+        assertFalse(asyncAppenderBase.isStarted());
+        statusChecker.assertContainsMatch("Invalid maxBatchSize");
+    }
+
     private void verify(ListAppender<Integer> la, int atLeast) {
         assertFalse(la.isStarted());
         assertTrue(atLeast + " <= " + la.list.size(), atLeast <= la.list.size());
@@ -298,6 +343,34 @@ public class AsyncAppenderBaseTest {
         statusChecker.assertContainsMatch("Worker thread will flush remaining events before exiting.");
     }
 
+    static class BatchListAppender extends UnsynchronizedAppenderBase<Integer> implements BatchAppender<Integer> {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Integer> list = new ArrayList<Integer>();
+        final List<Integer> batchSizes = new ArrayList<Integer>();
+
+        @Override
+        protected void append(Integer i) {
+            awaitLatch();
+            list.add(i);
+            batchSizes.add(1);
+        }
+
+        @Override
+        protected void appendBatch(List<Integer> events) {
+            awaitLatch();
+            list.addAll(events);
+            batchSizes.add(events.size());
+        }
+
+        private void awaitLatch() {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     static class LossyAsyncAppender extends AsyncAppenderBase<Integer> {
         @Override
         protected boolean isDiscardable(Integer i) {
@@ -0,0 +1,165 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.testUtil.DelayingListAppender;
+import ch.qos.logback.core.testUtil.StatusChecker;
+
+public class FanOutAsyncAppenderBaseTest {
+
+    Context context = new ContextBase();
+    FanOutAsyncAppenderBase<Integer> fanOutAppender = new FanOutAsyncAppenderBase<Integer>();
+    ListAppender<Integer> listAppender = new ListAppender<Integer>();
+    DelayingListAppender<Integer> delayingListAppender = new DelayingListAppender<Integer>();
+    StatusChecker statusChecker = new StatusChecker(context);
+
+    @Before
+    public void setUp() {
+        fanOutAppender.setContext(context);
+        fanOutAppender.setName("fanOut");
+
+        listAppender.setContext(context);
+        listAppender.setName("list");
+        listAppender.start();
+
+        delayingListAppender.setContext(context);
+        delayingListAppender.setName("delaying");
+        delayingListAppender.start();
+    }
+
+    @Test
+    public void noAttachedAppenderShouldResultInNonStartedAppender() {
+        fanOutAppender.start();
+        assertFalse(fanOutAppender.isStarted());
+        statusChecker.assertContainsMatch("No attached appenders found.");
+    }
+
+    @Test
+    public void invalidShardCountShouldResultInNonStartedAppender() {
+        fanOutAppender.addAppender(listAppender);
+        fanOutAppender.setShardCount(0);
+        fanOutAppender.start();
+        assertFalse(fanOutAppender.isStarted());
+        statusChecker.assertContainsMatch("Invalid shard count");
+    }
+
+    @Test(timeout = 5000)
+    public void slowAppenderDoesNotHoldBackOthers() throws InterruptedException {
+        int loopLen = 10;
+        delayingListAppender.setDelay(100);
+        fanOutAppender.addAppender(delayingListAppender);
+        fanOutAppender.addAppender(listAppender);
+        fanOutAppender.setMaxFlushTime(loopLen * 100 * 2);
+        fanOutAppender.start();
+        assertTrue(fanOutAppender.isStarted());
+
+        for (int i = 0; i < loopLen; i++) {
+            fanOutAppender.doAppend(i);
+        }
+        while (listAppender.list.size() < loopLen) {
+            Thread.sleep(5);
+        }
+        assertTrue(delayingListAppender.list.size() < loopLen);
+
+        fanOutAppender.stop();
+        assertEquals(loopLen, delayingListAppender.list.size());
+        assertEquals(loopLen, listAppender.list.size());
+        assertFalse(listAppender.isStarted());
+        assertFalse(delayingListAppender.isStarted());
+        statusChecker.assertIsErrorFree();
+    }
+
+    @Test(timeout = 5000)
+    public void orderIsKeptWithinEachShardKey() {
+        int keyCount = 7;
+        int loopLen = 5000;
+        FanOutAsyncAppenderBase<Integer> shardingAppender = new FanOutAsyncAppenderBase<Integer>() {
+            @Override
+            protected Object getShardKey(Integer i) {
+                return i % keyCount;
+            }
+        };
+        shardingAppender.setContext(context);
+        shardingAppender.setName("sharding");
+        shardingAppender.setShardCount(4);
+        shardingAppender.addAppender(listAppender);
+        shardingAppender.start();
+
+        for (int i = 0; i < loopLen; i++) {
+            shardingAppender.doAppend(i);
+        }
+        shardingAppender.stop();
+
+        assertEquals(loopLen, listAppender.list.size());
+        int[] last = new int[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            last[k] = -1;
+        }
+        for (Integer i : listAppender.list) {
+            int key = i % keyCount;
+            assertTrue(last[key] < i);
+            last[key] = i;
+        }
+        assertFalse(listAppender.isStarted());
+        statusChecker.assertIsErrorFree();
+    }
+
+    @Test(timeout = 5000)
+    public void lanesAreStoppedAgainstASingleDeadline() {
+        int shardCount = 4;
+        int maxFlushTime = 300;
+        FanOutAsyncAppenderBase<Integer> shardingAppender = new FanOutAsyncAppenderBase<Integer>() {
+            @Override
+            protected Object getShardKey(Integer i) {
+                return i % shardCount;
+            }
+        };
+        shardingAppender.setContext(context);
+        shardingAppender.setName("sharding");
+        shardingAppender.setShardCount(shardCount);
+        shardingAppender.setMaxFlushTime(maxFlushTime);
+        delayingListAppender.setDelay(100);
+        shardingAppender.addAppender(delayingListAppender);
+        shardingAppender.start();
+
+        // each lane has far more than maxFlushTime worth of events queued
+        for (int i = 0; i < shardCount * 10; i++) {
+            shardingAppender.doAppend(i);
+        }
+        long start = System.currentTimeMillis();
+        shardingAppender.stop();
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("stopping took " + elapsed + " ms", elapsed < 2 * maxFlushTime);
+        assertFalse(delayingListAppender.isStarted());
+    }
+
+    @Test
+    public void shardIndexIsWithinBounds() {
+        fanOutAppender.setShardCount(3);
+        assertEquals(0, fanOutAppender.shardIndex(null));
+        for (Object key : new Object[] { "a", "b", Integer.MIN_VALUE, -1, 0, 17 }) {
+            int index = fanOutAppender.shardIndex(key);
+            assertTrue(index >= 0 && index < 3);
+        }
+    }
+}
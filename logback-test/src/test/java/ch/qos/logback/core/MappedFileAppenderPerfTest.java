@@ -0,0 +1,76 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import java.io.File;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.testUtil.CoreTestConstants;
+import ch.qos.logback.core.testUtil.RandomUtil;
+
+/**
+ * Compares the cost of appending to a {@link MappedFileAppender} with that of
+ * appending to a {@link FileAppender}, with and without immediate flush.
+ */
+@Ignore("Takes too long")
+public class MappedFileAppenderPerfTest {
+
+    static final int WARM_UP_LEN = 200 * 1000;
+    static final int RUN_LEN = 1000 * 1000;
+    static final String EVENT = "2021-05-13 12:34:56,789 [main] INFO  c.q.l.c.MappedFileAppenderPerfTest - a typical log message";
+
+    int diff = RandomUtil.getPositiveInt();
+
+    @Test
+    public void computeResults() {
+        for (int i = 0; i < 2; i++) {
+            measure("FileAppender, immediateFlush=true", newFileAppender(true));
+            measure("FileAppender, immediateFlush=false", newFileAppender(false));
+            measure("MappedFileAppender", new MappedFileAppender<Object>());
+        }
+    }
+
+    private FileAppender<Object> newFileAppender(boolean immediateFlush) {
+        FileAppender<Object> appender = new FileAppender<Object>();
+        appender.setImmediateFlush(immediateFlush);
+        return appender;
+    }
+
+    private void measure(String label, FileAppender<Object> appender) {
+        String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "-mapped-perf.log";
+        appender.setContext(new ContextBase());
+        appender.setEncoder(new EchoEncoder<Object>());
+        appender.setAppend(false);
+        appender.setFile(filename);
+        appender.start();
+
+        loop(appender, WARM_UP_LEN);
+        long start = System.nanoTime();
+        loop(appender, RUN_LEN);
+        long duration = System.nanoTime() - start;
+        appender.stop();
+        new File(filename).delete();
+
+        System.out.println(label + ": " + (duration / RUN_LEN) + " nanos per event");
+    }
+
+    private void loop(Appender<Object> appender, int len) {
+        for (int i = 0; i < len; i++) {
+            appender.doAppend(EVENT);
+        }
+    }
+}
@@ -13,16 +13,24 @@
  */
 package ch.qos.logback.core;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.encoder.EncodingBuffer;
 import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
 import ch.qos.logback.core.pattern.parser.SamplePatternLayout;
+import ch.qos.logback.core.status.Status;
 
 public class OutputStreamAppenderTest {
 
@@ -81,6 +89,135 @@ public class OutputStreamAppenderTest {
         headerFooterCheck(FILE_HEADER, PRESENTATION_HEADER, PRESENTATION_FOOTER, FILE_FOOTER);
     }
 
+    @Test
+    public void batchIsFlushedOnce() {
+        FlushCountingOutputStream fcos = new FlushCountingOutputStream();
+        OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+        wa.setContext(context);
+        wa.setEncoder(new EchoEncoder<Object>());
+        wa.setOutputStream(fcos);
+        wa.start();
+
+        wa.doAppendBatch(Arrays.<Object>asList("a", "b", "c"));
+        assertEquals(1, fcos.flushCount);
+        wa.doAppend("d");
+        assertEquals(2, fcos.flushCount);
+        assertEquals("a" + CoreConstants.LINE_SEPARATOR + "b" + CoreConstants.LINE_SEPARATOR + "c" + CoreConstants.LINE_SEPARATOR + "d"
+                        + CoreConstants.LINE_SEPARATOR, fcos.toString());
+    }
+
+    @Test
+    public void deniedEventsAreRemovedFromBatch() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+        wa.setContext(context);
+        wa.setEncoder(new EchoEncoder<Object>());
+        wa.setOutputStream(baos);
+        wa.addFilter(new Filter<Object>() {
+            @Override
+            public FilterReply decide(Object event) {
+                return "b".equals(event) ? FilterReply.DENY : FilterReply.NEUTRAL;
+            }
+        });
+        wa.start();
+
+        wa.doAppendBatch(Arrays.<Object>asList("a", "b", "c"));
+        assertEquals("a" + CoreConstants.LINE_SEPARATOR + "c" + CoreConstants.LINE_SEPARATOR, baos.toString());
+    }
+
+    @Test
+    public void bufferEncoderIsWrittenWithoutByteArray() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+        wa.setContext(context);
+        wa.setEncoder(new EchoEncoder<Object>() {
+            @Override
+            public byte[] encode(Object event) {
+                throw new AssertionError("byte array encoding should not be used");
+            }
+        });
+        wa.setOutputStream(baos);
+        wa.start();
+
+        wa.doAppend("a");
+        wa.doAppendBatch(Arrays.<Object>asList("b", "c"));
+        assertEquals("a" + CoreConstants.LINE_SEPARATOR + "b" + CoreConstants.LINE_SEPARATOR + "c" + CoreConstants.LINE_SEPARATOR, baos.toString());
+    }
+
+    @Test
+    public void failingEventDoesNotLoseBatch() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+        wa.setContext(context);
+        wa.setEncoder(new EchoEncoder<Object>() {
+            @Override
+            public void encode(Object event, EncodingBuffer buffer) {
+                if ("b".equals(event)) {
+                    // leave a partial event behind before failing
+                    buffer.write("partial".getBytes());
+                    buffer.getStringBuilder().append("pending");
+                    throw new IllegalStateException("b");
+                }
+                super.encode(event, buffer);
+            }
+        });
+        wa.setOutputStream(baos);
+        wa.start();
+
+        wa.doAppendBatch(Arrays.<Object>asList("a", "b", "c"));
+        assertEquals("a" + CoreConstants.LINE_SEPARATOR + "c" + CoreConstants.LINE_SEPARATOR, baos.toString());
+        assertTrue(wa.isStarted());
+        assertEquals(1, errorCount());
+    }
+
+    @Test
+    public void failingEventDoesNotLoseBatchWithByteArrayEncoder() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+        wa.setContext(context);
+        wa.setEncoder(new EncoderBase<Object>() {
+            public byte[] headerBytes() {
+                return null;
+            }
+
+            public byte[] encode(Object event) {
+                if ("b".equals(event)) {
+                    throw new IllegalStateException("b");
+                }
+                return (event + CoreConstants.LINE_SEPARATOR).getBytes();
+            }
+
+            public byte[] footerBytes() {
+                return null;
+            }
+        });
+        wa.setOutputStream(baos);
+        wa.start();
+
+        wa.doAppendBatch(Arrays.<Object>asList("a", "b", "c"));
+        assertEquals("a" + CoreConstants.LINE_SEPARATOR + "c" + CoreConstants.LINE_SEPARATOR, baos.toString());
+        assertEquals(1, errorCount());
+    }
+
+    int errorCount() {
+        int count = 0;
+        for (Status s : context.getStatusManager().getCopyOfStatusList()) {
+            if (s.getLevel() == Status.ERROR) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static class FlushCountingOutputStream extends ByteArrayOutputStream {
+        int flushCount;
+
+        @Override
+        public void flush() {
+            flushCount++;
+        }
+    }
+
     public void headerFooterCheck(String fileHeader, String presentationHeader, String presentationFooter, String fileFooter) {
         OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
         wa.setContext(context);
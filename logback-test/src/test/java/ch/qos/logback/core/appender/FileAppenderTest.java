@@ -18,19 +18,25 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.MappedFileAppender;
 import ch.qos.logback.core.encoder.DummyEncoder;
+import ch.qos.logback.core.encoder.EchoEncoder;
 import ch.qos.logback.core.encoder.NopEncoder;
 import ch.qos.logback.core.status.Status;
 import ch.qos.logback.core.status.StatusManager;
 import ch.qos.logback.core.testUtil.CoreTestConstants;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.testUtil.StatusChecker;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.StatusPrinter;
 
 public class FileAppenderTest extends AbstractAppenderTest<Object> {
@@ -127,6 +133,159 @@ public class FileAppenderTest extends AbstractAppenderTest<Object> {
         assertTrue("failed to delete " + file.getAbsolutePath(), file.delete());
     }
 
+    @Test
+    public void nioModeWritesEventsOfConcurrentThreads() throws Exception {
+        String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-nio.log";
+        final FileAppender<Object> appender = new FileAppender<Object>();
+        appender.setEncoder(new EchoEncoder<Object>());
+        appender.setAppend(false);
+        appender.setFile(filename);
+        appender.setNio(true);
+        appender.setBufferSize(new FileSize(256));
+        appender.setName("nio");
+        appender.setContext(context);
+        appender.start();
+        assertTrue(appender.isStarted());
+
+        final int threadCount = 4;
+        final int eventsPerThread = 500;
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final String event = "event-" + t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < eventsPerThread; i++) {
+                        appender.doAppend(event);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // with the default FLUSH durability, events are in the file before stop
+        List<String> lines = Files.readAllLines(new File(filename).toPath());
+        appender.stop();
+
+        assertEquals(threadCount * eventsPerThread, lines.size());
+        for (String line : lines) {
+            assertTrue(line, line.matches("event-[0-9]"));
+        }
+        assertTrue(new File(filename).delete());
+    }
+
+    @Test
+    public void nioModeWithFsyncDurability() throws Exception {
+        String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-nio-fsync.log";
+        FileAppender<Object> appender = new FileAppender<Object>();
+        appender.setEncoder(new EchoEncoder<Object>());
+        appender.setAppend(false);
+        appender.setFile(filename);
+        appender.setNio(true);
+        appender.setDurability("fsync");
+        appender.setFsyncPeriod(Duration.buildByMilliseconds(10));
+        appender.setName("nio-fsync");
+        appender.setContext(context);
+        appender.start();
+
+        appender.doAppend("a");
+        Thread.sleep(50);
+        appender.doAppend("b");
+        appender.stop();
+
+        assertEquals("FSYNC", appender.getDurability());
+        assertEquals(Arrays.asList("a", "b"), Files.readAllLines(new File(filename).toPath()));
+        new StatusChecker(context).assertIsErrorFree();
+        assertTrue(new File(filename).delete());
+    }
+
+    @Test
+    public void nioModeIsDisabledInPrudentMode() {
+        String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-nio-prudent.log";
+        FileAppender<Object> appender = new FileAppender<Object>();
+        appender.setEncoder(new DummyEncoder<Object>());
+        appender.setFile(filename);
+        appender.setNio(true);
+        appender.setPrudent(true);
+        appender.setName("nio-prudent");
+        appender.setContext(context);
+        appender.start();
+
+        assertTrue(appender.isStarted());
+        assertFalse(appender.isNio());
+        new StatusChecker(context).assertContainsMatch(Status.WARN, "NIO mode is not supported in prudent mode");
+        appender.stop();
+        assertTrue(new File(filename).delete());
+    }
+
+    @Test
+    public void mappedFileAppenderTruncatesOnStop() throws Exception {
+        String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-mapped.log";
+        MappedFileAppender<Object> appender = new MappedFileAppender<Object>();
+        appender.setEncoder(new EchoEncoder<Object>());
+        appender.setAppend(false);
+        appender.setFile(filename);
+        appender.setRegionSize(new FileSize(64));
+        appender.setName("mapped");
+        appender.setContext(context);
+        appender.start();
+        assertTrue(appender.isStarted());
+        assertTrue(appender.isMapped());
+
+        int eventCount = 100;
+        for (int i = 0; i < eventCount; i++) {
+            appender.doAppend("event-" + i);
+        }
+        appender.stop();
+
+        List<String> lines = Files.readAllLines(new File(filename).toPath());
+        assertEquals(eventCount, lines.size());
+        for (int i = 0; i < eventCount; i++) {
+            assertEquals("event-" + i, lines.get(i));
+        }
+        new StatusChecker(context).assertIsErrorFree();
+        assertTrue(new File(filename).delete());
+    }
+
+    @Test
+    public void mappedModeAppendsToExistingFile() throws Exception {
+        String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-mapped-append.log";
+        for (String event : new String[] { "first", "second" }) {
+            FileAppender<Object> appender = new FileAppender<Object>();
+            appender.setEncoder(new EchoEncoder<Object>());
+            appender.setFile(filename);
+            appender.setMapped(true);
+            appender.setName("mapped-append");
+            appender.setContext(context);
+            appender.start();
+            appender.doAppend(event);
+            appender.stop();
+        }
+        assertEquals(Arrays.asList("first", "second"), Files.readAllLines(new File(filename).toPath()));
+        assertTrue(new File(filename).delete());
+    }
+
+    @Test
+    public void mappedModeDisablesNioMode() {
+        String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-mapped-nio.log";
+        FileAppender<Object> appender = new FileAppender<Object>();
+        appender.setEncoder(new DummyEncoder<Object>());
+        appender.setFile(filename);
+        appender.setMapped(true);
+        appender.setNio(true);
+        appender.setName("mapped-nio");
+        appender.setContext(context);
+        appender.start();
+
+        assertTrue(appender.isStarted());
+        assertTrue(appender.isMapped());
+        assertFalse(appender.isNio());
+        new StatusChecker(context).assertContainsMatch(Status.WARN, "Mapped mode and NIO mode are mutually exclusive");
+        appender.stop();
+        assertTrue(new File(filename).delete());
+    }
+
     @Test
     public void fileNameCollision() {
         String fileName = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fileNameCollision";
@@ -0,0 +1,181 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RingBufferBlockingQueueTest {
+
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(5, WaitStrategy.PARK);
+
+    @Test
+    public void smoke() {
+        assertTrue(queue.isEmpty());
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertEquals(2, queue.size());
+        assertEquals(3, queue.remainingCapacity());
+        assertEquals(Integer.valueOf(1), queue.peek());
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertEquals(Integer.valueOf(2), queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void offerFailsWhenFull() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(5));
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(Integer.valueOf(0), queue.poll());
+        assertTrue(queue.offer(5));
+    }
+
+    @Test
+    public void wrapsAroundSeveralTimes() {
+        for (int i = 0; i < 23; i++) {
+            assertTrue(queue.offer(i));
+            assertTrue(queue.offer(i));
+            assertEquals(Integer.valueOf(i), queue.poll());
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void iteratorIsASnapshot() {
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+        queue.poll();
+        List<Integer> seen = new ArrayList<Integer>();
+        for (Iterator<Integer> it = queue.iterator(); it.hasNext();) {
+            seen.add(it.next());
+        }
+        assertEquals(2, seen.size());
+        assertEquals(Integer.valueOf(2), seen.get(0));
+        assertEquals(Integer.valueOf(3), seen.get(1));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void drainToHonorsMaxElements() {
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i);
+        }
+        List<Integer> sink = new ArrayList<Integer>();
+        assertEquals(3, queue.drainTo(sink, 3));
+        assertEquals(2, queue.drainTo(sink));
+        assertEquals(5, sink.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i), sink.get(i));
+        }
+    }
+
+    @Test(timeout = 2000)
+    public void pollWithTimeoutReturnsNullWhenEmpty() throws InterruptedException {
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        assertFalse(fill(queue).offer(5, 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(timeout = 2000)
+    public void takeIsInterruptible() {
+        for (WaitStrategy ws : WaitStrategy.values()) {
+            RingBufferBlockingQueue<Integer> q = new RingBufferBlockingQueue<Integer>(1, ws);
+            Thread.currentThread().interrupt();
+            try {
+                q.take();
+                fail("expected InterruptedException with " + ws);
+            } catch (InterruptedException e) {
+                assertFalse(Thread.currentThread().isInterrupted());
+            }
+        }
+    }
+
+    @Test(timeout = 2000)
+    public void putIsInterruptible() {
+        fill(queue);
+        Thread.currentThread().interrupt();
+        try {
+            queue.put(5);
+            fail("expected InterruptedException");
+        } catch (InterruptedException e) {
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void noLossNorReorderingWithConcurrentProducers() throws InterruptedException {
+        for (WaitStrategy ws : WaitStrategy.values()) {
+            checkConcurrentProducers(new RingBufferBlockingQueue<Integer>(16, ws));
+        }
+    }
+
+    private void checkConcurrentProducers(final RingBufferBlockingQueue<Integer> q) throws InterruptedException {
+        final int producerCount = 4;
+        final int perProducer = 20000;
+        Thread[] producers = new Thread[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            final int base = p * perProducer;
+            producers[p] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < perProducer; i++) {
+                            q.put(base + i);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            producers[p].start();
+        }
+
+        int[] lastSeen = new int[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            lastSeen[p] = -1;
+        }
+        for (int n = 0; n < producerCount * perProducer; n++) {
+            int value = q.take();
+            int producer = value / perProducer;
+            int index = value % perProducer;
+            // events of a given producer must come out in the order they went in
+            assertEquals(lastSeen[producer] + 1, index);
+            lastSeen[producer] = index;
+        }
+        for (Thread t : producers) {
+            t.join();
+        }
+        assertTrue(q.isEmpty());
+    }
+
+    private RingBufferBlockingQueue<Integer> fill(RingBufferBlockingQueue<Integer> q) {
+        while (q.offer(q.size())) {
+        }
+        return q;
+    }
+}
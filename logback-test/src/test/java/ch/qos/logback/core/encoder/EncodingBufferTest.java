@@ -0,0 +1,115 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.encoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EncodingBufferTest {
+
+    EncodingBuffer buffer;
+
+    @Before
+    public void setUp() {
+        buffer = EncodingBuffer.acquire();
+    }
+
+    @After
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Test
+    public void encodesLikeStringGetBytes() throws IOException {
+        verifyEncoding("hello world", StandardCharsets.UTF_8);
+        verifyEncoding("grüße € 😀", StandardCharsets.UTF_8);
+        verifyEncoding("grüße €", StandardCharsets.US_ASCII);
+        verifyEncoding("grüße €", StandardCharsets.UTF_16);
+        verifyEncoding("malformed \ud83d end", StandardCharsets.UTF_8);
+        verifyEncoding("default charset", null);
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() throws IOException {
+        char[] chars = new char[EncodingBuffer.INITIAL_BYTE_CAPACITY * 3];
+        Arrays.fill(chars, 'é');
+        verifyEncoding(new String(chars), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void encodedBytesAccumulate() throws IOException {
+        buffer.write("head:".getBytes(StandardCharsets.UTF_8));
+        buffer.getStringBuilder().append("é");
+        buffer.encodeChars(StandardCharsets.UTF_8);
+        buffer.getStringBuilder().append("-tail");
+        buffer.encodeChars(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        buffer.writeTo(baos);
+        assertEquals("head:é-tail", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(0, buffer.getStringBuilder().length());
+    }
+
+    @Test
+    public void bufferIsReusedByItsThread() {
+        buffer.release();
+        EncodingBuffer again = EncodingBuffer.acquire();
+        assertSame(buffer, again);
+        buffer = again;
+    }
+
+    @Test
+    public void nestedAcquireYieldsDistinctBuffer() {
+        EncodingBuffer nested = EncodingBuffer.acquire();
+        try {
+            assertNotSame(buffer, nested);
+        } finally {
+            nested.release();
+        }
+    }
+
+    @Test
+    public void acquiredBufferIsCleared() {
+        buffer.getStringBuilder().append("pending");
+        buffer.write(new byte[] { 1, 2, 3 });
+        buffer.release();
+        buffer = EncodingBuffer.acquire();
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.getStringBuilder().length());
+    }
+
+    void verifyEncoding(String s, Charset charset) throws IOException {
+        buffer.clear();
+        buffer.getStringBuilder().append(s);
+        buffer.encodeChars(charset);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        buffer.writeTo(baos);
+        byte[] expected = charset == null ? s.getBytes() : s.getBytes(charset);
+        assertArrayEquals(expected, baos.toByteArray());
+        assertEquals(expected.length, buffer.size());
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.nio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.testUtil.CoreTestConstants;
+import ch.qos.logback.core.testUtil.RandomUtil;
+
+public class FileChannelOutputStreamTest {
+
+    static final int BUFFER_SIZE = 64;
+
+    int diff = RandomUtil.getPositiveInt();
+    File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "fcos-" + diff + ".log");
+    DirectBufferPool pool = new DirectBufferPool(BUFFER_SIZE);
+    FileChannelOutputStream fcos;
+
+    @Before
+    public void setUp() {
+        file.getParentFile().mkdirs();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (fcos != null) {
+            fcos.close();
+        }
+        file.delete();
+    }
+
+    @Test
+    public void appendedBytesAreWrittenOnCommit() throws IOException {
+        fcos = new FileChannelOutputStream(file, false, pool, Durability.FLUSH);
+        long ticket = fcos.append(bytes("hello"), 0, 5);
+        assertEquals("", contentOfFile());
+        fcos.commit(ticket);
+        assertEquals("hello", contentOfFile());
+    }
+
+    @Test
+    public void laterTicketCommitsEarlierAppends() throws IOException {
+        fcos = new FileChannelOutputStream(file, false, pool, Durability.FLUSH);
+        long first = fcos.append(bytes("a"), 0, 1);
+        long second = fcos.append(bytes("b"), 0, 1);
+        fcos.commit(second);
+        assertEquals("ab", contentOfFile());
+
+        // already committed along with the second ticket
+        fcos.commit(first);
+        assertEquals("ab", contentOfFile());
+    }
+
+    @Test
+    public void noneDurabilityOnlyWritesFullBuffers() throws IOException {
+        fcos = new FileChannelOutputStream(file, false, pool, Durability.NONE);
+        long ticket = fcos.append(bytes("abc"), 0, 3);
+        fcos.awaitCommit(ticket);
+        fcos.flush();
+        assertEquals("", contentOfFile());
+
+        // does not fit, so the buffer holding "abc" gets written
+        byte[] filler = new byte[BUFFER_SIZE - 2];
+        Arrays.fill(filler, (byte) '.');
+        fcos.append(filler, 0, filler.length);
+        assertEquals("abc", contentOfFile());
+
+        fcos.close();
+        fcos = null;
+        assertEquals(BUFFER_SIZE - 2 + 3, contentOfFile().length());
+    }
+
+    @Test
+    public void oversizedChunkKeepsOrdering() throws IOException {
+        fcos = new FileChannelOutputStream(file, false, pool, Durability.FLUSH);
+        fcos.append(bytes("head-"), 0, 5);
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 3 * BUFFER_SIZE; i++) {
+            big.append((char) ('a' + i % 26));
+        }
+        fcos.append(bytes(big.toString()), 0, big.length());
+        long ticket = fcos.append(bytes("-tail"), 0, 5);
+        fcos.commit(ticket);
+        assertEquals("head-" + big + "-tail", contentOfFile());
+    }
+
+    @Test
+    public void appendModeKeepsExistingContent() throws IOException {
+        Files.write(file.toPath(), bytes("existing-"));
+        fcos = new FileChannelOutputStream(file, true, pool, Durability.FLUSH);
+        fcos.write(bytes("new"));
+        fcos.flush();
+        assertEquals("existing-new", contentOfFile());
+    }
+
+    @Test
+    public void closeWritesRemainingBytesAndReleasesBuffers() throws IOException {
+        fcos = new FileChannelOutputStream(file, false, pool, Durability.FSYNC);
+        fcos.append(bytes("pending"), 0, 7);
+        assertEquals(0, pool.getPooledCount());
+        fcos.close();
+        fcos = null;
+        assertEquals("pending", contentOfFile());
+        assertEquals(2, pool.getPooledCount());
+    }
+
+    @Test
+    public void concurrentWritersAreAllCommitted() throws Exception {
+        fcos = new FileChannelOutputStream(file, false, pool, Durability.FLUSH);
+        final int threadCount = 4;
+        final int linesPerThread = 500;
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final String line = "thread-" + t + "\n";
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < linesPerThread; i++) {
+                            byte[] b = bytes(line);
+                            long ticket;
+                            synchronized (FileChannelOutputStreamTest.this) {
+                                ticket = fcos.append(b, 0, b.length);
+                            }
+                            fcos.commit(ticket);
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        String content = contentOfFile();
+        String[] lines = content.split("\n");
+        assertEquals(threadCount * linesPerThread, lines.length);
+        for (String line : lines) {
+            assertTrue(line, line.matches("thread-[0-9]"));
+        }
+    }
+
+    byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    String contentOfFile() throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+    }
+}
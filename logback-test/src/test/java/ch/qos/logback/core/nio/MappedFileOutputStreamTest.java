@@ -0,0 +1,153 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.nio;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.testUtil.CoreTestConstants;
+import ch.qos.logback.core.testUtil.RandomUtil;
+
+public class MappedFileOutputStreamTest {
+
+    static final int REGION_SIZE = 16;
+
+    int diff = RandomUtil.getPositiveInt();
+    File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "mfos-" + diff + ".log");
+    MappedFileOutputStream mfos;
+
+    @Before
+    public void setUp() {
+        file.getParentFile().mkdirs();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (mfos != null) {
+            mfos.close();
+        }
+        file.delete();
+    }
+
+    @Test
+    public void writtenBytesAreVisibleWithoutFlushing() throws IOException {
+        mfos = new MappedFileOutputStream(file, false, REGION_SIZE);
+        mfos.write(bytes("hello"));
+        assertEquals(5, mfos.getLength());
+        // the mapped region extends the file beyond its data
+        assertEquals(REGION_SIZE, file.length());
+        assertEquals("hello", contentOfFile().substring(0, 5));
+    }
+
+    @Test
+    public void closeTruncatesToLength() throws IOException {
+        mfos = new MappedFileOutputStream(file, false, REGION_SIZE);
+        mfos.write(bytes("hello"));
+        mfos.close();
+        assertEquals("hello", contentOfFile());
+    }
+
+    @Test
+    public void writesSpanningRegionsAreRemapped() throws IOException {
+        mfos = new MappedFileOutputStream(file, false, REGION_SIZE);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            String chunk = "chunk-" + i + "-" + (char) ('a' + i) + "\n";
+            mfos.write(bytes(chunk));
+            expected.append(chunk);
+        }
+        mfos.write(bytes(repeat('x', 5 * REGION_SIZE + 3)));
+        expected.append(repeat('x', 5 * REGION_SIZE + 3));
+        assertEquals(expected.length(), mfos.getLength());
+        mfos.close();
+        assertEquals(expected.toString(), contentOfFile());
+    }
+
+    @Test
+    public void appendModeKeepsExistingContent() throws IOException {
+        Files.write(file.toPath(), bytes("existing-"));
+        mfos = new MappedFileOutputStream(file, true, REGION_SIZE);
+        assertEquals(9, mfos.getLength());
+        mfos.write(bytes("new"));
+        mfos.close();
+        assertEquals("existing-new", contentOfFile());
+    }
+
+    // a file left by a stream which was never closed ends with zero bytes
+    @Test
+    public void appendModeSkipsUnwrittenPartOfRegion() throws IOException {
+        MappedFileOutputStream unclosed = new MappedFileOutputStream(file, false, REGION_SIZE);
+        unclosed.write(bytes("existing-"));
+        assertEquals(REGION_SIZE, file.length());
+
+        mfos = new MappedFileOutputStream(file, true, REGION_SIZE);
+        assertEquals(9, mfos.getLength());
+        mfos.write(bytes(repeat('x', REGION_SIZE)));
+        mfos.close();
+        assertEquals("existing-" + repeat('x', REGION_SIZE), contentOfFile());
+        unclosed.close();
+    }
+
+    @Test
+    public void appendModeScansBackOverTrailingZeros() throws IOException {
+        byte[] content = new byte[3 * 8192 + 5];
+        content[0] = 'a';
+        Files.write(file.toPath(), content);
+        mfos = new MappedFileOutputStream(file, true, REGION_SIZE);
+        assertEquals(1, mfos.getLength());
+        mfos.write(bytes("b"));
+        mfos.close();
+        assertEquals("ab", contentOfFile());
+    }
+
+    @Test
+    public void truncateModeDiscardsExistingContent() throws IOException {
+        Files.write(file.toPath(), bytes("existing-"));
+        mfos = new MappedFileOutputStream(file, false, REGION_SIZE);
+        mfos.write(bytes("new"));
+        mfos.close();
+        assertEquals("new", contentOfFile());
+    }
+
+    @Test(expected = IOException.class)
+    public void writeAfterCloseFails() throws IOException {
+        mfos = new MappedFileOutputStream(file, false, REGION_SIZE);
+        mfos.close();
+        mfos.write(bytes("late"));
+    }
+
+    String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    String contentOfFile() throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.pattern.parser.Node;
+import ch.qos.logback.core.pattern.parser.Parser;
+import ch.qos.logback.core.pattern.parser.SamplePatternLayout;
+
+public class CompiledPatternTest {
+
+    static final String[] FORMATS = { "", "5", "-5", ".3", ".-3", "2.4", "-2.4", "-12.20", "0" };
+    static final String[] VALUES = { "", "a", "abc", "abcdefghij", "abcdefghijklmnopqrstuvwxyz", null };
+
+    Map<String, String> converterMap = new HashMap<String, String>();
+    Context context = new ContextBase();
+
+    /**
+     * Converts the event, a String, to itself.
+     */
+    public static class EchoConverter extends DynamicConverter<String> {
+        public String convert(String event) {
+            return event;
+        }
+    }
+
+    /**
+     * Writes the event, never null, in place.
+     */
+    public static class InPlaceEchoConverter extends DynamicConverter<String> {
+        public String convert(String event) {
+            return event == null ? "?" : event;
+        }
+
+        @Override
+        protected void writeUnformatted(StringBuilder buf, String event) {
+            buf.append(convert(event));
+        }
+
+        @Override
+        protected boolean canWriteInPlace() {
+            return true;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        converterMap.put("echo", EchoConverter.class.getName());
+        converterMap.put("inPlace", InPlaceEchoConverter.class.getName());
+        converterMap.put("OTT", Converter123.class.getName());
+        converterMap.putAll(Parser.DEFAULT_COMPOSITE_CONVERTER_MAP);
+    }
+
+    Converter<String> compile(String pattern) throws Exception {
+        Parser<String> p = new Parser<String>(pattern);
+        p.setContext(context);
+        Node t = p.parse();
+        Converter<String> head = p.compile(t, converterMap);
+        ConverterUtil.setContextForConverters(context, head);
+        ConverterUtil.startConverters(head);
+        return head;
+    }
+
+    String writeChain(Converter<String> head, String event) {
+        StringBuilder buf = new StringBuilder();
+        for (Converter<String> c = head; c != null; c = c.getNext()) {
+            c.write(buf, event);
+        }
+        return buf.toString();
+    }
+
+    String writeCompiled(Converter<String> head, String event) {
+        StringBuilder buf = new StringBuilder("prefix:");
+        CompiledPattern.compile(head).write(buf, event);
+        return buf.substring("prefix:".length());
+    }
+
+    void assertSameOutput(String pattern) throws Exception {
+        Converter<String> head = compile(pattern);
+        for (String value : VALUES) {
+            assertEquals(pattern + " with [" + value + "]", writeChain(head, value), writeCompiled(head, value));
+        }
+    }
+
+    @Test
+    public void formattedConvertersMatchChain() throws Exception {
+        for (String format : FORMATS) {
+            assertSameOutput("[%" + format + "echo]");
+        }
+    }
+
+    @Test
+    public void formattedInPlaceConvertersMatchChain() throws Exception {
+        for (String format : FORMATS) {
+            assertSameOutput("[%" + format + "inPlace]");
+            assertSameOutput("%" + format + "inPlace|%" + format + "inPlace");
+        }
+    }
+
+    @Test
+    public void compositeConvertersMatchChain() throws Exception {
+        assertSameOutput("%-30(%echo %OTT) - %.-4(%inPlace)");
+        assertSameOutput("%replace(%echo){'[a-c]', 'X'}!");
+    }
+
+    @Test
+    public void adjacentLiteralsAreMerged() throws Exception {
+        Converter<String> head = new LiteralConverter<String>("a");
+        Converter<String> echo = new EchoConverter();
+        head.setNext(new LiteralConverter<String>("b"));
+        head.getNext().setNext(echo);
+        echo.setNext(new LiteralConverter<String>("c"));
+
+        CompiledPattern<String> compiledPattern = CompiledPattern.compile(head);
+        assertEquals(3, compiledPattern.size());
+        StringBuilder buf = new StringBuilder();
+        compiledPattern.write(buf, "x");
+        assertEquals("abxc", buf.toString());
+    }
+
+    @Test
+    public void compiledLayoutMatchesInterpretedLayout() {
+        for (String pattern : new String[] { "%hello %5.6OTT", "[%-8hello] %.1OTT%n" }) {
+            SamplePatternLayout<Object> compiledLayout = newSamplePatternLayout(pattern, true);
+            SamplePatternLayout<Object> interpretedLayout = newSamplePatternLayout(pattern, false);
+            assertEquals(interpretedLayout.doLayout(new Object()), compiledLayout.doLayout(new Object()));
+        }
+    }
+
+    SamplePatternLayout<Object> newSamplePatternLayout(String pattern, boolean compiled) {
+        SamplePatternLayout<Object> layout = new SamplePatternLayout<Object>();
+        layout.setContext(context);
+        layout.setPattern(pattern);
+        layout.setCompiled(compiled);
+        layout.start();
+        return layout;
+    }
+}
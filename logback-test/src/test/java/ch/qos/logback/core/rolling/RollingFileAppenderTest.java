@@ -18,6 +18,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,12 +30,16 @@ import org.junit.Test;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.appender.AbstractAppenderTest;
 import ch.qos.logback.core.encoder.DummyEncoder;
+import ch.qos.logback.core.encoder.EchoEncoder;
 import ch.qos.logback.core.status.Status;
 import ch.qos.logback.core.testUtil.CoreTestConstants;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.testUtil.StatusChecker;
+import ch.qos.logback.core.util.FileSize;
+import ch.qos.logback.core.util.FixedRateInvocationGate;
 import ch.qos.logback.core.util.StatusPrinter;
 
 public class RollingFileAppenderTest extends AbstractAppenderTest<Object> {
@@ -263,4 +272,141 @@ public class RollingFileAppenderTest extends AbstractAppenderTest<Object> {
         checker.assertContainsMatch(Status.ERROR, "'FileNamePattern' option has the same value");
     }
     
+    @Test
+    public void batchIsSplitAtTriggeringEvents() throws IOException {
+        String activeFile = randomOutputDir + "batch.log";
+        rfa.setContext(context);
+        rfa.setEncoder(new EchoEncoder<Object>());
+        rfa.setFile(activeFile);
+
+        FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+        fwRollingPolicy.setContext(context);
+        fwRollingPolicy.setFileNamePattern(randomOutputDir + "batch-%i.log");
+        fwRollingPolicy.setParent(rfa);
+        fwRollingPolicy.start();
+        TriggeringPolicyBase<Object> onX = new TriggeringPolicyBase<Object>() {
+            public boolean isTriggeringEvent(File activeFile, Object event) {
+                return "x".equals(event);
+            }
+        };
+        onX.start();
+        rfa.setRollingPolicy(fwRollingPolicy);
+        rfa.setTriggeringPolicy(onX);
+        rfa.start();
+
+        rfa.doAppendBatch(Arrays.<Object>asList("a", "b", "x", "c", "x", "d"));
+        rfa.stop();
+
+        assertEquals(lines("x", "d"), contentOf(activeFile));
+        assertEquals(lines("x", "c"), contentOf(randomOutputDir + "batch-1.log"));
+        assertEquals(lines("a", "b"), contentOf(randomOutputDir + "batch-2.log"));
+    }
+
+    // each event of a batch is checked against the length including the
+    // events of the batch preceding it
+    @Test
+    public void batchRollsOverAtMaxFileSize() throws IOException {
+        String activeFile = randomOutputDir + "batch-size.log";
+        rfa.setContext(context);
+        rfa.setEncoder(new EchoEncoder<Object>());
+        rfa.setFile(activeFile);
+
+        FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+        fwRollingPolicy.setContext(context);
+        fwRollingPolicy.setFileNamePattern(randomOutputDir + "batch-size-%i.log");
+        fwRollingPolicy.setParent(rfa);
+        fwRollingPolicy.start();
+        SizeBasedTriggeringPolicy<Object> sizeBased = new SizeBasedTriggeringPolicy<Object>();
+        sizeBased.setMaxFileSize(new FileSize(2 * lines("aaaa").length()));
+        sizeBased.start();
+        rfa.setRollingPolicy(fwRollingPolicy);
+        rfa.setTriggeringPolicy(sizeBased);
+        rfa.start();
+
+        rfa.doAppendBatch(Arrays.<Object>asList("aaaa", "bbbb", "cccc", "dddd", "eeee"));
+        rfa.stop();
+
+        assertEquals(lines("eeee"), contentOf(activeFile));
+        assertEquals(lines("cccc", "dddd"), contentOf(randomOutputDir + "batch-size-1.log"));
+        assertEquals(lines("aaaa", "bbbb"), contentOf(randomOutputDir + "batch-size-2.log"));
+    }
+
+    @Test
+    public void nioModeRollsOver() throws IOException {
+        String activeFile = randomOutputDir + "nio.log";
+        rfa.setContext(context);
+        rfa.setEncoder(new EchoEncoder<Object>());
+        rfa.setFile(activeFile);
+        rfa.setNio(true);
+
+        FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+        fwRollingPolicy.setContext(context);
+        fwRollingPolicy.setFileNamePattern(randomOutputDir + "nio-%i.log");
+        fwRollingPolicy.setParent(rfa);
+        fwRollingPolicy.start();
+        TriggeringPolicyBase<Object> onX = new TriggeringPolicyBase<Object>() {
+            public boolean isTriggeringEvent(File activeFile, Object event) {
+                return "x".equals(event);
+            }
+        };
+        onX.start();
+        rfa.setRollingPolicy(fwRollingPolicy);
+        rfa.setTriggeringPolicy(onX);
+        rfa.start();
+
+        for (String event : new String[] { "a", "b", "x", "c" }) {
+            rfa.doAppend(event);
+        }
+        rfa.stop();
+
+        assertEquals(lines("x", "c"), contentOf(activeFile));
+        assertEquals(lines("a", "b"), contentOf(randomOutputDir + "nio-1.log"));
+    }
+
+    @Test
+    public void mappedModeRollsOverOnDataLength() throws IOException {
+        String activeFile = randomOutputDir + "mapped.log";
+        rfa.setContext(context);
+        rfa.setEncoder(new EchoEncoder<Object>());
+        rfa.setFile(activeFile);
+        rfa.setMapped(true);
+        rfa.setRegionSize(new FileSize(1024));
+
+        FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+        fwRollingPolicy.setContext(context);
+        fwRollingPolicy.setFileNamePattern(randomOutputDir + "mapped-%i.log");
+        fwRollingPolicy.setParent(rfa);
+        fwRollingPolicy.start();
+        SizeBasedTriggeringPolicy<Object> sbTriggeringPolicy = new SizeBasedTriggeringPolicy<Object>();
+        sbTriggeringPolicy.setContext(context);
+        sbTriggeringPolicy.setMaxFileSize(new FileSize(6));
+        sbTriggeringPolicy.invocationGate = new FixedRateInvocationGate(1);
+        sbTriggeringPolicy.start();
+        rfa.setRollingPolicy(fwRollingPolicy);
+        rfa.setTriggeringPolicy(sbTriggeringPolicy);
+        rfa.start();
+
+        // the mapped region is 1024 bytes long, yet rollover happens once 6
+        // bytes of data have been written
+        for (String event : new String[] { "aa", "bb", "cc", "dd" }) {
+            rfa.doAppend(event);
+        }
+        rfa.stop();
+
+        assertEquals(lines("cc", "dd"), contentOf(activeFile));
+        assertEquals(lines("aa", "bb"), contentOf(randomOutputDir + "mapped-1.log"));
+        new StatusChecker(context).assertIsErrorFree();
+    }
+
+    private String lines(String... lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append(CoreConstants.LINE_SEPARATOR);
+        }
+        return sb.toString();
+    }
+
+    private String contentOf(String filename) throws IOException {
+        return new String(Files.readAllBytes(new File(filename).toPath()));
+    }
 }
@@ -13,15 +13,31 @@
  */
 package ch.qos.logback.core.rolling;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.encoder.EchoEncoder;
 import ch.qos.logback.core.rolling.testUtil.ScaffoldingForRollingTests;
 import ch.qos.logback.core.testUtil.CoreTestConstants;
+import ch.qos.logback.core.testUtil.StatusChecker;
+import ch.qos.logback.core.util.Duration;
 import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.StatusPrinter;
 
@@ -107,6 +123,172 @@ public class SizeBasedRollingTest extends ScaffoldingForRollingTests {
         generic("gzed", "a-sbr-gzed.log", "sbr-gzed.%i.gz", expectedFilenameList);
     }
 
+    // the appender counts the bytes it writes, so that the size is checked for every event
+    @Test
+    public void rollsOverAtMaxFileSize() throws IOException, InterruptedException {
+        expectedFilenameList.add(randomOutputDir + "a-sizeBased-exact.log");
+        generic("exact", "a-sizeBased-exact.log", "sizeBased-exact.%i", expectedFilenameList);
+
+        File[] archives = new File(randomOutputDir).listFiles((dir, name) -> name.startsWith("sizeBased-exact."));
+        assertTrue(archives.length >= 2);
+        int longestEvent = ("hello39" + CoreConstants.LINE_SEPARATOR).length();
+        for (File archive : archives) {
+            assertTrue(archive + " has length " + archive.length(), archive.length() >= 100 && archive.length() < 100 + longestEvent);
+        }
+    }
+
+    // the hereto active files are closed and archived while logging goes on,
+    // without any events being lost or reordered
+    void background(String fileName, String filenamePattern) throws IOException {
+        rfa.setName("ROLLING");
+        rfa.setBackgroundRollover(true);
+        initRFA(randomOutputDir + fileName);
+
+        sizeBasedTriggeringPolicy.setMaxFileSize(new FileSize(100));
+        fwrp.setMinIndex(0);
+        fwrp.setMaxIndex(9);
+        fwrp.setFileNamePattern(randomOutputDir + filenamePattern);
+
+        rfa.triggeringPolicy = sizeBasedTriggeringPolicy;
+        rfa.rollingPolicy = fwrp;
+
+        fwrp.start();
+        sizeBasedTriggeringPolicy.start();
+        rfa.start();
+
+        int runLength = 100;
+        String prefix = "hello";
+        for (int i = 0; i < runLength; i++) {
+            rfa.doAppend(prefix + i);
+        }
+        rfa.stop();
+
+        StatusPrinter.print(context);
+        reverseSortedContentCheck(randomOutputDir, runLength, prefix);
+    }
+
+    @Test
+    public void backgroundRollover() throws IOException {
+        background("a-sizeBased-background.log", "sizeBased-background.%i");
+    }
+
+    @Test
+    public void backgroundRolloverGz() throws IOException {
+        background("a-sbr-background-gzed.log", "sbr-background-gzed.%i.gz");
+    }
+
+    // the active file is written compressed and can be read while open, so
+    // that roll-over only renames it
+    @Test
+    public void compressActiveFile() throws IOException {
+        rfa.setName("ROLLING");
+        rfa.setCompressActiveFile(true);
+        rfa.setCompressionSyncPeriod(Duration.buildByMilliseconds(0));
+        initRFA(randomOutputDir + "a-sbr-online.log.gz");
+
+        sizeBasedTriggeringPolicy.setMaxFileSize(new FileSize(300));
+        fwrp.setMinIndex(0);
+        fwrp.setMaxIndex(9);
+        fwrp.setFileNamePattern(randomOutputDir + "sbr-online.%i.gz");
+
+        rfa.triggeringPolicy = sizeBasedTriggeringPolicy;
+        rfa.rollingPolicy = fwrp;
+
+        fwrp.start();
+        sizeBasedTriggeringPolicy.start();
+        rfa.start();
+
+        int runLength = 100;
+        String prefix = "hello";
+        for (int i = 0; i < runLength; i++) {
+            rfa.doAppend(prefix + i);
+        }
+        assertTrue(readSynced(new File(randomOutputDir + "a-sbr-online.log.gz")).endsWith(prefix + (runLength - 1) + CoreConstants.LINE_SEPARATOR));
+        rfa.stop();
+
+        StatusPrinter.print(context);
+        assertTrue(new File(randomOutputDir + "sbr-online.0.gz").exists());
+        assertFalse(new StatusChecker(context).containsMatch("GZ compressing"));
+        reverseSortedContentCheck(randomOutputDir, runLength, prefix);
+    }
+
+    // a plain active file left by an earlier configuration is compressed
+    // before compressed output is appended to it
+    @Test
+    public void compressActiveFileUpgradesPlainActiveFile() throws IOException {
+        File activeFile = new File(randomOutputDir + "a-sbr-upgrade.log.gz");
+        activeFile.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(activeFile)) {
+            out.write(("before" + CoreConstants.LINE_SEPARATOR).getBytes());
+        }
+
+        rfa.setCompressActiveFile(true);
+        rfa.setCompressionSyncPeriod(Duration.buildByMilliseconds(0));
+        initRFA(activeFile.getPath());
+        sizeBasedTriggeringPolicy.setMaxFileSize(new FileSize(100000));
+        fwrp.setFileNamePattern(randomOutputDir + "sbr-upgrade.%i.gz");
+        rfa.triggeringPolicy = sizeBasedTriggeringPolicy;
+        rfa.rollingPolicy = fwrp;
+        fwrp.start();
+        sizeBasedTriggeringPolicy.start();
+        rfa.start();
+        assertTrue(rfa.isStarted());
+
+        rfa.doAppend("after");
+        rfa.stop();
+
+        assertEquals("before" + CoreConstants.LINE_SEPARATOR + "after" + CoreConstants.LINE_SEPARATOR, readSynced(activeFile));
+        assertFalse(new File(activeFile.getPath() + ".gz").exists());
+    }
+
+    // plain text cannot be appended to an active file left compressed
+    @Test
+    public void compressedActiveFileWithoutCompressActiveFile() throws IOException {
+        File activeFile = new File(randomOutputDir + "a-sbr-downgrade.log");
+        activeFile.getParentFile().mkdirs();
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(activeFile))) {
+            out.write(("before" + CoreConstants.LINE_SEPARATOR).getBytes());
+        }
+
+        initRFA(activeFile.getPath());
+        sizeBasedTriggeringPolicy.setMaxFileSize(new FileSize(100000));
+        fwrp.setFileNamePattern(randomOutputDir + "sbr-downgrade.%i.gz");
+        rfa.triggeringPolicy = sizeBasedTriggeringPolicy;
+        rfa.rollingPolicy = fwrp;
+        fwrp.start();
+        sizeBasedTriggeringPolicy.start();
+        rfa.start();
+
+        assertFalse(rfa.isStarted());
+        assertTrue(new StatusChecker(context).containsMatch(".*Plain text cannot be appended"));
+        assertEquals("before" + CoreConstants.LINE_SEPARATOR, readSynced(activeFile));
+    }
+
+    @Test
+    public void invalidCompressionLevelIsIgnored() {
+        fwrp.setCompressionLevel(9);
+        fwrp.setCompressionLevel(10);
+        assertEquals(9, fwrp.getCompressionLevel());
+        fwrp.setCompressionLevel(-2);
+        assertEquals(9, fwrp.getCompressionLevel());
+        assertTrue(new StatusChecker(context).containsMatch(".*Invalid compression level \\[10\\]"));
+    }
+
+    // reads a gzip file up to its last sync point
+    private String readSynced(File file) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            byte[] buf = new byte[1024];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                content.write(buf, 0, len);
+            }
+        } catch (EOFException e) {
+            // the gzip member is not complete yet
+        }
+        return content.toString();
+    }
+
     // see also LBCORE-199
     @Test
     public void zipped() throws IOException, InterruptedException {
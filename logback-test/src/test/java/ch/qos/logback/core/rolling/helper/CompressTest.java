@@ -13,14 +13,22 @@
  */
 package ch.qos.logback.core.rolling.helper;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -106,6 +114,147 @@ public class CompressTest {
         // + "witness/compress3.txt.zip"));
     }
 
+    @Test
+    public void parallelGz() throws Exception {
+        File source = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "compress4.txt");
+        File target = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "compress4.txt.gz");
+        target.delete();
+        ByteArrayOutputStream witness = new ByteArrayOutputStream();
+        for (int i = 0; i < 10000; i++) {
+            witness.write(("line " + i + " of a log file compressed in parallel blocks\n").getBytes());
+        }
+        OutputStream out = new FileOutputStream(source);
+        witness.writeTo(out);
+        out.close();
+
+        Compressor compressor = new Compressor(CompressionMode.GZ);
+        compressor.setContext(context);
+        compressor.setThreadBudget(3);
+        compressor.setBlockSize(4096);
+        compressor.compress(source.getPath(), target.getPath(), null);
+
+        StatusChecker checker = new StatusChecker(context);
+        assertTrue(checker.isErrorFree(0));
+        assertTrue(checker.containsMatch("Compressed \\d+% of"));
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        InputStream in = new GZIPInputStream(new FileInputStream(target));
+        byte[] buf = new byte[1024];
+        int len;
+        while ((len = in.read(buf)) > 0) {
+            result.write(buf, 0, len);
+        }
+        in.close();
+        assertEquals(witness.toString(), result.toString());
+    }
+
+    @Test
+    public void lz4() throws Exception {
+        File source = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "compress5.txt");
+        File target = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "compress5.txt.lz4");
+        target.delete();
+        ByteArrayOutputStream witness = new ByteArrayOutputStream();
+        for (int i = 0; i < 10000; i++) {
+            witness.write(("2015-03-02 10:12:45,012 [main] INFO  c.q.l.Foo - line " + i + " of a log file compressed as LZ4 frames\n").getBytes());
+        }
+        OutputStream out = new FileOutputStream(source);
+        witness.writeTo(out);
+        out.close();
+
+        CompressionCodec codec = Compressor.findCodec(target.getName());
+        assertTrue(codec instanceof Lz4FrameCodec);
+        assertEquals("foo-%i.log", Compressor.computeFileNameStrWithoutCompSuffix("foo-%i.log.lz4", CompressionMode.CODEC));
+
+        Compressor compressor = new Compressor(codec);
+        compressor.setContext(context);
+        compressor.compress(source.getPath(), CoreTestConstants.OUTPUT_DIR_PREFIX + "compress5.txt", null);
+
+        StatusChecker checker = new StatusChecker(context);
+        assertTrue(checker.isErrorFree(0));
+        assertTrue(target.length() < witness.size() / 4);
+        assertEquals(witness.toString(), new String(lz4Decompress(Files.readAllBytes(target.toPath()))));
+    }
+
+    @Test
+    public void failedCompressionKeepsSource() throws Exception {
+        File source = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "compress6.txt");
+        File target = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "compress6.txt.fail");
+        target.delete();
+        Files.write(source.toPath(), "hello".getBytes());
+
+        CompressionCodec failingCodec = new CompressionCodec() {
+            public String getSuffix() {
+                return ".fail";
+            }
+
+            public byte[] getMagicNumber() {
+                return new byte[] { 0 };
+            }
+
+            public OutputStream compress(OutputStream out, int level) {
+                return new FilterOutputStream(out) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        throw new IOException("No space left on device");
+                    }
+                };
+            }
+        };
+        Compressor compressor = new Compressor(failingCodec);
+        compressor.setContext(context);
+        assertFalse(compressor.compress(source.getPath(), target.getPath(), null));
+
+        assertFalse(new StatusChecker(context).isErrorFree(0));
+        assertEquals("hello", new String(Files.readAllBytes(source.toPath())));
+        assertFalse(target.exists());
+    }
+
+    // decodes frames as written by Lz4FrameCodec: independent blocks, no checksums
+    private byte[] lz4Decompress(byte[] frame) {
+        ByteBuffer in = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x184D2204, in.getInt());
+        in.position(in.position() + 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int blockSize;
+        while ((blockSize = in.getInt()) != 0) {
+            if (blockSize < 0) {
+                out.write(frame, in.position(), blockSize & 0x7FFFFFFF);
+                in.position(in.position() + (blockSize & 0x7FFFFFFF));
+                continue;
+            }
+            byte[] block = new byte[64 * 1024];
+            int op = 0;
+            int end = in.position() + blockSize;
+            while (true) {
+                int token = in.get() & 0xFF;
+                int literals = readLength(in, token >>> 4);
+                in.get(block, op, literals);
+                op += literals;
+                if (in.position() == end) {
+                    break;
+                }
+                int offset = in.getShort() & 0xFFFF;
+                int matchLength = readLength(in, token & 15) + 4;
+                for (int i = 0; i < matchLength; i++, op++) {
+                    block[op] = block[op - offset];
+                }
+            }
+            out.write(block, 0, op);
+        }
+        return out.toByteArray();
+    }
+
+    private int readLength(ByteBuffer in, int length) {
+        if (length == 15) {
+            int b;
+            do {
+                b = in.get() & 0xFF;
+                length += b;
+            } while (b == 255);
+        }
+        return length;
+    }
+
     private void copy(File src, File dst) throws IOException {
         InputStream in = new FileInputStream(src);
         OutputStream out = new FileOutputStream(dst);
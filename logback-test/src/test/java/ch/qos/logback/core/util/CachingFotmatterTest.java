@@ -1,15 +1,24 @@
 package ch.qos.logback.core.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import ch.qos.logback.core.CoreConstants;
+
 public class CachingFotmatterTest {
 
     final static String DATE_PATTERN = "yyyy-MM-dd'T'HH:mm";
@@ -37,4 +46,119 @@ public class CachingFotmatterTest {
         // AWST (Perth) is 8 hours ahead of UTC
         assertEquals("2015-03-26T17:49", result);
     }
+
+    static final String[] PATTERNS = { CoreConstants.ISO8601_PATTERN, "HH:mm:ss.SSS", "SSS", "ss.SSS'Z' yyyy", "yyyy-MM-dd'T'HH:mm", "HH:mm:ss",
+            "yyyyMMdd", "HH:mm:ss.SS", "HH:mm:ss.SSSSSS", "[HH:mm:ss.SSS]", "'SSS' HH:mm", "yyyy-MM-dd HH:mm:ss.SSS Z", "s.S", "{yy} #MMM MMMM ''",
+            "u EEE EEEE G", "h:mm a K k", "D F d", "X XX XXX", "'it''s' HH 'o''clock'", "w W Y YY", "z zzzz" };
+
+    static final String[] ZONES = { "UTC", "Australia/Perth", "Asia/Kathmandu", "Europe/Amsterdam", "America/St_Johns" };
+
+    List<Long> timestamps() {
+        List<Long> timestamps = new ArrayList<Long>();
+        long base = 1427363340000L; // 2015-03-26T09:49:00Z
+        long[] offsets = { 0, 1, 999, 1000, 1001, 59999, 60000, 61234, 3600000 + 7, -1, -999, -1000 };
+        for (long offset : offsets) {
+            timestamps.add(base + offset);
+        }
+        // a late timestamp after later ones
+        timestamps.add(base);
+        // before 1937, Amsterdam was 19 minutes and 32 seconds ahead of UTC
+        timestamps.add(-2000000000000L);
+        timestamps.add(-2000000000000L + 45000);
+        timestamps.add(-2000000000000L + 75000);
+        // before the epoch
+        timestamps.add(-1L);
+        timestamps.add(-1001L);
+        return timestamps;
+    }
+
+    @Test
+    public void outputMatchesSimpleDateFormat() {
+        for (String zone : ZONES) {
+            ZoneId zoneId = ZoneId.of(zone);
+            for (String pattern : PATTERNS) {
+                SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern);
+                simpleDateFormat.setTimeZone(TimeZone.getTimeZone(zoneId));
+                CachingDateFormatter cdf = new CachingDateFormatter(pattern, zoneId);
+                for (long timestamp : timestamps()) {
+                    String expected = simpleDateFormat.format(new Date(timestamp));
+                    String message = pattern + " in " + zone + " at " + timestamp;
+                    assertEquals(message, expected, cdf.format(timestamp));
+
+                    StringBuilder buf = new StringBuilder("prefix ");
+                    cdf.format(timestamp, buf);
+                    assertEquals(message, "prefix " + expected, buf.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lettersUnknownToSimpleDateFormatAreRejected() {
+        for (String pattern : new String[] { "HH:mm:ss.nnn", "VV", "yyyy-MM-dd'T'HH:mm:ss.SSSxxx", "HH 'unterminated" }) {
+            try {
+                new CachingDateFormatter(pattern, ZoneId.of("UTC"));
+                fail("pattern [" + pattern + "] should have been rejected");
+            } catch (IllegalArgumentException e) {
+                try {
+                    new SimpleDateFormat(pattern);
+                    fail("SimpleDateFormat accepts [" + pattern + "]");
+                } catch (IllegalArgumentException expected) {
+                }
+            }
+        }
+    }
+
+    @Test
+    public void illegalLetterIsNamed() {
+        try {
+            new CachingDateFormatter("HH:mm:ss.nnn", ZoneId.of("UTC"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Illegal pattern character 'n'", e.getMessage());
+        }
+    }
+
+    @Test
+    public void setTimeZoneInvalidatesCache() {
+        CachingDateFormatter cdf = new CachingDateFormatter("HH:mm:ss.SSS", ZoneId.of("UTC"));
+        long timestamp = 1427363340123L;
+        assertEquals("09:49:00.123", cdf.format(timestamp));
+        cdf.setTimeZone(perthTZ);
+        assertEquals("17:49:00.123", cdf.format(timestamp));
+        StringBuilder buf = new StringBuilder();
+        cdf.format(timestamp, buf);
+        assertEquals("17:49:00.123", buf.toString());
+    }
+
+    @Test
+    public void concurrentFormattingIsConsistent() throws InterruptedException {
+        final CachingDateFormatter cdf = new CachingDateFormatter(CoreConstants.ISO8601_PATTERN, ZoneId.of("UTC"));
+        final DateTimeFormatter dtf = DateTimeFormatter.ofPattern(CoreConstants.ISO8601_PATTERN).withZone(ZoneId.of("UTC"));
+        final List<String> failures = new ArrayList<String>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long start = 1427363340000L + t * 777;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    StringBuilder buf = new StringBuilder();
+                    for (long timestamp = start; timestamp < start + 20000; timestamp += 3) {
+                        buf.setLength(0);
+                        cdf.format(timestamp, buf);
+                        String expected = dtf.format(Instant.ofEpochMilli(timestamp));
+                        if (!expected.equals(buf.toString())) {
+                            synchronized (failures) {
+                                failures.add(expected + " != " + buf);
+                            }
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
 }
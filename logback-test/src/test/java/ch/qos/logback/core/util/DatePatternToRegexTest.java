@@ -13,6 +13,7 @@
  */
 package ch.qos.logback.core.util;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.text.SimpleDateFormat;
@@ -104,6 +105,15 @@ public class DatePatternToRegexTest {
 
     }
 
+    @Test
+    public void simpleDateFormatSemantics() {
+        doTest("yyyy-MM-dd_u", CAL_2009_08_3_NIGHT);
+        doTest("HH-mm-ss.S", CAL_2009_08_3_NIGHT);
+        doTest("[yyyy]{MM}#dd", CAL_2009_08_3_NIGHT);
+        doTest("y-M-d H", CAL_2009_08_3_NIGHT);
+        doTest("yyyy-MM-dd XXX", CAL_2009_08_3_NIGHT);
+    }
+
     void doTest(String datePattern, Calendar calendar) {
         doTest(datePattern, calendar, null);
     }
@@ -136,6 +146,7 @@ public class DatePatternToRegexTest {
         // if (slashified) {
         // expected = expected.replace('\\', '/');
         // }
+        assertEquals(expected, dtc.convert(calendar.getTime()));
         String regex = dtc.toRegex();
         // System.out.println("expected="+expected);
         // System.out.println(regex);